@@ -167,6 +167,7 @@ public class ActionManager {
     }
 
     db.updateHostRoleStates(reportsToProcess);
+    scheduler.onCommandReports(reportsToProcess, System.currentTimeMillis());
   }
 
   /**
@@ -185,10 +186,10 @@ public class ActionManager {
   }
 
   public void handleLostHost(String host) {
-    //Do nothing, the task will timeout anyway.
-    //The actions can be failed faster as an optimization
-    //if action timeout happens to be much larger than
-    //heartbeat timeout.
+    //The tasks of the lost host are aborted by the next scheduler pass,
+    //which doesn't have to wait for the task timeout or the next
+    //periodic check.
+    scheduler.awake();
   }
 
   public long getNextRequestId() {
@@ -248,7 +249,6 @@ public class ActionManager {
 
   public void cancelRequest(long requestId, String reason) {
     scheduler.scheduleCancellingRequest(requestId, reason);
-    scheduler.awake();
   }
 
   //todo: proper static injection
@@ -31,6 +31,7 @@ import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.persistence.EntityManager;
 
@@ -55,6 +56,9 @@ import org.apache.ambari.server.events.publishers.JPAEventPublisher;
 import org.apache.ambari.server.metadata.RoleCommandOrder;
 import org.apache.ambari.server.metadata.RoleCommandOrderProvider;
 import org.apache.ambari.server.metadata.RoleCommandPair;
+import org.apache.ambari.server.metrics.system.MetricsSource;
+import org.apache.ambari.server.metrics.system.impl.ActionSchedulerMetricsSource;
+import org.apache.ambari.server.metrics.system.impl.MetricsServiceImpl;
 import org.apache.ambari.server.orm.dao.HostRoleCommandDAO;
 import org.apache.ambari.server.orm.entities.HostRoleCommandEntity;
 import org.apache.ambari.server.orm.entities.RequestEntity;
@@ -72,6 +76,7 @@ import org.apache.ambari.server.state.svccomphost.ServiceComponentHostOpFailedEv
 import org.apache.ambari.server.utils.StageUtils;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang3.EnumUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -183,6 +188,32 @@ class ActionScheduler implements Runnable {
    */
   private boolean activeAwakeRequest = false;
 
+  /**
+   * true if scheduler is woken up by completed command reports, so periodic
+   * checks are needed only as a safety net.
+   */
+  private volatile boolean eventDriven = false;
+
+  /**
+   * Minimal time between two scheduler passes in event driven mode.
+   */
+  private long eventDrivenMinInterval = 0;
+
+  private long lastPassStartTime = 0;
+
+  /**
+   * Time when the earliest completed command report which was not followed by
+   * commands dispatching was received, 0 if there is no such report.
+   */
+  private final AtomicLong pendingReportTime = new AtomicLong();
+
+  /**
+   * Earliest time when a queued or in progress command found by the last
+   * scheduler pass times out, so the scheduler wakes up for it even if
+   * periodic checks are rare.
+   */
+  private long nextTimeoutDeadline = Long.MAX_VALUE;
+
   private AtomicBoolean taskStatusLoaded = new AtomicBoolean();
 
   //Cache for clusterHostinfo, key - stageId-requestId
@@ -303,6 +334,10 @@ class ActionScheduler implements Runnable {
   }
 
   public void start() {
+    if (configuration != null) {
+      eventDriven = configuration.isExecutionSchedulerEventDriven();
+      eventDrivenMinInterval = configuration.getExecutionSchedulerEventDrivenMinInterval();
+    }
     schedulerThread = new Thread(this, "ambari-action-scheduler");
     schedulerThread.start();
 
@@ -332,17 +367,56 @@ class ActionScheduler implements Runnable {
     }
   }
 
+  /**
+   * Should be called after command reports from agents were persisted. If any
+   * of the commands is completed, next commands of the stage or the next stage
+   * may become schedulable, so the report is tracked for scheduling latency
+   * and, in event driven mode, the scheduler is woken up.
+   *
+   * @param reports persisted command reports
+   * @param receivedTime time when the reports were received
+   */
+  public void onCommandReports(Collection<CommandReport> reports, long receivedTime) {
+    for (CommandReport report : reports) {
+      HostRoleStatus status = EnumUtils.getEnum(HostRoleStatus.class, report.getStatus());
+      if (status != null && status.isCompletedState()) {
+        pendingReportTime.compareAndSet(0, receivedTime);
+        if (eventDriven) {
+          awake();
+        }
+        return;
+      }
+    }
+  }
+
   @Override
   public void run() {
     while (shouldRun) {
       try {
+        boolean awakened;
         synchronized (wakeupSyncObject) {
           if (!activeAwakeRequest) {
-            wakeupSyncObject.wait(sleepTime);
+            wakeupSyncObject.wait(getWaitTime());
           }
+          awakened = activeAwakeRequest;
           activeAwakeRequest = false;
         }
 
+        if (awakened && eventDriven) {
+          // coalesce bursts of reports into a single pass
+          long delay = lastPassStartTime + eventDrivenMinInterval - System.currentTimeMillis();
+          if (delay > 0) {
+            Thread.sleep(delay);
+          }
+        }
+        lastPassStartTime = System.currentTimeMillis();
+        nextTimeoutDeadline = Long.MAX_VALUE;
+
+        ActionSchedulerMetricsSource metricsSource = getMetricsSource();
+        if (metricsSource != null) {
+          metricsSource.onSchedulerPass(awakened);
+        }
+
         doWork();
 
       } catch (InterruptedException ex) {
@@ -358,6 +432,15 @@ class ActionScheduler implements Runnable {
     }
   }
 
+  /**
+   * @return time to wait for the next scheduler pass, which is shortened if a
+   * command times out earlier
+   */
+  private long getWaitTime() {
+    long timeoutDelay = nextTimeoutDeadline - System.currentTimeMillis();
+    return Math.max(1L, Math.min(sleepTime, timeoutDelay));
+  }
+
   public void doWork() throws AmbariException {
     try {
       unitOfWork.begin();
@@ -546,6 +629,9 @@ class ActionScheduler implements Runnable {
         if (!commandsToEnqueue.isEmpty()) {
           agentCommandsPublisher.sendAgentCommand(commandsToEnqueue);
         }
+        if (!commandsToUpdate.isEmpty()) {
+          onCommandsDispatched();
+        }
         LOG.debug("==> Finished.");
 
         if (!configuration.getParallelStageExecution()) { // If disabled
@@ -567,6 +653,30 @@ class ActionScheduler implements Runnable {
     }
   }
 
+  /**
+   * Registers latency between the earliest pending completed command report and
+   * dispatching of the next commands.
+   */
+  private void onCommandsDispatched() {
+    long reportTime = pendingReportTime.getAndSet(0);
+    if (reportTime > 0) {
+      long latency = System.currentTimeMillis() - reportTime;
+      LOG.debug("Commands were dispatched {} ms after command report was received", latency);
+      ActionSchedulerMetricsSource metricsSource = getMetricsSource();
+      if (metricsSource != null) {
+        metricsSource.onSchedulingLatency(latency);
+      }
+    }
+  }
+
+  /**
+   * @return action scheduler metrics source or {@code null} if it is not configured
+   */
+  private ActionSchedulerMetricsSource getMetricsSource() {
+    MetricsSource metricsSource = MetricsServiceImpl.getSource("scheduler");
+    return metricsSource instanceof ActionSchedulerMetricsSource ? (ActionSchedulerMetricsSource) metricsSource : null;
+  }
+
   /**
    * publish event to load {@link TaskStatusListener#activeTasksMap} {@link TaskStatusListener#activeStageMap}
    * and {@link TaskStatusListener#activeRequestMap} for all running request once during server startup.
@@ -882,6 +992,12 @@ class ActionScheduler implements Runnable {
             commandsToSchedule.add(c);
             LOG.trace("===>commandsToSchedule(first_time)={}", commandsToSchedule.size());
           }
+        } else if (status.equals(HostRoleStatus.QUEUED) || status.equals(HostRoleStatus.IN_PROGRESS)) {
+          long timeoutDeadline = s.getLastAttemptTime(hostObj == null ? null : hostObj.getHostName(), roleStr)
+              + commandTimeout;
+          if (timeoutDeadline > now) {
+            nextTimeoutDeadline = Math.min(nextTimeoutDeadline, timeoutDeadline);
+          }
         }
 
         updateRoleStats(status, roleStats.get(roleStr));
@@ -1188,8 +1304,9 @@ class ActionScheduler implements Runnable {
   }
 
   /**
-   * @param requestId request will be cancelled on next scheduler wake up
-   * (if it is in state that allows cancellation, e.g. QUEUED, PENDING, IN_PROGRESS)
+   * @param requestId request will be cancelled on next scheduler wake up, which
+   * is requested right away (if it is in state that allows cancellation, e.g.
+   * QUEUED, PENDING, IN_PROGRESS)
    * @param reason why request is being cancelled
    */
   public void scheduleCancellingRequest(long requestId, String reason) {
@@ -1197,6 +1314,7 @@ class ActionScheduler implements Runnable {
       requestsToBeCancelled.add(requestId);
       requestCancelReasons.put(requestId, reason);
     }
+    awake();
   }
 
 
@@ -26,6 +26,7 @@ import org.apache.ambari.server.events.publishers.AmbariEventPublisher;
 import org.apache.ambari.server.security.encryption.Encryptor;
 import org.apache.ambari.server.state.Clusters;
 import org.apache.ambari.server.state.ConfigHelper;
+import org.apache.ambari.server.state.ConfigSnapshots;
 import org.apache.ambari.server.state.Host;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
@@ -68,6 +69,14 @@ public class AgentConfigsHolder extends AgentHostDataHolder<AgentConfigsUpdateEv
     return update;
   }
 
+  /**
+   * Regenerates and publishes configs for specified hosts of the cluster (all cluster hosts if none are specified).
+   * Config type snapshots are shared between the hosts, so hosts with the same effective tags reference the same
+   * configs instead of holding their own copies.
+   * @param clusterId cluster with changed configs
+   * @param hostIds hosts to update
+   * @throws AmbariException
+   */
   public void updateData(Long clusterId, List<Long> hostIds) throws AmbariException {
     if (CollectionUtils.isEmpty(hostIds)) {
       // TODO cluster configs will be created before hosts assigning
@@ -78,8 +87,9 @@ public class AgentConfigsHolder extends AgentHostDataHolder<AgentConfigsUpdateEv
       }
     }
 
+    ConfigSnapshots snapshots = new ConfigSnapshots();
     for (Long hostId : hostIds) {
-      AgentConfigsUpdateEvent agentConfigsUpdateEvent = configHelper.getHostActualConfigs(hostId);
+      AgentConfigsUpdateEvent agentConfigsUpdateEvent = configHelper.getHostActualConfigs(hostId, snapshots);
       updateData(agentConfigsUpdateEvent);
     }
   }
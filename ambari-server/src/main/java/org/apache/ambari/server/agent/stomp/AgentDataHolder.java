@@ -18,7 +18,9 @@
 
 package org.apache.ambari.server.agent.stomp;
 
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.concurrent.locks.ReentrantLock;
@@ -27,10 +29,12 @@ import org.apache.ambari.server.agent.stomp.dto.HashAndTimestampIgnoreMixIn;
 import org.apache.ambari.server.agent.stomp.dto.HashIgnoreMixIn;
 import org.apache.ambari.server.agent.stomp.dto.Hashable;
 import org.apache.ambari.server.events.AgentConfigsUpdateEvent;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.lang.StringUtils;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * Is used to hash generating for event
@@ -44,6 +48,23 @@ public abstract class AgentDataHolder<T extends Hashable> {
     MAPPER.addMixIn(AgentConfigsUpdateEvent.class, HashAndTimestampIgnoreMixIn.class);
   }
 
+  /**
+   * Leaves the digesting stream open, it is only read through its digest.
+   */
+  private final static ObjectWriter WRITER = MAPPER.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+  /**
+   * SHA-512 digests are not thread-safe but are expensive to look up through the JCA providers,
+   * so each thread keeps its own instance and resets it before use.
+   */
+  private final static ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-512");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-512 digest is not available", e);
+    }
+  });
+
   protected abstract T getEmptyData();
 
   protected void regenerateDataIdentifiers(T data) {
@@ -58,26 +79,40 @@ public abstract class AgentDataHolder<T extends Hashable> {
     return getHash(data, "");
   }
 
+  /**
+   * Calculates SHA-512 over salt followed by UTF-8 JSON representation of data. JSON is streamed
+   * directly into the digest, so no intermediate String or byte array of the whole message is built.
+   */
   protected String getHash(T data, String salt) {
-    String json = null;
+    MessageDigest md = DIGEST.get();
+    md.reset();
+    md.update(salt.getBytes(StandardCharsets.UTF_8));
     try {
-      json = MAPPER.writeValueAsString(data);
-    } catch (JsonProcessingException e) {
+      WRITER.writeValue(new DigestingOutputStream(md), data);
+    } catch (IOException e) {
       throw new RuntimeException("Error during mapping message to calculate hash", e);
     }
-    String generatedPassword = null;
-    try {
-      MessageDigest md = MessageDigest.getInstance("SHA-512");
-      md.update(salt.getBytes("UTF-8"));
-      byte[] bytes = md.digest(json.getBytes("UTF-8"));
-      StringBuilder sb = new StringBuilder();
-      for (byte b : bytes) {
-        sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
-      }
-      generatedPassword = sb.toString();
-    } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
-      e.printStackTrace();
+    return Hex.encodeHexString(md.digest());
+  }
+
+  /**
+   * Output stream which only feeds written bytes into the digest.
+   */
+  private static final class DigestingOutputStream extends OutputStream {
+    private final MessageDigest md;
+
+    private DigestingOutputStream(MessageDigest md) {
+      this.md = md;
+    }
+
+    @Override
+    public void write(int b) {
+      md.update((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      md.update(b, off, len);
     }
-    return generatedPassword;
   }
 }
@@ -17,8 +17,12 @@
  */
 package org.apache.ambari.server.agent.stomp;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -44,6 +48,7 @@ import org.apache.ambari.server.state.Service;
 import org.apache.ambari.server.state.ServiceComponent;
 import org.apache.ambari.server.state.ServiceComponentHost;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,18 +70,108 @@ public class TopologyHolder extends AgentClusterDataHolder<TopologyUpdateEvent>
   @Inject
   private StackAdvisorHelper stackAdvisorHelper;
 
+  /**
+   * The maximum number of topology changes kept to send agents only the
+   * changes since their last known topology.
+   */
+  private static final int CHANGE_LOG_SIZE = 100;
+
+  /**
+   * Recent topology changes, by the hash of the topology they were applied to,
+   * in the order they were applied. Each change holds the hash of the
+   * resulting topology. Guarded by {@link #updateLock}.
+   */
+  private final Map<String, TopologyUpdateEvent> changeLog = new LinkedHashMap<String, TopologyUpdateEvent>() {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, TopologyUpdateEvent> eldest) {
+      return size() > CHANGE_LOG_SIZE;
+    }
+  };
+
   @Inject
   public TopologyHolder(AmbariEventPublisher ambariEventPublisher) {
     ambariEventPublisher.register(this);
   }
 
+  /**
+   * {@inheritDoc}
+   * <p/>
+   * If the topology known by the agent is still in the change log, only the
+   * changes made since then are returned instead of the whole topology.
+   */
   @Override
   public TopologyUpdateEvent getUpdateIfChanged(String agentHash) throws AmbariException {
-    TopologyUpdateEvent topologyUpdateEvent = super.getUpdateIfChanged(agentHash);
+    TopologyUpdateEvent topologyUpdateEvent = getChangesSince(agentHash);
+    if (topologyUpdateEvent == null) {
+      topologyUpdateEvent = super.getUpdateIfChanged(agentHash);
+    }
     prepareAgentTopology(topologyUpdateEvent);
     return topologyUpdateEvent;
   }
 
+  /**
+   * Combines the logged changes from the topology with the specified hash up
+   * to the current topology into a single update.
+   *
+   * @param agentHash the hash of the topology known by the agent
+   * @return the combined changes, or {@code null} if the whole topology has to
+   *         be sent because the changes are not known or cannot be combined
+   */
+  private TopologyUpdateEvent getChangesSince(String agentHash) throws AmbariException {
+    if (StringUtils.isEmpty(agentHash)) {
+      return null;
+    }
+
+    updateLock.lock();
+    try {
+      initializeDataIfNeeded(true);
+      String currentHash = getData().getHash();
+      if (agentHash.equals(currentHash)) {
+        return null;
+      }
+
+      List<TopologyUpdateEvent> changes = new ArrayList<>();
+      String hash = agentHash;
+      while (!hash.equals(currentHash)) {
+        TopologyUpdateEvent change = changeLog.get(hash);
+        if (change == null || changes.size() == changeLog.size()) {
+          return null;
+        }
+        changes.add(change);
+        hash = change.getHash();
+      }
+
+      if (changes.size() == 1) {
+        return changes.get(0).deepCopy();
+      }
+
+      // removals can not be combined with other changes
+      if (changes.stream().anyMatch(change -> change.getEventType() != UpdateEventType.UPDATE)) {
+        return null;
+      }
+
+      TreeMap<String, TopologyCluster> combinedClusters = new TreeMap<>();
+      TopologyUpdateHandlingReport report = new TopologyUpdateHandlingReport();
+      for (TopologyUpdateEvent change : changes) {
+        for (Map.Entry<String, TopologyCluster> changedCluster : change.deepCopy().getClusters().entrySet()) {
+          TopologyCluster cluster = changedCluster.getValue();
+          Set<TopologyComponent> components = cluster.getTopologyComponents() == null
+              ? Collections.emptySet() : cluster.getTopologyComponents();
+          Set<TopologyHost> hosts = cluster.getTopologyHosts() == null
+              ? Collections.emptySet() : cluster.getTopologyHosts();
+          combinedClusters.computeIfAbsent(changedCluster.getKey(), clusterId -> new TopologyCluster())
+              .update(components, hosts, UpdateEventType.UPDATE, report);
+        }
+      }
+
+      TopologyUpdateEvent combinedUpdate = new TopologyUpdateEvent(combinedClusters, UpdateEventType.UPDATE);
+      combinedUpdate.setHash(currentHash);
+      return combinedUpdate;
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
   /**
    * Is used during agent registering to provide base info about clusters topology.
    * @return filled TopologyUpdateEvent with info about all components and hosts in all clusters
@@ -132,21 +227,32 @@ public class TopologyHolder extends AgentClusterDataHolder<TopologyUpdateEvent>
 
   @Override
   public boolean updateData(TopologyUpdateEvent update) throws AmbariException {
-    boolean changed = super.updateData(update);
-    if (changed) {
-      // it is not allowed to change existent update event before arriving to listener and converting to json
-      // so it is better to create copy
-      TopologyUpdateEvent copiedUpdate = update.deepCopy();
-      TopologyAgentUpdateEvent topologyAgentUpdateEvent = new TopologyAgentUpdateEvent(copiedUpdate.getClusters(),
-        copiedUpdate.getHash(),
-        copiedUpdate.getEventType()
-      );
-      prepareAgentTopology(topologyAgentUpdateEvent);
-      LOG.debug("Publishing Topology Agent Update Event hash={}", topologyAgentUpdateEvent.getHash());
-      STOMPUpdatePublisher.publish(topologyAgentUpdateEvent);
+    updateLock.lock();
+    try {
+      initializeDataIfNeeded(true);
+      String previousHash = getData().getHash();
+      boolean changed = super.updateData(update);
+      if (changed) {
+        changeLog.put(previousHash, update.deepCopy());
+        publishAgentUpdate(update);
+      }
+      return changed;
+    } finally {
+      updateLock.unlock();
     }
+  }
 
-    return changed;
+  private void publishAgentUpdate(TopologyUpdateEvent update) {
+    // it is not allowed to change existent update event before arriving to listener and converting to json
+    // so it is better to create copy
+    TopologyUpdateEvent copiedUpdate = update.deepCopy();
+    TopologyAgentUpdateEvent topologyAgentUpdateEvent = new TopologyAgentUpdateEvent(copiedUpdate.getClusters(),
+      copiedUpdate.getHash(),
+      copiedUpdate.getEventType()
+    );
+    prepareAgentTopology(topologyAgentUpdateEvent);
+    LOG.debug("Publishing Topology Agent Update Event hash={}", topologyAgentUpdateEvent.getHash());
+    STOMPUpdatePublisher.publish(topologyAgentUpdateEvent);
   }
 
   @Override
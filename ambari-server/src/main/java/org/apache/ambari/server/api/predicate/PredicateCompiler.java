@@ -18,15 +18,35 @@
 
 package org.apache.ambari.server.api.predicate;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import org.apache.ambari.server.controller.spi.Predicate;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  * Compiler which takes a query expression as input and produces a predicate instance as output.
+ * <p/>
+ * Predicates are immutable, so the predicates parsed from the same stream of tokens are shared
+ * between compilations.  The cache is keyed by tokens rather than by the expression so that the
+ * ignored properties (like fields or the cache buster appended by the web client) don't affect it.
  */
 public class PredicateCompiler {
 
+  /**
+   * Maximum number of distinct compiled predicates kept in the cache.
+   */
+  private static final int MAX_CACHED_PREDICATES = 1000;
+
+  /**
+   * Compiled predicates keyed by the tokens they were parsed from.
+   */
+  private static final Cache<List<Token>, Predicate> PREDICATE_CACHE =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PREDICATES).build();
+
   /**
    * Lexer instance used to translate expressions into stream of tokens.
    */
@@ -46,7 +66,7 @@ public class PredicateCompiler {
    * @throws InvalidQueryException if unable to compile the expression
    */
   public Predicate compile(String exp) throws InvalidQueryException {
-    return parser.parse(lexer.tokens(exp));
+    return parse(lexer.tokens(exp));
   }
 
   /**
@@ -59,6 +79,27 @@ public class PredicateCompiler {
    * @throws InvalidQueryException if unable to compile the expression
    */
   public Predicate compile(String exp, Collection<String> ignoredProperties) throws InvalidQueryException {
-    return parser.parse(lexer.tokens(exp, ignoredProperties));
+    return parse(lexer.tokens(exp, ignoredProperties));
+  }
+
+  /**
+   * Get the predicate for the given tokens from the cache, parsing it on a cache miss.
+   *
+   * @param tokens  tokens of a query expression
+   *
+   * @return a predicate instance; null if the tokens don't produce a predicate
+   * @throws InvalidQueryException if unable to parse the tokens
+   */
+  private Predicate parse(Token[] tokens) throws InvalidQueryException {
+    List<Token> key = Arrays.asList(tokens);
+
+    Predicate predicate = PREDICATE_CACHE.getIfPresent(key);
+    if (predicate == null) {
+      predicate = parser.parse(tokens);
+      if (predicate != null) {
+        PREDICATE_CACHE.put(key, predicate);
+      }
+    }
+    return predicate;
   }
 }
@@ -54,6 +54,7 @@ public class QueryLexer {
   public static final String QUERY_MINIMAL   = "minimal_response";
   public static final String QUERY_SORT      = "sortBy";
   public static final String QUERY_DOAS      = "doAs";
+  public static final String QUERY_PRETTY    = "pretty";
 
   /**
    * All valid deliminators.
@@ -218,6 +219,7 @@ public class QueryLexer {
     SET_IGNORE.add(QUERY_MINIMAL);
     SET_IGNORE.add(QUERY_SORT);
     SET_IGNORE.add(QUERY_DOAS);
+    SET_IGNORE.add(QUERY_PRETTY);
     SET_IGNORE.add("_");
   }
 
@@ -18,11 +18,13 @@
 
 package org.apache.ambari.server.api.query;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -40,6 +42,7 @@ import org.apache.ambari.server.api.util.TreeNodeImpl;
 import org.apache.ambari.server.controller.internal.QueryResponseImpl;
 import org.apache.ambari.server.controller.predicate.AndPredicate;
 import org.apache.ambari.server.controller.predicate.EqualsPredicate;
+import org.apache.ambari.server.controller.predicate.OrPredicate;
 import org.apache.ambari.server.controller.spi.ClusterController;
 import org.apache.ambari.server.controller.spi.NoSuchParentResourceException;
 import org.apache.ambari.server.controller.spi.NoSuchResourceException;
@@ -470,13 +473,28 @@ public class QueryImpl implements Query, ResourceInstance {
       Request       request             = subResource.createRequest();
       Set<Resource> providerResourceSet = new HashSet<>();
 
+      Map<Resource, Map<Resource.Type, String>> parentKeyValueMaps = new LinkedHashMap<>();
       for (QueryResult queryResult : populatedQueryResults.values()) {
         for (Resource resource : queryResult.getQueryResponse().getResources()) {
-          Map<Resource.Type, String> map = getKeyValueMap(resource, queryResult.getKeyValueMap());
+          parentKeyValueMaps.put(resource, getKeyValueMap(resource, queryResult.getKeyValueMap()));
+        }
+      }
+
+      // query the sub-resources of all parents at once if the provider allows it
+      Map<Resource, Set<Resource>> batchedResources = parentKeyValueMaps.size() > 1 && isBatchQuerySupported(resourceType) ?
+          subResource.doBatchedQuery(resourceType, request, parentKeyValueMaps) : null;
 
-          Predicate     queryPredicate = subResource.createPredicate(map, subResource.processedPredicate);
-          Set<Resource> resourceSet    = new LinkedHashSet<>();
+      for (Map.Entry<Resource, Map<Resource.Type, String>> parentEntry : parentKeyValueMaps.entrySet()) {
+        Resource                   resource = parentEntry.getKey();
+        Map<Resource.Type, String> map      = parentEntry.getValue();
 
+        Predicate     queryPredicate = subResource.createPredicate(map, subResource.processedPredicate);
+        Set<Resource> resourceSet    = new LinkedHashSet<>();
+
+        if (batchedResources != null) {
+          resourceSet.addAll(batchedResources.getOrDefault(resource, Collections.emptySet()));
+          providerResourceSet.addAll(resourceSet);
+        } else {
           try {
             Set<Resource> queryResources =
                 subResource.doQuery(resourceType, request, queryPredicate, false).getResources();
@@ -489,11 +507,11 @@ public class QueryImpl implements Query, ResourceInstance {
             // do nothing, since the user does not have access to the data ...
             LOG.debug("User does not have authorization to get {} resources. The data will not be added to the response.", resourceType.name());
           }
-          subResource.queryResults.put(resource,
-              new QueryResult(request, queryPredicate, subResourcePredicate, map, new QueryResponseImpl(resourceSet)));
-          subResource.populatedQueryResults.put(resource,
-            new QueryResult(request, queryPredicate, subResourcePredicate, map, new QueryResponseImpl(resourceSet)));
         }
+        subResource.queryResults.put(resource,
+            new QueryResult(request, queryPredicate, subResourcePredicate, map, new QueryResponseImpl(resourceSet)));
+        subResource.populatedQueryResults.put(resource,
+          new QueryResult(request, queryPredicate, subResourcePredicate, map, new QueryResponseImpl(resourceSet)));
       }
 
       if (renderer.requiresPropertyProviderInput()) {
@@ -504,6 +522,130 @@ public class QueryImpl implements Query, ResourceInstance {
     }
   }
 
+  /**
+   * @param type the resource type
+   * @return whether resources of many parents may be obtained with one provider call
+   */
+  private boolean isBatchQuerySupported(Resource.Type type) {
+    ResourceProvider resourceProvider = clusterController.ensureResourceProvider(type);
+    return resourceProvider != null && resourceProvider.isBatchQuerySupported();
+  }
+
+  /**
+   * Query the cluster controller for the resources of many parent resources
+   * with a single predicate, OR-ing the key predicates of each parent, and
+   * assign the resources back to their parents by the values of the parent
+   * key properties.
+   *
+   * @param type                the resource type
+   * @param request             the request information
+   * @param parentKeyValueMaps  key value maps of the parent resources
+   *
+   * @return the resources keyed by parent resource, or null if the parents
+   *         can not be queried at once
+   */
+  private Map<Resource, Set<Resource>> doBatchedQuery(Resource.Type type, Request request,
+                                                      Map<Resource, Map<Resource.Type, String>> parentKeyValueMaps)
+      throws UnsupportedPropertyException,
+      SystemException,
+      NoSuchParentResourceException {
+
+    Schema schema = clusterController.getSchema(type);
+
+    // the key types with different values between parents identify the parent of a resource
+    Map<Resource.Type, String> commonKeyValues = null;
+    Set<Resource.Type> parentKeyTypes = new LinkedHashSet<>();
+    for (Map<Resource.Type, String> keyValueMap : parentKeyValueMaps.values()) {
+      if (commonKeyValues == null) {
+        commonKeyValues = new HashMap<>(keyValueMap);
+        continue;
+      }
+      for (Map.Entry<Resource.Type, String> keyEntry : keyValueMap.entrySet()) {
+        if (!keyEntry.getValue().equals(commonKeyValues.get(keyEntry.getKey()))) {
+          parentKeyTypes.add(keyEntry.getKey());
+        }
+      }
+      for (Resource.Type keyType : commonKeyValues.keySet()) {
+        if (!keyValueMap.containsKey(keyType)) {
+          parentKeyTypes.add(keyType);
+        }
+      }
+    }
+
+    // all the parents have the same key types, so their key predicates compare the same properties
+    List<String> keyPropertyIds = new ArrayList<>();
+    for (Resource.Type keyType : commonKeyValues.keySet()) {
+      String keyPropertyId = schema.getKeyPropertyId(keyType);
+      if (keyPropertyId != null) {
+        keyPropertyIds.add(keyPropertyId);
+      }
+    }
+
+    Map<List<String>, List<Resource>> parentsByKey = new HashMap<>();
+    Map<List<String>, Predicate> parentPredicates = new LinkedHashMap<>();
+    for (Map.Entry<Resource, Map<Resource.Type, String>> parentEntry : parentKeyValueMaps.entrySet()) {
+      Map<Resource.Type, String> keyValueMap = parentEntry.getValue();
+      List<String> parentKey = new ArrayList<>(parentKeyTypes.size());
+      for (Resource.Type keyType : parentKeyTypes) {
+        String keyValue = keyValueMap.get(keyType);
+        if (keyValue == null || schema.getKeyPropertyId(keyType) == null) {
+          return null;
+        }
+        parentKey.add(keyValue);
+      }
+
+      List<Resource> parents = parentsByKey.get(parentKey);
+      if (parents == null) {
+        parents = new ArrayList<>();
+        parentsByKey.put(parentKey, parents);
+        // an amended predicate may select resources by other key values than those of the parent
+        Predicate keyPredicate = createKeyPredicate(keyValueMap);
+        if (keyPredicate == null || clusterController.getAmendedPredicate(type, keyPredicate) != null) {
+          return null;
+        }
+        List<String> keyValues = new ArrayList<>(keyPropertyIds.size());
+        for (Resource.Type keyType : commonKeyValues.keySet()) {
+          if (schema.getKeyPropertyId(keyType) != null) {
+            keyValues.add(keyValueMap.get(keyType));
+          }
+        }
+        parentPredicates.put(keyValues, keyPredicate);
+      }
+      parents.add(parentEntry.getKey());
+    }
+
+    Predicate parentsPredicate = parentPredicates.size() == 1 ? parentPredicates.values().iterator().next() :
+        new ParentKeysPredicate(keyPropertyIds, parentPredicates);
+    Predicate queryPredicate = processedPredicate == null ? parentsPredicate :
+        new AndPredicate(processedPredicate, parentsPredicate);
+
+    Map<Resource, Set<Resource>> resourcesByParent = new HashMap<>();
+    try {
+      for (Resource resource : doQuery(type, request, queryPredicate, false).getResources()) {
+        List<String> parentKey = new ArrayList<>(parentKeyTypes.size());
+        for (Resource.Type keyType : parentKeyTypes) {
+          Object keyValue = resource.getPropertyValue(schema.getKeyPropertyId(keyType));
+          parentKey.add(keyValue == null ? null : keyValue.toString());
+        }
+
+        List<Resource> parents = parentsByKey.get(parentKey);
+        if (parents != null) {
+          for (Resource parent : parents) {
+            resourcesByParent.computeIfAbsent(parent, k -> new LinkedHashSet<>()).add(resource);
+          }
+        }
+      }
+    } catch (NoSuchResourceException e) {
+      // a missing resource of one parent should not hide the resources of the others
+      LOG.debug("Unable to get {} resources of all parents at once, querying each parent", type, e);
+      return null;
+    } catch (AuthorizationException e) {
+      // do nothing, since the user does not have access to the data ...
+      LOG.debug("User does not have authorization to get {} resources. The data will not be added to the response.", type.name());
+    }
+    return resourcesByParent;
+  }
+
   /**
    * Query the cluster controller for the resources.
    *
@@ -899,6 +1041,27 @@ public class QueryImpl implements Query, ResourceInstance {
   }
 
   private Predicate createInternalPredicate(Map<Resource.Type, String> mapResourceIds) {
+    Predicate p = createKeyPredicate(mapResourceIds);
+    if (p == null) {
+      return null;
+    }
+
+    Resource.Type type = getResourceDefinition().getType();
+    Predicate override = clusterController.getAmendedPredicate(type, p);
+    if (null != override) {
+      p = override;
+    }
+
+    return p;
+  }
+
+  /**
+   * @param mapResourceIds  the values of the key properties by resource type
+   *
+   * @return the predicate comparing the key properties of the resources with
+   *         the given values; null if there are none
+   */
+  private Predicate createKeyPredicate(Map<Resource.Type, String> mapResourceIds) {
     Resource.Type resourceType = getResourceDefinition().getType();
     Schema schema = clusterController.getSchema(resourceType);
 
@@ -922,12 +1085,6 @@ public class QueryImpl implements Query, ResourceInstance {
       return null;
     }
 
-    Resource.Type type = getResourceDefinition().getType();
-    Predicate override = clusterController.getAmendedPredicate(type, p);
-    if (null != override) {
-      p = override;
-    }
-
     return p;
   }
 
@@ -1077,6 +1234,45 @@ public class QueryImpl implements Query, ResourceInstance {
         resource.getSingularName();
   }
 
+  // ----- inner class : ParentKeysPredicate ---------------------------------
+
+  /**
+   * The OR of the key predicates of many parent resources. A resource is
+   * evaluated against the key predicate of the parent with the same key values
+   * only, rather than against the key predicate of every parent, so filtering
+   * the resources of all the parents does not grow with the square of their
+   * number.
+   */
+  private static class ParentKeysPredicate extends OrPredicate {
+    private final List<String> keyPropertyIds;
+    private final Map<List<String>, Predicate> parentPredicates;
+
+    // ----- Constructor -----------------------------------------------------
+
+    /**
+     * @param keyPropertyIds    the key properties compared by the parent predicates
+     * @param parentPredicates  the key predicates of the parents by the values of the key properties
+     */
+    private ParentKeysPredicate(List<String> keyPropertyIds, Map<List<String>, Predicate> parentPredicates) {
+      super(parentPredicates.values().toArray(new Predicate[parentPredicates.size()]));
+      this.keyPropertyIds   = keyPropertyIds;
+      this.parentPredicates = parentPredicates;
+    }
+
+    // ----- Predicate -------------------------------------------------------
+
+    @Override
+    public boolean evaluate(Resource resource) {
+      List<String> keyValues = new ArrayList<>(keyPropertyIds.size());
+      for (String keyPropertyId : keyPropertyIds) {
+        Object keyValue = resource.getPropertyValue(keyPropertyId);
+        keyValues.add(keyValue == null ? null : keyValue.toString());
+      }
+      Predicate parentPredicate = parentPredicates.get(keyValues);
+      return parentPredicate != null && parentPredicate.evaluate(resource);
+    }
+  }
+
   // ----- inner class : QueryResult -----------------------------------------
 
   /**
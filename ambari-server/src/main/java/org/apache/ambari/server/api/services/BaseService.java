@@ -27,6 +27,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
+import org.apache.ambari.server.api.predicate.QueryLexer;
 import org.apache.ambari.server.api.resources.ResourceInstance;
 import org.apache.ambari.server.api.resources.ResourceInstanceFactory;
 import org.apache.ambari.server.api.resources.ResourceInstanceFactoryImpl;
@@ -36,6 +37,7 @@ import org.apache.ambari.server.api.services.parsers.RequestBodyParser;
 import org.apache.ambari.server.api.services.serializers.CsvSerializer;
 import org.apache.ambari.server.api.services.serializers.JsonSerializer;
 import org.apache.ambari.server.api.services.serializers.ResultSerializer;
+import org.apache.ambari.server.api.services.serializers.StreamingResultSerializer;
 import org.apache.ambari.server.audit.request.RequestAuditLogger;
 import org.apache.ambari.server.controller.spi.Resource;
 import org.apache.ambari.server.utils.RetryHelper;
@@ -181,8 +183,12 @@ public abstract class BaseService {
 
     ResultSerializer serializer = mediaType == null ? getResultSerializer() : getResultSerializer(mediaType);
 
-    Response.ResponseBuilder builder = Response.status(result.getStatus().getStatusCode()).entity(
-        serializer.serialize(result));
+    // the default serializer writes straight to the response instead of building it in memory
+    Object entity = mediaType == null && serializer instanceof StreamingResultSerializer ?
+        ((StreamingResultSerializer) serializer).serializeStreaming(result, isPretty(uriInfo)) :
+        serializer.serialize(result);
+
+    Response.ResponseBuilder builder = Response.status(result.getStatus().getStatusCode()).entity(entity);
 
     if (mediaType != null) {
       builder.type(mediaType);
@@ -192,6 +198,18 @@ public abstract class BaseService {
     return builder.build();
   }
 
+  /**
+   * Check to see if 'pretty=true' is specified in the query string.
+   *
+   * @param uriInfo  uri information
+   *
+   * @return true if the response should be formatted for readability
+   */
+  private boolean isPretty(UriInfo uriInfo) {
+    String pretty = uriInfo == null ? null : uriInfo.getQueryParameters().getFirst(QueryLexer.QUERY_PRETTY);
+    return pretty != null && pretty.equalsIgnoreCase("true");
+  }
+
   /**
    * Obtain the factory from which to create Request instances.
    *
@@ -20,11 +20,14 @@ package org.apache.ambari.server.api.services.serializers;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import javax.ws.rs.core.StreamingOutput;
+
 import org.apache.ambari.server.api.services.DeleteResultMetadata;
 import org.apache.ambari.server.api.services.Result;
 import org.apache.ambari.server.api.services.ResultMetadata;
@@ -33,6 +36,7 @@ import org.apache.ambari.server.api.util.TreeNode;
 import org.apache.ambari.server.api.util.TreeNodeImpl;
 import org.apache.ambari.server.controller.internal.OperationStatusMetaData;
 import org.apache.ambari.server.controller.spi.Resource;
+import org.codehaus.jackson.JsonEncoding;
 import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -42,7 +46,7 @@ import org.codehaus.jackson.util.DefaultPrettyPrinter;
  * JSON serializer.
  * Responsible for representing a result as JSON.
  */
-public class JsonSerializer implements ResultSerializer {
+public class JsonSerializer implements StreamingResultSerializer {
 
   /**
    * Factory used to create JSON generator.
@@ -51,25 +55,16 @@ public class JsonSerializer implements ResultSerializer {
 
   ObjectMapper m_mapper = new ObjectMapper(m_factory);
 
-  /**
-   * Generator which writes JSON.
-   */
-  JsonGenerator m_generator;
-
 
   @Override
   public Object serialize(Result result) {
     try {
-      ByteArrayOutputStream bytesOut = init();
+      ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+      JsonGenerator generator = createJsonGenerator(new OutputStreamWriter(bytesOut,
+          StandardCharsets.UTF_8.newEncoder()), true);
 
-      if (result.getStatus().isErrorState()) {
-        return serializeError(result.getStatus());
-      }
-
-      TreeNode<Resource> treeNode = result.getResultTree();
-      processNode(treeNode);
-      processResultMetadata(result.getResultMetadata());
-      m_generator.close();
+      writeResult(generator, result);
+      generator.close();
       return bytesOut.toString("UTF-8");
     } catch (IOException e) {
       //todo: exception handling.  Create ResultStatus 500 and call serializeError
@@ -80,13 +75,12 @@ public class JsonSerializer implements ResultSerializer {
   @Override
   public Object serializeError(ResultStatus error) {
     try {
-      ByteArrayOutputStream bytesOut = init();
-      //m_mapper.writeValue(m_generator, error);
-      m_generator.writeStartObject();
-      m_generator.writeNumberField("status", error.getStatus().getStatus());
-      m_generator.writeStringField("message", error.getMessage());
-      m_generator.writeEndObject();
-      m_generator.close();
+      ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+      JsonGenerator generator = createJsonGenerator(new OutputStreamWriter(bytesOut,
+          StandardCharsets.UTF_8.newEncoder()), true);
+
+      writeError(generator, error);
+      generator.close();
       return bytesOut.toString("UTF-8");
 
     } catch (IOException e) {
@@ -95,113 +89,130 @@ public class JsonSerializer implements ResultSerializer {
     }
   }
 
-  private ByteArrayOutputStream init() throws IOException {
-    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
-    m_generator = createJsonGenerator(bytesOut);
+  @Override
+  public StreamingOutput serializeStreaming(Result result, boolean pretty) {
+    return outputStream -> {
+      JsonGenerator generator = createJsonGenerator(outputStream, pretty);
+      writeResult(generator, result);
+      // flushes the generator buffer, the response stream itself is closed by the container
+      generator.close();
+    };
+  }
+
+  private void writeResult(JsonGenerator generator, Result result) throws IOException {
+    if (result.getStatus().isErrorState()) {
+      writeError(generator, result.getStatus());
+      return;
+    }
 
-    DefaultPrettyPrinter p = new DefaultPrettyPrinter();
-    p.indentArraysWith(new DefaultPrettyPrinter.Lf2SpacesIndenter());
-    m_generator.setPrettyPrinter(p);
+    TreeNode<Resource> treeNode = result.getResultTree();
+    processNode(generator, treeNode);
+    processResultMetadata(generator, result.getResultMetadata());
+  }
 
-    return bytesOut;
+  private void writeError(JsonGenerator generator, ResultStatus error) throws IOException {
+    generator.writeStartObject();
+    generator.writeNumberField("status", error.getStatus().getStatus());
+    generator.writeStringField("message", error.getMessage());
+    generator.writeEndObject();
   }
 
-  private void processResultMetadata(ResultMetadata resultMetadata) throws IOException {
+  private void processResultMetadata(JsonGenerator generator, ResultMetadata resultMetadata) throws IOException {
     if (resultMetadata == null) {
       return;
     }
 
     if (resultMetadata.getClass() == DeleteResultMetadata.class) {
-      processResultMetadata((DeleteResultMetadata) resultMetadata);
+      processResultMetadata(generator, (DeleteResultMetadata) resultMetadata);
     } else if (resultMetadata.getClass() == OperationStatusMetaData.class) {
-      processResultMetadata((OperationStatusMetaData) resultMetadata);
+      processResultMetadata(generator, (OperationStatusMetaData) resultMetadata);
     } else {
       throw new IllegalArgumentException("ResultDetails is not of type DeleteResultDetails, cannot parse");
     }
   }
 
-  private void processResultMetadata(DeleteResultMetadata deleteResultMetadata) throws IOException {
-    m_generator.writeStartObject();
-    m_generator.writeArrayFieldStart("deleteResult");
+  private void processResultMetadata(JsonGenerator generator, DeleteResultMetadata deleteResultMetadata) throws IOException {
+    generator.writeStartObject();
+    generator.writeArrayFieldStart("deleteResult");
     //write successfully deleted keys
     for (String key : deleteResultMetadata.getDeletedKeys()) {
-      m_generator.writeStartObject();
-      m_generator.writeObjectFieldStart("deleted");
-      m_generator.writeStringField("key", key);
-      m_generator.writeEndObject();
-      m_generator.writeEndObject();
+      generator.writeStartObject();
+      generator.writeObjectFieldStart("deleted");
+      generator.writeStringField("key", key);
+      generator.writeEndObject();
+      generator.writeEndObject();
     }
 
     //write exceptions
     for (Map.Entry<String, ResultStatus> entry : deleteResultMetadata.getExcptions().entrySet()) {
       ResultStatus resultStatus = entry.getValue();
-      m_generator.writeStartObject();
-      m_generator.writeObjectFieldStart("error");
-      m_generator.writeStringField("key", entry.getKey());
-      m_generator.writeNumberField("code", resultStatus.getStatusCode());
-      m_generator.writeStringField("message", resultStatus.getMessage());
-      m_generator.writeEndObject();
-      m_generator.writeEndObject();
+      generator.writeStartObject();
+      generator.writeObjectFieldStart("error");
+      generator.writeStringField("key", entry.getKey());
+      generator.writeNumberField("code", resultStatus.getStatusCode());
+      generator.writeStringField("message", resultStatus.getMessage());
+      generator.writeEndObject();
+      generator.writeEndObject();
     }
-    m_generator.writeEndArray();
-    m_generator.writeEndObject();
+    generator.writeEndArray();
+    generator.writeEndObject();
   }
 
-  private void processResultMetadata(OperationStatusMetaData metaData) throws IOException {
-    m_generator.writeStartObject();
-    m_generator.writeObjectFieldStart("operationResults");
+  private void processResultMetadata(JsonGenerator generator, OperationStatusMetaData metaData) throws IOException {
+    generator.writeStartObject();
+    generator.writeObjectFieldStart("operationResults");
 
     for (OperationStatusMetaData.Result result : metaData.getResults()) {
-      m_generator.writeObjectFieldStart(result.getId());
-      m_generator.writeStringField("status", result.isSuccess() ? "success" : "error");
+      generator.writeObjectFieldStart(result.getId());
+      generator.writeStringField("status", result.isSuccess() ? "success" : "error");
 
       if (result.getMessage() != null) {
-        m_generator.writeStringField("message", result.getMessage());
+        generator.writeStringField("message", result.getMessage());
       }
 
       if (result.getResponse() != null) {
-        m_generator.writeFieldName("response");
-        m_mapper.writeValue(m_generator, result.getResponse());
+        generator.writeFieldName("response");
+        m_mapper.writeValue(generator, result.getResponse());
       }
 
-      m_generator.writeEndObject();
+      generator.writeEndObject();
     }
 
-    m_generator.writeEndObject();
-    m_generator.writeEndObject();
+    generator.writeEndObject();
+    generator.writeEndObject();
   }
 
-  private void processNode(TreeNode<Resource> node) throws IOException {
+  private void processNode(JsonGenerator generator, TreeNode<Resource> node) throws IOException {
     if (isObject(node)) {
-      m_generator.writeStartObject();
+      generator.writeStartObject();
 
-      writeHref(node);
-      writeItemCount(node);
+      writeHref(generator, node);
+      writeItemCount(generator, node);
 
       Resource r = node.getObject();
       if (r != null) {
-        handleResourceProperties(getTreeProperties(r.getPropertiesMap()));
+        handleResourceProperties(generator, getTreeProperties(r.getPropertiesMap()));
       }
     }
 
     if (isArray(node)) {
       if (node.getName() != null) {
-        m_generator.writeArrayFieldStart(node.getName());
+        generator.writeArrayFieldStart(node.getName());
       } else {
-        m_generator.writeStartArray();
+        generator.writeStartArray();
       }
     }
 
     for (TreeNode<Resource> child : node.getChildren()) {
-      processNode(child);
+      processNode(generator, child);
     }
 
     if (isArray(node)) {
-      m_generator.writeEndArray();
+      generator.writeEndArray();
     }
 
     if (isObject(node)) {
-      m_generator.writeEndObject();
+      generator.writeEndObject();
     }
   }
 
@@ -250,50 +261,59 @@ public class JsonSerializer implements ResultSerializer {
     return treeProperties;
   }
 
-  private void handleResourceProperties(TreeNode<Map<String, Object>> node) throws IOException {
+  private void handleResourceProperties(JsonGenerator generator, TreeNode<Map<String, Object>> node) throws IOException {
     String category = node.getName();
 
     if (category != null) {
-      m_generator.writeFieldName(category);
-      m_generator.writeStartObject();
+      generator.writeFieldName(category);
+      generator.writeStartObject();
     }
 
     for (Map.Entry<String, Object> entry : node.getObject().entrySet()) {
-      m_generator.writeFieldName(entry.getKey());
-      m_mapper.writeValue(m_generator, entry.getValue());
+      generator.writeFieldName(entry.getKey());
+      m_mapper.writeValue(generator, entry.getValue());
     }
 
     for (TreeNode<Map<String, Object>> n : node.getChildren()) {
-      handleResourceProperties(n);
+      handleResourceProperties(generator, n);
     }
 
     if (category != null) {
-      m_generator.writeEndObject();
+      generator.writeEndObject();
     }
   }
 
-  private JsonGenerator createJsonGenerator(ByteArrayOutputStream baos) throws IOException {
-    JsonGenerator generator = m_factory.createJsonGenerator(new OutputStreamWriter(baos,
-        Charset.forName("UTF-8").newEncoder()));
+  private JsonGenerator createJsonGenerator(OutputStreamWriter writer, boolean pretty) throws IOException {
+    return configure(m_factory.createJsonGenerator(writer), pretty);
+  }
 
-    DefaultPrettyPrinter p = new DefaultPrettyPrinter();
-    p.indentArraysWith(new DefaultPrettyPrinter.Lf2SpacesIndenter());
-    generator.setPrettyPrinter(p);
+  private JsonGenerator createJsonGenerator(OutputStream outputStream, boolean pretty) throws IOException {
+    JsonGenerator generator = m_factory.createJsonGenerator(outputStream, JsonEncoding.UTF8);
+    // the container owns the response stream
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    return configure(generator, pretty);
+  }
 
+  private JsonGenerator configure(JsonGenerator generator, boolean pretty) {
+    if (pretty) {
+      DefaultPrettyPrinter p = new DefaultPrettyPrinter();
+      p.indentArraysWith(new DefaultPrettyPrinter.Lf2SpacesIndenter());
+      generator.setPrettyPrinter(p);
+    }
     return generator;
   }
 
-  private void writeHref(TreeNode<Resource> node) throws IOException {
+  private void writeHref(JsonGenerator generator, TreeNode<Resource> node) throws IOException {
     String hrefProp = node.getStringProperty("href");
     if (hrefProp != null) {
-      m_generator.writeStringField("href", hrefProp);
+      generator.writeStringField("href", hrefProp);
     }
   }
 
-  private void writeItemCount(TreeNode<Resource> node) throws IOException {
+  private void writeItemCount(JsonGenerator generator, TreeNode<Resource> node) throws IOException {
     String countProp = node.getStringProperty("count");
     if (countProp != null) {
-      m_generator.writeStringField("itemTotal", countProp);
+      generator.writeStringField("itemTotal", countProp);
       // Write once
       node.setProperty("count", null);
     }
@@ -1053,6 +1053,13 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> SERVER_STALE_CONFIG_CACHE_EXPIRATION = new ConfigurationProperty<>(
       "server.cache.isStale.expiration", 600);
 
+  /**
+   * The number of threads used to recalculate stale configuration flags of host components after configs change.
+   */
+  @Markdown(description = "The number of threads used to recalculate stale configuration flags of host components after configurations are changed. The value should be increased as the size of the cluster increases.")
+  public static final ConfigurationProperty<Integer> SERVER_STALE_CONFIG_THREAD_POOL_SIZE = new ConfigurationProperty<>(
+      "server.stale.config.threadpool.size", 8);
+
   /**
    * The {@link PersistenceType} of the database.
    */
@@ -1203,6 +1210,15 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> KERBEROS_OPERATION_RETRY_TIMEOUT = new ConfigurationProperty<>(
       "kerberos.operation.retry.timeout", 10);
 
+  /**
+   * The number of threads used to process Kerberos identities in parallel when performing
+   * server-side Kerberos operations, such as creating principals. Each thread opens its own
+   * session with the KDC.
+   */
+  @Markdown(description = "The number of threads used to process Kerberos identities in parallel when creating principals and keytab files. Each thread opens its own session with the KDC. A value of 1 processes identities sequentially.")
+  public static final ConfigurationProperty<Integer> KERBEROS_OPERATION_THREADS = new ConfigurationProperty<>(
+      "kerberos.operation.threads", 1);
+
   /**
    * A flag indicating whether to validate the trust of an SSL certificate provided by a KDC when
    * performing Kerberos operations.
@@ -1525,6 +1541,23 @@ public class Configuration {
   public static final ConfigurationProperty<Long> EXECUTION_SCHEDULER_WAIT = new ConfigurationProperty<>(
       "server.execution.scheduler.wait", 1L);
 
+  /**
+   * Determines whether the action scheduler is woken up by command reports
+   * from agents instead of only checking for commands periodically.
+   */
+  @Markdown(description = "Determines whether the action scheduler is woken up as soon as Ambari Agents report completed commands, instead of waiting for the next periodic check. The periodic check defined by `server.execution.scheduler.wait` remains as a safety net and can be made less frequent when this is enabled, since the scheduler also wakes up when a command times out or a host is lost.")
+  public static final ConfigurationProperty<Boolean> EXECUTION_SCHEDULER_EVENT_DRIVEN = new ConfigurationProperty<>(
+      "server.execution.scheduler.event.driven", Boolean.FALSE);
+
+  /**
+   * The minimal time between two scheduler passes triggered by command reports.
+   */
+  @Markdown(
+      relatedTo = "server.execution.scheduler.event.driven",
+      description = "The minimal time, in milliseconds, between two action scheduler passes triggered by command reports from Ambari Agents. Reports received in the meantime are handled by a single pass.")
+  public static final ConfigurationProperty<Long> EXECUTION_SCHEDULER_EVENT_DRIVEN_MIN_INTERVAL = new ConfigurationProperty<>(
+      "server.execution.scheduler.event.driven.min.interval", 100L);
+
   /**
    * The location on the Ambari Server where temporary artifacts can be created.
    */
@@ -1568,6 +1601,15 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> THREAD_POOL_SIZE_FOR_EXTERNAL_SCRIPT = new ConfigurationProperty<>(
     "server.script.threads", 20);
 
+  /**
+   * The number of generated client configuration archives which are kept so
+   * that repeated downloads of unchanged configurations do not run the
+   * external script again.
+   */
+  @Markdown(description = "The number of generated client configuration archives to keep for repeated downloads of unchanged configurations. A value of `0` disables the cache.")
+  public static final ConfigurationProperty<Integer> CLIENT_CONFIGS_CACHE_SIZE = new ConfigurationProperty<>(
+      "client.configs.cache.size", 100);
+
   public static final String DEF_ARCHIVE_EXTENSION;
   public static final String DEF_ARCHIVE_CONTENT_TYPE;
 
@@ -1894,6 +1936,36 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> STOMP_MAX_BUFFER_MESSAGE_SIZE = new ConfigurationProperty<>(
       "stomp.max_buffer.message.size", 5*1024*1024);
 
+  /**
+   * The number of threads dispatching STOMP update events to agents and, separately, to API clients.
+   */
+  @Markdown(description = "The number of threads dispatching STOMP update events to Ambari Agents and, separately, to API clients. Events to the same host, or of the same type when not addressed to a host, are always dispatched by the same thread in order.")
+  public static final ConfigurationProperty<Integer> STOMP_UPDATE_PUBLISHER_PARTITIONS = new ConfigurationProperty<>(
+      "stomp.update.publisher.partitions", 4);
+
+  /**
+   * The maximum number of STOMP update events of a single type buffered before posting.
+   */
+  @Markdown(description = "The maximum number of buffered STOMP update events of a single type (requests, services, host components) waiting to be sent to the UI. A full buffer is handed over to be sent at once, publishing threads never wait for it.")
+  public static final ConfigurationProperty<Integer> STOMP_UPDATE_PUBLISHER_BUFFER_SIZE = new ConfigurationProperty<>(
+      "stomp.update.publisher.buffer.size", 10000);
+
+  /**
+   * The number of buffered STOMP update events which triggers immediate posting.
+   */
+  @Markdown(
+      relatedTo = "stomp.update.publisher.flush.interval",
+      description = "The number of buffered STOMP update events of a single type which causes them to be sent to the UI without waiting for the flush interval.")
+  public static final ConfigurationProperty<Integer> STOMP_UPDATE_PUBLISHER_FLUSH_SIZE = new ConfigurationProperty<>(
+      "stomp.update.publisher.flush.size", 500);
+
+  /**
+   * The minimal time between two postings of buffered STOMP update events of a single type.
+   */
+  @Markdown(description = "The minimal time, in milliseconds, between two sends of buffered STOMP update events of a single type to the UI. An event published after a longer quiet period is sent immediately, events published in the meantime are merged and sent together.")
+  public static final ConfigurationProperty<Long> STOMP_UPDATE_PUBLISHER_FLUSH_INTERVAL = new ConfigurationProperty<>(
+      "stomp.update.publisher.flush.interval", 1000L);
+
   /**
    * The number of attempts to emit execution command message to agent. Default is 4
    */
@@ -2189,6 +2261,64 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> ALERTS_CACHE_SIZE = new ConfigurationProperty<>(
       "alerts.cache.size", 50000);
 
+  /**
+   * The time during which received alerts are collected before they are
+   * processed and written to the database together.
+   */
+  @Markdown(
+      description = "The time, in milliseconds, during which alerts received from the Ambari Agents are collected "
+          + "before they are processed and written to the database in a single transaction. "
+          + "A value of `0` processes the alerts of every agent report as it is received.")
+  public static final ConfigurationProperty<Long> ALERTS_BATCH_WINDOW = new ConfigurationProperty<>(
+      "alerts.batch.window", 0L);
+
+  /**
+   * The number of received alert events which can wait for the next batch.
+   */
+  @Markdown(
+      description = "The number of alert reports from the Ambari Agents which can wait to be processed in the next "
+          + "batch when `alerts.batch.window` is set. While the limit is reached, further reports wait for the "
+          + "queued ones to be processed.")
+  public static final ConfigurationProperty<Integer> ALERTS_BATCH_QUEUE_SIZE = new ConfigurationProperty<>(
+      "alerts.batch.queue.size", 10000);
+
+  /**
+   * The number of days for which request, stage, task and alert history is kept
+   * while the server is running. Older history is purged in the background.
+   */
+  @Markdown(description = "The number of days for which completed requests, their stages and tasks, and alert history are kept. Older history is purged in the background while the server is running. A value of 0 disables the purge.")
+  public static final ConfigurationProperty<Integer> HISTORY_PURGE_RETENTION_DAYS = new ConfigurationProperty<>(
+      "server.history.purge.retention.days", 0);
+
+  /**
+   * The time, in minutes, between background history purges.
+   */
+  @Markdown(
+      relatedTo = "server.history.purge.retention.days",
+      description = "The time, in minutes, between background purges of request and alert history.")
+  public static final ConfigurationProperty<Integer> HISTORY_PURGE_INTERVAL = new ConfigurationProperty<>(
+      "server.history.purge.interval.minutes", 60);
+
+  /**
+   * The number of requests or alert history entries purged in a single
+   * transaction.
+   */
+  @Markdown(
+      relatedTo = "server.history.purge.retention.days",
+      description = "The number of requests or alert history entries removed in a single transaction of the background history purge.")
+  public static final ConfigurationProperty<Integer> HISTORY_PURGE_BATCH_SIZE = new ConfigurationProperty<>(
+      "server.history.purge.batch.size", 500);
+
+  /**
+   * The time, in milliseconds, to pause between purge batches in order to
+   * limit the load on the database.
+   */
+  @Markdown(
+      relatedTo = "server.history.purge.retention.days",
+      description = "The time, in milliseconds, the background history purge pauses between batches to limit the load on the database.")
+  public static final ConfigurationProperty<Long> HISTORY_PURGE_BATCH_PAUSE = new ConfigurationProperty<>(
+      "server.history.purge.batch.pause.ms", 100L);
+
   /**
    * When using SSL, this will be used to set the {@code Strict-Transport-Security} response header.
    */
@@ -2442,6 +2572,15 @@ public class Configuration {
   public static final ConfigurationProperty<Integer> METRIC_RETRIEVAL_SERVICE_REQUEST_TTL = new ConfigurationProperty<>(
       "metrics.retrieval-service.request.ttl", 5);
 
+  /**
+   * Determines whether JMX requests of the {@link MetricsRetrievalService} are
+   * limited to the beans of requested metrics by a {@code qry} parameter.
+   */
+  @Markdown(description = "Determines whether JMX metric requests are limited by a query parameter to the beans of metrics defined for a component. "
+      + "Only enabled if the requested beans share a domain and a leading key.")
+  public static final ConfigurationProperty<Boolean> METRIC_RETRIEVAL_SERVICE_JMX_QUERY_ENABLED = new ConfigurationProperty<>(
+      "metrics.retrieval-service.jmx.query.enabled", Boolean.FALSE);
+
   /**
    * The number of tasks that can be queried from the database at once In the
    * case of more tasks, multiple queries are issued
@@ -4421,6 +4560,13 @@ public class Configuration {
     return Integer.parseInt(getProperty(SERVER_STALE_CONFIG_CACHE_EXPIRATION));
   }
 
+  /**
+   * @return number of threads used to recalculate stale configuration flags, default 8
+   */
+  public int getStaleConfigThreadPoolSize() {
+    return Integer.parseInt(getProperty(SERVER_STALE_CONFIG_THREAD_POOL_SIZE));
+  }
+
   /**
    * @return a string array of suffixes used to validate repo URLs.
    */
@@ -4483,6 +4629,20 @@ public class Configuration {
     return Integer.parseInt(getProperty(EXECUTION_SCHEDULER_START_DELAY));
   }
 
+  /**
+   * @return true if action scheduler should be woken up by command reports
+   */
+  public boolean isExecutionSchedulerEventDriven() {
+    return Boolean.parseBoolean(getProperty(EXECUTION_SCHEDULER_EVENT_DRIVEN));
+  }
+
+  /**
+   * @return minimal time, in milliseconds, between scheduler passes triggered by command reports
+   */
+  public long getExecutionSchedulerEventDrivenMinInterval() {
+    return Long.parseLong(getProperty(EXECUTION_SCHEDULER_EVENT_DRIVEN_MIN_INTERVAL));
+  }
+
   public Long getExecutionSchedulerWait() {
 
     String stringValue = getProperty(EXECUTION_SCHEDULER_WAIT);
@@ -4521,6 +4681,14 @@ public class Configuration {
     return Integer.parseInt(getProperty(THREAD_POOL_SIZE_FOR_EXTERNAL_SCRIPT));
   }
 
+  /**
+   * Get the number of generated client configuration archives to cache.
+   * @return the cache size, or {@code 0} if the cache is disabled
+   */
+  public int getClientConfigsCacheSize() {
+    return Math.max(0, Integer.parseInt(getProperty(CLIENT_CONFIGS_CACHE_SIZE)));
+  }
+
   public boolean getParallelStageExecution() {
     return Boolean.parseBoolean(configsMap.get(PARALLEL_STAGE_EXECUTION.getKey()));
   }
@@ -4680,6 +4848,34 @@ public class Configuration {
     return Integer.parseInt(getProperty(STOMP_MAX_BUFFER_MESSAGE_SIZE));
   }
 
+  /**
+   * @return the number of threads dispatching STOMP update events in each direction
+   */
+  public int getStompUpdatePublisherPartitions() {
+    return Integer.parseInt(getProperty(STOMP_UPDATE_PUBLISHER_PARTITIONS));
+  }
+
+  /**
+   * @return the maximum number of buffered STOMP update events of a single type
+   */
+  public int getStompUpdatePublisherBufferSize() {
+    return Integer.parseInt(getProperty(STOMP_UPDATE_PUBLISHER_BUFFER_SIZE));
+  }
+
+  /**
+   * @return the number of buffered STOMP update events which triggers immediate posting
+   */
+  public int getStompUpdatePublisherFlushSize() {
+    return Integer.parseInt(getProperty(STOMP_UPDATE_PUBLISHER_FLUSH_SIZE));
+  }
+
+  /**
+   * @return the minimal time, in milliseconds, between two postings of buffered STOMP update events
+   */
+  public long getStompUpdatePublisherFlushInterval() {
+    return Long.parseLong(getProperty(STOMP_UPDATE_PUBLISHER_FLUSH_INTERVAL));
+  }
+
   /**
    * @return the number of attempts to emit execution command message to agent. Default is 4
    */
@@ -5232,6 +5428,26 @@ public class Configuration {
     return Integer.parseInt(getProperty(ALERTS_CACHE_FLUSH_INTERVAL));
   }
 
+  /**
+   * Gets the time, in milliseconds, during which received alerts are collected
+   * before they are processed together.
+   *
+   * @return the batching window, or {@code 0} if alerts are not batched.
+   */
+  public long getAlertBatchWindow() {
+    return Long.parseLong(getProperty(ALERTS_BATCH_WINDOW));
+  }
+
+  /**
+   * Gets the number of received alert events which can wait for the next
+   * batch.
+   *
+   * @return the size of the queue of received alert events.
+   */
+  public int getAlertBatchQueueSize() {
+    return Integer.parseInt(getProperty(ALERTS_BATCH_QUEUE_SIZE));
+  }
+
   /**
    * Gets the size of the alerts cache, if enabled.
    */
@@ -5240,6 +5456,39 @@ public class Configuration {
     return Integer.parseInt(getProperty(ALERTS_CACHE_SIZE));
   }
 
+  /**
+   * Gets the number of days for which request and alert history is kept by the
+   * background history purge.
+   *
+   * @return the retention in days, or {@code 0} if history is not purged while
+   *         the server is running.
+   */
+  public int getHistoryPurgeRetentionDays() {
+    return Integer.parseInt(getProperty(HISTORY_PURGE_RETENTION_DAYS));
+  }
+
+  /**
+   * @return the time, in minutes, between background history purges.
+   */
+  public int getHistoryPurgeInterval() {
+    return Integer.parseInt(getProperty(HISTORY_PURGE_INTERVAL));
+  }
+
+  /**
+   * @return the number of requests or alert history entries purged in a single
+   *         transaction.
+   */
+  public int getHistoryPurgeBatchSize() {
+    return Integer.parseInt(getProperty(HISTORY_PURGE_BATCH_SIZE));
+  }
+
+  /**
+   * @return the time, in milliseconds, to pause between purge batches.
+   */
+  public long getHistoryPurgeBatchPause() {
+    return Long.parseLong(getProperty(HISTORY_PURGE_BATCH_PAUSE));
+  }
+
   /**
    * Get the ambari display URL
    * @return
@@ -5428,6 +5677,16 @@ public class Configuration {
     return Boolean.parseBoolean(getProperty(METRIC_RETRIEVAL_SERVICE_REQUEST_TTL_ENABLED));
   }
 
+  /**
+   * Gets whether JMX requests made by the {@link MetricsRetrievalService} are
+   * limited to the requested beans by a {@code qry} parameter.
+   *
+   * @return {@code true} if enabled, {@code false} otherwise.
+   */
+  public boolean isMetricsServiceJMXQueryEnabled() {
+    return Boolean.parseBoolean(getProperty(METRIC_RETRIEVAL_SERVICE_JMX_QUERY_ENABLED));
+  }
+
   /**
    * Returns the number of tasks that can be queried from the database at once
    * In the case of more tasks, multiple queries are issued
@@ -6035,6 +6294,13 @@ public class Configuration {
     return Integer.parseInt(getProperty(KERBEROS_OPERATION_RETRY_TIMEOUT));
   }
 
+  /**
+   * @return the number of threads used to process Kerberos identities, at least 1
+   */
+  public int getKerberosOperationThreads() {
+    return Math.max(1, Integer.parseInt(getProperty(KERBEROS_OPERATION_THREADS)));
+  }
+
   public boolean validateKerberosOperationSSLCertTrust() {
     return Boolean.parseBoolean(getProperty(KERBEROS_OPERATION_VERIFY_KDC_TRUST));
   }
@@ -18,6 +18,7 @@
 
 package org.apache.ambari.server.controller.internal;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -33,8 +34,10 @@ import org.apache.ambari.server.ObjectNotFoundException;
 import org.apache.ambari.server.ParentObjectNotFoundException;
 import org.apache.ambari.server.controller.ConfigurationRequest;
 import org.apache.ambari.server.controller.RequestStatusResponse;
+import org.apache.ambari.server.controller.predicate.AndPredicate;
 import org.apache.ambari.server.controller.predicate.ArrayPredicate;
 import org.apache.ambari.server.controller.predicate.EqualsPredicate;
+import org.apache.ambari.server.controller.predicate.OrPredicate;
 import org.apache.ambari.server.controller.spi.NoSuchParentResourceException;
 import org.apache.ambari.server.controller.spi.NoSuchResourceException;
 import org.apache.ambari.server.controller.spi.Predicate;
@@ -176,6 +179,76 @@ public abstract class AbstractResourceProvider extends BaseProvider implements R
     return propertyMaps;
   }
 
+  /**
+   * Get the predicate that can be evaluated by this provider while building
+   * resources, so that resources which don't match it are dropped before any
+   * further work is done for them (populating through property providers,
+   * sorting and paging).
+   *
+   * @param predicate  the predicate; may be null
+   *
+   * @return the given predicate without its key property equalities, if all
+   *         of its properties are supported by this provider; null otherwise
+   *         or if there is nothing left to evaluate
+   */
+  protected Predicate getSupportedPredicate(Predicate predicate) {
+    if (predicate == null || !checkPropertyIds(PredicateHelper.getPropertyIds(predicate)).isEmpty()) {
+      return null;
+    }
+    return removeKeyPredicates(predicate);
+  }
+
+  /**
+   * Remove the parts of an AND predicate which only test key property
+   * equalities. These are already satisfied by the resources built from the
+   * requests of {@link #getPropertyMaps(Predicate)}, and a query for the sub
+   * resources of many parents ORs one of them per parent.
+   *
+   * @param predicate  the predicate
+   *
+   * @return the predicate without its key equalities; null if nothing is left
+   */
+  private Predicate removeKeyPredicates(Predicate predicate) {
+    if (isKeyPredicate(predicate)) {
+      return null;
+    }
+    if (predicate instanceof AndPredicate) {
+      List<Predicate> predicates = new ArrayList<>();
+      for (Predicate andPredicate : ((AndPredicate) predicate).getPredicates()) {
+        Predicate nonKeyPredicate = removeKeyPredicates(andPredicate);
+        if (nonKeyPredicate != null) {
+          predicates.add(nonKeyPredicate);
+        }
+      }
+      if (predicates.size() < 2) {
+        return predicates.isEmpty() ? null : predicates.get(0);
+      }
+      return new AndPredicate(predicates.toArray(new Predicate[predicates.size()]));
+    }
+    return predicate;
+  }
+
+  /**
+   * @param predicate  the predicate
+   *
+   * @return true if the predicate only consists of AND-ed or OR-ed equalities
+   *         of key properties
+   */
+  private boolean isKeyPredicate(Predicate predicate) {
+    if (predicate instanceof EqualsPredicate) {
+      return getKeyPropertyIds().containsValue(((EqualsPredicate) predicate).getPropertyId());
+    }
+    if (predicate instanceof AndPredicate || predicate instanceof OrPredicate) {
+      for (Predicate arrayPredicate : ((ArrayPredicate) predicate).getPredicates()) {
+        if (!isKeyPredicate(arrayPredicate)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
   /**
    * Get a set of properties from the given property map and predicate.  The
    * returned set of property/value mappings is required to generate update
@@ -31,8 +31,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -46,6 +55,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 import org.apache.ambari.server.AmbariException;
 import org.apache.ambari.server.api.services.AmbariMetaInfo;
@@ -82,12 +92,14 @@ import org.apache.ambari.server.state.ServiceOsSpecific;
 import org.apache.ambari.server.state.StackId;
 import org.apache.ambari.server.utils.SecretReference;
 import org.apache.ambari.server.utils.StageUtils;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.compress.utils.IOUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -167,6 +179,36 @@ public class ClientConfigResourceProvider extends AbstractControllerResourceProv
   public Set<Resource> getResourcesAuthorized(Request request, Predicate predicate)
           throws SystemException, UnsupportedPropertyException, NoSuchResourceException, NoSuchParentResourceException {
 
+    Configuration configs = new Configuration();
+    String tmpPath = configs.getConfigsMap().get(Configuration.SERVER_TMP_DIR.getKey());
+    ConfigArchiveCache archiveCache = new ConfigArchiveCache(tmpPath, configs.getClientConfigsCacheSize(),
+        getManagementController().getAmbariMetaInfo().getServerVersion());
+
+    // archives are generated in, and restored to, a directory private to this
+    // request so that concurrent requests never cache each other's archives
+    Path requestDirectory;
+    try {
+      requestDirectory = archiveCache.createRequestDirectory();
+    } catch (IOException e) {
+      throw new SystemException("Failed to create a directory to generate configurations in", e);
+    }
+
+    try {
+      return getClientConfigs(predicate, configs, archiveCache, requestDirectory);
+    } finally {
+      archiveCache.removeRequestDirectory(requestDirectory);
+    }
+  }
+
+  /**
+   * Generates the configuration archives of the client components matching the predicate.
+   *
+   * @param requestDirectory the directory private to the request, {@code null} if archives are not cached
+   */
+  private Set<Resource> getClientConfigs(Predicate predicate, Configuration configs, ConfigArchiveCache archiveCache,
+                                         Path requestDirectory) throws SystemException, UnsupportedPropertyException,
+          NoSuchResourceException, NoSuchParentResourceException {
+
     Set<Resource> resources = new HashSet<>();
 
     final Set<ServiceComponentHostRequest> requests = new HashSet<>();
@@ -207,12 +249,13 @@ public class ClientConfigResourceProvider extends AbstractControllerResourceProv
     // sch response for the service components that have configFiles defined in the stack definition of the service
     List <ServiceComponentHostResponse> schWithConfigFiles = new ArrayList<>();
 
-    Configuration configs = new Configuration();
     Map<String, String> configMap = configs.getConfigsMap();
     String TMP_PATH = configMap.get(Configuration.SERVER_TMP_DIR.getKey());
     String pythonCmd = configMap.get(Configuration.AMBARI_PYTHON_WRAP.getKey());
     List<String> pythonCompressFilesCmds = new ArrayList<>();
     List<File> commandFiles = new ArrayList<>();
+    Map<String, Path> archivesToCache = new HashMap<>();
+    String outputDirectory = null == requestDirectory ? TMP_PATH : requestDirectory.toString();
 
     for (ServiceComponentHostResponse response : componentMap.values()){
 
@@ -441,6 +484,13 @@ public class ClientConfigResourceProvider extends AbstractControllerResourceProv
 
         jsonConfigurations = gson.toJson(jsonContent);
 
+        String archiveKey = archiveCache.getKey(packageFolderAbsolute, commandScriptAbsolute, jsonConfigurations);
+        Path archiveFile = Paths.get(outputDirectory, componentName + "-configs" + Configuration.DEF_ARCHIVE_EXTENSION);
+        if (archiveCache.restore(archiveKey, archiveFile)) {
+          LOG.debug("Using the cached client configurations of component {}", componentName);
+          continue;
+        }
+
         File tmpDirectory = new File(TMP_PATH);
         if (!tmpDirectory.exists()) {
           try {
@@ -469,10 +519,12 @@ public class ClientConfigResourceProvider extends AbstractControllerResourceProv
         }
 
         String cmd = pythonCmd + " " + commandScriptAbsolute + " generate_configs " + jsonFile.getAbsolutePath() + " " +
-          packageFolderAbsolute + " " + TMP_PATH + File.separator + "structured-out.json" + " INFO " + TMP_PATH;
+          packageFolderAbsolute + " " + outputDirectory + File.separator + "structured-out.json" + " INFO " +
+          outputDirectory;
 
         commandFiles.add(jsonFile);
         pythonCompressFilesCmds.add(cmd);
+        archivesToCache.put(archiveKey, archiveFile);
 
       } catch (IOException e) {
         throw new SystemException("Controller error ", e);
@@ -484,7 +536,8 @@ public class ClientConfigResourceProvider extends AbstractControllerResourceProv
     }
 
     Integer totalCommands = pythonCompressFilesCmds.size() * 2;
-    Integer threadPoolSize = Math.min(totalCommands,configs.getExternalScriptThreadPoolSize());
+    // at least one thread, as all the archives may have been restored from the cache
+    Integer threadPoolSize = Math.max(1, Math.min(totalCommands,configs.getExternalScriptThreadPoolSize()));
     ExecutorService processExecutor = Executors.newFixedThreadPool(threadPoolSize);
 
     // put all threads that starts process to compress each component config files in the executor
@@ -500,6 +553,8 @@ public class ClientConfigResourceProvider extends AbstractControllerResourceProv
       }
     }
 
+    cacheArchives(archiveCache, archivesToCache, requestDirectory, TMP_PATH);
+
     if (StringUtils.isEmpty(requestComponentName)) {
       TarUtils tarUtils;
       String fileName;
@@ -521,6 +576,30 @@ public class ClientConfigResourceProvider extends AbstractControllerResourceProv
     return resources;
   }
 
+  /**
+   * Stores the generated archives in the cache and moves all the archives of
+   * the request to the temporary directory, where they are downloaded from.
+   *
+   * @param archivesToCache  the generated archives by their cache keys
+   * @param requestDirectory the directory private to the request, {@code null} if archives are not cached
+   */
+  private void cacheArchives(ConfigArchiveCache archiveCache, Map<String, Path> archivesToCache,
+                             Path requestDirectory, String tmpPath) throws SystemException {
+    if (null == requestDirectory) {
+      return;
+    }
+
+    for (Map.Entry<String, Path> archive : archivesToCache.entrySet()) {
+      archiveCache.store(archive.getKey(), archive.getValue());
+    }
+
+    try {
+      archiveCache.publish(requestDirectory, Paths.get(tmpPath));
+    } catch (IOException e) {
+      throw new SystemException("Failed to move the generated configurations to " + tmpPath, e);
+    }
+  }
+
   /**
    *  Execute all external script commands
    * @param processExecutor {@link ExecutorService} executes the process when threads are available in the pool
@@ -865,6 +944,225 @@ public class ClientConfigResourceProvider extends AbstractControllerResourceProv
     }
   }
 
+  /**
+   * Keeps copies of the generated component configuration archives in the
+   * temporary directory, keyed by a hash of the server version, the files of
+   * the service package the script belongs to and the complete input the script
+   * was run with. Any change of the configurations, config group membership,
+   * stack, topology, service scripts or server changes the key, so cached
+   * archives, which outlive server restarts, never need to be invalidated; the
+   * least recently used ones are removed once there are more than the
+   * configured number.
+   */
+  protected static class ConfigArchiveCache {
+
+    /**
+     * The directory, within the temporary directory, holding the archives.
+     */
+    private static final String CACHE_DIRECTORY = "client-configs-cache";
+
+    /**
+     * The prefix of the directories, within the temporary directory, private to
+     * a single request.
+     */
+    private static final String REQUEST_DIRECTORY_PREFIX = "client-configs-";
+
+    /**
+     * Guards the removal of archives across all requests.
+     */
+    private static final Object EVICTION_LOCK = new Object();
+
+    private final Path tmpDirectory;
+
+    private final Path cacheDirectory;
+
+    private final int maxSize;
+
+    private final String serverVersion;
+
+    /**
+     * Constructor.
+     *
+     * @param tmpDir        the temporary directory of the server
+     * @param maxSize       the number of archives to keep, {@code 0} to disable caching
+     * @param serverVersion the version of the server, whose libraries the scripts use
+     */
+    ConfigArchiveCache(String tmpDir, int maxSize, String serverVersion) {
+      tmpDirectory = Paths.get(tmpDir);
+      cacheDirectory = tmpDirectory.resolve(CACHE_DIRECTORY);
+      this.maxSize = maxSize;
+      this.serverVersion = serverVersion;
+    }
+
+    /**
+     * Creates a directory private to a request, in which archives are generated
+     * and restored, so that concurrent requests for the same component never
+     * store or overwrite each other's archives.
+     *
+     * @return the directory, or {@code null} if caching is disabled and
+     *         archives are generated directly in the temporary directory
+     */
+    Path createRequestDirectory() throws IOException {
+      if (maxSize < 1) {
+        return null;
+      }
+
+      return Files.createTempDirectory(Files.createDirectories(tmpDirectory), REQUEST_DIRECTORY_PREFIX);
+    }
+
+    /**
+     * Moves the archives of a request to the specified directory, where they
+     * are downloaded from. Each archive is replaced atomically, so a download
+     * never reads a partially written archive.
+     *
+     * @param requestDirectory the directory created by {@link #createRequestDirectory()}
+     * @param targetDirectory  the directory to move the archives to
+     */
+    void publish(Path requestDirectory, Path targetDirectory) throws IOException {
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(requestDirectory,
+          "*" + Configuration.DEF_ARCHIVE_EXTENSION)) {
+        for (Path archiveFile : stream) {
+          Files.move(archiveFile, targetDirectory.resolve(archiveFile.getFileName()),
+              StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+      }
+    }
+
+    /**
+     * Removes a directory created by {@link #createRequestDirectory()} along
+     * with anything left in it.
+     *
+     * @param requestDirectory the directory, or {@code null}
+     */
+    void removeRequestDirectory(Path requestDirectory) {
+      if (null == requestDirectory) {
+        return;
+      }
+
+      try {
+        FileUtils.deleteDirectory(requestDirectory.toFile());
+      } catch (IOException e) {
+        LOG.warn("Unable to remove the temporary directory {}", requestDirectory, e);
+      }
+    }
+
+    /**
+     * The script imports the other files of its service package, so the key
+     * covers the path, size and modification time of each of them.
+     *
+     * @param packageFolder      the service package folder of the script
+     * @param commandScript      the script generating the archive
+     * @param jsonConfigurations the input of the script
+     * @return the key of the archive generated by the script for the input, or
+     *         {@code null} if the archive should not be cached
+     */
+    String getKey(String packageFolder, String commandScript, String jsonConfigurations) {
+      if (maxSize < 1) {
+        return null;
+      }
+
+      StringBuilder key = new StringBuilder().append(serverVersion).append('\n').append(commandScript).append('\n');
+      try (Stream<Path> files = Files.walk(Paths.get(packageFolder))) {
+        files.filter(Files::isRegularFile).sorted().forEach(file -> {
+          File packageFile = file.toFile();
+          key.append(file).append(' ').append(packageFile.length()).append(' ')
+              .append(packageFile.lastModified()).append('\n');
+        });
+      } catch (IOException | UncheckedIOException e) {
+        LOG.warn("Unable to read the service package {}, the client configurations are not cached", packageFolder, e);
+        return null;
+      }
+
+      return DigestUtils.sha256Hex(key.append(jsonConfigurations).toString());
+    }
+
+    /**
+     * Copies the cached archive for the key, if there is one, to the specified
+     * file.
+     *
+     * @return {@code true} if the archive was restored from the cache
+     */
+    boolean restore(String key, Path archiveFile) {
+      if (null == key) {
+        return false;
+      }
+
+      Path cachedFile = getCachedFile(key);
+      try {
+        Files.copy(cachedFile, archiveFile, StandardCopyOption.REPLACE_EXISTING);
+        Files.setLastModifiedTime(cachedFile, FileTime.fromMillis(System.currentTimeMillis()));
+        return true;
+      } catch (NoSuchFileException e) {
+        return false;
+      } catch (IOException e) {
+        LOG.warn("Unable to read the cached client configurations {}", cachedFile, e);
+        return false;
+      }
+    }
+
+    /**
+     * Stores a copy of the generated archive for the key.
+     */
+    void store(String key, Path archiveFile) {
+      if (null == key) {
+        return;
+      }
+
+      try {
+        Path directory = Files.createDirectories(cacheDirectory);
+        Path tmpFile = Files.createTempFile(directory, key, ".tmp");
+        try {
+          Files.copy(archiveFile, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+          Files.move(tmpFile, getCachedFile(key), StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+          Files.deleteIfExists(tmpFile);
+        }
+      } catch (IOException e) {
+        LOG.warn("Unable to cache the client configurations {}", archiveFile, e);
+        return;
+      }
+
+      evict(getCachedFile(key));
+    }
+
+    /**
+     * Removes the least recently used archives beyond the cache size.
+     *
+     * @param storedFile the archive which was just stored and is kept
+     */
+    private void evict(Path storedFile) {
+      synchronized (EVICTION_LOCK) {
+        List<Path> cachedFiles = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDirectory,
+            "*" + Configuration.DEF_ARCHIVE_EXTENSION)) {
+          stream.forEach(cachedFiles::add);
+        } catch (IOException e) {
+          LOG.warn("Unable to list the cached client configurations in {}", cacheDirectory, e);
+          return;
+        }
+
+        cachedFiles.remove(storedFile);
+        if (cachedFiles.size() < maxSize) {
+          return;
+        }
+
+        cachedFiles.sort(Comparator.comparingLong(path -> path.toFile().lastModified()));
+        for (Path cachedFile : cachedFiles.subList(0, cachedFiles.size() - maxSize + 1)) {
+          try {
+            Files.deleteIfExists(cachedFile);
+          } catch (IOException e) {
+            LOG.debug("Unable to remove the cached client configurations {}", cachedFile, e);
+          }
+        }
+      }
+    }
+
+    private Path getCachedFile(String key) {
+      return cacheDirectory.resolve(key + Configuration.DEF_ARCHIVE_EXTENSION);
+    }
+  }
+
   @Override
   public RequestStatus updateResources(final Request request, Predicate predicate)
           throws SystemException, UnsupportedPropertyException, NoSuchResourceException, NoSuchParentResourceException {
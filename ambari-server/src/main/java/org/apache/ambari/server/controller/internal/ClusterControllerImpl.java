@@ -18,16 +18,18 @@
 
 package org.apache.ambari.server.controller.internal;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -193,35 +195,25 @@ public class ClusterControllerImpl implements ClusterController {
         resourceComparator = new ResourceComparator(sortRequest);
       }
 
-      // if the provider did not already sort the set, then sort it based
-      // on the comparator
-      if (!providerAlreadySorted) {
-        TreeSet<Resource> sortedResources = new TreeSet<>(
-          resourceComparator);
-
-        sortedResources.addAll(providerResources);
-        resources = sortedResources;
-      }
-
-      // start out assuming that the results are not paged and that
-      // the total count is the size of the provider resources
-      totalCount = resources.size();
+      // if the provider already sorted the set then the page is taken in the
+      // set order, otherwise only the resources of the page are selected and sorted
+      Comparator<Resource> pageComparator = providerAlreadySorted ? null : resourceComparator;
 
       // conditionally page the results
       if (null != pageRequest && !providerAlreadyPaged) {
         switch (pageRequest.getStartingPoint()) {
           case Beginning:
             return getPageFromOffset(pageRequest.getPageSize(), 0, resources,
-                predicate, provider);
+                predicate, provider, pageComparator);
           case End:
             return getPageToOffset(pageRequest.getPageSize(), -1, resources,
-                predicate, provider);
+                predicate, provider, pageComparator);
           case OffsetStart:
             return getPageFromOffset(pageRequest.getPageSize(),
-                pageRequest.getOffset(), resources, predicate, provider);
+                pageRequest.getOffset(), resources, predicate, provider, pageComparator);
           case OffsetEnd:
             return getPageToOffset(pageRequest.getPageSize(),
-                pageRequest.getOffset(), resources, predicate, provider);
+                pageRequest.getOffset(), resources, predicate, provider, pageComparator);
           case PredicateStart:
           case PredicateEnd:
             // TODO : need to support the following cases for pagination
@@ -229,7 +221,23 @@ public class ClusterControllerImpl implements ClusterController {
           default:
             break;
         }
-      } else if (providerAlreadyPaged) {
+      }
+
+      // if the provider did not already sort the set, then sort it based
+      // on the comparator
+      if (!providerAlreadySorted) {
+        TreeSet<Resource> sortedResources = new TreeSet<>(
+          resourceComparator);
+
+        sortedResources.addAll(providerResources);
+        resources = sortedResources;
+      }
+
+      // start out assuming that the results are not paged and that
+      // the total count is the size of the provider resources
+      totalCount = resources.size();
+
+      if (providerAlreadyPaged) {
         totalCount = queryResponse.getTotalResourceCount();
       }
     }
@@ -573,104 +581,178 @@ public class ClusterControllerImpl implements ClusterController {
   }
 
   /**
-   * Evaluate the predicate and create a list of filtered resources
+   * Select the first resources matching the predicate, counting all of the
+   * matching resources without retaining them.
+   *
+   * @param count       the maximum number of resources to select
+   * @param resources   the resources
+   * @param predicate   the predicate
+   * @param evaluator   the predicate evaluator
+   * @param comparator  the order of resources; null for the iteration order of the given resources
+   *
+   * @return the selected resources in ascending order
+   */
+  private static SelectedResources selectFirst(long count, Set<Resource> resources, Predicate predicate,
+                                               ResourcePredicateEvaluator evaluator,
+                                               Comparator<Resource> comparator) {
+    int limit = (int) Math.min(count, resources.size());
+    int totalCount = 0;
+    List<Resource> selected;
+
+    if (comparator == null) {
+      selected = new ArrayList<>(limit);
+      for (Resource resource : new ResourceIterable(resources, predicate, evaluator)) {
+        if (selected.size() < limit) {
+          selected.add(resource);
+        }
+        ++totalCount;
+      }
+    } else {
+      // keep the smallest resources with the largest one on top of the heap
+      PriorityQueue<Resource> heap = new PriorityQueue<>(Math.max(1, limit), comparator.reversed());
+      for (Resource resource : new ResourceIterable(resources, predicate, evaluator)) {
+        offer(heap, resource, limit);
+        ++totalCount;
+      }
+      selected = new ArrayList<>(heap);
+      selected.sort(comparator);
+    }
+    return new SelectedResources(selected, totalCount);
+  }
+
+  /**
+   * Select the last resources matching the predicate, counting all of the
+   * matching resources without retaining them.
+   *
+   * @param count       the maximum number of resources to select
+   * @param resources   the resources
+   * @param predicate   the predicate
+   * @param evaluator   the predicate evaluator
+   * @param comparator  the order of resources; null for the iteration order of the given resources
    *
-   * @param resourceIterable @ResourceIterable
-   * @return @LinkedList of filtered resources
+   * @return the selected resources in descending order
    */
-  private LinkedList<Resource> getEvaluatedResources(ResourceIterable
-                                              resourceIterable) {
-    LinkedList<Resource> resources = new LinkedList<>();
-    if (resourceIterable != null) {
-      for (Resource resource : resourceIterable) {
-        resources.add(resource);
+  private static SelectedResources selectLast(long count, Set<Resource> resources, Predicate predicate,
+                                              ResourcePredicateEvaluator evaluator,
+                                              Comparator<Resource> comparator) {
+    int limit = (int) Math.min(count, resources.size());
+    int totalCount = 0;
+    List<Resource> selected;
+
+    if (comparator == null) {
+      ArrayDeque<Resource> last = new ArrayDeque<>(Math.max(1, limit));
+      for (Resource resource : new ResourceIterable(resources, predicate, evaluator)) {
+        if (limit > 0) {
+          if (last.size() == limit) {
+            last.removeFirst();
+          }
+          last.addLast(resource);
+        }
+        ++totalCount;
       }
+      selected = new ArrayList<>(limit);
+      last.descendingIterator().forEachRemaining(selected::add);
+    } else {
+      // keep the largest resources with the smallest one on top of the heap
+      PriorityQueue<Resource> heap = new PriorityQueue<>(Math.max(1, limit), comparator);
+      for (Resource resource : new ResourceIterable(resources, predicate, evaluator)) {
+        offer(heap, resource, limit);
+        ++totalCount;
+      }
+      selected = new ArrayList<>(heap);
+      selected.sort(comparator.reversed());
+    }
+    return new SelectedResources(selected, totalCount);
+  }
+
+  /**
+   * Add the resource to the bounded heap, replacing the top of the heap if the
+   * resource precedes it.
+   */
+  private static void offer(PriorityQueue<Resource> heap, Resource resource, int limit) {
+    if (heap.size() < limit) {
+      heap.offer(resource);
+    } else if (limit > 0 && heap.comparator().compare(resource, heap.peek()) > 0) {
+      heap.poll();
+      heap.offer(resource);
     }
-    return resources;
   }
 
   /**
    * Get one page of resources from the given set of resources starting at the given offset.
    *
-   * @param pageSize   the page size
-   * @param offset     the offset
-   * @param resources  the set of resources
-   * @param predicate  the predicate
+   * @param pageSize    the page size
+   * @param offset      the offset
+   * @param resources   the set of resources
+   * @param predicate   the predicate
+   * @param comparator  the order of resources; null if the set is already sorted
    *
    * @return a page response containing a page of resources
    */
   private PageResponse getPageFromOffset(int pageSize, int offset,
       Set<Resource> resources,
                                          Predicate predicate,
-                                         ResourcePredicateEvaluator evaluator) {
+                                         ResourcePredicateEvaluator evaluator,
+                                         Comparator<Resource> comparator) {
 
-    int currentOffset = 0;
-    Resource previous      = null;
-    Set<Resource> pageResources = new LinkedHashSet<>();
-    LinkedList<Resource> filteredResources =
-      getEvaluatedResources(new ResourceIterable(resources, predicate, evaluator));
-    Iterator<Resource> iterator = filteredResources.iterator();
+    // the resources of the page along with the ones before and after it
+    int skip = Math.max(0, offset);
+    SelectedResources selection = selectFirst((long) skip + pageSize + 1, resources, predicate,
+        evaluator, comparator);
+    List<Resource> selected = selection.resources;
 
-    // skip till offset
-    while (currentOffset < offset && iterator.hasNext()) {
-      previous = iterator.next();
-      ++currentOffset;
-    }
-
-    // get a page worth of resources
-    for (int i = 0; i < pageSize && iterator.hasNext(); ++i) {
-      pageResources.add(iterator.next());
-    }
+    int currentOffset = Math.min(skip, selected.size());
+    Resource previous = currentOffset > 0 ? selected.get(currentOffset - 1) : null;
+    int pageEnd = (int) Math.min((long) currentOffset + pageSize, selected.size());
+    Set<Resource> pageResources = new LinkedHashSet<>(selected.subList(currentOffset, pageEnd));
 
     return new PageResponseImpl(pageResources,
         currentOffset,
         previous,
-        iterator.hasNext() ? iterator.next() : null,
-        filteredResources.size()
+        pageEnd < selected.size() ? selected.get(pageEnd) : null,
+        selection.totalCount
       );
   }
 
   /**
    * Get one page of resources from the given set of resources ending at the given offset.
    *
-   * @param pageSize   the page size
-   * @param offset     the offset; -1 indicates the end of the resource set
-   * @param resources  the set of resources
-   * @param predicate  the predicate
+   * @param pageSize    the page size
+   * @param offset      the offset; -1 indicates the end of the resource set
+   * @param resources   the set of resources
+   * @param predicate   the predicate
+   * @param comparator  the order of resources; null if the set is already sorted
    *
    * @return a page response containing a page of resources
    */
   private PageResponse getPageToOffset(int pageSize, int offset,
       Set<Resource> resources,
                                        Predicate predicate,
-                                       ResourcePredicateEvaluator evaluator) {
-
-    int                currentOffset = resources.size() - 1;
-    Resource           next          = null;
-    List<Resource>     pageResources = new LinkedList<>();
-    LinkedList<Resource> filteredResources =
-      getEvaluatedResources(new ResourceIterable(resources, predicate, evaluator));
-    Iterator<Resource> iterator = filteredResources.descendingIterator();
-
-    if (offset != -1) {
-      // skip till offset
-      while (currentOffset > offset && iterator.hasNext()) {
-        next = iterator.next();
-        --currentOffset;
-      }
-    }
+                                       ResourcePredicateEvaluator evaluator,
+                                       Comparator<Resource> comparator) {
 
-    // get a page worth of resources
-    for (int i = 0; i < pageSize && iterator.hasNext(); ++i) {
-      pageResources.add(0, iterator.next());
-      --currentOffset;
-    }
+    int currentOffset = resources.size() - 1;
+    int skip = offset == -1 ? 0 : Math.max(0, currentOffset - offset);
+
+    // the resources of the page along with the ones after and before it, last first
+    SelectedResources selection = selectLast((long) skip + pageSize + 1, resources, predicate,
+        evaluator, comparator);
+    List<Resource> selected = selection.resources;
+
+    int pageEnd = Math.min(skip, selected.size());
+    Resource next = pageEnd > 0 ? selected.get(pageEnd - 1) : null;
+    currentOffset -= pageEnd;
+
+    int pageStart = (int) Math.min((long) pageEnd + pageSize, selected.size());
+    List<Resource> pageResources = new ArrayList<>(selected.subList(pageEnd, pageStart));
+    Collections.reverse(pageResources);
+    currentOffset -= pageResources.size();
 
     return new PageResponseImpl(pageResources,
         currentOffset + 1,
-        iterator.hasNext() ? iterator.next() : null,
+        pageStart < selected.size() ? selected.get(pageStart) : null,
         next,
-        filteredResources.size()
+        selection.totalCount
       );
   }
 
@@ -684,6 +766,23 @@ public class ClusterControllerImpl implements ClusterController {
   }
 
 
+  // ----- SelectedResources inner class -------------------------------------
+
+  /**
+   * Resources selected for a page along with the count of all resources
+   * matching the predicate.
+   */
+  private static class SelectedResources {
+    private final List<Resource> resources;
+    private final int totalCount;
+
+    private SelectedResources(List<Resource> resources, int totalCount) {
+      this.resources = resources;
+      this.totalCount = totalCount;
+    }
+  }
+
+
   // ----- ResourceIterable inner class --------------------------------------
 
   private static class ResourceIterable implements Iterable<Resource> {
@@ -1004,6 +1103,11 @@ public class ClusterControllerImpl implements ClusterController {
       return resourceProvider.checkPropertyIds(propertyIds);
     }
 
+    @Override
+    public boolean isBatchQuerySupported() {
+      return resourceProvider.isBatchQuerySupported();
+    }
+
 
     // ----- ResourcePredicateEvaluator --------------------------------------
 
@@ -218,6 +218,15 @@ public class ComponentResourceProvider extends AbstractControllerResourceProvide
     return getRequestStatus(null);
   }
 
+  /**
+   * Components of many parents are obtained through a single management
+   * controller call, one request per parent key.
+   */
+  @Override
+  public boolean isBatchQuerySupported() {
+    return true;
+  }
+
   @Override
   @Transactional
   public Set<Resource> getResources(Request request, Predicate predicate)
@@ -229,6 +229,15 @@ public class HostComponentResourceProvider extends AbstractControllerResourcePro
     return getRequestStatus(null);
   }
 
+  /**
+   * Components of many parents are obtained through a single management
+   * controller call, one request per parent key.
+   */
+  @Override
+  public boolean isBatchQuerySupported() {
+    return true;
+  }
+
   @Override
   public Set<Resource> getResources(Request request, Predicate predicate)
       throws SystemException, UnsupportedPropertyException, NoSuchResourceException, NoSuchParentResourceException {
@@ -262,6 +271,7 @@ public class HostComponentResourceProvider extends AbstractControllerResourcePro
     Set<String> requestedIds = getRequestPropertyIds(request, predicate);
     // We always need host_name for sch
     requestedIds.add(HOST_NAME);
+    Predicate hostComponentPredicate = getSupportedPredicate(predicate);
 
     Set<ServiceComponentHostResponse> responses = getResources(new Command<Set<ServiceComponentHostResponse>>() {
       @Override
@@ -313,7 +323,9 @@ public class HostComponentResourceProvider extends AbstractControllerResourcePro
                 response.getMaintenanceState(), requestedIds);
       }
 
-      resources.add(resource);
+      if (hostComponentPredicate == null || hostComponentPredicate.evaluate(resource)) {
+        resources.add(resource);
+      }
     }
     return resources;
   }
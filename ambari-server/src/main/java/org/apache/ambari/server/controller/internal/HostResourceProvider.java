@@ -57,6 +57,7 @@ import org.apache.ambari.server.controller.spi.Resource;
 import org.apache.ambari.server.controller.spi.ResourceAlreadyExistsException;
 import org.apache.ambari.server.controller.spi.SystemException;
 import org.apache.ambari.server.controller.spi.UnsupportedPropertyException;
+import org.apache.ambari.server.controller.utilities.PredicateHelper;
 import org.apache.ambari.server.controller.utilities.PropertyHelper;
 import org.apache.ambari.server.events.HostLevelParamsUpdateEvent;
 import org.apache.ambari.server.events.TopologyUpdateEvent;
@@ -267,72 +268,96 @@ public class HostResourceProvider extends AbstractControllerResourceProvider {
       }
     }
 
-    Set<HostResponse> responses = getResources(() -> getHosts(requests));
+    Set<String> requestedIds = getRequestPropertyIds(request, predicate);
 
-    Set<String>   requestedIds = getRequestPropertyIds(request, predicate);
-    Set<Resource> resources    = new HashSet<>();
+    // desired host configs are resolved through the config groups of each host, so skip them unless requested
+    boolean desiredConfigsRequested = isPropertyRequested(HOST_DESIRED_CONFIGS_PROPERTY_ID, requestedIds);
 
-    for (HostResponse response : responses) {
-      Resource resource = new ResourceImpl(Resource.Type.Host);
+    // hosts are filtered before their desired configs are resolved, unless the predicate refers to them
+    Predicate hostPredicate = getSupportedPredicate(predicate);
+    boolean filterHosts = hostPredicate != null &&
+        !isPropertyRequested(HOST_DESIRED_CONFIGS_PROPERTY_ID, PredicateHelper.getPropertyIds(hostPredicate));
 
-      // TODO : properly handle more than one cluster
-      if (response.getClusterName() != null
-          && !response.getClusterName().isEmpty()) {
-        setResourceProperty(resource, HOST_CLUSTER_NAME_PROPERTY_ID,
-            response.getClusterName(), requestedIds);
-      }
-      setResourceProperty(resource, HOST_HOST_NAME_PROPERTY_ID,
-          response.getHostname(), requestedIds);
-      setResourceProperty(resource, HOST_PUBLIC_NAME_PROPERTY_ID,
-          response.getPublicHostName(), requestedIds);
-      setResourceProperty(resource, HOST_IP_PROPERTY_ID,
-          response.getIpv4(), requestedIds);
-      setResourceProperty(resource, HOST_TOTAL_MEM_PROPERTY_ID,
-          response.getTotalMemBytes(), requestedIds);
-      setResourceProperty(resource, HOST_CPU_COUNT_PROPERTY_ID,
-          response.getCpuCount(), requestedIds);
-      setResourceProperty(resource, HOST_PHYSICAL_CPU_COUNT_PROPERTY_ID,
-          response.getPhCpuCount(), requestedIds);
-      setResourceProperty(resource, HOST_OS_ARCH_PROPERTY_ID,
-          response.getOsArch(), requestedIds);
-      setResourceProperty(resource, HOST_OS_TYPE_PROPERTY_ID,
-          response.getOsType(), requestedIds);
-      setResourceProperty(resource, HOST_OS_FAMILY_PROPERTY_ID,
-          response.getOsFamily(), requestedIds);
-      setResourceProperty(resource, HOST_RACK_INFO_PROPERTY_ID,
-          response.getRackInfo(), requestedIds);
-      setResourceProperty(resource, HOST_LAST_HEARTBEAT_TIME_PROPERTY_ID,
-          response.getLastHeartbeatTime(), requestedIds);
-      setResourceProperty(resource, HOST_LAST_AGENT_ENV_PROPERTY_ID,
-          response.getLastAgentEnv(), requestedIds);
-      setResourceProperty(resource, HOST_LAST_REGISTRATION_TIME_PROPERTY_ID,
-          response.getLastRegistrationTime(), requestedIds);
-      setResourceProperty(resource, HOST_HOST_STATUS_PROPERTY_ID,
-          response.getStatus(),requestedIds);
-      setResourceProperty(resource, HOST_HOST_HEALTH_REPORT_PROPERTY_ID,
-          response.getHealthReport(), requestedIds);
-      setResourceProperty(resource, HOST_RECOVERY_REPORT_PROPERTY_ID,
-          response.getRecoveryReport(), requestedIds);
-      setResourceProperty(resource, HOST_RECOVERY_SUMMARY_PROPERTY_ID,
-          response.getRecoverySummary(), requestedIds);
-      setResourceProperty(resource, HOST_DISK_INFO_PROPERTY_ID,
-          response.getDisksInfo(), requestedIds);
-      setResourceProperty(resource, HOST_STATE_PROPERTY_ID,
-          response.getHostState(), requestedIds);
-      setResourceProperty(resource, HOST_DESIRED_CONFIGS_PROPERTY_ID,
-          response.getDesiredHostConfigs(), requestedIds);
-
-      // only when a cluster request
-      if (null != response.getMaintenanceState()) {
-        setResourceProperty(resource, HOST_MAINTENANCE_STATE_PROPERTY_ID,
-            response.getMaintenanceState(), requestedIds);
-      }
+    Set<HostResponse> responses = getResources(() -> getHosts(requests, desiredConfigsRequested,
+        filterHosts ? hostPredicate : null, requestedIds));
 
-      resources.add(resource);
+    Set<Resource> resources = new HashSet<>();
+    for (HostResponse response : responses) {
+      Resource resource = toResource(response, requestedIds);
+      if (filterHosts || hostPredicate == null || hostPredicate.evaluate(resource)) {
+        resources.add(resource);
+      }
     }
     return resources;
   }
 
+  /**
+   * Build a host resource from the given response.
+   *
+   * @param response      the host response
+   * @param requestedIds  the requested property ids
+   *
+   * @return the host resource
+   */
+  private static Resource toResource(HostResponse response, Set<String> requestedIds) {
+    Resource resource = new ResourceImpl(Resource.Type.Host);
+
+    // TODO : properly handle more than one cluster
+    if (response.getClusterName() != null
+        && !response.getClusterName().isEmpty()) {
+      setResourceProperty(resource, HOST_CLUSTER_NAME_PROPERTY_ID,
+          response.getClusterName(), requestedIds);
+    }
+    setResourceProperty(resource, HOST_HOST_NAME_PROPERTY_ID,
+        response.getHostname(), requestedIds);
+    setResourceProperty(resource, HOST_PUBLIC_NAME_PROPERTY_ID,
+        response.getPublicHostName(), requestedIds);
+    setResourceProperty(resource, HOST_IP_PROPERTY_ID,
+        response.getIpv4(), requestedIds);
+    setResourceProperty(resource, HOST_TOTAL_MEM_PROPERTY_ID,
+        response.getTotalMemBytes(), requestedIds);
+    setResourceProperty(resource, HOST_CPU_COUNT_PROPERTY_ID,
+        response.getCpuCount(), requestedIds);
+    setResourceProperty(resource, HOST_PHYSICAL_CPU_COUNT_PROPERTY_ID,
+        response.getPhCpuCount(), requestedIds);
+    setResourceProperty(resource, HOST_OS_ARCH_PROPERTY_ID,
+        response.getOsArch(), requestedIds);
+    setResourceProperty(resource, HOST_OS_TYPE_PROPERTY_ID,
+        response.getOsType(), requestedIds);
+    setResourceProperty(resource, HOST_OS_FAMILY_PROPERTY_ID,
+        response.getOsFamily(), requestedIds);
+    setResourceProperty(resource, HOST_RACK_INFO_PROPERTY_ID,
+        response.getRackInfo(), requestedIds);
+    setResourceProperty(resource, HOST_LAST_HEARTBEAT_TIME_PROPERTY_ID,
+        response.getLastHeartbeatTime(), requestedIds);
+    setResourceProperty(resource, HOST_LAST_AGENT_ENV_PROPERTY_ID,
+        response.getLastAgentEnv(), requestedIds);
+    setResourceProperty(resource, HOST_LAST_REGISTRATION_TIME_PROPERTY_ID,
+        response.getLastRegistrationTime(), requestedIds);
+    setResourceProperty(resource, HOST_HOST_STATUS_PROPERTY_ID,
+        response.getStatus(),requestedIds);
+    setResourceProperty(resource, HOST_HOST_HEALTH_REPORT_PROPERTY_ID,
+        response.getHealthReport(), requestedIds);
+    setResourceProperty(resource, HOST_RECOVERY_REPORT_PROPERTY_ID,
+        response.getRecoveryReport(), requestedIds);
+    setResourceProperty(resource, HOST_RECOVERY_SUMMARY_PROPERTY_ID,
+        response.getRecoverySummary(), requestedIds);
+    setResourceProperty(resource, HOST_DISK_INFO_PROPERTY_ID,
+        response.getDisksInfo(), requestedIds);
+    setResourceProperty(resource, HOST_STATE_PROPERTY_ID,
+        response.getHostState(), requestedIds);
+    setResourceProperty(resource, HOST_DESIRED_CONFIGS_PROPERTY_ID,
+        response.getDesiredHostConfigs(), requestedIds);
+
+    // only when a cluster request
+    if (null != response.getMaintenanceState()) {
+      setResourceProperty(resource, HOST_MAINTENANCE_STATE_PROPERTY_ID,
+          response.getMaintenanceState(), requestedIds);
+    }
+
+    return resource;
+  }
+
   @Override
   protected RequestStatus updateResourcesAuthorized(final Request request, Predicate predicate)
       throws SystemException, UnsupportedPropertyException, NoSuchResourceException, NoSuchParentResourceException {
@@ -674,13 +699,23 @@ public class HostResourceProvider extends AbstractControllerResourceProvider {
   }
 
   protected Set<HostResponse> getHosts(Set<HostRequest> requests) throws AmbariException {
+    return getHosts(requests, true, null, null);
+  }
+
+  /**
+   * @param includeDesiredConfigs whether the desired host configs should be set on the responses
+   * @param predicate             hosts which don't match it are skipped; may be null
+   * @param requestedIds          the property ids to evaluate the predicate with
+   */
+  protected Set<HostResponse> getHosts(Set<HostRequest> requests, boolean includeDesiredConfigs, Predicate predicate,
+                                       Set<String> requestedIds) throws AmbariException {
     Set<HostResponse> response = new HashSet<>();
 
     AmbariManagementController controller = getManagementController();
 
     for (HostRequest request : requests) {
       try {
-        response.addAll(getHosts(controller, request, osFamily));
+        response.addAll(getHosts(controller, request, osFamily, includeDesiredConfigs, predicate, requestedIds));
       } catch (HostNotFoundException e) {
         if (requests.size() == 1) {
           // only throw exception if 1 request.
@@ -697,6 +732,18 @@ public class HostResourceProvider extends AbstractControllerResourceProvider {
    */
   protected static Set<HostResponse> getHosts(AmbariManagementController controller, HostRequest request, OsFamily osFamily)
       throws AmbariException {
+    return getHosts(controller, request, osFamily, true, null, null);
+  }
+
+  /**
+   * @param osFamily provides OS to OS family lookup; may be null if OS family is ignored anyway (eg. for liveness check)
+   * @param includeDesiredConfigs whether the desired host configs should be set on the responses
+   * @param predicate hosts which don't match it are skipped before their desired configs are resolved; may be null
+   * @param requestedIds the property ids to evaluate the predicate with
+   */
+  protected static Set<HostResponse> getHosts(AmbariManagementController controller, HostRequest request, OsFamily osFamily,
+                                              boolean includeDesiredConfigs, Predicate predicate, Set<String> requestedIds)
+      throws AmbariException {
 
     //TODO/FIXME host can only belong to a single cluster so get host directly from Cluster
     //TODO/FIXME what is the requirement for filtering on host attributes?
@@ -733,7 +780,7 @@ public class HostResourceProvider extends AbstractControllerResourceProvider {
 
     // retrieve the cluster desired configs once instead of per host
     Map<String, DesiredConfig> desiredConfigs = null;
-    if (null != cluster) {
+    if (null != cluster && includeDesiredConfigs) {
       desiredConfigs = cluster.getDesiredConfigs();
     }
 
@@ -743,7 +790,6 @@ public class HostResourceProvider extends AbstractControllerResourceProvider {
           HostResponse r = h.convertToResponse();
 
           r.setClusterName(clusterName);
-          r.setDesiredHostConfigs(h.getDesiredHostConfigs(cluster, desiredConfigs));
           r.setMaintenanceState(h.getMaintenanceState(cluster.getClusterId()));
           if (osFamily != null) {
             String hostOsFamily = osFamily.find(r.getOsType());
@@ -752,6 +798,12 @@ public class HostResourceProvider extends AbstractControllerResourceProvider {
             }
             r.setOsFamily(hostOsFamily);
           }
+          if (predicate != null && !predicate.evaluate(toResource(r, requestedIds))) {
+            continue;
+          }
+          if (includeDesiredConfigs) {
+            r.setDesiredHostConfigs(h.getDesiredHostConfigs(cluster, desiredConfigs));
+          }
 
           response.add(r);
         } else if (hostName != null) {
@@ -762,12 +814,18 @@ public class HostResourceProvider extends AbstractControllerResourceProvider {
 
         Set<Cluster> clustersForHost = clusters.getClustersForHost(h.getHostName());
         //todo: host can only belong to a single cluster
+        Cluster clusterForHost = null;
         if (clustersForHost != null && clustersForHost.size() != 0) {
-          Cluster clusterForHost = clustersForHost.iterator().next();
+          clusterForHost = clustersForHost.iterator().next();
           r.setClusterName(clusterForHost.getClusterName());
-          r.setDesiredHostConfigs(h.getDesiredHostConfigs(clusterForHost, null));
           r.setMaintenanceState(h.getMaintenanceState(clusterForHost.getClusterId()));
         }
+        if (predicate != null && !predicate.evaluate(toResource(r, requestedIds))) {
+          continue;
+        }
+        if (clusterForHost != null && includeDesiredConfigs) {
+          r.setDesiredHostConfigs(h.getDesiredHostConfigs(clusterForHost, null));
+        }
 
         response.add(r);
       }
@@ -19,7 +19,6 @@
 package org.apache.ambari.server.controller.internal;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -27,11 +26,32 @@ import java.util.TreeMap;
 import org.apache.ambari.server.controller.spi.Resource;
 import org.apache.ambari.server.controller.utilities.PropertyHelper;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 /**
  * Simple resource implementation.
+ * <p/>
+ * Property ids are split into category and name once and shared by all
+ * resources. The property maps stay synchronized since property providers
+ * running on a thread pool may still set properties of a resource after their
+ * timeout expired, while the resource is already being read.
  */
 public class ResourceImpl implements Resource {
 
+  /**
+   * The maximum number of parsed property ids to keep.
+   */
+  private static final int PROPERTY_KEY_CACHE_SIZE = 50000;
+
+  /**
+   * Category keys and property names of property ids, shared by all resources.
+   */
+  private static final LoadingCache<String, PropertyKey> propertyKeys = CacheBuilder.newBuilder()
+      .maximumSize(PROPERTY_KEY_CACHE_SIZE)
+      .build(CacheLoader.from(PropertyKey::new));
+
   /**
    * The resource type.
    */
@@ -73,14 +93,19 @@ public class ResourceImpl implements Resource {
   public ResourceImpl(Resource resource, Set<String> propertyIds) {
     this.type = resource.getType();
 
+    boolean copyAll = propertyIds == null || propertyIds.isEmpty();
     for (Map.Entry<String, Map<String, Object>> categoryEntry :
         resource.getPropertiesMap().entrySet()) {
       String category = categoryEntry.getKey();
       Map<String, Object> propertyMap = categoryEntry.getValue();
       if (propertyMap != null) {
         for (Map.Entry<String, Object> propertyEntry : propertyMap.entrySet()) {
+          if (copyAll) {
+            getProperties(category).put(propertyEntry.getKey(), propertyEntry.getValue());
+            continue;
+          }
           String propertyId = PropertyHelper.getPropertyId(category, propertyEntry.getKey());
-          if (propertyIds == null || propertyIds.isEmpty() || PropertyHelper.containsProperty(propertyIds, propertyId)) {
+          if (PropertyHelper.containsProperty(propertyIds, propertyId)) {
             Object propertyValue = propertyEntry.getValue();
             setProperty(propertyId, propertyValue);
           }
@@ -104,33 +129,24 @@ public class ResourceImpl implements Resource {
 
   @Override
   public void setProperty(String id, Object value) {
-    String categoryKey = getCategoryKey(PropertyHelper.getPropertyCategory(id));
+    PropertyKey key = propertyKeys.getUnchecked(id);
 
-    Map<String, Object> properties = propertiesMap.get(categoryKey);
-    if (properties == null) {
-      properties = Collections.synchronizedMap(new TreeMap<String, Object>());
-      propertiesMap.put(categoryKey, properties);
-    }
-    properties.put(PropertyHelper.getPropertyName(id), value);
+    getProperties(key.category).put(key.name, value);
   }
 
   @Override
   public void addCategory(String id) {
-    String categoryKey = getCategoryKey(id);
-
-    if (!propertiesMap.containsKey(categoryKey)) {
-      propertiesMap.put(categoryKey, new HashMap<>());
-    }
+    getProperties(getCategoryKey(id));
   }
 
   @Override
   public Object getPropertyValue(String id) {
-    String categoryKey = getCategoryKey(PropertyHelper.getPropertyCategory(id));
+    PropertyKey key = propertyKeys.getUnchecked(id);
 
-    Map<String, Object> properties = propertiesMap.get(categoryKey);
+    Map<String, Object> properties = propertiesMap.get(key.category);
 
     return properties == null ?
-        null : properties.get(PropertyHelper.getPropertyName(id));
+        null : properties.get(key.name);
   }
 
 
@@ -154,18 +170,42 @@ public class ResourceImpl implements Resource {
 
     ResourceImpl resource = (ResourceImpl) o;
 
-    return type == resource.type &&
-        !(propertiesMap != null ? !propertiesMap.equals(resource.propertiesMap) : resource.propertiesMap != null);
+    return type == resource.type && propertiesMap.equals(resource.propertiesMap);
   }
 
   @Override
   public int hashCode() {
-    return 31 * type.hashCode() + (propertiesMap != null ? propertiesMap.hashCode() : 0);
+    return 31 * type.hashCode() + propertiesMap.hashCode();
   }
 
   // ----- utility methods ---------------------------------------------------
 
-  private String getCategoryKey(String category) {
+  private static String getCategoryKey(String category) {
     return category == null ? "" : category;
   }
+
+  /**
+   * Gets the properties of the given category, adding the category if needed.
+   */
+  private Map<String, Object> getProperties(String categoryKey) {
+    Map<String, Object> properties = propertiesMap.get(categoryKey);
+    if (properties == null) {
+      properties = propertiesMap.computeIfAbsent(categoryKey,
+          k -> Collections.synchronizedMap(new TreeMap<String, Object>()));
+    }
+    return properties;
+  }
+
+  /**
+   * Category key and property name of a property id.
+   */
+  private static final class PropertyKey {
+    private final String category;
+    private final String name;
+
+    private PropertyKey(String id) {
+      category = getCategoryKey(PropertyHelper.getPropertyCategory(id));
+      name = PropertyHelper.getPropertyName(id);
+    }
+  }
 }
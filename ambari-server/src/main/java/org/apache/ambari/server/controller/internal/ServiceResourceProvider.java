@@ -301,8 +301,9 @@ public class ServiceResourceProvider extends AbstractControllerResourceProvider
       }
     });
 
-    Set<String>   requestedIds = getRequestPropertyIds(request, predicate);
-    Set<Resource> resources    = new HashSet<>();
+    Set<String>   requestedIds     = getRequestPropertyIds(request, predicate);
+    Predicate     servicePredicate = getSupportedPredicate(predicate);
+    Set<Resource> resources        = new HashSet<>();
 
     for (ServiceResponse response : responses) {
       Resource resource = new ResourceImpl(Resource.Type.Service);
@@ -310,9 +311,11 @@ public class ServiceResourceProvider extends AbstractControllerResourceProvider
           response.getClusterName(), requestedIds);
       setResourceProperty(resource, SERVICE_SERVICE_NAME_PROPERTY_ID,
           response.getServiceName(), requestedIds);
-      setResourceProperty(resource, SERVICE_SERVICE_STATE_PROPERTY_ID,
-          calculateServiceState(response.getClusterName(), response.getServiceName()),
-          requestedIds);
+      // the service state is calculated from all of its host components, so skip it unless requested
+      if (isPropertyRequested(SERVICE_SERVICE_STATE_PROPERTY_ID, requestedIds)) {
+        resource.setProperty(SERVICE_SERVICE_STATE_PROPERTY_ID,
+            calculateServiceState(response.getClusterName(), response.getServiceName()));
+      }
       setResourceProperty(resource, SERVICE_MAINTENANCE_STATE_PROPERTY_ID,
           response.getMaintenanceState(), requestedIds);
       setResourceProperty(resource, SERVICE_CREDENTIAL_STORE_SUPPORTED_PROPERTY_ID,
@@ -320,11 +323,13 @@ public class ServiceResourceProvider extends AbstractControllerResourceProvider
       setResourceProperty(resource, SERVICE_CREDENTIAL_STORE_ENABLED_PROPERTY_ID,
           String.valueOf(response.isCredentialStoreEnabled()), requestedIds);
 
-      RepositoryVersionEntity repoVersion = repositoryVersionDAO.findByPK(response.getDesiredRepositoryVersionId());
+      if (isPropertyRequested(SERVICE_DESIRED_STACK_PROPERTY_ID, requestedIds)) {
+        RepositoryVersionEntity repoVersion = repositoryVersionDAO.findByPK(response.getDesiredRepositoryVersionId());
 
-      // !!! TODO is the UI using this?
-      if (null != repoVersion) {
-        setResourceProperty(resource, SERVICE_DESIRED_STACK_PROPERTY_ID, repoVersion.getStackId(), requestedIds);
+        // !!! TODO is the UI using this?
+        if (null != repoVersion) {
+          resource.setProperty(SERVICE_DESIRED_STACK_PROPERTY_ID, repoVersion.getStackId());
+        }
       }
 
       setResourceProperty(resource, SERVICE_DESIRED_REPO_VERSION_ID_PROPERTY_ID,
@@ -356,7 +361,9 @@ public class ServiceResourceProvider extends AbstractControllerResourceProvider
         setResourceProperty(resource, entry.getKey(), entry.getValue(), requestedIds);
       }
 
-      resources.add(resource);
+      if (servicePredicate == null || servicePredicate.evaluate(resource)) {
+        resources.add(resource);
+      }
     }
     return resources;
   }
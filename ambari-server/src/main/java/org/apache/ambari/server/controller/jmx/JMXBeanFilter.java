@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.jmx;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Set of JMX beans and their attributes which should be kept while reading a JMX response with
+ * {@link JMXMetricReader}. Beans are requested either by exact name or by a name regular expression.
+ * <p/>
+ * Names of beans reported per RPC port (e.g. {@code RpcActivityForPort8020}) are rewritten after reading, so such
+ * beans are always kept whole.
+ */
+public final class JMXBeanFilter {
+  static final String NAME_KEY = "name";
+  static final String PORT_KEY = "tag.port";
+
+  private static final String PORT_BEAN_NAME_PART = "ForPort";
+
+  private final Map<String, Set<String>> beans;
+  private final Map<String, Set<String>> beanPatterns;
+  private final List<Pattern> compiledPatterns = new ArrayList<>();
+  private final String id;
+
+  /**
+   * @param beans attribute names by bean name
+   * @param beanPatterns attribute names by bean name regular expression
+   */
+  public JMXBeanFilter(Map<String, Set<String>> beans, Map<String, Set<String>> beanPatterns) {
+    this.beans = new TreeMap<>();
+    beans.forEach((name, attributes) -> this.beans.put(name, new TreeSet<>(attributes)));
+    this.beanPatterns = new TreeMap<>();
+    beanPatterns.forEach((pattern, attributes) -> this.beanPatterns.put(pattern, new TreeSet<>(attributes)));
+    for (String pattern : this.beanPatterns.keySet()) {
+      compiledPatterns.add(Pattern.compile(pattern));
+    }
+    id = DigestUtils.sha1Hex(this.beans.toString() + this.beanPatterns.toString());
+  }
+
+  /**
+   * @return identifier which is equal for filters requesting the same beans and attributes
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * @param beanName name of bean from JMX response
+   * @return predicate accepting attributes of the bean to keep, or {@code null} if the bean is not requested
+   */
+  @Nullable
+  public Predicate<String> getAttributes(String beanName) {
+    if (beanName.contains(PORT_BEAN_NAME_PART)) {
+      return attribute -> true;
+    }
+
+    Set<String> attributes = null;
+    Set<String> exactAttributes = beans.get(beanName);
+    if (exactAttributes != null) {
+      attributes = new HashSet<>(exactAttributes);
+    }
+    int i = 0;
+    for (Set<String> patternAttributes : beanPatterns.values()) {
+      if (compiledPatterns.get(i++).matcher(beanName).matches()) {
+        if (attributes == null) {
+          attributes = new HashSet<>();
+        }
+        attributes.addAll(patternAttributes);
+      }
+    }
+    if (attributes == null) {
+      return null;
+    }
+
+    Set<String> requested = attributes;
+    return attribute -> NAME_KEY.equals(attribute) || PORT_KEY.equals(attribute) || requested.contains(attribute);
+  }
+
+  /**
+   * Builds a {@code qry} parameter value for Hadoop JMX servlets, matching all requested beans. It is only possible
+   * when beans are requested by exact names with the same domain and first key property.
+   *
+   * @return object name pattern, such as {@code Hadoop:service=NameNode,*}, or {@code null}
+   */
+  @Nullable
+  public String getQuery() {
+    if (!beanPatterns.isEmpty() || beans.isEmpty()) {
+      return null;
+    }
+    String query = null;
+    for (String beanName : beans.keySet()) {
+      int keysIndex = beanName.indexOf(':');
+      if (keysIndex == -1) {
+        return null;
+      }
+      int firstKeyEnd = beanName.indexOf(',', keysIndex);
+      String beanQuery = (firstKeyEnd == -1 ? beanName : beanName.substring(0, firstKeyEnd)) + ",*";
+      if (query == null) {
+        query = beanQuery;
+      } else if (!query.equals(beanQuery)) {
+        return null;
+      }
+    }
+    return query;
+  }
+
+  @Override
+  public String toString() {
+    return "JMXBeanFilter{beans=" + beans.keySet() + ", beanPatterns=" + beanPatterns.keySet() + "}";
+  }
+}
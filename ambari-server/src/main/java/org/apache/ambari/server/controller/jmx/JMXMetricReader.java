@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.jmx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
+
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ * Reads JMX servlet responses into {@link JMXMetricHolder} with a streaming parser. When a {@link JMXBeanFilter} is
+ * given, beans and attributes which were not requested are skipped without being materialized.
+ */
+public class JMXMetricReader {
+  private static final String BEANS_KEY = "beans";
+
+  private final ObjectMapper objectMapper;
+
+  public JMXMetricReader() {
+    objectMapper = new ObjectMapper();
+    objectMapper.configure(DeserializationConfig.Feature.USE_ANNOTATIONS, false);
+    objectMapper.configure(JsonParser.Feature.ALLOW_NON_NUMERIC_NUMBERS, true);
+  }
+
+  /**
+   * @param inputStream JMX response
+   * @param beanFilter beans and attributes to keep, or {@code null} to keep everything
+   * @return beans from the response
+   * @throws IOException if response can't be read or parsed
+   */
+  public JMXMetricHolder read(InputStream inputStream, @Nullable JMXBeanFilter beanFilter) throws IOException {
+    List<Map<String, Object>> beans = new ArrayList<>();
+    try (JsonParser parser = objectMapper.getJsonFactory().createJsonParser(inputStream)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException("Expected JMX response object", parser.getCurrentLocation());
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if (BEANS_KEY.equals(field) && token == JsonToken.START_ARRAY) {
+          while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+              Map<String, Object> bean = readBean(parser, beanFilter);
+              if (bean != null) {
+                beans.add(bean);
+              }
+            } else {
+              parser.skipChildren();
+            }
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    JMXMetricHolder metricHolder = new JMXMetricHolder();
+    metricHolder.setBeans(beans);
+    return metricHolder;
+  }
+
+  /**
+   * Reads bean object the parser is positioned at.
+   *
+   * @return bean attributes, or {@code null} if bean was not requested
+   */
+  private Map<String, Object> readBean(JsonParser parser, @Nullable JMXBeanFilter beanFilter) throws IOException {
+    Map<String, Object> bean = new LinkedHashMap<>();
+    // until the name is known all attributes have to be read
+    boolean nameRead = false;
+    Predicate<String> attributes = null;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String attribute = parser.getCurrentName();
+      parser.nextToken();
+
+      if (beanFilter == null) {
+        bean.put(attribute, objectMapper.readValue(parser, Object.class));
+      } else if (!nameRead && JMXBeanFilter.NAME_KEY.equals(attribute)) {
+        Object name = objectMapper.readValue(parser, Object.class);
+        bean.put(attribute, name);
+        nameRead = true;
+        attributes = name == null ? null : beanFilter.getAttributes(name.toString());
+      } else if (nameRead && (attributes == null || !attributes.test(attribute))) {
+        parser.skipChildren();
+      } else {
+        bean.put(attribute, objectMapper.readValue(parser, Object.class));
+      }
+    }
+
+    if (beanFilter != null) {
+      if (attributes == null) {
+        return null;
+      }
+      // drop attributes read before the name
+      bean.keySet().removeIf(attributes.negate());
+    }
+    return bean;
+  }
+}
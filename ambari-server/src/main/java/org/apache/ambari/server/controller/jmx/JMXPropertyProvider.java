@@ -26,12 +26,14 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.annotation.Nullable;
 
 import org.apache.ambari.server.AmbariException;
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.internal.PropertyInfo;
 import org.apache.ambari.server.controller.metrics.MetricHostProvider;
 import org.apache.ambari.server.controller.metrics.ThreadPoolEnabledPropertyProvider;
@@ -39,12 +41,16 @@ import org.apache.ambari.server.controller.spi.Predicate;
 import org.apache.ambari.server.controller.spi.Request;
 import org.apache.ambari.server.controller.spi.Resource;
 import org.apache.ambari.server.controller.spi.SystemException;
+import org.apache.ambari.server.controller.utilities.PropertyHelper;
 import org.apache.ambari.server.controller.utilities.StreamProvider;
 import org.apache.ambari.server.state.services.MetricsRetrievalService;
 import org.apache.ambari.server.state.services.MetricsRetrievalService.MetricSourceType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
@@ -85,6 +91,12 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
   private static final String PORT_KEY = "tag.port";
   private static final String DOT_REPLACEMENT_CHAR = "#";
 
+  /**
+   * Minutes after which JMX beans of a component are collected again from its
+   * metrics, so changes of stack metric definitions are picked up.
+   */
+  private static final long BEAN_FILTER_TTL_MINUTES = 5;
+
   private static final Map<String, String> DEFAULT_JMX_PORTS = new HashMap<>();
 
   /**
@@ -138,6 +150,13 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
 
   private final Map<String, String> clusterComponentPortsMap;
 
+  /**
+   * JMX beans and attributes of component metrics by component name.
+   */
+  private final LoadingCache<String, JMXBeanFilter> componentBeanFilters = CacheBuilder.newBuilder()
+      .expireAfterWrite(BEAN_FILTER_TTL_MINUTES, TimeUnit.MINUTES)
+      .build(CacheLoader.from(this::createBeanFilter));
+
   /**
    * Used to submit asynchronous requests for remote metrics as well as querying
    * cached metrics.
@@ -145,6 +164,9 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
   @Inject
   private MetricsRetrievalService metricsRetrievalService;
 
+  @Inject
+  private Configuration configuration;
+
   // ----- Constructors ------------------------------------------------------
 
   /**
@@ -263,24 +285,29 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
           return resource;
         }
 
+        // only beans and attributes of the component metrics are read, so
+        // the cached data serves any request for the component
+        JMXBeanFilter beanFilter = getBeanFilter(componentName);
+        String jmxPath = getJMXPath(beanFilter);
+
         // build the URL
-        String jmxUrl = getSpec(protocol, hostName, port, "/jmx");
+        String jmxUrl = getSpec(protocol, hostName, port, jmxPath);
 
         // always submit a request to cache the latest data
-        metricsRetrievalService.submitRequest(MetricSourceType.JMX, streamProvider, jmxUrl);
+        metricsRetrievalService.submitJMXRequest(streamProvider, jmxUrl, beanFilter);
 
         // check to see if there is a cached value and use it if there is
-        JMXMetricHolder jmxMetricHolder = metricsRetrievalService.getCachedJMXMetric(jmxUrl);
+        JMXMetricHolder jmxMetricHolder = metricsRetrievalService.getCachedJMXMetric(jmxUrl, beanFilter);
 
         if( jmxMetricHolder == null && !hostName.equalsIgnoreCase(publicHostName)) {
           // build the URL using public host name
-          String publicJmxUrl = getSpec(protocol, publicHostName, port, "/jmx");
+          String publicJmxUrl = getSpec(protocol, publicHostName, port, jmxPath);
 
           // always submit a request to cache the latest data
-          metricsRetrievalService.submitRequest(MetricSourceType.JMX, streamProvider, publicJmxUrl);
+          metricsRetrievalService.submitJMXRequest(streamProvider, publicJmxUrl, beanFilter);
 
           // check to see if there is a cached value and use it if there is
-          jmxMetricHolder = metricsRetrievalService.getCachedJMXMetric(publicJmxUrl);
+          jmxMetricHolder = metricsRetrievalService.getCachedJMXMetric(publicJmxUrl, beanFilter);
         }
 
         // if the ticket becomes invalid (timeout) then bail out
@@ -381,22 +408,10 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
             }
           }
 
-          if (!containsArguments(propertyId)) {
-            int dotIndex = property.indexOf('.', property.indexOf('='));
-            if (-1 != dotIndex) {
-              category = property.substring(0, dotIndex);
-              property = (-1 == keyStartIndex) ?
-                      property.substring(dotIndex+1) :
-                      property.substring(dotIndex+1, keyStartIndex);
-            }
-          } else {
-            int firstKeyIndex = keyStartIndex > -1 ? keyStartIndex : property.length();
-            int dotIndex = property.lastIndexOf('.', firstKeyIndex);
-
-            if (dotIndex != -1) {
-              category = property.substring(0, dotIndex);
-              property = property.substring(dotIndex + 1, firstKeyIndex);
-            }
+          String[] categoryAndProperty = splitCategory(propertyId, property);
+          if (categoryAndProperty != null) {
+            category = categoryAndProperty[0];
+            property = categoryAndProperty[1];
           }
 
           if (containsArguments(propertyId)) {
@@ -430,6 +445,70 @@ public class JMXPropertyProvider extends ThreadPoolEnabledPropertyProvider {
     }
   }
 
+  /**
+   * Splits JMX property of a metric into bean name (category) and attribute name.
+   *
+   * @param propertyId  the metric property id
+   * @param property    the JMX property, such as {@code Hadoop:service=NameNode,name=FSNamesystem.CapacityTotal}
+   *
+   * @return category and attribute name, or null if the property has no category
+   */
+  private static String[] splitCategory(String propertyId, String property) {
+    int keyStartIndex = property.indexOf('[');
+    if (!PropertyHelper.containsArguments(propertyId)) {
+      int dotIndex = property.indexOf('.', property.indexOf('='));
+      if (-1 != dotIndex) {
+        return new String[] {property.substring(0, dotIndex),
+          (-1 == keyStartIndex) ? property.substring(dotIndex+1) : property.substring(dotIndex+1, keyStartIndex)};
+      }
+    } else {
+      int firstKeyIndex = keyStartIndex > -1 ? keyStartIndex : property.length();
+      int dotIndex = property.lastIndexOf('.', firstKeyIndex);
+
+      if (dotIndex != -1) {
+        return new String[] {property.substring(0, dotIndex), property.substring(dotIndex + 1, firstKeyIndex)};
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets the JMX beans and attributes of all point in time metrics of the component.
+   */
+  private JMXBeanFilter getBeanFilter(String componentName) {
+    return componentBeanFilters.getUnchecked(componentName);
+  }
+
+  private JMXBeanFilter createBeanFilter(String componentName) {
+    Map<String, Set<String>> beans = new HashMap<>();
+    Map<String, Set<String>> beanPatterns = new HashMap<>();
+    Map<String, PropertyInfo> metrics = getComponentMetrics().get(componentName);
+    if (metrics == null) {
+      return new JMXBeanFilter(beans, beanPatterns);
+    }
+    for (Map.Entry<String, PropertyInfo> entry : metrics.entrySet()) {
+      PropertyInfo propertyInfo = entry.getValue();
+      if (propertyInfo.isPointInTime() && propertyInfo.getPropertyId() != null) {
+        String[] categoryAndProperty = splitCategory(entry.getKey(), propertyInfo.getPropertyId());
+        if (categoryAndProperty != null) {
+          String attribute = dotReplacementCharPattern.matcher(categoryAndProperty[1]).replaceAll(".");
+          (PropertyHelper.containsArguments(entry.getKey()) ? beanPatterns : beans)
+              .computeIfAbsent(categoryAndProperty[0], k -> new HashSet<>()).add(attribute);
+        }
+      }
+    }
+    return new JMXBeanFilter(beans, beanPatterns);
+  }
+
+  /**
+   * Gets path of the JMX servlet request, limited to the requested beans by a
+   * {@code qry} parameter if enabled and possible.
+   */
+  private String getJMXPath(JMXBeanFilter beanFilter) {
+    String query = configuration.isMetricsServiceJMXQueryEnabled() ? beanFilter.getQuery() : null;
+    return query == null ? "/jmx" : "/jmx?qry=" + query;
+  }
+
   private void setResourceValue(Resource resource, Map<String, Map<String, Object>> categories, String propertyId,
                                 String category, String property, List<String> keyList) {
     Map<String, Object> properties = categories.get(category);
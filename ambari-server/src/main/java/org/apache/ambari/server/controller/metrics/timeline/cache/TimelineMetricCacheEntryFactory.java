@@ -200,60 +200,21 @@ public class TimelineMetricCacheEntryFactory implements UpdatingCacheEntryFactor
       TimelineMetricsCacheValue timelineMetricsCacheValue,
       Long requestedStartTime, Long requestedEndTime, boolean removeAll) {
 
-    TimelineMetrics existingTimelineMetrics = timelineMetricsCacheValue.getTimelineMetrics();
-
-    // Remove values that do not fit before adding new data
-    updateExistingMetricValues(existingTimelineMetrics, requestedStartTime,
-      requestedEndTime, removeAll);
+    // Remove values that do not fit before adding new data, values of
+    // different precision can not be merged
+    timelineMetricsCacheValue.trim(requestedStartTime, requestedEndTime, removeAll);
 
     if (newMetrics != null && !newMetrics.getMetrics().isEmpty()) {
-      for (TimelineMetric timelineMetric : newMetrics.getMetrics()) {
-        if (LOG.isTraceEnabled()) {
+      if (LOG.isTraceEnabled()) {
+        for (TimelineMetric timelineMetric : newMetrics.getMetrics()) {
           TreeMap<Long, Double> sortedMetrics = new TreeMap<>(timelineMetric.getMetricValues());
 
           LOG.trace("New metric: {} # {}, startTime = {}, endTime = {}",
             timelineMetric.getMetricName(), timelineMetric.getMetricValues().size(), sortedMetrics.firstKey(), sortedMetrics.lastKey());
         }
-
-        TimelineMetric existingMetric = null;
-
-        for (TimelineMetric metric : existingTimelineMetrics.getMetrics()) {
-          if (metric.equalsExceptTime(timelineMetric)) {
-            existingMetric = metric;
-          }
-        }
-
-        if (existingMetric != null) {
-          // Add new ones
-          existingMetric.getMetricValues().putAll(timelineMetric.getMetricValues());
-
-          if (LOG.isTraceEnabled()) {
-            TreeMap<Long, Double> sortedMetrics = new TreeMap<>(existingMetric.getMetricValues());
-            LOG.trace("Merged metric: {}, Final size: {}, startTime = {}, endTime = {}",
-              timelineMetric.getMetricName(), existingMetric.getMetricValues().size(), sortedMetrics.firstKey(), sortedMetrics.lastKey());
-          }
-        } else {
-          existingTimelineMetrics.getMetrics().add(timelineMetric);
-        }
       }
-    }
-  }
-
-  // Remove out of band data from the cache
-  private void updateExistingMetricValues(TimelineMetrics existingMetrics,
-      Long requestedStartTime, Long requestedEndTime, boolean removeAll) {
-
-    for (TimelineMetric existingMetric : existingMetrics.getMetrics()) {
-      if (removeAll) {
-        existingMetric.setMetricValues(new TreeMap<>());
-      } else {
-        TreeMap<Long, Double> existingMetricValues = existingMetric.getMetricValues();
-        LOG.trace("Existing metric: {} # {}", existingMetric.getMetricName(), existingMetricValues.size());
 
-        // Retain only the values that are within the [requestStartTime, requestedEndTime] window
-        existingMetricValues.headMap(requestedStartTime,false).clear();
-        existingMetricValues.tailMap(requestedEndTime, false).clear();
-      }
+      timelineMetricsCacheValue.mergeTimelineMetrics(newMetrics);
     }
   }
 
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.metrics.timeline.cache;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.hadoop.metrics2.sink.timeline.TimelineMetric;
+
+/**
+ * Cached values of a single metric, sorted by timestamp and stored in primitive arrays. Values occupy a window of
+ * the arrays starting at {@code offset}, so trimming old values and appending newer ones, which is what regular
+ * graph updates do, neither boxes values nor moves the data. Missing values are tracked by array index in a bitmap
+ * which is only allocated once a missing value is cached.
+ */
+public class TimelineMetricSeries {
+  private static final int MIN_CAPACITY = 16;
+
+  /**
+   * Metric identity and attributes, holds no values.
+   */
+  private final TimelineMetric metric;
+
+  private long[] timestamps;
+  private double[] values;
+  private BitSet missing;
+  private int offset = 0;
+  private int size = 0;
+
+  /**
+   * Creates series from metric values. A copy of the metric without values is kept as a descriptor of the series,
+   * the given metric is not modified.
+   * @param metric metric fetched from AMS
+   */
+  public TimelineMetricSeries(TimelineMetric metric) {
+    TreeMap<Long, Double> metricValues = metric.getMetricValues();
+    this.metric = new TimelineMetric(metric);
+    this.metric.setMetricValues(new TreeMap<>());
+
+    int capacity = Math.max(MIN_CAPACITY, metricValues == null ? 0 : metricValues.size());
+    timestamps = new long[capacity];
+    values = new double[capacity];
+    merge(metricValues);
+  }
+
+  /**
+   * @return metric without values, describing this series
+   */
+  public TimelineMetric getMetric() {
+    return metric;
+  }
+
+  /**
+   * @return number of cached values
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return number of values the series can hold without reallocation
+   */
+  public int getCapacity() {
+    return timestamps.length;
+  }
+
+  /**
+   * Adds values to the series, values with timestamps already present in the series replace existing ones.
+   * @param newValues values by timestamp
+   */
+  public void merge(Map<Long, Double> newValues) {
+    if (newValues == null || newValues.isEmpty()) {
+      return;
+    }
+    SortedMap<Long, Double> sortedValues = newValues instanceof TreeMap
+        && ((TreeMap<Long, Double>) newValues).comparator() == null
+        ? (TreeMap<Long, Double>) newValues : new TreeMap<>(newValues);
+
+    if (size == 0 || sortedValues.firstKey() > timestamps[offset + size - 1]) {
+      append(sortedValues);
+    } else {
+      mergeSorted(sortedValues);
+    }
+  }
+
+  /**
+   * Removes values with timestamps outside of the {@code [startTime, endTime]} window.
+   * @param startTime window start, inclusive
+   * @param endTime window end, inclusive
+   */
+  public void trim(long startTime, long endTime) {
+    int from = lowerBound(startTime);
+    int to = Math.max(from, upperBound(endTime));
+    size = to - from;
+    offset = size == 0 ? 0 : from;
+  }
+
+  /**
+   * Removes all values, keeping allocated arrays for reuse.
+   */
+  public void clear() {
+    offset = 0;
+    size = 0;
+    missing = null;
+  }
+
+  /**
+   * @return new metric with the same identity and attributes and a copy of cached values
+   */
+  public TimelineMetric toTimelineMetric() {
+    TimelineMetric copy = new TimelineMetric(metric);
+    TreeMap<Long, Double> metricValues = new TreeMap<>();
+    for (int i = offset; i < offset + size; i++) {
+      metricValues.put(timestamps[i], isMissing(i) ? null : values[i]);
+    }
+    copy.setMetricValues(metricValues);
+    return copy;
+  }
+
+  /**
+   * @return first cached timestamp, if series is not empty
+   */
+  public long getFirstTimestamp() {
+    return timestamps[offset];
+  }
+
+  /**
+   * @return last cached timestamp, if series is not empty
+   */
+  public long getLastTimestamp() {
+    return timestamps[offset + size - 1];
+  }
+
+  private void append(SortedMap<Long, Double> sortedValues) {
+    int required = size + sortedValues.size();
+    if (offset + required > timestamps.length) {
+      if (required > timestamps.length) {
+        int capacity = Math.max(required, timestamps.length * 2);
+        timestamps = Arrays.copyOfRange(timestamps, offset, offset + capacity);
+        values = Arrays.copyOfRange(values, offset, offset + capacity);
+      } else {
+        // compact window to the beginning of the arrays
+        System.arraycopy(timestamps, offset, timestamps, 0, size);
+        System.arraycopy(values, offset, values, 0, size);
+      }
+      if (missing != null) {
+        missing = missing.get(offset, offset + size);
+      }
+      offset = 0;
+    }
+    int i = offset + size;
+    for (Map.Entry<Long, Double> entry : sortedValues.entrySet()) {
+      timestamps[i] = entry.getKey();
+      setValue(i, entry.getValue());
+      i++;
+    }
+    size = required;
+  }
+
+  private void mergeSorted(SortedMap<Long, Double> sortedValues) {
+    int capacity = Math.max(timestamps.length, size + sortedValues.size());
+    long[] mergedTimestamps = new long[capacity];
+    double[] mergedValues = new double[capacity];
+    BitSet mergedMissing = null;
+
+    int i = offset;
+    int end = offset + size;
+    int merged = 0;
+    for (Map.Entry<Long, Double> entry : sortedValues.entrySet()) {
+      long timestamp = entry.getKey();
+      for (; i < end && timestamps[i] < timestamp; i++, merged++) {
+        mergedTimestamps[merged] = timestamps[i];
+        mergedValues[merged] = values[i];
+        if (isMissing(i)) {
+          mergedMissing = setMissing(mergedMissing, merged);
+        }
+      }
+      if (i < end && timestamps[i] == timestamp) {
+        // new value replaces the cached one
+        i++;
+      }
+      mergedTimestamps[merged] = timestamp;
+      if (entry.getValue() == null) {
+        mergedMissing = setMissing(mergedMissing, merged);
+      } else {
+        mergedValues[merged] = entry.getValue();
+      }
+      merged++;
+    }
+    for (; i < end; i++, merged++) {
+      mergedTimestamps[merged] = timestamps[i];
+      mergedValues[merged] = values[i];
+      if (isMissing(i)) {
+        mergedMissing = setMissing(mergedMissing, merged);
+      }
+    }
+
+    timestamps = mergedTimestamps;
+    values = mergedValues;
+    missing = mergedMissing;
+    offset = 0;
+    size = merged;
+  }
+
+  /**
+   * Stores a value at the given index, missing values are marked in the bitmap.
+   */
+  private void setValue(int index, Double value) {
+    if (value == null) {
+      missing = setMissing(missing, index);
+    } else {
+      values[index] = value;
+      if (missing != null) {
+        missing.clear(index);
+      }
+    }
+  }
+
+  private boolean isMissing(int index) {
+    return missing != null && missing.get(index);
+  }
+
+  /**
+   * @return the bitmap with the given index set, allocated if needed
+   */
+  private static BitSet setMissing(BitSet bitmap, int index) {
+    if (bitmap == null) {
+      bitmap = new BitSet();
+    }
+    bitmap.set(index);
+    return bitmap;
+  }
+
+  /**
+   * @return index of the first cached timestamp not less than {@code timestamp}
+   */
+  private int lowerBound(long timestamp) {
+    int low = offset;
+    int high = offset + size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamps[mid] < timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @return index of the first cached timestamp greater than {@code timestamp}
+   */
+  private int upperBound(long timestamp) {
+    int low = offset;
+    int high = offset + size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamps[mid] <= timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
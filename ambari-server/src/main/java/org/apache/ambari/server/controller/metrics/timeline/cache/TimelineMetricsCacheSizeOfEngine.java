@@ -17,9 +17,6 @@
  */
 package org.apache.ambari.server.controller.metrics.timeline.cache;
 
-import java.util.Map;
-import java.util.TreeMap;
-
 import org.apache.hadoop.metrics2.sink.timeline.TimelineMetric;
 import org.apache.hadoop.metrics2.sink.timeline.TimelineMetrics;
 import org.slf4j.Logger;
@@ -47,8 +44,8 @@ public class TimelineMetricsCacheSizeOfEngine implements SizeOfEngine {
   // Optimizations
   private volatile long timelineMetricPrimitivesApproximation = 0;
 
-  private long sizeOfMapEntry;
-  private long sizeOfMapEntryOverhead;
+  private long sizeOfArrayHeader;
+  private long sizeOfSeriesOverhead;
 
   private TimelineMetricsCacheSizeOfEngine(SizeOfEngine underlying) {
     this.underlying = underlying;
@@ -57,15 +54,19 @@ public class TimelineMetricsCacheSizeOfEngine implements SizeOfEngine {
   public TimelineMetricsCacheSizeOfEngine() {
     this(new DefaultSizeOfEngine(DEFAULT_MAX_DEPTH, DEFAULT_ABORT_WHEN_MAX_DEPTH_EXCEEDED));
 
-    this.sizeOfMapEntry = reflectionSizeOf.sizeOf(new Long(1)) +
-      reflectionSizeOf.sizeOf(new Double(2.0));
+    this.sizeOfArrayHeader = reflectionSizeOf.sizeOf(new long[0]);
 
-    //SizeOfMapEntryOverhead = SizeOfMapWithOneEntry - (SizeOfEmptyMap + SizeOfOneEntry)
-    TreeMap<Long, Double> map = new TreeMap<>();
-    long emptyMapSize = reflectionSizeOf.sizeOf(map);
-    map.put(new Long(1), new Double(2.0));
-    long sizeOfMapOneEntry = reflectionSizeOf.deepSizeOf(DEFAULT_MAX_DEPTH, DEFAULT_ABORT_WHEN_MAX_DEPTH_EXCEEDED, map).getCalculated();
-    this.sizeOfMapEntryOverhead =  sizeOfMapOneEntry - (emptyMapSize + this.sizeOfMapEntry);
+    // Series object, its index entry and empty values map of the metric descriptor
+    TimelineMetric metric = new TimelineMetric();
+    TimelineMetricsCacheValue value = new TimelineMetricsCacheValue(0L, 0L, new TimelineMetrics(), null);
+    long emptyValueSize = reflectionSizeOf.deepSizeOf(DEFAULT_MAX_DEPTH, DEFAULT_ABORT_WHEN_MAX_DEPTH_EXCEEDED, value).getCalculated();
+    TimelineMetrics metrics = new TimelineMetrics();
+    metrics.getMetrics().add(metric);
+    value.setTimelineMetrics(metrics);
+    long oneSeriesValueSize = reflectionSizeOf.deepSizeOf(DEFAULT_MAX_DEPTH, DEFAULT_ABORT_WHEN_MAX_DEPTH_EXCEEDED, value).getCalculated();
+    TimelineMetricSeries series = value.getSeries().iterator().next();
+    this.sizeOfSeriesOverhead = oneSeriesValueSize - emptyValueSize
+      - 2 * (sizeOfArrayHeader + 8L * series.getCapacity());
 
     LOG.info("Creating custom sizeof engine for TimelineMetrics.");
   }
@@ -108,11 +109,11 @@ public class TimelineMetricsCacheSizeOfEngine implements SizeOfEngine {
 
   private long getTimelineMetricCacheValueSize(TimelineMetricsCacheValue value) {
     long size = 16; // startTime + endTime
-    TimelineMetrics metrics = value.getTimelineMetrics();
     size += 8; // Object reference
 
-    if (metrics != null) {
-      for (TimelineMetric metric : metrics.getMetrics()) {
+    synchronized (value) {
+      for (TimelineMetricSeries series : value.getSeries()) {
+        TimelineMetric metric = series.getMetric();
 
         if (timelineMetricPrimitivesApproximation == 0) {
           timelineMetricPrimitivesApproximation += reflectionSizeOf.sizeOf(metric.getMetricName());
@@ -126,14 +127,10 @@ public class TimelineMetricsCacheSizeOfEngine implements SizeOfEngine {
           LOG.debug("timelineMetricPrimitivesApproximation bytes = {}", timelineMetricPrimitivesApproximation);
         }
         size += timelineMetricPrimitivesApproximation;
+        size += sizeOfSeriesOverhead;
 
-        Map<Long, Double> metricValues = metric.getMetricValues();
-        if (metricValues != null && !metricValues.isEmpty()) {
-          // Numeric wrapper: 12 bytes + 8 bytes Data type + 4 bytes alignment = 48 (Long, Double)
-          // Tree Map: 12 bytes for header + 20 bytes for 5 object fields : pointers + 1 byte for flag = 40
-          LOG.debug("Size of metric value: {}", (sizeOfMapEntry + sizeOfMapEntryOverhead) * metricValues.size());
-          size += (sizeOfMapEntry + sizeOfMapEntryOverhead) * metricValues.size(); // Treemap size is O(1)
-        }
+        // Timestamps and values: long[] and double[] of the series capacity
+        size += 2 * (sizeOfArrayHeader + 8L * series.getCapacity());
       }
       LOG.debug("Total Size of metric values in cache: {}", size);
     }
@@ -17,7 +17,11 @@
  */
 package org.apache.ambari.server.controller.metrics.timeline.cache;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 import org.apache.hadoop.metrics2.sink.timeline.Precision;
 import org.apache.hadoop.metrics2.sink.timeline.TimelineMetric;
@@ -25,32 +29,84 @@ import org.apache.hadoop.metrics2.sink.timeline.TimelineMetrics;
 
 /**
  * Wrapper object for metrics returned from AMS that includes the query time
- * window.
+ * window. Metric values are kept in {@link TimelineMetricSeries} indexed by
+ * metric identity, every request gets its own {@link TimelineMetrics} built
+ * from them.
  */
 public class TimelineMetricsCacheValue {
   private Long startTime;
   private Long endTime;
   // Same metrics could be requested across hosts
-  private TimelineMetrics timelineMetrics = new TimelineMetrics();
+  private final Map<MetricKey, TimelineMetricSeries> series = new LinkedHashMap<>();
   private Precision precision;
 
   public TimelineMetricsCacheValue(Long startTime, Long endTime, TimelineMetrics timelineMetrics, Precision precision) {
     this.startTime = startTime;
     this.endTime = endTime;
-    this.timelineMetrics = timelineMetrics;
+    setTimelineMetrics(timelineMetrics);
     this.precision = precision;
   }
 
-  public TimelineMetrics getTimelineMetrics() {
+  /**
+   * @return copy of cached metrics, owned by the caller and not affected by
+   *         further cache updates
+   */
+  public synchronized TimelineMetrics getTimelineMetrics() {
+    TimelineMetrics timelineMetrics = new TimelineMetrics();
+    for (TimelineMetricSeries metricSeries : series.values()) {
+      timelineMetrics.getMetrics().add(metricSeries.toTimelineMetric());
+    }
     return timelineMetrics;
   }
 
   /**
-   * Map of metricName to metric values. Works on the assumption that metric
-   * name is unique
+   * Replaces cached metrics. Metric values are copied into the cache.
+   * Works on the assumption that metric identity (name, host, app and
+   * instance) is unique.
+   */
+  public synchronized void setTimelineMetrics(TimelineMetrics timelineMetrics) {
+    series.clear();
+    mergeTimelineMetrics(timelineMetrics);
+  }
+
+  /**
+   * Merges values of metrics into cached series of the same metrics, metrics
+   * which are not cached yet are added. Metric values are copied into the cache.
+   */
+  public synchronized void mergeTimelineMetrics(TimelineMetrics timelineMetrics) {
+    if (timelineMetrics == null) {
+      return;
+    }
+    for (TimelineMetric metric : timelineMetrics.getMetrics()) {
+      MetricKey key = new MetricKey(metric);
+      TimelineMetricSeries metricSeries = series.get(key);
+      if (metricSeries != null) {
+        metricSeries.merge(metric.getMetricValues());
+      } else {
+        series.put(key, new TimelineMetricSeries(metric));
+      }
+    }
+  }
+
+  /**
+   * Retains only values within the {@code [startTime, endTime]} window, or
+   * drops all values if {@code removeAll} is set.
+   */
+  public synchronized void trim(long startTime, long endTime, boolean removeAll) {
+    for (TimelineMetricSeries metricSeries : series.values()) {
+      if (removeAll) {
+        metricSeries.clear();
+      } else {
+        metricSeries.trim(startTime, endTime);
+      }
+    }
+  }
+
+  /**
+   * @return cached series, should be accessed while holding lock on this value
    */
-  public void setTimelineMetrics(TimelineMetrics timelineMetrics) {
-    this.timelineMetrics = timelineMetrics;
+  Collection<TimelineMetricSeries> getSeries() {
+    return series.values();
   }
 
   public Long getStartTime() {
@@ -85,14 +141,16 @@ public class TimelineMetricsCacheValue {
       ", precision = " + precision +
       ", timelineMetrics =");
 
-    for (TimelineMetric metric : timelineMetrics.getMetrics()) {
-      sb.append(" { ");
-      sb.append(metric.getMetricName());
-      sb.append(", ");
-      sb.append(metric.getHostName());
-      sb.append(" # ");
-      sb.append(metric.getMetricValues().size());
-      sb.append(" }");
+    synchronized (this) {
+      for (TimelineMetricSeries metricSeries : series.values()) {
+        sb.append(" { ");
+        sb.append(metricSeries.getMetric().getMetricName());
+        sb.append(", ");
+        sb.append(metricSeries.getMetric().getHostName());
+        sb.append(" # ");
+        sb.append(metricSeries.size());
+        sb.append(" }");
+      }
     }
 
     sb.append("}");
@@ -106,4 +164,38 @@ public class TimelineMetricsCacheValue {
   public void setPrecision(Precision precision) {
     this.precision = precision;
   }
+
+  /**
+   * Metric identity, the same fields {@link TimelineMetric#equalsExceptTime} compares.
+   */
+  private static final class MetricKey {
+    private final String metricName;
+    private final String hostName;
+    private final String appId;
+    private final String instanceId;
+    private final int hashCode;
+
+    private MetricKey(TimelineMetric metric) {
+      metricName = metric.getMetricName();
+      hostName = metric.getHostName();
+      appId = metric.getAppId();
+      instanceId = metric.getInstanceId();
+      hashCode = Objects.hash(metricName, hostName, appId, instanceId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      MetricKey that = (MetricKey) o;
+      return Objects.equals(metricName, that.metricName) && Objects.equals(hostName, that.hostName)
+          && Objects.equals(appId, that.appId) && Objects.equals(instanceId, that.instanceId);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
 }
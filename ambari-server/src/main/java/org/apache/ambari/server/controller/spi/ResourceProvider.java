@@ -150,4 +150,17 @@ public interface ResourceProvider {
    *         that all of the given property ids are supported.
    */
   Set<String> checkPropertyIds(Set<String> propertyIds);
+
+  /**
+   * Determine whether the resources of many parent resources may be obtained
+   * through a single {@link #getResources} call whose predicate is an OR of the
+   * key predicates of each parent.  The returned resources must include the key
+   * properties of the parent resource types so that they can be assigned back
+   * to their parents.
+   *
+   * @return true if the provider supports batched sub-resource queries
+   */
+  default boolean isBatchQuerySupported() {
+    return false;
+  }
 }
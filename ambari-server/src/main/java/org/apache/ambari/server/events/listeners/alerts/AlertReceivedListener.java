@@ -18,14 +18,24 @@
 package org.apache.ambari.server.events.listeners.alerts;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
 import org.apache.ambari.server.AmbariException;
 import org.apache.ambari.server.EagerSingleton;
+import org.apache.ambari.server.HostNotFoundException;
 import org.apache.ambari.server.api.query.render.AlertSummaryGroupedRenderer;
 import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.MaintenanceStateHelper;
@@ -38,6 +48,9 @@ import org.apache.ambari.server.events.AlertUpdateEvent;
 import org.apache.ambari.server.events.InitialAlertEvent;
 import org.apache.ambari.server.events.publishers.AlertEventPublisher;
 import org.apache.ambari.server.events.publishers.STOMPUpdatePublisher;
+import org.apache.ambari.server.metrics.system.MetricsSource;
+import org.apache.ambari.server.metrics.system.impl.AlertsMetricsSource;
+import org.apache.ambari.server.metrics.system.impl.MetricsServiceImpl;
 import org.apache.ambari.server.orm.RequiresSession;
 import org.apache.ambari.server.orm.dao.AlertDefinitionDAO;
 import org.apache.ambari.server.orm.dao.AlertsDAO;
@@ -63,6 +76,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.eventbus.AllowConcurrentEvents;
 import com.google.common.eventbus.Subscribe;
 import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -123,6 +137,24 @@ public class AlertReceivedListener {
    */
   private Striped<Lock> creationLocks = Striped.lazyWeakLock(100);
 
+  /**
+   * Received events waiting to be processed in the next batch, if alerts are
+   * batched. Created along with {@link #m_batchExecutor}.
+   */
+  private BlockingQueue<AlertReceivedEvent> m_pendingEvents;
+
+  /**
+   * Processes the queued events periodically, started with the first queued
+   * event.
+   */
+  private ScheduledExecutorService m_batchExecutor;
+
+  /**
+   * {@code true} once {@link #shutdown()} is called, after which events are no
+   * longer queued.
+   */
+  private boolean m_stopped;
+
   /**
    * Constructor.
    *
@@ -136,6 +168,11 @@ public class AlertReceivedListener {
 
   /**
    * Adds an alert. Checks for a new state before creating a new history record.
+   * <p/>
+   * If {@link Configuration#getAlertBatchWindow()} is set, the alerts are
+   * queued and processed along with the alerts received during the same window.
+   * While the queue is full, the calling thread waits for the queued events to
+   * be taken for processing.
    *
    * @param event
    *          the event to handle.
@@ -148,260 +185,440 @@ public class AlertReceivedListener {
       LOG.debug(event.toString());
     }
 
-    // process the list of alerts inside of a single transaction to prevent too
-    // many transactions/commits
-    List<Alert> alerts = event.getAlerts();
+    BlockingQueue<AlertReceivedEvent> pendingEvents = startBatching();
+    if (null == pendingEvents) {
+      processAlerts(Collections.singletonList(event));
+      return;
+    }
 
-    // these can be wrapped in their own transaction
-    List<AlertCurrentEntity> toMerge = new ArrayList<>();
-    List<AlertCurrentEntity> toCreateHistoryAndMerge = new ArrayList<>();
+    try {
+      pendingEvents.put(event);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new AmbariException("Interrupted while queueing the received alerts", exception);
+    }
+  }
 
-    List<AlertEvent> alertEvents = new ArrayList<>(20);
-    Map<Long, Map<String, AlertSummaryGroupedRenderer.AlertDefinitionSummary>> alertUpdates = new HashMap<>();
+  /**
+   * Starts processing the queued events periodically, if alerts are batched
+   * and it was not started yet.
+   *
+   * @return the queue of the events waiting for the next batch, or
+   *         {@code null} if alerts are not batched.
+   */
+  private synchronized BlockingQueue<AlertReceivedEvent> startBatching() {
+    long batchWindow = m_configuration.getAlertBatchWindow();
+    if (batchWindow <= 0 || m_stopped) {
+      return null;
+    }
 
-    for (Alert alert : alerts) {
-      Long clusterId = alert.getClusterId();
-      if (clusterId == null) {
-        // check event
-        clusterId = event.getClusterId();
-      }
+    if (null == m_batchExecutor) {
+      m_pendingEvents = new LinkedBlockingQueue<>(m_configuration.getAlertBatchQueueSize());
+      m_batchExecutor = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("alert-batch-%d").setDaemon(true).build());
+      m_batchExecutor.scheduleWithFixedDelay(this::processPendingEvents, batchWindow, batchWindow,
+          TimeUnit.MILLISECONDS);
+    }
 
-      AlertDefinitionEntity definition = m_definitionDao.findByName(clusterId, alert.getName());
+    return m_pendingEvents;
+  }
 
-      if (null == definition) {
-        LOG.warn(
-          "Received an alert for {} which is a definition that does not exist in cluster id={}",
-          alert.getName(), clusterId);
+  /**
+   * Processes all queued events as a single batch.
+   */
+  public void processPendingEvents() {
+    BlockingQueue<AlertReceivedEvent> pendingEvents;
+    synchronized (this) {
+      pendingEvents = m_pendingEvents;
+    }
 
-        continue;
-      }
+    List<AlertReceivedEvent> events = new ArrayList<>();
+    if (null != pendingEvents) {
+      pendingEvents.drainTo(events);
+    }
 
-      alert.setComponent(definition.getComponentName());
-      alert.setLabel(definition.getComponentName());
-      alert.setService(definition.getServiceName());
+    if (events.isEmpty()) {
+      return;
+    }
+
+    try {
+      processAlerts(events);
+    } catch (AmbariException | RuntimeException exception) {
+      // failed alerts are already saved again one by one, so only the alerts
+      // which could not be saved on their own are lost
+      LOG.error("Unable to save the alerts of {} received alert events", events.size(), exception);
+    }
+  }
+
+  /**
+   * Stops processing queued events periodically and processes the events
+   * still queued. Alerts received afterwards are processed as they arrive.
+   */
+  public void shutdown() {
+    ScheduledExecutorService batchExecutor;
+    synchronized (this) {
+      m_stopped = true;
+      batchExecutor = m_batchExecutor;
+    }
 
-      // jobs that were running when a service/component/host was changed
-      // which invalidate the alert should not be reported
-      if (!isValid(alert)) {
-        continue;
+    if (null == batchExecutor) {
+      return;
+    }
+
+    batchExecutor.shutdown();
+    try {
+      if (!batchExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+        LOG.warn("Timed out waiting for the received alerts to be processed");
       }
-      // it's possible that a definition which is disabled will still have a
-      // running alert returned; this will ensure we don't record it
-      if (!definition.getEnabled()) {
-        LOG.debug(
-          "Received an alert for {} which is disabled. No more alerts should be received for this definition.",
-          alert.getName());
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+
+    processPendingEvents();
+  }
 
-        continue;
+  /**
+   * Resolves the state transitions of the received alerts against the current
+   * alerts and saves them in a single transaction. Events are fired once the
+   * alerts are saved. An alert which cannot be processed is logged and skipped.
+   *
+   * @param events
+   *          the events to process, in the order they were received.
+   */
+  @RequiresSession
+  void processAlerts(List<AlertReceivedEvent> events) throws AmbariException {
+    long startTime = System.currentTimeMillis();
+    int alertCount = 0;
+    AlertBatch batch = new AlertBatch();
+
+    for (AlertReceivedEvent event : events) {
+      for (Alert alert : event.getAlerts()) {
+        alertCount++;
+        Long clusterId = alert.getClusterId();
+        if (clusterId == null) {
+          // check event
+          clusterId = event.getClusterId();
+        }
+
+        try {
+          batch = processAlert(batch, clusterId, alert);
+        } catch (AmbariException | RuntimeException exception) {
+          LOG.error("Unable to process the received alert {}", alert, exception);
+        }
       }
+    }
+
+    saveBatch(batch);
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Processed {} alerts of {} received alert events in {}ms", alertCount, events.size(),
+          System.currentTimeMillis() - startTime);
+    }
+  }
+
+  /**
+   * Resolves the state transition of a received alert and adds the resulting
+   * changes to the batch.
+   *
+   * @return the batch to add the following alerts to, which is a new one if
+   *         the specified batch had to be saved first.
+   */
+  private AlertBatch processAlert(AlertBatch batch, Long clusterId, Alert alert) throws AmbariException {
+    AlertDefinitionEntity definition = m_definitionDao.findByName(clusterId, alert.getName());
+
+    if (null == definition) {
+      LOG.warn(
+        "Received an alert for {} which is a definition that does not exist in cluster id={}",
+        alert.getName(), clusterId);
+
+      return batch;
+    }
+
+    alert.setComponent(definition.getComponentName());
+    alert.setLabel(definition.getComponentName());
+    alert.setService(definition.getServiceName());
+
+    // jobs that were running when a service/component/host was changed
+    // which invalidate the alert should not be reported
+    if (!isValid(alert)) {
+      return batch;
+    }
+    // it's possible that a definition which is disabled will still have a
+    // running alert returned; this will ensure we don't record it
+    if (!definition.getEnabled()) {
+      LOG.debug(
+        "Received an alert for {} which is disabled. No more alerts should be received for this definition.",
+        alert.getName());
+
+      return batch;
+    }
+
+    updateAlertDetails(alert, definition);
 
-      updateAlertDetails(alert, definition);
+    // jobs that were running when a service/component/host was changed
+    // which invalidate the alert should not be reported
+    if (!isValid(alert)) {
+      return batch;
+    }
+
+    // an alert reported again within the batch must be resolved against the
+    // state saved for its previous report
+    if (!batch.add(clusterId, alert, definition)) {
+      batch = saveBatch(batch);
+      batch.add(clusterId, alert, definition);
+    }
 
-      // jobs that were running when a service/component/host was changed
-      // which invalidate the alert should not be reported
-      if (!isValid(alert)) {
-        continue;
+    AlertCurrentEntity current;
+    AlertState alertState = alert.getState();
+
+    // attempt to lookup the current alert
+    current = getCurrentEntity(clusterId, alert, definition);
+
+    // if it doesn't exist then we must create it, ensuring that two or more
+    // aren't created from other threads
+    if( null == current ){
+
+      // if there is no current alert and the state is skipped, then simply
+      // skip over this one as there is nothing to update in the databse
+      if (alertState == AlertState.SKIPPED) {
+        return batch;
       }
 
-      AlertCurrentEntity current;
-      AlertState alertState = alert.getState();
+      // create a key out of the cluster/definition name/host (possibly null)
+      int key = Objects.hash(clusterId, alert.getName(), alert.getHostName());
+      Lock lock = creationLocks.get(key);
+
+      // the lock is held until the batch creating the alert is saved, so the
+      // batch is saved before waiting for a lock another thread holds
+      if (!lock.tryLock()) {
+        batch.removeLast(clusterId, alert, definition);
+        batch = saveBatch(batch);
+        batch.add(clusterId, alert, definition);
+        lock.lock();
+      }
+      batch.creationLocks.add(lock);
 
-      // attempt to lookup the current alert
+      // attempt to lookup the current alert again to ensure that a previous
+      // thread didn't already create it; if so, there's no work to do here
       current = getCurrentEntity(clusterId, alert, definition);
+      if( null != current ) {
+        return batch;
+      }
 
-      // if it doesn't exist then we must create it, ensuring that two or more
-      // aren't created from other threads
-      if( null == current ){
+      // the current alert is still null, so go through and create it
+      AlertHistoryEntity history = createHistory(clusterId, definition, alert);
 
-        // if there is no current alert and the state is skipped, then simply
-        // skip over this one as there is nothing to update in the databse
-        if (alertState == AlertState.SKIPPED) {
-          continue;
-        }
+      // this new alert must reflect the correct MM state for the
+      // service/component/host
+      MaintenanceState maintenanceState = getMaintenanceState(alert, clusterId);
 
-        // create a key out of the cluster/definition name/host (possibly null)
-        int key = Objects.hash(clusterId, alert.getName(), alert.getHostName());
-        Lock lock = creationLocks.get(key);
-        lock.lock();
+      current = new AlertCurrentEntity();
+      current.setMaintenanceState(maintenanceState);
+      current.setAlertHistory(history);
+      current.setLatestTimestamp(alert.getTimestamp());
+      current.setOriginalTimestamp(alert.getTimestamp());
+      clearStaleAlerts(alert.getHostName(), definition.getDefinitionId());
 
-        // attempt to lookup the current alert again to ensure that a previous
-        // thread didn't already create it
-        try {
-          // if it's not null anymore, then there's no work to do here
-          current = getCurrentEntity(clusterId, alert, definition);
-          if( null != current ) {
-            continue;
-          }
+      // brand new alert instances being received are always HARD
+      current.setFirmness(AlertFirmness.HARD);
 
-          // the current alert is still null, so go through and create it
-          AlertHistoryEntity history = createHistory(clusterId, definition, alert);
+      // store the entity for creating later
+      batch.toCreate.add(current);
 
-          // this new alert must reflect the correct MM state for the
-          // service/component/host
-          MaintenanceState maintenanceState = getMaintenanceState(alert, clusterId);
+      // create the event to fire later
+      batch.alertEvents.add(new InitialAlertEvent(clusterId, alert, current));
 
-          current = new AlertCurrentEntity();
-          current.setMaintenanceState(maintenanceState);
-          current.setAlertHistory(history);
-          current.setLatestTimestamp(alert.getTimestamp());
-          current.setOriginalTimestamp(alert.getTimestamp());
-          clearStaleAlerts(alert.getHostName(), definition.getDefinitionId());
+      Map<String, AlertSummaryGroupedRenderer.AlertDefinitionSummary> summaries =
+          batch.alertUpdates.computeIfAbsent(clusterId, id -> new HashMap<>());
 
-          // brand new alert instances being received are always HARD
-          current.setFirmness(AlertFirmness.HARD);
+      AlertSummaryGroupedRenderer.updateSummary(summaries, definition.getDefinitionId(),
+          definition.getDefinitionName(), alertState, alert.getTimestamp(), maintenanceState, alert.getText());
+    } else if (alertState == current.getAlertHistory().getAlertState()
+        || alertState == AlertState.SKIPPED) {
 
-          m_alertsDao.create(current);
+      // update the timestamp no matter what
+      current.setLatestTimestamp(alert.getTimestamp());
+      clearStaleAlerts(alert.getHostName(), definition.getDefinitionId());
 
-          // create the event to fire later
-          alertEvents.add(new InitialAlertEvent(clusterId, alert, current));
+      // only update some fields if the alert isn't SKIPPED
+      if (alertState != AlertState.SKIPPED) {
+        current.setLatestText(alert.getText());
 
-          if (!alertUpdates.containsKey(clusterId)) {
-            alertUpdates.put(clusterId, new HashMap<>());
-          }
-          Map<String, AlertSummaryGroupedRenderer.AlertDefinitionSummary> summaries = alertUpdates.get(clusterId);
+        // ++ the occurrences (should be safe enough since we should ever only
+        // be handling unique alert events concurrently
+        long occurrences = current.getOccurrences() + 1;
+        current.setOccurrences(occurrences);
+
+        // ensure that if we've met the repeat tolerance and the alert is
+        // still SOFT, then we transition it to HARD - we also need to fire an
+        // event
+        AlertFirmness firmness = current.getFirmness();
+        int repeatTolerance = getRepeatTolerance(definition, clusterId);
+        if (firmness == AlertFirmness.SOFT && occurrences >= repeatTolerance) {
+          current.setFirmness(AlertFirmness.HARD);
 
-          AlertSummaryGroupedRenderer.updateSummary(summaries, definition.getDefinitionId(),
-              definition.getDefinitionName(), alertState, alert.getTimestamp(), maintenanceState, alert.getText());
-        } finally {
-          // release the lock for this alert
-          lock.unlock();
-        }
-      } else if (alertState == current.getAlertHistory().getAlertState()
-          || alertState == AlertState.SKIPPED) {
-
-        // update the timestamp no matter what
-        current.setLatestTimestamp(alert.getTimestamp());
-        clearStaleAlerts(alert.getHostName(), definition.getDefinitionId());
-
-        // only update some fields if the alert isn't SKIPPED
-        if (alertState != AlertState.SKIPPED) {
-          current.setLatestText(alert.getText());
-
-          // ++ the occurrences (should be safe enough since we should ever only
-          // be handling unique alert events concurrently
-          long occurrences = current.getOccurrences() + 1;
-          current.setOccurrences(occurrences);
-
-          // ensure that if we've met the repeat tolerance and the alert is
-          // still SOFT, then we transition it to HARD - we also need to fire an
-          // event
-          AlertFirmness firmness = current.getFirmness();
-          int repeatTolerance = getRepeatTolerance(definition, clusterId);
-          if (firmness == AlertFirmness.SOFT && occurrences >= repeatTolerance) {
-            current.setFirmness(AlertFirmness.HARD);
-
-            // create the event to fire later
-            AlertStateChangeEvent stateChangedEvent = new AlertStateChangeEvent(clusterId, alert,
-                current, alertState, firmness);
-
-            alertEvents.add(stateChangedEvent);
-          }
-        }
+          // create the event to fire later
+          AlertStateChangeEvent stateChangedEvent = new AlertStateChangeEvent(clusterId, alert,
+              current, alertState, firmness);
 
-        // some special cases for SKIPPED alerts
-        if (alertState == AlertState.SKIPPED) {
-          // set the text on a SKIPPED alert IFF it's not blank; a blank text
-          // field means that the alert doesn't want to change the existing text
-          String alertText = alert.getText();
-          if (StringUtils.isNotBlank(alertText)) {
-            current.setLatestText(alertText);
-          }
+          batch.alertEvents.add(stateChangedEvent);
         }
+      }
 
-        // store the entity for merging later
-        toMerge.add(current);
-      } else {
-        if (LOG.isDebugEnabled()) {
-          LOG.debug(
-            "Alert State Changed: CurrentId {}, CurrentTimestamp {}, HistoryId {}, HistoryState {}",
-            current.getAlertId(), current.getLatestTimestamp(),
-            current.getAlertHistory().getAlertId(),
-            current.getAlertHistory().getAlertState());
+      // some special cases for SKIPPED alerts
+      if (alertState == AlertState.SKIPPED) {
+        // set the text on a SKIPPED alert IFF it's not blank; a blank text
+        // field means that the alert doesn't want to change the existing text
+        String alertText = alert.getText();
+        if (StringUtils.isNotBlank(alertText)) {
+          current.setLatestText(alertText);
         }
+      }
+
+      // store the entity for merging later
+      batch.toMerge.add(current);
+    } else {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(
+          "Alert State Changed: CurrentId {}, CurrentTimestamp {}, HistoryId {}, HistoryState {}",
+          current.getAlertId(), current.getLatestTimestamp(),
+          current.getAlertHistory().getAlertId(),
+          current.getAlertHistory().getAlertState());
+      }
+
+      AlertHistoryEntity oldHistory = current.getAlertHistory();
+      AlertState oldState = oldHistory.getAlertState();
+      AlertFirmness oldFirmness = current.getFirmness();
+
+      // insert history, update current
+      AlertHistoryEntity history = createHistory(clusterId,
+        oldHistory.getAlertDefinition(), alert);
+
+      current.setLatestTimestamp(alert.getTimestamp());
+      current.setOriginalTimestamp(alert.getTimestamp());
+      current.setLatestText(alert.getText());
+
+      clearStaleAlerts(alert.getHostName(), definition.getDefinitionId());
+
+      current.setAlertHistory(history);
+
+      // figure out how to set the occurrences correctly
+      switch (alertState) {
+        // an OK state always resets, regardless of what the old one was
+        case OK:
+          current.setOccurrences(1);
+          break;
+        case CRITICAL:
+        case SKIPPED:
+        case UNKNOWN:
+        case WARNING:
+          // OK -> non-OK is a reset
+          if (oldState == AlertState.OK) {
+            current.setOccurrences(1);
+          } else {
+            // non-OK -> non-OK is a continuation
+            current.setOccurrences(current.getOccurrences() + 1);
+          }
+          break;
+        default:
+          break;
+      }
 
-        AlertHistoryEntity oldHistory = current.getAlertHistory();
-        AlertState oldState = oldHistory.getAlertState();
-        AlertFirmness oldFirmness = current.getFirmness();
+      // set the firmness of the new alert state based on the state, type,
+      // occurrences, and repeat tolerance
+      AlertFirmness firmness = calculateFirmnessForStateChange(clusterId, definition,
+          alertState, current.getOccurrences());
 
-        // insert history, update current
-        AlertHistoryEntity history = createHistory(clusterId,
-          oldHistory.getAlertDefinition(), alert);
+      current.setFirmness(firmness);
 
-        current.setLatestTimestamp(alert.getTimestamp());
-        current.setOriginalTimestamp(alert.getTimestamp());
-        current.setLatestText(alert.getText());
+      // store the entity for merging later
+      batch.toCreateHistoryAndMerge.add(current);
 
-        clearStaleAlerts(alert.getHostName(), definition.getDefinitionId());
+      // create the event to fire later
+      batch.alertEvents.add(new AlertStateChangeEvent(clusterId, alert, current, oldState, oldFirmness));
 
-        current.setAlertHistory(history);
+      // create alert update to fire event to UI
+      MaintenanceState maintenanceState = getMaintenanceState(alert, clusterId);
 
-        // figure out how to set the occurrences correctly
-        switch (alertState) {
-          // an OK state always resets, regardless of what the old one was
-          case OK:
-            current.setOccurrences(1);
-            break;
-          case CRITICAL:
-          case SKIPPED:
-          case UNKNOWN:
-          case WARNING:
-            // OK -> non-OK is a reset
-            if (oldState == AlertState.OK) {
-              current.setOccurrences(1);
-            } else {
-              // non-OK -> non-OK is a continuation
-              current.setOccurrences(current.getOccurrences() + 1);
-            }
-            break;
-          default:
-            break;
-        }
+      Map<String, AlertSummaryGroupedRenderer.AlertDefinitionSummary> summaries =
+          batch.alertUpdates.computeIfAbsent(clusterId, id -> new HashMap<>());
 
-        // set the firmness of the new alert state based on the state, type,
-        // occurrences, and repeat tolerance
-        AlertFirmness firmness = calculateFirmnessForStateChange(clusterId, definition,
-            alertState, current.getOccurrences());
+      AlertSummaryGroupedRenderer.updateSummary(summaries, definition.getDefinitionId(),
+          definition.getDefinitionName(), alertState, alert.getTimestamp(), maintenanceState, alert.getText());
+    }
 
-        current.setFirmness(firmness);
+    return batch;
+  }
 
-        // store the entity for merging later
-        toCreateHistoryAndMerge.add(current);
+  /**
+   * Saves the alerts of the batch in a single transaction and then fires the
+   * events of the batch. If the transaction fails, the alerts of the batch are
+   * processed and saved again one by one, so a single bad alert does not lose
+   * the others.
+   *
+   * @return a new batch to add the following alerts to.
+   */
+  private AlertBatch saveBatch(AlertBatch batch) throws AmbariException {
+    if (batch.alerts.isEmpty()) {
+      return new AlertBatch();
+    }
 
-        // create the event to fire later
-        alertEvents.add(new AlertStateChangeEvent(clusterId, alert, current, oldState, oldFirmness));
+    RuntimeException failure = null;
+    try {
+      // invokes the EntityManager create/merge on various entities in a single
+      // transaction
+      saveEntities(batch.toCreate, batch.toMerge, batch.toCreateHistoryAndMerge);
+    } catch (RuntimeException exception) {
+      failure = exception;
+    } finally {
+      batch.creationLocks.forEach(Lock::unlock);
+    }
 
-        // create alert update to fire event to UI
-        MaintenanceState maintenanceState = getMaintenanceState(alert, clusterId);
+    if (null != failure) {
+      if (batch.alerts.size() == 1) {
+        throw failure;
+      }
 
-        if (!alertUpdates.containsKey(clusterId)) {
-          alertUpdates.put(clusterId, new HashMap<>());
+      LOG.warn("Unable to save a batch of {} alerts, saving them one by one", batch.alerts.size(), failure);
+      for (AlertReceivedEvent alert : batch.alerts) {
+        try {
+          processAlerts(Collections.singletonList(alert));
+        } catch (AmbariException | RuntimeException exception) {
+          LOG.error("Unable to save the received alert {}", alert.getAlerts(), exception);
         }
-        Map<String, AlertSummaryGroupedRenderer.AlertDefinitionSummary> summaries = alertUpdates.get(clusterId);
-
-        AlertSummaryGroupedRenderer.updateSummary(summaries, definition.getDefinitionId(),
-            definition.getDefinitionName(), alertState, alert.getTimestamp(), maintenanceState, alert.getText());
       }
+      return new AlertBatch();
     }
 
-    // invokes the EntityManager create/merge on various entities in a single
-    // transaction
-    saveEntities(toMerge, toCreateHistoryAndMerge);
+    AlertsMetricsSource metricsSource = getMetricsSource();
+    if (null != metricsSource) {
+      metricsSource.onBatchFlushed(batch.alerts.size(), System.currentTimeMillis() - batch.startTime);
+    }
 
     // broadcast events
-    for (AlertEvent eventToFire : alertEvents) {
+    for (AlertEvent eventToFire : batch.alertEvents) {
       m_alertEventPublisher.publish(eventToFire);
     }
-    if (!alertUpdates.isEmpty()) {
-      STOMPUpdatePublisher.publish(new AlertUpdateEvent(alertUpdates));
+    if (!batch.alertUpdates.isEmpty()) {
+      STOMPUpdatePublisher.publish(new AlertUpdateEvent(batch.alertUpdates));
     }
+
+    return new AlertBatch();
+  }
+
+  private AlertsMetricsSource getMetricsSource() {
+    MetricsSource metricsSource = MetricsServiceImpl.getSource("alerts");
+    return metricsSource instanceof AlertsMetricsSource ? (AlertsMetricsSource) metricsSource : null;
   }
 
   private void clearStaleAlerts(String hostName, Long definitionId) throws AmbariException {
     if (StringUtil.isNotBlank(hostName)) {
-      Host host = m_clusters.get().getHosts().stream().filter(h -> h.getHostName().equals(hostName))
-          .findFirst().orElse(null);
-      if (host != null) {
+      // look the host up by name instead of scanning all hosts for every received alert
+      try {
+        Host host = m_clusters.get().getHost(hostName);
         alertHelper.clearStaleAlert(host.getHostId(), definitionId);
+      } catch (HostNotFoundException e) {
+        LOG.debug("Host {} was removed while clearing its stale alerts", hostName);
       }
     } else {
       alertHelper.clearStaleAlert(definitionId);
@@ -447,12 +664,17 @@ public class AlertReceivedListener {
 
   /**
    * Saves alert and alert history entities in single transaction
+   * @param toCreate - create alert along with its history
    * @param toMerge - merge alert only
    * @param toCreateHistoryAndMerge - create new history, merge alert
    */
   @Transactional
-  void saveEntities(List<AlertCurrentEntity> toMerge,
+  void saveEntities(List<AlertCurrentEntity> toCreate, List<AlertCurrentEntity> toMerge,
       List<AlertCurrentEntity> toCreateHistoryAndMerge) {
+    for (AlertCurrentEntity entity : toCreate) {
+      m_alertsDao.create(entity);
+    }
+
     for (AlertCurrentEntity entity : toMerge) {
       m_alertsDao.merge(entity, m_configuration.isAlertCacheEnabled());
     }
@@ -703,4 +925,56 @@ public class AlertReceivedListener {
 
     return repeatTolerance;
   }
+
+  /**
+   * Alerts which are saved in a single transaction, along with the events to
+   * fire once they are saved. Each alert appears at most once in a batch.
+   */
+  private static final class AlertBatch {
+    private final long startTime = System.currentTimeMillis();
+    private final List<AlertCurrentEntity> toCreate = new ArrayList<>();
+    private final List<AlertCurrentEntity> toMerge = new ArrayList<>();
+    private final List<AlertCurrentEntity> toCreateHistoryAndMerge = new ArrayList<>();
+    private final List<AlertEvent> alertEvents = new ArrayList<>(20);
+    private final Map<Long, Map<String, AlertSummaryGroupedRenderer.AlertDefinitionSummary>> alertUpdates =
+        new HashMap<>();
+    private final Set<List<Object>> alertKeys = new HashSet<>();
+
+    /**
+     * The alerts of the batch, each as an event of its own, to save them one by
+     * one if the batch cannot be saved.
+     */
+    private final List<AlertReceivedEvent> alerts = new ArrayList<>();
+
+    /**
+     * The locks of the alerts created by the batch, held until it is saved.
+     */
+    private final List<Lock> creationLocks = new ArrayList<>();
+
+    /**
+     * @return {@code false} if the alert is already part of the batch.
+     */
+    private boolean add(Long clusterId, Alert alert, AlertDefinitionEntity definition) {
+      if (!alertKeys.add(getKey(clusterId, alert, definition))) {
+        return false;
+      }
+
+      alerts.add(new AlertReceivedEvent(clusterId, alert));
+      return true;
+    }
+
+    /**
+     * Removes the alert added last, before any of its changes were added.
+     */
+    private void removeLast(Long clusterId, Alert alert, AlertDefinitionEntity definition) {
+      alertKeys.remove(getKey(clusterId, alert, definition));
+      alerts.remove(alerts.size() - 1);
+    }
+
+    private static List<Object> getKey(Long clusterId, Alert alert, AlertDefinitionEntity definition) {
+      String hostName = StringUtils.isBlank(alert.getHostName()) || definition.isHostIgnored() ? null
+          : alert.getHostName();
+      return Arrays.asList(clusterId, alert.getName(), hostName);
+    }
+  }
 }
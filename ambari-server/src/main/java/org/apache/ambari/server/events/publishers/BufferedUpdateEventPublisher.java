@@ -15,73 +15,180 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.apache.ambari.server.events.publishers;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.events.STOMPEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+/**
+ * Buffers events of a single type and posts them merged to the event bus. Events with the same
+ * {@link #getCoalescingKey(Object) coalescing key} are merged while still buffered, so the buffer keeps only the
+ * latest state of each entity.
+ * <p/>
+ * An event published after a quiet period is posted immediately, events published in bursts are posted at most once
+ * per flush interval or as soon as the flush size is reached. Events are always posted by the publisher's own thread
+ * and publishing never blocks: publishers may hold locks, like the host role command status lock, which posting
+ * needs. A full buffer is swapped out and handed to the publisher's thread as is.
+ */
 public abstract class BufferedUpdateEventPublisher<T> {
+  private static final Logger LOG = LoggerFactory.getLogger(BufferedUpdateEventPublisher.class);
+
+  private final Map<Object, T> buffer = new LinkedHashMap<>();
+
+  /**
+   * Events of full buffers, waiting to be posted ahead of the buffered ones.
+   */
+  private final List<T> handedOver = new ArrayList<>();
+
+  private final int bufferSize;
+  private final int flushSize;
+  private final long flushInterval;
+
+  private final ScheduledThreadPoolExecutor scheduledExecutorService;
+
+  private ScheduledFuture<?> scheduledFlush;
+  private long lastFlushTime;
+  private volatile EventBus m_eventBus;
 
-  private static final long TIMEOUT = 1000L;
-  private final ConcurrentLinkedQueue<T> buffer = new ConcurrentLinkedQueue<>();
+  private final AtomicLong coalescedCount = new AtomicLong();
+  private final AtomicLong overflowCount = new AtomicLong();
 
   public abstract STOMPEvent.Type getType();
 
-  private ScheduledExecutorService scheduledExecutorService;
+  public BufferedUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher, Configuration configuration) {
+    bufferSize = Math.max(1, configuration.getStompUpdatePublisherBufferSize());
+    flushSize = Math.max(1, Math.min(bufferSize, configuration.getStompUpdatePublisherFlushSize()));
+    flushInterval = Math.max(0L, configuration.getStompUpdatePublisherFlushInterval());
+
+    scheduledExecutorService = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+        .setNameFormat(getClass().getSimpleName() + "-%d").setDaemon(true).build());
+    scheduledExecutorService.setRemoveOnCancelPolicy(true);
 
-  public BufferedUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher) {
     stompUpdatePublisher.registerPublisher(this);
   }
 
   public void publish(T event, EventBus m_eventBus) {
-    if (scheduledExecutorService == null) {
-      scheduledExecutorService =
-          Executors.newScheduledThreadPool(1);
-      scheduledExecutorService
-          .scheduleWithFixedDelay(getScheduledPublisher(m_eventBus), TIMEOUT, TIMEOUT, TimeUnit.MILLISECONDS);
+    this.m_eventBus = m_eventBus;
+    synchronized (buffer) {
+      Object key = getCoalescingKey(event);
+      T buffered = key == null ? null : buffer.get(key);
+      if (buffered != null) {
+        buffer.put(key, coalesce(buffered, event));
+        coalescedCount.incrementAndGet();
+      } else {
+        buffer.put(key == null ? new Object() : key, event);
+      }
+
+      if (buffer.size() >= bufferSize) {
+        overflowCount.incrementAndGet();
+        LOG.debug("Buffer of {} events is full, handing it over to be posted", getType());
+        handedOver.addAll(buffer.values());
+        buffer.clear();
+        scheduledExecutorService.execute(this::flush);
+      } else {
+        scheduleFlush();
+      }
+    }
+  }
+
+  /**
+   * Schedules flush if it was not scheduled yet, or reschedules it to run immediately once flush size is reached.
+   * Should be called while holding buffer lock.
+   */
+  private void scheduleFlush() {
+    long delay = buffer.size() >= flushSize ? 0L
+        : Math.max(0L, lastFlushTime + flushInterval - System.currentTimeMillis());
+    if (scheduledFlush != null) {
+      if (delay > 0 || scheduledFlush.getDelay(TimeUnit.MILLISECONDS) <= 0 || !scheduledFlush.cancel(false)) {
+        return;
+      }
     }
-    buffer.add(event);
+    scheduledFlush = scheduledExecutorService.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
   }
 
-  protected MergingRunnable getScheduledPublisher(EventBus m_eventBus) {
-    return new MergingRunnable(m_eventBus);
+  private void flush() {
+    try {
+      List<T> events = retrieveBuffer();
+      if (!events.isEmpty()) {
+        mergeBufferAndPost(events, m_eventBus);
+      }
+    } catch (Exception e) {
+      LOG.error("Unable to post buffered events of type {}", getType(), e);
+    }
   }
 
   protected List<T> retrieveBuffer() {
-    List<T> bufferContent = new ArrayList<>();
-    while (!buffer.isEmpty()) {
-      bufferContent.add(buffer.poll());
+    synchronized (buffer) {
+      List<T> bufferContent = new ArrayList<>(handedOver);
+      bufferContent.addAll(buffer.values());
+      handedOver.clear();
+      buffer.clear();
+      if (scheduledFlush != null) {
+        scheduledFlush.cancel(false);
+        scheduledFlush = null;
+      }
+      lastFlushTime = System.currentTimeMillis();
+      return bufferContent;
     }
-    return bufferContent;
   }
 
-  public abstract void mergeBufferAndPost(List<T> events, EventBus m_eventBus);
+  /**
+   * Returns key of entity the event is about. Buffered events with equal keys are merged with
+   * {@link #coalesce(Object, Object)}, events without a key are buffered as is.
+   * @param event published event
+   * @return coalescing key or {@code null} if event should not be merged with others
+   */
+  protected Object getCoalescingKey(T event) {
+    return null;
+  }
+
+  /**
+   * Merges newly published event into buffered one about the same entity.
+   * @param buffered event already present in buffer
+   * @param event newly published event
+   * @return event to keep in buffer
+   */
+  protected T coalesce(T buffered, T event) {
+    return event;
+  }
 
-  private class MergingRunnable implements Runnable {
+  public abstract void mergeBufferAndPost(List<T> events, EventBus m_eventBus);
 
-    private final EventBus m_eventBus;
+  /**
+   * @return count of events merged into already buffered ones
+   */
+  public long getCoalescedCount() {
+    return coalescedCount.get();
+  }
 
-    public MergingRunnable(EventBus m_eventBus) {
-      this.m_eventBus = m_eventBus;
-    }
+  /**
+   * @return count of events published into full buffer
+   */
+  public long getOverflowCount() {
+    return overflowCount.get();
+  }
 
-    @Override
-    public final void run() {
-      List<T> events = retrieveBuffer();
-      if (events.isEmpty()) {
-        return;
-      }
-      mergeBufferAndPost(events, m_eventBus);
+  /**
+   * @return count of events waiting to be posted
+   */
+  public int getBufferedCount() {
+    synchronized (buffer) {
+      return buffer.size();
     }
   }
 
@@ -0,0 +1,196 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.events.publishers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Event bus which dispatches events to subscribers asynchronously using several threads. Events are split into
+ * partitions by key, events of the same partition are dispatched by a single thread in the order they were posted,
+ * so a slow subscriber delays only events of its partition.
+ * <p/>
+ * Events without a key are a barrier across all partitions: they are dispatched after all events posted before them
+ * and before any event posted after them, whatever the partition.
+ */
+public class PartitionedEventBus extends EventBus {
+
+  private final Function<Object, Object> partitioner;
+  private final List<Partition> partitions;
+
+  /**
+   * Held while a barrier is queued to all partitions, events with a key never take it.
+   */
+  private final Object barrierLock = new Object();
+
+  /**
+   * @param identifier bus name, is used for dispatching threads names
+   * @param partitionsCount count of dispatching threads
+   * @param partitioner returns partition key of event, or {@code null} if the event is ordered with all events
+   */
+  public PartitionedEventBus(String identifier, int partitionsCount, Function<Object, Object> partitioner) {
+    super(identifier);
+    this.partitioner = partitioner;
+    List<Partition> partitions = new ArrayList<>();
+    for (int i = 0; i < Math.max(1, partitionsCount); i++) {
+      partitions.add(new Partition(identifier + "-" + i));
+    }
+    this.partitions = Collections.unmodifiableList(partitions);
+  }
+
+  @Override
+  public void post(Object event) {
+    Object key = partitioner.apply(event);
+    if (key == null && partitions.size() > 1) {
+      dispatchBarrier(event);
+    } else {
+      int index = Math.floorMod(Objects.hashCode(key), partitions.size());
+      partitions.get(index).dispatch(event);
+    }
+  }
+
+  /**
+   * Queues the event to every partition. The first partition dispatches the event once all partitions reached it,
+   * the other partitions wait until it is dispatched. Barriers are queued one at a time, so all partitions reach
+   * them in the same order. Only events without a key pay for it, so the partitioner should return {@code null}
+   * for rare events only.
+   */
+  private void dispatchBarrier(Object event) {
+    CountDownLatch reached = new CountDownLatch(partitions.size());
+    CountDownLatch dispatched = new CountDownLatch(1);
+    long postTime = System.currentTimeMillis();
+    synchronized (barrierLock) {
+      partitions.get(0).executor.execute(() -> {
+        try {
+          reached.countDown();
+          reached.await();
+          partitions.get(0).dispatchNow(event, postTime);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          dispatched.countDown();
+        }
+      });
+      for (Partition partition : partitions.subList(1, partitions.size())) {
+        partition.executor.execute(() -> {
+          reached.countDown();
+          try {
+            dispatched.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+      }
+    }
+  }
+
+  /**
+   * Stops dispatching threads, events which were not dispatched yet are dropped.
+   */
+  public void shutdown() {
+    for (Partition partition : partitions) {
+      partition.executor.shutdownNow();
+    }
+  }
+
+  /**
+   * @return partitions in order of their indexes
+   */
+  public List<Partition> getPartitions() {
+    return partitions;
+  }
+
+  /**
+   * Single dispatching thread with its queue and latency statistics.
+   */
+  public class Partition {
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong latencySum = new AtomicLong();
+    private final AtomicLong latencyMax = new AtomicLong();
+
+    private Partition(String name) {
+      executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+          new ThreadFactoryBuilder().setNameFormat(name).setDaemon(true).build());
+    }
+
+    private void dispatch(Object event) {
+      long postTime = System.currentTimeMillis();
+      executor.execute(() -> dispatchNow(event, postTime));
+    }
+
+    private void dispatchNow(Object event, long postTime) {
+      PartitionedEventBus.super.post(event);
+
+      long latency = System.currentTimeMillis() - postTime;
+      dispatchedCount.incrementAndGet();
+      latencySum.addAndGet(latency);
+      latencyMax.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * @return count of events waiting for dispatch
+     */
+    public int getQueueSize() {
+      return executor.getQueue().size();
+    }
+
+    /**
+     * @return count of events dispatched since previous reset
+     */
+    public long getDispatchedCount() {
+      return dispatchedCount.get();
+    }
+
+    /**
+     * @return average time in milliseconds from posting to dispatching completion since previous reset
+     */
+    public double getAverageLatency() {
+      long count = dispatchedCount.get();
+      return count == 0 ? 0 : (double) latencySum.get() / count;
+    }
+
+    /**
+     * @return maximal time in milliseconds from posting to dispatching completion since previous reset
+     */
+    public long getMaxLatency() {
+      return latencyMax.get();
+    }
+
+    /**
+     * Resets dispatched events count and latency statistics.
+     */
+    public void resetStatistics() {
+      dispatchedCount.set(0);
+      latencySum.set(0);
+      latencyMax.set(0);
+    }
+  }
+}
@@ -18,11 +18,10 @@
 
 package org.apache.ambari.server.events.publishers;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.ambari.server.EagerSingleton;
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.internal.CalculatedStatus;
 import org.apache.ambari.server.events.RequestUpdateEvent;
 import org.apache.ambari.server.events.STOMPEvent;
@@ -51,8 +50,8 @@ public class RequestUpdateEventPublisher extends BufferedUpdateEventPublisher<Re
   private ClusterDAO clusterDAO;
 
   @Inject
-  public RequestUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher) {
-    super(stompUpdatePublisher);
+  public RequestUpdateEventPublisher(STOMPUpdatePublisher stompUpdatePublisher, Configuration configuration) {
+    super(stompUpdatePublisher, configuration);
   }
 
   @Override
@@ -60,23 +59,25 @@ public class RequestUpdateEventPublisher extends BufferedUpdateEventPublisher<Re
     return STOMPEvent.Type.REQUEST;
   }
 
+  @Override
+  protected Object getCoalescingKey(RequestUpdateEvent event) {
+    return event.getRequestId();
+  }
+
+  @Override
+  protected RequestUpdateEvent coalesce(RequestUpdateEvent buffered, RequestUpdateEvent event) {
+    buffered.setEndTime(event.getEndTime());
+    buffered.setRequestStatus(event.getRequestStatus());
+    buffered.setRequestContext(event.getRequestContext());
+    buffered.getHostRoleCommands().removeAll(event.getHostRoleCommands());
+    buffered.getHostRoleCommands().addAll(event.getHostRoleCommands());
+    return buffered;
+  }
+
   @Override
   public void mergeBufferAndPost(List<RequestUpdateEvent> events, EventBus m_eventBus) {
-    Map<Long, RequestUpdateEvent> filteredRequests = new HashMap<>();
-    for (RequestUpdateEvent event : events) {
-      Long requestId = event.getRequestId();
-      if (filteredRequests.containsKey(requestId)) {
-        RequestUpdateEvent filteredRequest = filteredRequests.get(requestId);
-        filteredRequest.setEndTime(event.getEndTime());
-        filteredRequest.setRequestStatus(event.getRequestStatus());
-        filteredRequest.setRequestContext(event.getRequestContext());
-        filteredRequest.getHostRoleCommands().removeAll(event.getHostRoleCommands());
-        filteredRequest.getHostRoleCommands().addAll(event.getHostRoleCommands());
-      } else {
-        filteredRequests.put(requestId, event);
-      }
-    }
-    for (RequestUpdateEvent requestUpdateEvent : filteredRequests.values()) {
+    // events of the same request were already merged while buffered
+    for (RequestUpdateEvent requestUpdateEvent : events) {
       RequestUpdateEvent filled = fillRequest(requestUpdateEvent);
       m_eventBus.post(filled);
     }
@@ -17,43 +17,60 @@
  */
 package org.apache.ambari.server.events.publishers;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.ambari.server.AmbariRuntimeException;
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.events.DefaultMessageEmitter;
 import org.apache.ambari.server.events.STOMPEvent;
+import org.apache.ambari.server.events.STOMPHostEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.eventbus.AsyncEventBus;
-import com.google.common.eventbus.EventBus;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 @Singleton
 public class STOMPUpdatePublisher {
   private static final Logger LOG = LoggerFactory.getLogger(STOMPUpdatePublisher.class);
 
-  private final EventBus agentEventBus;
-  private final EventBus apiEventBus;
+  private final PartitionedEventBus agentEventBus;
+  private final PartitionedEventBus apiEventBus;
 
-  private final ExecutorService threadPoolExecutorAgent = Executors.newSingleThreadExecutor(
-      new ThreadFactoryBuilder().setNameFormat("stomp-agent-bus-%d").build());
-  private final ExecutorService threadPoolExecutorAPI = Executors.newSingleThreadExecutor(
-      new ThreadFactoryBuilder().setNameFormat("stomp-api-bus-%d").build());
+  @Inject
+  public STOMPUpdatePublisher(Configuration configuration) {
+    int partitions = configuration.getStompUpdatePublisherPartitions();
+    agentEventBus = new PartitionedEventBus("agent-update-bus", partitions, STOMPUpdatePublisher::getAgentPartitionKey);
+    apiEventBus = new PartitionedEventBus("api-update-bus", partitions, STOMPUpdatePublisher::getAPIPartitionKey);
+  }
 
-  public STOMPUpdatePublisher() throws NoSuchFieldException, IllegalAccessException {
-    agentEventBus = new AsyncEventBus("agent-update-bus",
-        threadPoolExecutorAgent);
+  /**
+   * Events to specific host are dispatched in order per host. Other events, such as topology and metadata updates,
+   * are dispatched in order with all events, so an agent never receives an event before the updates it depends on.
+   */
+  private static Object getAgentPartitionKey(Object event) {
+    if (event instanceof STOMPHostEvent) {
+      return ((STOMPHostEvent) event).getHostId();
+    }
+    return null;
+  }
 
-    apiEventBus = new AsyncEventBus("api-update-bus",
-        threadPoolExecutorAPI);
+  /**
+   * Events to specific host are dispatched in order per host, other events are dispatched in order per type.
+   */
+  private static Object getAPIPartitionKey(Object event) {
+    if (event instanceof STOMPHostEvent) {
+      return ((STOMPHostEvent) event).getHostId();
+    }
+    if (event instanceof STOMPEvent) {
+      return ((STOMPEvent) event).getType();
+    }
+    return event.getClass();
   }
 
-  private List<BufferedUpdateEventPublisher> publishers = new ArrayList<>();
+  private List<BufferedUpdateEventPublisher> publishers = new CopyOnWriteArrayList<>();
 
   public void registerPublisher(BufferedUpdateEventPublisher publisher) {
     if (publishers.contains(publisher)) {
@@ -63,6 +80,13 @@ public class STOMPUpdatePublisher {
     }
   }
 
+  /**
+   * @return publishers buffering events of specific types
+   */
+  public List<BufferedUpdateEventPublisher> getBufferedPublishers() {
+    return Collections.unmodifiableList(publishers);
+  }
+
   public void publish(STOMPEvent event) {
     if (DefaultMessageEmitter.DEFAULT_AGENT_EVENT_TYPES.contains(event.getType())) {
       publishAgent(event);
@@ -91,6 +115,28 @@ public class STOMPUpdatePublisher {
     agentEventBus.post(event);
   }
 
+  /**
+   * @return dispatching partitions of events sent to agents
+   */
+  public List<PartitionedEventBus.Partition> getAgentPartitions() {
+    return agentEventBus.getPartitions();
+  }
+
+  /**
+   * @return dispatching partitions of events sent to API clients
+   */
+  public List<PartitionedEventBus.Partition> getAPIPartitions() {
+    return apiEventBus.getPartitions();
+  }
+
+  /**
+   * Stops the dispatching threads of both buses.
+   */
+  public void shutdown() {
+    agentEventBus.shutdown();
+    apiEventBus.shutdown();
+  }
+
   public void registerAgent(Object object) {
     agentEventBus.register(object);
   }
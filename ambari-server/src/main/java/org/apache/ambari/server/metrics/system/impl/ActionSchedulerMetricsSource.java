@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.metrics.system.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ambari.server.metrics.system.MetricsSink;
+import org.apache.ambari.server.metrics.system.SingleMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects action scheduler metrics: number of scheduler passes by trigger and latency between receiving
+ * command reports from agents and dispatching of the next commands. Publishes them to configured Metric Sink.
+ */
+public class ActionSchedulerMetricsSource extends AbstractMetricsSource {
+  private static Logger LOG = LoggerFactory.getLogger(ActionSchedulerMetricsSource.class);
+
+  private static final String PASSES_PERIODIC_METRIC = "scheduler.passes.periodic";
+  private static final String PASSES_EVENT_METRIC = "scheduler.passes.event";
+  private static final String LATENCY_COUNT_METRIC = "scheduler.latency.count";
+  private static final String LATENCY_AVG_METRIC = "scheduler.latency.avg";
+  private static final String LATENCY_MAX_METRIC = "scheduler.latency.max";
+
+  private final AtomicLong periodicPasses = new AtomicLong();
+  private final AtomicLong eventPasses = new AtomicLong();
+  private final AtomicLong latencyCount = new AtomicLong();
+  private final AtomicLong latencyTotal = new AtomicLong();
+  private final AtomicLong latencyMax = new AtomicLong();
+
+  private ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+
+  private int interval = 60;
+
+  @Override
+  public void init(MetricsConfiguration configuration, MetricsSink sink) {
+    super.init(configuration, sink);
+    interval = Integer.parseInt(configuration.getProperty("interval", String.valueOf(interval)));
+  }
+
+  @Override
+  public void start() {
+    LOG.info("Starting action scheduler source...");
+    try {
+      executor.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          sink.publish(getMetrics());
+          LOG.debug("********* Published action scheduler metrics to sink **********");
+        }
+      }, interval, interval, TimeUnit.SECONDS);
+    } catch (Exception e) {
+      LOG.info("Throwing exception when starting action scheduler source", e);
+    }
+  }
+
+  /**
+   * Registers a scheduler pass.
+   * @param triggeredByEvent true if pass was triggered by command reports or new requests, false if it is periodic
+   */
+  public void onSchedulerPass(boolean triggeredByEvent) {
+    if (triggeredByEvent) {
+      eventPasses.incrementAndGet();
+    } else {
+      periodicPasses.incrementAndGet();
+    }
+  }
+
+  /**
+   * Registers time between receiving of command report and dispatching of the next commands.
+   * @param latency latency in milliseconds
+   */
+  public void onSchedulingLatency(long latency) {
+    latencyCount.incrementAndGet();
+    latencyTotal.addAndGet(latency);
+    latencyMax.accumulateAndGet(latency, Math::max);
+  }
+
+  private List<SingleMetric> getMetrics() {
+    long timestamp = System.currentTimeMillis();
+    long count = latencyCount.getAndSet(0);
+    long total = latencyTotal.getAndSet(0);
+    List<SingleMetric> metrics = new ArrayList<>();
+    metrics.add(new SingleMetric(PASSES_PERIODIC_METRIC, periodicPasses.getAndSet(0), timestamp));
+    metrics.add(new SingleMetric(PASSES_EVENT_METRIC, eventPasses.getAndSet(0), timestamp));
+    metrics.add(new SingleMetric(LATENCY_COUNT_METRIC, count, timestamp));
+    metrics.add(new SingleMetric(LATENCY_AVG_METRIC, count == 0 ? -1 : (double) total / count, timestamp));
+    metrics.add(new SingleMetric(LATENCY_MAX_METRIC, latencyMax.getAndSet(0), timestamp));
+    return metrics;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.metrics.system.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ambari.server.metrics.system.MetricsSink;
+import org.apache.ambari.server.metrics.system.SingleMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects metrics of received alerts processing: number of processed alerts per second, size of the batches
+ * they were processed in and time it took to process and save a batch. Publishes them to configured Metric Sink.
+ */
+public class AlertsMetricsSource extends AbstractMetricsSource {
+  private static Logger LOG = LoggerFactory.getLogger(AlertsMetricsSource.class);
+
+  private static final String ALERTS_COUNT_METRIC = "alerts.received.count";
+  private static final String ALERTS_RATE_METRIC = "alerts.received.rate";
+  private static final String BATCH_COUNT_METRIC = "alerts.batch.count";
+  private static final String BATCH_SIZE_AVG_METRIC = "alerts.batch.size.avg";
+  private static final String BATCH_SIZE_MAX_METRIC = "alerts.batch.size.max";
+  private static final String FLUSH_LATENCY_AVG_METRIC = "alerts.flush.latency.avg";
+  private static final String FLUSH_LATENCY_MAX_METRIC = "alerts.flush.latency.max";
+
+  private final AtomicLong alertCount = new AtomicLong();
+  private final AtomicLong batchCount = new AtomicLong();
+  private final AtomicLong batchSizeMax = new AtomicLong();
+  private final AtomicLong latencyTotal = new AtomicLong();
+  private final AtomicLong latencyMax = new AtomicLong();
+
+  private ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+
+  private int interval = 60;
+
+  @Override
+  public void init(MetricsConfiguration configuration, MetricsSink sink) {
+    super.init(configuration, sink);
+    interval = Integer.parseInt(configuration.getProperty("interval", String.valueOf(interval)));
+  }
+
+  @Override
+  public void start() {
+    LOG.info("Starting alerts source...");
+    try {
+      executor.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          sink.publish(getMetrics());
+          LOG.debug("********* Published alerts metrics to sink **********");
+        }
+      }, interval, interval, TimeUnit.SECONDS);
+    } catch (Exception e) {
+      LOG.info("Throwing exception when starting alerts source", e);
+    }
+  }
+
+  /**
+   * Registers a processed batch of received alerts.
+   * @param alerts number of alerts in the batch
+   * @param latency time in milliseconds it took to process and save the batch
+   */
+  public void onBatchFlushed(int alerts, long latency) {
+    alertCount.addAndGet(alerts);
+    batchCount.incrementAndGet();
+    batchSizeMax.accumulateAndGet(alerts, Math::max);
+    latencyTotal.addAndGet(latency);
+    latencyMax.accumulateAndGet(latency, Math::max);
+  }
+
+  private List<SingleMetric> getMetrics() {
+    long timestamp = System.currentTimeMillis();
+    long alerts = alertCount.getAndSet(0);
+    long batches = batchCount.getAndSet(0);
+    long latency = latencyTotal.getAndSet(0);
+    List<SingleMetric> metrics = new ArrayList<>();
+    metrics.add(new SingleMetric(ALERTS_COUNT_METRIC, alerts, timestamp));
+    metrics.add(new SingleMetric(ALERTS_RATE_METRIC, (double) alerts / interval, timestamp));
+    metrics.add(new SingleMetric(BATCH_COUNT_METRIC, batches, timestamp));
+    metrics.add(new SingleMetric(BATCH_SIZE_AVG_METRIC, batches == 0 ? -1 : (double) alerts / batches, timestamp));
+    metrics.add(new SingleMetric(BATCH_SIZE_MAX_METRIC, batchSizeMax.getAndSet(0), timestamp));
+    metrics.add(new SingleMetric(FLUSH_LATENCY_AVG_METRIC, batches == 0 ? -1 : (double) latency / batches, timestamp));
+    metrics.add(new SingleMetric(FLUSH_LATENCY_MAX_METRIC, latencyMax.getAndSet(0), timestamp));
+    return metrics;
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.metrics.system.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ambari.server.metrics.system.MetricsSink;
+import org.apache.ambari.server.metrics.system.SingleMetric;
+import org.apache.ambari.server.state.services.HistoryPurgeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects metrics of the background history purge: number of request and alert history rows removed since the
+ * server was started and how far the purge lags behind the retention period. Publishes them to configured Metric Sink.
+ */
+public class HistoryPurgeMetricsSource extends AbstractMetricsSource {
+  private static Logger LOG = LoggerFactory.getLogger(HistoryPurgeMetricsSource.class);
+
+  private static final String PURGED_REQUEST_ROWS_METRIC = "history.purge.request.rows";
+  private static final String PURGED_ALERT_ROWS_METRIC = "history.purge.alert.rows";
+  private static final String RETENTION_LAG_METRIC = "history.purge.retention.lag";
+
+  private HistoryPurgeService historyPurgeService;
+  private ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+
+  private int interval = 60;
+
+  @Override
+  public void init(MetricsConfiguration configuration, MetricsSink sink) {
+    super.init(configuration, sink);
+    interval = Integer.parseInt(configuration.getProperty("interval", String.valueOf(interval)));
+  }
+
+  /**
+   * Sets purge service whose counters should be reported.
+   * @param historyPurgeService history purge service
+   */
+  public void setHistoryPurgeService(HistoryPurgeService historyPurgeService) {
+    this.historyPurgeService = historyPurgeService;
+  }
+
+  @Override
+  public void start() {
+    LOG.info("Starting history purge source...");
+    try {
+      executor.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          if (historyPurgeService != null) {
+            sink.publish(getMetrics());
+            LOG.debug("********* Published history purge metrics to sink **********");
+          }
+        }
+      }, interval, interval, TimeUnit.SECONDS);
+    } catch (Exception e) {
+      LOG.info("Throwing exception when starting history purge source", e);
+    }
+  }
+
+  private List<SingleMetric> getMetrics() {
+    long timestamp = System.currentTimeMillis();
+    List<SingleMetric> metrics = new ArrayList<>();
+    metrics.add(new SingleMetric(PURGED_REQUEST_ROWS_METRIC, historyPurgeService.getPurgedRequestRows(), timestamp));
+    metrics.add(new SingleMetric(PURGED_ALERT_ROWS_METRIC, historyPurgeService.getPurgedAlertRows(), timestamp));
+    metrics.add(new SingleMetric(RETENTION_LAG_METRIC, historyPurgeService.getRetentionLag(), timestamp));
+    return metrics;
+  }
+}
@@ -27,11 +27,13 @@ import org.apache.ambari.server.events.publishers.STOMPUpdatePublisher;
 import org.apache.ambari.server.metrics.system.MetricsService;
 import org.apache.ambari.server.metrics.system.MetricsSink;
 import org.apache.ambari.server.metrics.system.MetricsSource;
+import org.apache.ambari.server.state.services.HistoryPurgeService;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 
 @Singleton
@@ -45,6 +47,8 @@ public class MetricsServiceImpl implements MetricsService {
   AmbariManagementController amc;
   @Inject
   STOMPUpdatePublisher STOMPUpdatePublisher;
+  @Inject
+  Provider<HistoryPurgeService> historyPurgeService;
 
   @Override
   public void start() {
@@ -116,9 +120,13 @@ public class MetricsServiceImpl implements MetricsService {
         src.init(MetricsConfiguration.getSubsetConfiguration(configuration, "source." + sourceName + "."), sink);
         sources.put(sourceName, src);
         if (src instanceof StompEventsMetricsSource) {
+          ((StompEventsMetricsSource) src).setUpdatePublisher(STOMPUpdatePublisher);
           STOMPUpdatePublisher.registerAPI(src);
           STOMPUpdatePublisher.registerAgent(src);
         }
+        if (src instanceof HistoryPurgeMetricsSource) {
+          ((HistoryPurgeMetricsSource) src).setHistoryPurgeService(historyPurgeService.get());
+        }
         src.start();
       }
 
@@ -18,19 +18,24 @@
 package org.apache.ambari.server.metrics.system.impl;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.ambari.server.events.STOMPEvent;
+import org.apache.ambari.server.events.publishers.BufferedUpdateEventPublisher;
+import org.apache.ambari.server.events.publishers.PartitionedEventBus;
+import org.apache.ambari.server.events.publishers.STOMPUpdatePublisher;
 import org.apache.ambari.server.metrics.system.MetricsSink;
 import org.apache.ambari.server.metrics.system.SingleMetric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.eventbus.AllowConcurrentEvents;
 import com.google.common.eventbus.Subscribe;
 
 /**
@@ -39,11 +44,20 @@ import com.google.common.eventbus.Subscribe;
 public class StompEventsMetricsSource extends AbstractMetricsSource {
   private static Logger LOG = LoggerFactory.getLogger(StompEventsMetricsSource.class);
 
-  private Map<STOMPEvent.Type, Long> events = new HashMap<>();
+  private final Map<STOMPEvent.Type, AtomicLong> events = new EnumMap<>(STOMPEvent.Type.class);
+  private STOMPUpdatePublisher updatePublisher;
   private ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
 
   private final String EVENTS_TOTAL_METRIC = "events.total";
   private final String AVERAGE_METRIC_SUFFIX = ".avg";
+  private final String BUFFERED_METRIC_SUFFIX = ".buffered";
+  private final String COALESCED_METRIC_SUFFIX = ".coalesced";
+  private final String OVERFLOW_METRIC_SUFFIX = ".overflow";
+  private final String AGENT_PARTITION_METRIC_PREFIX = "events.dispatch.agent.partition.";
+  private final String API_PARTITION_METRIC_PREFIX = "events.dispatch.api.partition.";
+  private final String QUEUE_METRIC_SUFFIX = ".queue";
+  private final String LATENCY_METRIC_SUFFIX = ".latency";
+  private final String MAX_METRIC_SUFFIX = ".max";
 
   private int interval = 60;
 
@@ -51,11 +65,19 @@ public class StompEventsMetricsSource extends AbstractMetricsSource {
   public void init(MetricsConfiguration configuration, MetricsSink sink) {
     super.init(configuration, sink);
     for (STOMPEvent.Type type : STOMPEvent.Type.values()) {
-      events.put(type, 0L);
+      events.put(type, new AtomicLong());
     }
 
   }
 
+  /**
+   * Sets publisher whose buffers and dispatching partitions should be reported along with events counters.
+   * @param updatePublisher STOMP events publisher
+   */
+  public void setUpdatePublisher(STOMPUpdatePublisher updatePublisher) {
+    this.updatePublisher = updatePublisher;
+  }
+
   @Override
   public void start() {
     LOG.info("Starting stomp events source...");
@@ -64,6 +86,11 @@ public class StompEventsMetricsSource extends AbstractMetricsSource {
         @Override
         public void run() {
           List<SingleMetric> events = getEvents();
+          if (updatePublisher != null) {
+            events.addAll(getBufferMetrics());
+            events.addAll(getPartitionMetrics(AGENT_PARTITION_METRIC_PREFIX, updatePublisher.getAgentPartitions()));
+            events.addAll(getPartitionMetrics(API_PARTITION_METRIC_PREFIX, updatePublisher.getAPIPartitions()));
+          }
           sink.publish(events);
           LOG.debug("********* Published stomp events metrics to sink **********");
         }
@@ -76,30 +103,67 @@ public class StompEventsMetricsSource extends AbstractMetricsSource {
   private List<SingleMetric> getEvents() {
     List<SingleMetric> metrics = new ArrayList<>();
     Long totalEventsCounter = 0L;
-    synchronized (events) {
-      for (Map.Entry<STOMPEvent.Type, Long> event : events.entrySet()) {
-        totalEventsCounter += event.getValue();
-        metrics.add(new SingleMetric(event.getKey().getMetricName(), event.getValue(), System.currentTimeMillis()));
-
-        String averageMetricName = event.getKey().getMetricName() + AVERAGE_METRIC_SUFFIX;
-        Double eventsPerSecond = event.getValue() == 0 ? -1 : (double) interval / (double) event.getValue();
-        metrics.add(new SingleMetric(averageMetricName,
-                eventsPerSecond, System.currentTimeMillis()));
-        events.put(event.getKey(), 0L);
-      }
-      metrics.add(new SingleMetric(EVENTS_TOTAL_METRIC, totalEventsCounter, System.currentTimeMillis()));
-
-      String totalAverageMetricName = EVENTS_TOTAL_METRIC + AVERAGE_METRIC_SUFFIX;
-      Double eventsPerSecond = totalEventsCounter == 0 ? -1 : (double) interval / (double) totalEventsCounter;
-      metrics.add(new SingleMetric(totalAverageMetricName,
+    for (Map.Entry<STOMPEvent.Type, AtomicLong> event : events.entrySet()) {
+      long eventsCounter = event.getValue().getAndSet(0);
+      totalEventsCounter += eventsCounter;
+      metrics.add(new SingleMetric(event.getKey().getMetricName(), eventsCounter, System.currentTimeMillis()));
+
+      String averageMetricName = event.getKey().getMetricName() + AVERAGE_METRIC_SUFFIX;
+      Double eventsPerSecond = eventsCounter == 0 ? -1 : (double) interval / (double) eventsCounter;
+      metrics.add(new SingleMetric(averageMetricName,
               eventsPerSecond, System.currentTimeMillis()));
     }
+    metrics.add(new SingleMetric(EVENTS_TOTAL_METRIC, totalEventsCounter, System.currentTimeMillis()));
+
+    String totalAverageMetricName = EVENTS_TOTAL_METRIC + AVERAGE_METRIC_SUFFIX;
+    Double eventsPerSecond = totalEventsCounter == 0 ? -1 : (double) interval / (double) totalEventsCounter;
+    metrics.add(new SingleMetric(totalAverageMetricName,
+            eventsPerSecond, System.currentTimeMillis()));
+    return metrics;
+  }
+
+  /**
+   * Buffered events count, total numbers of coalesced events and events published into full buffer
+   * for every buffering publisher.
+   */
+  private List<SingleMetric> getBufferMetrics() {
+    List<SingleMetric> metrics = new ArrayList<>();
+    long currentTime = System.currentTimeMillis();
+    for (BufferedUpdateEventPublisher publisher : updatePublisher.getBufferedPublishers()) {
+      String metricName = publisher.getType().getMetricName();
+      metrics.add(new SingleMetric(metricName + BUFFERED_METRIC_SUFFIX, publisher.getBufferedCount(), currentTime));
+      metrics.add(new SingleMetric(metricName + COALESCED_METRIC_SUFFIX, publisher.getCoalescedCount(), currentTime));
+      metrics.add(new SingleMetric(metricName + OVERFLOW_METRIC_SUFFIX, publisher.getOverflowCount(), currentTime));
+    }
+    return metrics;
+  }
+
+  /**
+   * Queue size, average and maximal dispatching latency since previous publishing for every dispatching partition.
+   */
+  private List<SingleMetric> getPartitionMetrics(String prefix, List<PartitionedEventBus.Partition> partitions) {
+    List<SingleMetric> metrics = new ArrayList<>();
+    long currentTime = System.currentTimeMillis();
+    for (int i = 0; i < partitions.size(); i++) {
+      PartitionedEventBus.Partition partition = partitions.get(i);
+      String metricName = prefix + i;
+      metrics.add(new SingleMetric(metricName + QUEUE_METRIC_SUFFIX, partition.getQueueSize(), currentTime));
+      metrics.add(new SingleMetric(metricName + LATENCY_METRIC_SUFFIX + AVERAGE_METRIC_SUFFIX,
+          partition.getAverageLatency(), currentTime));
+      metrics.add(new SingleMetric(metricName + LATENCY_METRIC_SUFFIX + MAX_METRIC_SUFFIX,
+          partition.getMaxLatency(), currentTime));
+      partition.resetStatistics();
+    }
     return metrics;
   }
 
+  /**
+   * Counts events of every dispatching partition concurrently, events without a partition key are counted while
+   * all partitions of the agent bus wait for them.
+   */
   @Subscribe
+  @AllowConcurrentEvents
   public void onUpdateEvent(STOMPEvent STOMPEvent) {
-    STOMPEvent.Type metricType = STOMPEvent.getType();
-    events.put(metricType, events.get(metricType) + 1);
+    events.get(STOMPEvent.getType()).incrementAndGet();
   }
 }
@@ -29,6 +29,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaQuery;
@@ -60,6 +61,8 @@ import org.apache.ambari.server.state.Clusters;
 import org.apache.ambari.server.state.MaintenanceState;
 import org.apache.ambari.server.state.alert.Scope;
 import org.apache.commons.lang.StringUtils;
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -757,10 +760,10 @@ public class AlertsDAO implements Cleanable {
 
     entityManager.clear();
 
-    // if caching is enabled, invalidate the cache to force the latest values
-    // back from the DB
+    // if caching is enabled, drop the removed alerts from the cache
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      m_currentAlertCache.asMap().values().removeIf(
+          current -> Long.valueOf(definitionId).equals(current.getAlertHistory().getAlertDefinition().getDefinitionId()));
     }
   }
 
@@ -778,10 +781,10 @@ public class AlertsDAO implements Cleanable {
     query.setParameter("historyId", historyId);
     int rowsRemoved = query.executeUpdate();
 
-    // if caching is enabled, invalidate the cache to force the latest values
-    // back from the DB
+    // if caching is enabled, drop the removed alert from the cache
     if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
+      m_currentAlertCache.asMap().values().removeIf(
+          current -> Long.valueOf(historyId).equals(current.getAlertHistory().getAlertId()));
     }
 
     return rowsRemoved;
@@ -806,12 +809,6 @@ public class AlertsDAO implements Cleanable {
       }
     }
 
-    // if caching is enabled, invalidate the cache to force the latest values
-    // back from the DB
-    if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
-    }
-
     return rowsRemoved;
   }
 
@@ -845,12 +842,6 @@ public class AlertsDAO implements Cleanable {
       }
     }
 
-    // if caching is enabled, invalidate the cache to force the latest values
-    // back from the DB
-    if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
-    }
-
     // publish the event to recalculate aggregates
     m_alertEventPublisher.publish(new AggregateAlertRecalculateEvent(clusterId));
     return removedItems;
@@ -883,12 +874,6 @@ public class AlertsDAO implements Cleanable {
       }
     }
 
-    // if caching is enabled, invalidate the cache to force the latest values
-    // back from the DB
-    if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
-    }
-
     // publish the event to recalculate aggregates for every cluster since a host could potentially have several clusters
     try {
       Map<String, Cluster> clusters = m_clusters.get().getClusters();
@@ -944,12 +929,6 @@ public class AlertsDAO implements Cleanable {
       }
     }
 
-    // if caching is enabled, invalidate the cache to force the latest values
-    // back from the DB
-    if (m_configuration.isAlertCacheEnabled()) {
-      m_currentAlertCache.invalidateAll();
-    }
-
     // publish the event to recalculate aggregates
     m_alertEventPublisher.publish(new AggregateAlertRecalculateEvent(clusterId));
 
@@ -1089,7 +1068,13 @@ public class AlertsDAO implements Cleanable {
    */
   @Transactional
   public void remove(AlertCurrentEntity alert) {
-    m_entityManagerProvider.get().remove(merge(alert));
+    EntityManager entityManager = m_entityManagerProvider.get();
+    entityManager.remove(entityManager.merge(alert));
+
+    // if caching is enabled, only the removed alert is dropped from the cache
+    if (m_configuration.isAlertCacheEnabled()) {
+      m_currentAlertCache.invalidate(AlertCacheKey.build(alert));
+    }
   }
 
   /**
@@ -1557,6 +1542,75 @@ public class AlertsDAO implements Cleanable {
     return executeQuery("AlertHistoryEntity.removeInClusterBeforeDate", AlertHistoryEntity.class, clusterId, beforeDateMillis);
   }
 
+  /**
+   * Finds the ids of alert history entries of a cluster which are older than
+   * the specified date and are not the current state of any alert, in
+   * ascending order. Used to purge alert history in small batches while the
+   * server is running, by passing the last returned id as
+   * {@code afterHistoryId} of the next call.
+   *
+   * @param clusterId        the cluster of the alert history
+   * @param beforeDateMillis only entries created before this timestamp are returned
+   * @param afterHistoryId   only entries with a greater id are returned
+   * @param limit            the maximum number of ids to return
+   * @return the alert history ids, in ascending order
+   */
+  @RequiresSession
+  public List<Long> findPurgeableAlertHistoryIds(long clusterId, long beforeDateMillis, long afterHistoryId,
+                                                 int limit) {
+    TypedQuery<Long> query = m_entityManagerProvider.get().createNamedQuery(
+        "AlertHistoryEntity.findUnreferencedIdsInClusterBeforeDate", Long.class);
+
+    query.setParameter("clusterId", clusterId);
+    query.setParameter("beforeDate", beforeDateMillis);
+    query.setParameter("afterHistoryId", afterHistoryId);
+    query.setMaxResults(limit);
+
+    return m_daoUtils.selectList(query);
+  }
+
+  /**
+   * Removes the specified alert history entries together with their notices in
+   * a single transaction. The entries must not be referenced by current alerts,
+   * see {@link #findPurgeableAlertHistoryIds(long, long, long, int)}.
+   *
+   * @param historyIds the alert history entries to remove
+   * @return the number of removed rows
+   */
+  @Transactional
+  public int removeAlertHistories(List<Long> historyIds) {
+    if (historyIds.isEmpty()) {
+      return 0;
+    }
+
+    EntityManager entityManager = m_entityManagerProvider.get();
+
+    TypedQuery<Long> noticeIdQuery = entityManager.createNamedQuery(
+        "AlertNoticeEntity.findIdsByHistoryIds", Long.class);
+    noticeIdQuery.setParameter("historyIds", historyIds);
+    List<Long> noticeIds = m_daoUtils.selectList(noticeIdQuery);
+
+    // bulk deletes would otherwise invalidate every cached notice and history
+    // entry; only the removed ones are evicted below
+    TypedQuery<AlertNoticeEntity> noticeQuery = entityManager.createNamedQuery(
+        "AlertNoticeEntity.removeByHistoryIds", AlertNoticeEntity.class);
+    noticeQuery.setParameter("historyIds", historyIds);
+    noticeQuery.setHint(QueryHints.INVALIDATE_SHARED_CACHE, HintValues.FALSE);
+    int affectedRows = noticeQuery.executeUpdate();
+
+    TypedQuery<AlertHistoryEntity> historyQuery = entityManager.createNamedQuery(
+        "AlertHistoryEntity.removeByIds", AlertHistoryEntity.class);
+    historyQuery.setParameter("historyIds", historyIds);
+    historyQuery.setHint(QueryHints.INVALIDATE_SHARED_CACHE, HintValues.FALSE);
+    affectedRows += historyQuery.executeUpdate();
+
+    Cache cache = entityManager.getEntityManagerFactory().getCache();
+    noticeIds.forEach(noticeId -> cache.evict(AlertNoticeEntity.class, noticeId));
+    historyIds.forEach(historyId -> cache.evict(AlertHistoryEntity.class, historyId));
+
+    return affectedRows;
+  }
+
   /**
    * Utility method for executing update or delete named queries having as input parameters the cluster id and a timestamp.
    *
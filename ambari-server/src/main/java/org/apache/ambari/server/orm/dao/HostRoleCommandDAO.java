@@ -23,10 +23,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 
@@ -71,6 +71,7 @@ import com.google.common.base.Function;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -85,7 +86,12 @@ public class HostRoleCommandDAO {
 
   private static final Logger LOG = LoggerFactory.getLogger(HostRoleCommandDAO.class);
 
-  private static final String SUMMARY_DTO = String.format(
+  /**
+   * The selected status summary of the tasks of a stage, completed by the
+   * FROM, WHERE and GROUP BY clauses of {@link #SUMMARY_DTO} and
+   * {@link #STAGE_SUMMARY_DTO}.
+   */
+  private static final String SUMMARY_DTO_SELECT = String.format(
     "SELECT NEW %s(" +
       "MAX(hrc.stage.skippable), " +
       "MIN(hrc.startTime), " +
@@ -102,10 +108,20 @@ public class HostRoleCommandDAO {
       "SUM(CASE WHEN hrc.status = :queued THEN 1 ELSE 0 END), " +
       "SUM(CASE WHEN hrc.status = :timedout THEN 1 ELSE 0 END)," +
       "SUM(CASE WHEN hrc.status = :skipped_failed THEN 1 ELSE 0 END)" +
-      ") FROM HostRoleCommandEntity hrc " +
-      " GROUP BY hrc.requestId, hrc.stageId HAVING hrc.requestId = :requestId",
+      ") FROM HostRoleCommandEntity hrc ",
       HostRoleCommandStatusSummaryDTO.class.getName());
 
+  private static final String SUMMARY_DTO = SUMMARY_DTO_SELECT +
+      " GROUP BY hrc.requestId, hrc.stageId HAVING hrc.requestId = :requestId";
+
+  /**
+   * The same as {@link #SUMMARY_DTO}, restricted to a single stage of the
+   * request. The tasks are filtered before grouping, so only the tasks of the
+   * stage are read.
+   */
+  private static final String STAGE_SUMMARY_DTO = SUMMARY_DTO_SELECT +
+      " WHERE hrc.requestId = :requestId AND hrc.stageId = :stageId GROUP BY hrc.requestId, hrc.stageId";
+
   /**
    * SQL template to get requests that have at least one task in any of the
    * specified statuses.
@@ -140,6 +156,18 @@ public class HostRoleCommandDAO {
    */
   private final Cache<Long, Map<Long, HostRoleCommandStatusSummaryDTO>> hrcStatusSummaryCache;
 
+  /**
+   * The stages, by request id, whose summaries in
+   * {@link #hrcStatusSummaryCache} are out of date. Updating a task only
+   * marks its stage, so that the next read reloads the summary of that stage
+   * instead of aggregating every task of the request again.
+   * <p/>
+   * Stages are marked while holding the write lock of
+   * {@link LockArea#HRC_STATUS_CACHE} and reloaded while holding its read
+   * lock, so no stage can be marked while a summary is being reloaded.
+   */
+  private final Map<Long, Set<Long>> hrcStatusSummaryStaleStages = new ConcurrentHashMap<>();
+
   /**
    * Specifies whether caching for {@link HostRoleCommandStatusSummaryDTO} grouped by stage id for requests
    * is enabled.
@@ -187,6 +215,7 @@ public class HostRoleCommandDAO {
 
     LOG.debug("Invalidating host role command status summary cache for request {} !", requestId);
     hrcStatusSummaryCache.invalidate(requestId);
+    hrcStatusSummaryStaleStages.remove(requestId);
   }
 
   /**
@@ -226,9 +255,23 @@ public class HostRoleCommandDAO {
         }
       }
 
-      if (requestId != null) {
+      if (requestId == null) {
+        return;
+      }
+
+      Long stageId = hostRoleCommandEntity.getStageId();
+      if (stageId == null && hostRoleCommandEntity.getStage() != null) {
+        stageId = hostRoleCommandEntity.getStage().getStageId();
+      }
+
+      if (stageId == null || null == hrcStatusSummaryCache.getIfPresent(requestId)) {
         invalidateHostRoleCommandStatusSummaryCache(requestId.longValue());
+        return;
       }
+
+      LOG.debug("Invalidating host role command status summary cache for request {} and stage {} !", requestId,
+          stageId);
+      hrcStatusSummaryStaleStages.computeIfAbsent(requestId, id -> ConcurrentHashMap.newKeySet()).add(stageId);
     }
   }
 
@@ -248,6 +291,38 @@ public class HostRoleCommandDAO {
         HostRoleCommandStatusSummaryDTO.class);
 
     query.setParameter("requestId", requestId);
+    setSummaryStatusParameters(query);
+
+    for (HostRoleCommandStatusSummaryDTO dto : daoUtils.selectList(query)) {
+      map.put(dto.getStageId(), dto);
+    }
+
+    return map;
+  }
+
+  /**
+   * Loads the counts of tasks for a single stage of a request.
+   * @param requestId the request id
+   * @param stageId the stage id
+   * @return the summary of the stage, or {@code null} if the stage has no tasks
+   */
+  @RequiresSession
+  private HostRoleCommandStatusSummaryDTO loadAggregateCounts(Long requestId, Long stageId) {
+    EntityManager entityManager = entityManagerProvider.get();
+    TypedQuery<HostRoleCommandStatusSummaryDTO> query = entityManager.createQuery(STAGE_SUMMARY_DTO,
+        HostRoleCommandStatusSummaryDTO.class);
+
+    query.setParameter("requestId", requestId);
+    query.setParameter("stageId", stageId);
+    setSummaryStatusParameters(query);
+
+    return daoUtils.selectSingle(query);
+  }
+
+  /**
+   * Sets the status parameters used by {@link #SUMMARY_DTO} and {@link #STAGE_SUMMARY_DTO}.
+   */
+  private void setSummaryStatusParameters(TypedQuery<HostRoleCommandStatusSummaryDTO> query) {
     query.setParameter("aborted", HostRoleStatus.ABORTED);
     query.setParameter("completed", HostRoleStatus.COMPLETED);
     query.setParameter("failed", HostRoleStatus.FAILED);
@@ -259,12 +334,6 @@ public class HostRoleCommandDAO {
     query.setParameter("queued", HostRoleStatus.QUEUED);
     query.setParameter("timedout", HostRoleStatus.TIMEDOUT);
     query.setParameter("skipped_failed", HostRoleStatus.SKIPPED_FAILED);
-
-    for (HostRoleCommandStatusSummaryDTO dto : daoUtils.selectList(query)) {
-      map.put(dto.getStageId(), dto);
-    }
-
-    return map;
   }
 
   @Inject
@@ -279,6 +348,11 @@ public class HostRoleCommandDAO {
     hrcStatusSummaryCache = CacheBuilder.newBuilder()
       .maximumSize(hostRoleCommandStatusSummaryCacheLimit)
       .expireAfterWrite(hostRoleCommandStatusSummaryCacheExpiryDurationMins, TimeUnit.MINUTES)
+      .removalListener((RemovalNotification<Long, Map<Long, HostRoleCommandStatusSummaryDTO>> notification) -> {
+        if (notification.wasEvicted()) {
+          hrcStatusSummaryStaleStages.remove(notification.getKey());
+        }
+      })
       .build();
   }
 
@@ -682,25 +756,16 @@ public class HostRoleCommandDAO {
   @Transactional
   @TransactionalLock(lockArea = LockArea.HRC_STATUS_CACHE, lockType = LockType.WRITE)
   public List<HostRoleCommandEntity> mergeAll(Collection<HostRoleCommandEntity> entities) {
-    Set<Long> requestsToInvalidate = new LinkedHashSet<>();
     List<HostRoleCommandEntity> managedList = new ArrayList<>(entities.size());
     for (HostRoleCommandEntity entity : entities) {
       EntityManager entityManager = entityManagerProvider.get();
       entity = entityManager.merge(entity);
       managedList.add(entity);
 
-      Long requestId = entity.getRequestId();
-      if (requestId == null) {
-        StageEntity stageEntity = entity.getStage();
-        if (stageEntity != null) {
-          requestId = stageEntity.getRequestId();
-        }
-      }
-
-      requestsToInvalidate.add(requestId);
+      // only the stage of the task needs to be reloaded
+      invalidateHostRoleCommandStatusSummaryCache(entity);
     }
 
-    invalidateHostRoleCommandStatusSummaryCache(requestsToInvalidate);
     publishTaskUpdateEvent(getHostRoleCommands(entities));
     return managedList;
   }
@@ -777,7 +842,7 @@ public class HostRoleCommandDAO {
     }
 
     Map<Long, HostRoleCommandStatusSummaryDTO> map = hrcStatusSummaryCache.getIfPresent(requestId);
-    if (null != map) {
+    if (null != map && !hrcStatusSummaryStaleStages.containsKey(requestId)) {
       return map;
     }
 
@@ -787,8 +852,26 @@ public class HostRoleCommandDAO {
     lock.readLock().lock();
 
     try {
-      map = loadAggregateCounts(requestId);
+      map = hrcStatusSummaryCache.getIfPresent(requestId);
+      Set<Long> staleStageIds = hrcStatusSummaryStaleStages.get(requestId);
+
+      if (null == map) {
+        map = loadAggregateCounts(requestId);
+      } else if (null != staleStageIds) {
+        // only reload the stages whose tasks have changed
+        map = new HashMap<>(map);
+        for (Long stageId : staleStageIds) {
+          HostRoleCommandStatusSummaryDTO dto = loadAggregateCounts(requestId, stageId);
+          if (null == dto) {
+            map.remove(stageId);
+          } else {
+            map.put(stageId, dto);
+          }
+        }
+      }
+
       hrcStatusSummaryCache.put(requestId, map);
+      hrcStatusSummaryStaleStages.remove(requestId);
 
       return map;
     } finally {
@@ -29,6 +29,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 
@@ -317,9 +318,11 @@ public class RequestDAO implements Cleanable {
       EntityManager entityManager = entityManagerProvider.get();
       // Batch delete
       TypedQuery<T> query = entityManager.createNamedQuery(entityQuery, type);
-      for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
-        int endRow = (i + BATCH_SIZE) > ids.size() ? ids.size() : (i + BATCH_SIZE);
-        List<Long> idsSubList = new ArrayList<>(ids).subList(i, endRow);
+      query.setHint(QueryHints.INVALIDATE_SHARED_CACHE, HintValues.FALSE);
+      List<Long> idsList = new ArrayList<>(ids);
+      for (int i = 0; i < idsList.size(); i += BATCH_SIZE) {
+        int endRow = (i + BATCH_SIZE) > idsList.size() ? idsList.size() : (i + BATCH_SIZE);
+        List<Long> idsSubList = idsList.subList(i, endRow);
         LOG.info("Deleting " + entityName + " entity batch with task ids: " +
                 idsSubList.get(0) + " - " + idsSubList.get(idsSubList.size() - 1));
         query.setParameter(paramName, idsSubList);
@@ -352,9 +355,10 @@ public class RequestDAO implements Cleanable {
       EntityManager entityManager = entityManagerProvider.get();
       // Batch delete
       TypedQuery<T> query = entityManager.createNamedQuery(entityQuery, type);
+      query.setHint(QueryHints.INVALIDATE_SHARED_CACHE, HintValues.FALSE);
       for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
         int endRow = (i + BATCH_SIZE) > ids.size() ? ids.size() : (i + BATCH_SIZE);
-        List<StageEntityPK> idsSubList = new ArrayList<>(ids).subList(i, endRow);
+        List<StageEntityPK> idsSubList = ids.subList(i, endRow);
         LOG.info("Deleting " + entityName + " entity batch with task ids: " +
                 idsSubList.get(0) + " - " + idsSubList.get(idsSubList.size() - 1));
         for (StageEntityPK requestIds : idsSubList) {
@@ -392,53 +396,155 @@ public class RequestDAO implements Cleanable {
         requestIds.add(ids.getRequestId());
       }
 
-      // find task ids using request stage ids
-      Set<Long> taskIds = hostRoleCommandDAO.findTaskIdsByRequestStageIds(requestStageIds);
-
-      // find host task ids, to find related host requests and also to remove needed host tasks
-      final Set<Long> hostTaskIds = findHostTaskIds(taskIds);
-
-      // find host request ids by host task ids to remove later needed host requests
-      final Set<Long> hostRequestIds = findHostRequestIds(hostTaskIds);
-
-      final Set<Long> topologyRequestIds = findTopologyRequestIds(hostRequestIds);
-
-      final LinkedList<String> params = new LinkedList<>();
-      params.add("stageId");
-      params.add("requestId");
-      long affectedRows = 0;
-      //removing all entities one by one according to their relations using stage, task and request ids
-      affectedRows += cleanTableByIds(taskIds, "taskIds", "ExecutionCommand", policy.getToDateInMillis(),
-              "ExecutionCommandEntity.removeByTaskIds", ExecutionCommandEntity.class);
-      affectedRows += cleanTableByIds(taskIds, "taskIds", "TopologyLogicalTask", policy.getToDateInMillis(),
-              "TopologyLogicalTaskEntity.removeByPhysicalTaskIds", TopologyLogicalTaskEntity.class);
-      affectedRows += cleanTableByIds(hostTaskIds, "hostTaskIds", "TopologyHostTask", policy.getToDateInMillis(),
-              "TopologyHostTaskEntity.removeByTaskIds", TopologyHostTaskEntity.class);
-      affectedRows += cleanTableByIds(hostRequestIds, "hostRequestIds", "TopologyHostRequest", policy.getToDateInMillis(),
-              "TopologyHostRequestEntity.removeByIds", TopologyHostRequestEntity.class);
-      for (Long topologyRequestId : topologyRequestIds) {
-        topologyRequestDAO.removeByPK(topologyRequestId);
-      }
-      affectedRows += cleanTableByIds(taskIds, "taskIds", "HostRoleCommand", policy.getToDateInMillis(),
-              "HostRoleCommandEntity.removeByTaskIds", HostRoleCommandEntity.class);
-      affectedRows += cleanTableByStageEntityPK(requestStageIds, params, "RoleSuccessCriteria", policy.getToDateInMillis(),
-              "RoleSuccessCriteriaEntity.removeByRequestStageIds", RoleSuccessCriteriaEntity.class);
-      affectedRows += cleanTableByStageEntityPK(requestStageIds, params, "Stage", policy.getToDateInMillis(),
-              "StageEntity.removeByRequestStageIds", StageEntity.class);
-      affectedRows += cleanTableByIds(requestIds, "requestIds", "RequestResourceFilter", policy.getToDateInMillis(),
-              "RequestResourceFilterEntity.removeByRequestIds", RequestResourceFilterEntity.class);
-      affectedRows += cleanTableByIds(requestIds, "requestIds", "RequestOperationLevel", policy.getToDateInMillis(),
-              "RequestOperationLevelEntity.removeByRequestIds", RequestOperationLevelEntity.class);
-      affectedRows += cleanTableByIds(requestIds, "requestIds", "Request", policy.getToDateInMillis(),
-              "RequestEntity.removeByRequestIds", RequestEntity.class);
-
-      return affectedRows;
+      return removeRequestsAndStages(requestIds, requestStageIds, policy.getToDateInMillis(), true);
     } catch (AmbariException e) {
       LOG.error("Error while looking up cluster with name: {}", policy.getClusterName(), e);
       throw new IllegalStateException(e);
     }
   }
 
+  /**
+   * Finds the ids of completed requests of a cluster which were created before
+   * the specified date, in ascending order. Used to purge requests in small
+   * batches while the server is running, by passing the last returned id as
+   * {@code afterRequestId} of the next call.
+   *
+   * @param clusterId        the cluster of the requests
+   * @param beforeDateMillis only requests created before this timestamp are returned
+   * @param afterRequestId   only requests with a greater id are returned
+   * @param limit            the maximum number of ids to return
+   * @return the request ids, in ascending order
+   */
+  @RequiresSession
+  public List<Long> findCompletedRequestIdsBeforeDate(long clusterId, long beforeDateMillis, long afterRequestId,
+                                                      int limit) {
+    TypedQuery<Long> query = entityManagerProvider.get().createNamedQuery(
+        "RequestEntity.findCompletedRequestIdsInClusterBeforeDate", Long.class);
+
+    query.setParameter("clusterId", clusterId);
+    query.setParameter("beforeDate", beforeDateMillis);
+    query.setParameter("afterRequestId", afterRequestId);
+    query.setParameter("statuses", HostRoleStatus.getCompletedStates());
+    query.setMaxResults(limit);
+
+    return daoUtils.selectList(query);
+  }
+
+  /**
+   * Finds which of the specified requests have tasks of a topology request,
+   * such as a blueprint deployment or a host scaling request, which is not
+   * finished yet: some of its hosts were not assigned, or some of their tasks
+   * are not completed. Failed host requests are finished.
+   *
+   * @param requestIds the requests to check
+   * @return the ids of the requests which belong to unfinished topology requests
+   */
+  @RequiresSession
+  public List<Long> findRequestIdsOfUnfinishedTopologyRequests(Collection<Long> requestIds) {
+    if (requestIds.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    TypedQuery<Long> query = entityManagerProvider.get().createNamedQuery(
+        "RequestEntity.findRequestIdsOfUnfinishedTopologyRequests", Long.class);
+
+    query.setParameter("requestIds", requestIds);
+    query.setParameter("statuses", HostRoleStatus.getCompletedStates());
+
+    return daoUtils.selectList(query);
+  }
+
+  /**
+   * Removes the specified requests together with their stages, tasks and
+   * related topology tasks and host requests in a single transaction. Requests
+   * of upgrades are never removed. Topology requests are kept, since the
+   * server restores cluster topologies from them and requests which are not
+   * removed yet may still refer to them.
+   *
+   * @param requestIds       the requests to remove
+   * @param beforeDateMillis the retention date the requests are removed for,
+   *                         used only for logging
+   * @return the number of removed rows
+   */
+  @Transactional
+  public long removeRequests(Collection<Long> requestIds, long beforeDateMillis) {
+    Set<Long> removableRequestIds = new HashSet<>(requestIds);
+    removableRequestIds.removeAll(findAllRequestIdsFromUpgrade());
+    if (removableRequestIds.isEmpty()) {
+      return 0;
+    }
+
+    TypedQuery<StageEntityPK> query = entityManagerProvider.get().createNamedQuery(
+        "RequestEntity.findRequestStageIdsByRequestIds", StageEntityPK.class);
+    query.setParameter("requestIds", removableRequestIds);
+
+    return removeRequestsAndStages(removableRequestIds, daoUtils.selectList(query), beforeDateMillis, false);
+  }
+
+  /**
+   * Removes the specified requests and stages together with their tasks and
+   * related topology entities, according to their relations. Topology requests
+   * are removed only if {@code removeTopologyRequests} is set.
+   */
+  private long removeRequestsAndStages(Set<Long> requestIds, List<StageEntityPK> requestStageIds,
+                                       Long beforeDateMillis, boolean removeTopologyRequests) {
+    // find task ids using request stage ids
+    Set<Long> taskIds = hostRoleCommandDAO.findTaskIdsByRequestStageIds(requestStageIds);
+
+    // find host task ids, to find related host requests and also to remove needed host tasks
+    final Set<Long> hostTaskIds = findHostTaskIds(taskIds);
+
+    // find host request ids by host task ids to remove later needed host requests
+    final Set<Long> hostRequestIds = findHostRequestIds(hostTaskIds);
+
+    final Set<Long> topologyRequestIds = removeTopologyRequests
+        ? findTopologyRequestIds(hostRequestIds) : Collections.emptySet();
+
+    final LinkedList<String> params = new LinkedList<>();
+    params.add("stageId");
+    params.add("requestId");
+    long affectedRows = 0;
+    //removing all entities one by one according to their relations using stage, task and request ids
+    affectedRows += cleanTableByIds(taskIds, "taskIds", "ExecutionCommand", beforeDateMillis,
+            "ExecutionCommandEntity.removeByTaskIds", ExecutionCommandEntity.class);
+    affectedRows += cleanTableByIds(taskIds, "taskIds", "TopologyLogicalTask", beforeDateMillis,
+            "TopologyLogicalTaskEntity.removeByPhysicalTaskIds", TopologyLogicalTaskEntity.class);
+    affectedRows += cleanTableByIds(hostTaskIds, "hostTaskIds", "TopologyHostTask", beforeDateMillis,
+            "TopologyHostTaskEntity.removeByTaskIds", TopologyHostTaskEntity.class);
+    affectedRows += cleanTableByIds(hostRequestIds, "hostRequestIds", "TopologyHostRequest", beforeDateMillis,
+            "TopologyHostRequestEntity.removeByIds", TopologyHostRequestEntity.class);
+    for (Long topologyRequestId : topologyRequestIds) {
+      topologyRequestDAO.removeByPK(topologyRequestId);
+    }
+    affectedRows += cleanTableByIds(taskIds, "taskIds", "HostRoleCommand", beforeDateMillis,
+            "HostRoleCommandEntity.removeByTaskIds", HostRoleCommandEntity.class);
+    affectedRows += cleanTableByStageEntityPK(requestStageIds, params, "RoleSuccessCriteria", beforeDateMillis,
+            "RoleSuccessCriteriaEntity.removeByRequestStageIds", RoleSuccessCriteriaEntity.class);
+    affectedRows += cleanTableByStageEntityPK(requestStageIds, params, "Stage", beforeDateMillis,
+            "StageEntity.removeByRequestStageIds", StageEntity.class);
+    affectedRows += cleanTableByIds(requestIds, "requestIds", "RequestResourceFilter", beforeDateMillis,
+            "RequestResourceFilterEntity.removeByRequestIds", RequestResourceFilterEntity.class);
+    affectedRows += cleanTableByIds(requestIds, "requestIds", "RequestOperationLevel", beforeDateMillis,
+            "RequestOperationLevelEntity.removeByRequestIds", RequestOperationLevelEntity.class);
+    affectedRows += cleanTableByIds(requestIds, "requestIds", "Request", beforeDateMillis,
+            "RequestEntity.removeByRequestIds", RequestEntity.class);
+
+    // the bulk deletes above leave the shared cache intact, so evict the removed
+    // entities; their filters, operation levels, success criteria and logical
+    // tasks are only reachable through them
+    Cache cache = entityManagerProvider.get().getEntityManagerFactory().getCache();
+    taskIds.forEach(taskId -> {
+      cache.evict(ExecutionCommandEntity.class, taskId);
+      cache.evict(HostRoleCommandEntity.class, taskId);
+    });
+    hostTaskIds.forEach(hostTaskId -> cache.evict(TopologyHostTaskEntity.class, hostTaskId));
+    hostRequestIds.forEach(hostRequestId -> cache.evict(TopologyHostRequestEntity.class, hostRequestId));
+    requestStageIds.forEach(stageId -> cache.evict(StageEntity.class, stageId));
+    requestIds.forEach(requestId -> cache.evict(RequestEntity.class, requestId));
+
+    return affectedRows;
+  }
+
   private Set<Long> findHostTaskIds(Set<Long> taskIds) {
     final Set<Long> hostTaskIds = new HashSet<>();
     final Set<Long> partialTaskIds = new HashSet<>();
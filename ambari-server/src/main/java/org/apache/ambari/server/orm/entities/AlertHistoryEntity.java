@@ -56,6 +56,8 @@ import org.apache.ambari.server.state.AlertState;
   @NamedQuery(name = "AlertHistoryEntity.findAllInClusterAfterDate", query = "SELECT alertHistory FROM AlertHistoryEntity alertHistory WHERE alertHistory.clusterId = :clusterId AND alertHistory.alertTimestamp >= :afterDate"),
   @NamedQuery(name = "AlertHistoryEntity.removeByDefinitionId", query = "DELETE FROM AlertHistoryEntity alertHistory WHERE alertHistory.alertDefinitionId = :definitionId"),
   @NamedQuery(name = "AlertHistoryEntity.removeInClusterBeforeDate", query = "DELETE FROM AlertHistoryEntity alertHistory WHERE alertHistory.clusterId = :clusterId AND alertHistory.alertTimestamp <= :beforeDate"),
+  @NamedQuery(name = "AlertHistoryEntity.findUnreferencedIdsInClusterBeforeDate", query = "SELECT alertHistory.alertId FROM AlertHistoryEntity alertHistory WHERE alertHistory.clusterId = :clusterId AND alertHistory.alertTimestamp <= :beforeDate AND alertHistory.alertId > :afterHistoryId AND NOT EXISTS (SELECT alert FROM AlertCurrentEntity alert WHERE alert.historyId = alertHistory.alertId) ORDER BY alertHistory.alertId"),
+  @NamedQuery(name = "AlertHistoryEntity.removeByIds", query = "DELETE FROM AlertHistoryEntity alertHistory WHERE alertHistory.alertId IN :historyIds"),
   @NamedQuery(name = "AlertHistoryEntity.findHistoryIdsByDefinitionId", query = "SELECT alertHistory.alertId FROM AlertHistoryEntity alertHistory WHERE alertHistory.alertDefinitionId = :definitionId ORDER BY alertHistory.alertId")
 })
 public class AlertHistoryEntity {
@@ -51,6 +51,7 @@ import org.apache.commons.lang.builder.EqualsBuilder;
   @NamedQuery(name = "AlertNoticeEntity.findByState", query = "SELECT notice FROM AlertNoticeEntity notice WHERE notice.notifyState = :notifyState  ORDER BY  notice.notificationId"),
   @NamedQuery(name = "AlertNoticeEntity.findByUuid", query = "SELECT notice FROM AlertNoticeEntity notice WHERE notice.uuid = :uuid"),
   @NamedQuery(name = "AlertNoticeEntity.findByHistoryIds", query = "SELECT notice FROM AlertNoticeEntity notice WHERE notice.historyId IN :historyIds"),
+  @NamedQuery(name = "AlertNoticeEntity.findIdsByHistoryIds", query = "SELECT notice.notificationId FROM AlertNoticeEntity notice WHERE notice.historyId IN :historyIds"),
   // The remove query can be handled by a simpler JPQL query,
   // however, MySQL gtid enforce policy gets violated due to creation and
   // deletion of TEMP table in the same transaction
@@ -30,6 +30,9 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Transient;
+
+import org.apache.ambari.server.utils.CompressionUtils;
 
 @Table(name = "execution_command")
 @Entity
@@ -47,6 +50,9 @@ public class ExecutionCommandEntity {
   @Column(name = "command")
   private byte[] command;
 
+  @Transient
+  private final CompressionUtils.RestoredValue commandValue = new CompressionUtils.RestoredValue();
+
   @OneToOne
   @JoinColumn(name = "task_id", referencedColumnName = "task_id", nullable = false, insertable = false, updatable = false)
   private HostRoleCommandEntity hostRoleCommand;
@@ -59,12 +65,21 @@ public class ExecutionCommandEntity {
     this.taskId = taskId;
   }
 
+  /**
+   * @return the JSON of the command, decompressed if it was stored compressed
+   */
   public byte[] getCommand() {
-    return command;
+    return commandValue.get(command);
   }
 
+  /**
+   * Sets the JSON of the command, which is stored compressed if it is large.
+   *
+   * @param command the JSON of the command
+   */
   public void setCommand(byte[] command) {
-    this.command = command;
+    this.command = CompressionUtils.compress(command);
+    commandValue.set(this.command, command);
   }
 
   @Override
@@ -42,10 +42,12 @@ import javax.persistence.NamedQuery;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 import javax.persistence.TableGenerator;
+import javax.persistence.Transient;
 
 import org.apache.ambari.server.Role;
 import org.apache.ambari.server.RoleCommand;
 import org.apache.ambari.server.actionmanager.HostRoleStatus;
+import org.apache.ambari.server.utils.CompressionUtils;
 import org.apache.commons.lang.ArrayUtils;
 
 @Entity
@@ -154,11 +156,17 @@ public class HostRoleCommandEntity {
   @Basic
   private byte[] stdError = new byte[0];
 
+  @Transient
+  private final CompressionUtils.RestoredValue stdErrorValue = new CompressionUtils.RestoredValue();
+
   @Column(name = "std_out")
   @Lob
   @Basic
   private byte[] stdOut = new byte[0];
 
+  @Transient
+  private final CompressionUtils.RestoredValue stdOutValue = new CompressionUtils.RestoredValue();
+
   @Column(name = "output_log")
   @Basic
   private String outputLog = null;
@@ -173,6 +181,9 @@ public class HostRoleCommandEntity {
   @Basic
   private byte[] structuredOut = new byte[0];
 
+  @Transient
+  private final CompressionUtils.RestoredValue structuredOutValue = new CompressionUtils.RestoredValue();
+
   @Basic
   @Column(name = "start_time", nullable = false)
   private Long startTime = -1L;
@@ -309,19 +320,21 @@ public class HostRoleCommandEntity {
   }
 
   public byte[] getStdError() {
-    return ArrayUtils.nullToEmpty(stdError);
+    return ArrayUtils.nullToEmpty(stdErrorValue.get(stdError));
   }
 
   public void setStdError(byte[] stdError) {
-    this.stdError = stdError;
+    this.stdError = CompressionUtils.compress(stdError);
+    stdErrorValue.set(this.stdError, stdError);
   }
 
   public byte[] getStdOut() {
-    return ArrayUtils.nullToEmpty(stdOut);
+    return ArrayUtils.nullToEmpty(stdOutValue.get(stdOut));
   }
 
   public void setStdOut(byte[] stdOut) {
-    this.stdOut = stdOut;
+    this.stdOut = CompressionUtils.compress(stdOut);
+    stdOutValue.set(this.stdOut, stdOut);
   }
 
   public String getOutputLog() { return outputLog; }
@@ -381,11 +394,12 @@ public class HostRoleCommandEntity {
   }
 
   public byte[] getStructuredOut() {
-    return structuredOut;
+    return structuredOutValue.get(structuredOut);
   }
 
   public void setStructuredOut(byte[] structuredOut) {
-    this.structuredOut = structuredOut;
+    this.structuredOut = CompressionUtils.compress(structuredOut);
+    structuredOutValue.set(this.structuredOut, structuredOut);
   }
 
   public Long getEndTime() {
@@ -44,7 +44,10 @@ import org.apache.ambari.server.actionmanager.RequestType;
 @Entity
 @NamedQueries({
   @NamedQuery(name = "RequestEntity.findRequestStageIdsInClusterBeforeDate", query = "SELECT NEW org.apache.ambari.server.orm.dao.RequestDAO.StageEntityPK(request.requestId, stage.stageId) FROM RequestEntity request JOIN StageEntity stage ON request.requestId = stage.requestId WHERE request.clusterId = :clusterId AND request.createTime <= :beforeDate"),
-  @NamedQuery(name = "RequestEntity.removeByRequestIds", query = "DELETE FROM RequestEntity request WHERE request.requestId IN :requestIds")
+  @NamedQuery(name = "RequestEntity.findCompletedRequestIdsInClusterBeforeDate", query = "SELECT request.requestId FROM RequestEntity request WHERE request.clusterId = :clusterId AND request.createTime <= :beforeDate AND request.requestId > :afterRequestId AND request.status IN :statuses ORDER BY request.requestId"),
+  @NamedQuery(name = "RequestEntity.findRequestStageIdsByRequestIds", query = "SELECT NEW org.apache.ambari.server.orm.dao.RequestDAO.StageEntityPK(stage.requestId, stage.stageId) FROM StageEntity stage WHERE stage.requestId IN :requestIds"),
+  @NamedQuery(name = "RequestEntity.removeByRequestIds", query = "DELETE FROM RequestEntity request WHERE request.requestId IN :requestIds"),
+  @NamedQuery(name = "RequestEntity.findRequestIdsOfUnfinishedTopologyRequests", query = "SELECT DISTINCT command.requestId FROM HostRoleCommandEntity command, TopologyLogicalTaskEntity logicalTask, TopologyHostRequestEntity hostRequest WHERE command.requestId IN :requestIds AND logicalTask.physicalTaskId = command.taskId AND hostRequest.topologyLogicalRequestEntity.topologyRequestId = logicalTask.topologyHostTaskEntity.topologyHostRequestEntity.topologyLogicalRequestEntity.topologyRequestId AND hostRequest.status IS NULL AND (hostRequest.hostName IS NULL OR EXISTS (SELECT pendingTask FROM TopologyLogicalTaskEntity pendingTask WHERE pendingTask.topologyHostTaskEntity.hostRequestId = hostRequest.id AND pendingTask.hostRoleCommandEntity.status NOT IN :statuses))")
 })
 public class RequestEntity {
 
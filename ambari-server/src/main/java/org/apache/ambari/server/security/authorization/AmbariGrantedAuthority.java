@@ -18,19 +18,35 @@
 
 package org.apache.ambari.server.security.authorization;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.apache.ambari.server.orm.entities.PermissionEntity;
 import org.apache.ambari.server.orm.entities.PrivilegeEntity;
 import org.apache.ambari.server.orm.entities.ResourceEntity;
+import org.apache.ambari.server.orm.entities.RoleAuthorizationEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
 
 /**
  * Authority granted for Ambari privileges.
  */
 public class AmbariGrantedAuthority implements GrantedAuthority {
+  private static final Logger LOG = LoggerFactory.getLogger(AmbariGrantedAuthority.class);
+
   /**
    * The Ambari privilege.
    */
   private final PrivilegeEntity privilegeEntity;
 
+  /**
+   * The resource and authorizations of the privilege, resolved on first use.
+   */
+  private transient volatile ResolvedPrivilege resolvedPrivilege;
+
 
   // ----- Constructors ------------------------------------------------------
 
@@ -65,6 +81,67 @@ public class AmbariGrantedAuthority implements GrantedAuthority {
     return privilegeEntity;
   }
 
+  /**
+   * Get the type of the privilege resource.
+   *
+   * @return the resource type
+   */
+  public ResourceType getResourceType() {
+    return getResolvedPrivilege().resourceType;
+  }
+
+  /**
+   * Get the id of the privilege resource.
+   *
+   * @return the resource id
+   */
+  public Long getResourceId() {
+    return getResolvedPrivilege().resourceId;
+  }
+
+  /**
+   * Get the authorizations granted by the privilege permission.
+   *
+   * @return the unmodifiable set of authorizations; empty if the privilege has no permission
+   */
+  public Set<RoleAuthorization> getAuthorizations() {
+    return getResolvedPrivilege().authorizations;
+  }
+
+  /**
+   * Translates the resource type and authorization names of the privilege once, so that
+   * authorization checks done for every resource of a request only compare enums and ids.
+   */
+  private ResolvedPrivilege getResolvedPrivilege() {
+    ResolvedPrivilege resolved = resolvedPrivilege;
+    if (resolved == null) {
+      ResourceEntity resource = privilegeEntity.getResource();
+      PermissionEntity permission = privilegeEntity.getPermission();
+      Collection<RoleAuthorizationEntity> authorizationEntities = (permission == null)
+          ? null
+          : permission.getAuthorizations();
+
+      Set<RoleAuthorization> authorizations = EnumSet.noneOf(RoleAuthorization.class);
+      if (authorizationEntities != null) {
+        for (RoleAuthorizationEntity authorizationEntity : authorizationEntities) {
+          try {
+            RoleAuthorization authorization = RoleAuthorization.translate(authorizationEntity.getAuthorizationId());
+            if (authorization != null) {
+              authorizations.add(authorization);
+            }
+          } catch (IllegalArgumentException e) {
+            LOG.warn("Invalid authorization name, '{}'... ignoring.", authorizationEntity.getAuthorizationId());
+          }
+        }
+      }
+
+      resolved = new ResolvedPrivilege(ResourceType.translate(resource.getResourceType().getName()),
+          resource.getId(), Collections.unmodifiableSet(authorizations));
+      resolvedPrivilege = resolved;
+    }
+    return resolved;
+  }
+
 
   // ----- Object overrides --------------------------------------------------
 
@@ -82,4 +159,22 @@ public class AmbariGrantedAuthority implements GrantedAuthority {
   public int hashCode() {
     return privilegeEntity != null ? privilegeEntity.hashCode() : 0;
   }
+
+
+  // ----- inner classes -----------------------------------------------------
+
+  /**
+   * Resource and authorizations of a privilege.
+   */
+  private static final class ResolvedPrivilege {
+    private final ResourceType resourceType;
+    private final Long resourceId;
+    private final Set<RoleAuthorization> authorizations;
+
+    private ResolvedPrivilege(ResourceType resourceType, Long resourceId, Set<RoleAuthorization> authorizations) {
+      this.resourceType = resourceType;
+      this.resourceId = resourceId;
+      this.authorizations = authorizations;
+    }
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.ambari.server.security.encryption;
 
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.apache.ambari.server.AmbariException;
 import org.apache.ambari.server.AmbariRuntimeException;
@@ -55,11 +56,16 @@ public class AgentConfigUpdateEncryptor extends PropertiesEncryptor implements E
       Cluster cluster = getCluster(Long.parseLong(each.getKey()));
       ClusterConfigs clusterConfigs = each.getValue();
       for (Map.Entry<String, SortedMap<String, String>> clusterConfig : clusterConfigs.getConfigurations().entrySet()) {
-        encrypt(
-          clusterConfig.getValue(),
-          cluster,
-          clusterConfig.getKey(),
-          encryptionKey.toString());
+        // config type properties may be shared with other hosts, so they are copied before encryption
+        if (hasPropertiesToEncrypt(clusterConfig.getValue(), cluster, clusterConfig.getKey())) {
+          SortedMap<String, String> encryptedProperties = new TreeMap<>(clusterConfig.getValue());
+          encrypt(
+            encryptedProperties,
+            cluster,
+            clusterConfig.getKey(),
+            encryptionKey.toString());
+          clusterConfig.setValue(encryptedProperties);
+        }
       }
     }
   }
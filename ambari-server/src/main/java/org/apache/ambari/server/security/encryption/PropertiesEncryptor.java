@@ -62,6 +62,21 @@ public class PropertiesEncryptor {
     }
   }
 
+  /**
+   * @return true if any of properties is a password which is not encrypted yet
+   */
+  protected boolean hasPropertiesToEncrypt(Map<String, String> configProperties, Cluster cluster, String configType) {
+    final Set<String> passwordProperties = getPasswordProperties(cluster, configType);
+    if (CollectionUtils.isNotEmpty(passwordProperties)) {
+      for (Map.Entry<String, String> property : configProperties.entrySet()) {
+        if (shouldEncrypt(property, passwordProperties)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   private boolean shouldEncrypt(Map.Entry<String, String> property, Set<String> passwordProperties) {
     return passwordProperties.contains(property.getKey()) && !isEncryptedPassword(property.getValue());
   }
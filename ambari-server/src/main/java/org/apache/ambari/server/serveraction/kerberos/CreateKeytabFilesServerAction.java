@@ -20,11 +20,13 @@ package org.apache.ambari.server.serveraction.kerberos;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.ambari.server.AmbariException;
 import org.apache.ambari.server.actionmanager.HostRoleStatus;
@@ -44,6 +46,7 @@ import org.apache.directory.server.kerberos.shared.keytab.Keytab;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.Striped;
 import com.google.inject.Inject;
 
 /**
@@ -84,7 +87,26 @@ public class CreateKeytabFilesServerAction extends KerberosServerAction {
    * A map of data used to track what has been processed in order to optimize the creation of keytabs
    * such as knowing when to create a cached keytab file or use a cached keytab file.
    */
-  Map<String, Set<String>> visitedIdentities = new HashMap<>();
+  Map<String, Set<String>> visitedIdentities = new ConcurrentHashMap<>();
+
+  /**
+   * Keytabs created by this action, by principal name. Creating a keytab may change the keys of
+   * the principal in the KDC, so it is created once and then reused for all keytab files containing
+   * that principal.
+   */
+  private final Map<String, Keytab> createdKeytabs = new ConcurrentHashMap<>();
+
+  /**
+   * Locks used to process the same principal and keytab files of the same host sequentially when
+   * identities are processed in parallel.
+   */
+  private final Striped<Lock> principalLocks = Striped.lazyWeakLock(64);
+  private final Striped<Lock> hostLocks = Striped.lazyWeakLock(64);
+
+  /**
+   * Number of keytab files created for each host, reported once all identities have been processed.
+   */
+  private final Map<String, AtomicInteger> createdKeytabFileCounts = new ConcurrentHashMap<>();
 
   /**
    * Called to execute this action.  Upon invocation, calls
@@ -102,7 +124,26 @@ public class CreateKeytabFilesServerAction extends KerberosServerAction {
   @Override
   public CommandReport execute(ConcurrentMap<String, Object> requestSharedDataContext) throws
       AmbariException, InterruptedException {
-    return processIdentities(requestSharedDataContext);
+    CommandReport commandReport = processIdentities(requestSharedDataContext);
+
+    for (Map.Entry<String, AtomicInteger> entry : new TreeMap<>(createdKeytabFileCounts).entrySet()) {
+      String message = String.format("Created %d keytab files for host %s", entry.getValue().get(), entry.getKey());
+      LOG.info(message);
+      actionLog.writeStdOut(message);
+    }
+
+    return commandReport;
+  }
+
+  /**
+   * Keytab files are stored in host-specific directories, so they may be created concurrently for
+   * different hosts.
+   *
+   * @return true
+   */
+  @Override
+  protected boolean supportsParallelProcessing() {
+    return true;
   }
 
 
@@ -180,109 +221,128 @@ public class CreateKeytabFilesServerAction extends KerberosServerAction {
           String keytabFilePath = rkk.getFile();
 
           if ((hostName != null) && !hostName.isEmpty() && (keytabFilePath != null) && !keytabFilePath.isEmpty()) {
-            Set<String> visitedPrincipalKeys = visitedIdentities.get(resolvedPrincipal.getPrincipal());
-            String visitationKey = String.format("%s|%s", hostName, keytabFilePath);
-
-            if ((visitedPrincipalKeys == null) || !visitedPrincipalKeys.contains(visitationKey)) {
-              // Look up the current evaluatedPrincipal's password.
-              // If found create the keytab file, else try to find it in the cache.
-              String password = principalPasswordMap.get(resolvedPrincipal.getPrincipal());
-              Integer keyNumber = principalKeyNumberMap.get(resolvedPrincipal.getPrincipal());
-
-              message = String.format("Creating keytab file for %s on host %s", resolvedPrincipal.getPrincipal(), hostName);
-              LOG.info(message);
-              actionLog.writeStdOut(message);
-              auditEventBuilder.withPrincipal(resolvedPrincipal.getPrincipal()).withHostName(hostName).withKeyTabFilePath(keytabFilePath);
-
-              // Determine where to store the keytab file.  It should go into a host-specific
-              // directory under the previously determined data directory.
-              File hostDirectory = new File(dataDirectory, hostName);
-
-              // Ensure the host directory exists...
-              if (!hostDirectory.exists() && hostDirectory.mkdirs()) {
-                // Make sure only Ambari has access to this directory.
-                ensureAmbariOnlyAccess(hostDirectory);
-              }
+            // Keys of a principal are generated only once and keytab files of a host are updated by
+            // one thread at a time, see #supportsParallelProcessing
+            Lock principalLock = principalLocks.get(resolvedPrincipal.getPrincipal());
+            Lock hostLock = hostLocks.get(hostName);
+            principalLock.lock();
+            hostLock.lock();
+            try {
+              Set<String> visitedPrincipalKeys = visitedIdentities.get(resolvedPrincipal.getPrincipal());
+              String visitationKey = String.format("%s|%s", hostName, keytabFilePath);
+
+              if ((visitedPrincipalKeys == null) || !visitedPrincipalKeys.contains(visitationKey)) {
+                // Look up the current evaluatedPrincipal's password.
+                // If found create the keytab file, else try to find it in the cache.
+                String password = principalPasswordMap.get(resolvedPrincipal.getPrincipal());
+                Integer keyNumber = principalKeyNumberMap.get(resolvedPrincipal.getPrincipal());
+
+                message = String.format("Creating keytab file for %s on host %s", resolvedPrincipal.getPrincipal(), hostName);
+                LOG.info(message);
+                actionLog.writeStdOut(message);
+                auditEventBuilder.withPrincipal(resolvedPrincipal.getPrincipal()).withHostName(hostName).withKeyTabFilePath(keytabFilePath);
+
+                // Determine where to store the keytab file.  It should go into a host-specific
+                // directory under the previously determined data directory.
+                File hostDirectory = new File(dataDirectory, hostName);
+
+                // Ensure the host directory exists...
+                if (!hostDirectory.exists() && hostDirectory.mkdirs()) {
+                  // Make sure only Ambari has access to this directory.
+                  ensureAmbariOnlyAccess(hostDirectory);
+                }
 
-              if (hostDirectory.exists()) {
-                File destinationKeytabFile = new File(hostDirectory, DigestUtils.sha256Hex(keytabFilePath));
+                if (hostDirectory.exists()) {
+                  File destinationKeytabFile = new File(hostDirectory, DigestUtils.sha256Hex(keytabFilePath));
 
-                boolean regenerateKeytabs = getOperationType(getCommandParameters()) == OperationType.RECREATE_ALL;
+                  boolean regenerateKeytabs = getOperationType(getCommandParameters()) == OperationType.RECREATE_ALL;
 
-                if(!includedInFilter) {
-                  // If this principal is to be filtered out, skip... unless is has not yet been created...
-                  regenerateKeytabs = false;
-                }
+                  if(!includedInFilter) {
+                    // If this principal is to be filtered out, skip... unless is has not yet been created...
+                    regenerateKeytabs = false;
+                  }
 
-                KerberosPrincipalEntity principalEntity = kerberosPrincipalDAO.find(resolvedPrincipal.getPrincipal());
-                String cachedKeytabPath = (principalEntity == null) ? null : principalEntity.getCachedKeytabPath();
+                  KerberosPrincipalEntity principalEntity = kerberosPrincipalDAO.find(resolvedPrincipal.getPrincipal());
+                  String cachedKeytabPath = (principalEntity == null) ? null : principalEntity.getCachedKeytabPath();
 
-                if (password == null) {
-                  if (!regenerateKeytabs && hostName.equalsIgnoreCase(KerberosHelper.AMBARI_SERVER_HOST_NAME)) {
-                    // There is nothing to do for this since it must already exist and we don't want to
-                    // regenerate the keytab
-                    message = String.format("Skipping keytab file for %s, missing password indicates nothing to do", resolvedPrincipal.getPrincipal());
-                    LOG.info(message);
-                  } else {
-                    if (cachedKeytabPath == null) {
-                      message = String.format("Failed to create keytab for %s, missing cached file", resolvedPrincipal.getPrincipal());
-                      actionLog.writeStdErr(message);
-                      LOG.error(message);
-                      commandReport = createCommandReport(1, HostRoleStatus.FAILED, "{}", actionLog.getStdOut(), actionLog.getStdErr());
+                  if (password == null) {
+                    if (!regenerateKeytabs && hostName.equalsIgnoreCase(KerberosHelper.AMBARI_SERVER_HOST_NAME)) {
+                      // There is nothing to do for this since it must already exist and we don't want to
+                      // regenerate the keytab
+                      message = String.format("Skipping keytab file for %s, missing password indicates nothing to do", resolvedPrincipal.getPrincipal());
+                      LOG.info(message);
                     } else {
-                      try {
-                        operationHandler.createKeytabFile(new File(cachedKeytabPath), destinationKeytabFile);
-                      } catch (KerberosOperationException e) {
-                        message = String.format("Failed to create keytab file for %s - %s", resolvedPrincipal.getPrincipal(), e.getMessage());
+                      if (cachedKeytabPath == null) {
+                        message = String.format("Failed to create keytab for %s, missing cached file", resolvedPrincipal.getPrincipal());
                         actionLog.writeStdErr(message);
-                        LOG.error(message, e);
+                        LOG.error(message);
                         commandReport = createCommandReport(1, HostRoleStatus.FAILED, "{}", actionLog.getStdOut(), actionLog.getStdErr());
+                      } else {
+                        try {
+                          operationHandler.createKeytabFile(new File(cachedKeytabPath), destinationKeytabFile);
+                        } catch (KerberosOperationException e) {
+                          message = String.format("Failed to create keytab file for %s - %s", resolvedPrincipal.getPrincipal(), e.getMessage());
+                          actionLog.writeStdErr(message);
+                          LOG.error(message, e);
+                          commandReport = createCommandReport(1, HostRoleStatus.FAILED, "{}", actionLog.getStdOut(), actionLog.getStdErr());
+                        }
+                      }
+                    }
+                  } else {
+                    // Reuse the keys generated for this principal for any other keytab file
+                    Keytab keytab = createdKeytabs.get(resolvedPrincipal.getPrincipal());
+                    if (keytab == null) {
+                      keytab = createKeytab(resolvedPrincipal.getPrincipal(), password, keyNumber, operationHandler, visitedPrincipalKeys != null, true, actionLog);
+                      if (keytab != null) {
+                        createdKeytabs.put(resolvedPrincipal.getPrincipal(), keytab);
                       }
                     }
-                  }
-                } else {
-                  Keytab keytab = createKeytab(resolvedPrincipal.getPrincipal(), password, keyNumber, operationHandler, visitedPrincipalKeys != null, true, actionLog);
-
-                  if (keytab != null) {
-                    try {
-                      if (operationHandler.createKeytabFile(keytab, destinationKeytabFile)) {
-                        ensureAmbariOnlyAccess(destinationKeytabFile);
 
-                        message = String.format("Successfully created keytab file for %s at %s", resolvedPrincipal.getPrincipal(), destinationKeytabFile.getAbsolutePath());
-                        LOG.info(message);
-                        auditEventBuilder.withPrincipal(resolvedPrincipal.getPrincipal()).withHostName(hostName).withKeyTabFilePath(destinationKeytabFile.getAbsolutePath());
-                      } else {
-                        message = String.format("Failed to create keytab file for %s at %s", resolvedPrincipal.getPrincipal(), destinationKeytabFile.getAbsolutePath());
+                    if (keytab != null) {
+                      try {
+                        if (operationHandler.createKeytabFile(keytab, destinationKeytabFile)) {
+                          ensureAmbariOnlyAccess(destinationKeytabFile);
+                          createdKeytabFileCounts.computeIfAbsent(hostName, h -> new AtomicInteger()).incrementAndGet();
+
+                          message = String.format("Successfully created keytab file for %s at %s", resolvedPrincipal.getPrincipal(), destinationKeytabFile.getAbsolutePath());
+                          LOG.info(message);
+                          auditEventBuilder.withPrincipal(resolvedPrincipal.getPrincipal()).withHostName(hostName).withKeyTabFilePath(destinationKeytabFile.getAbsolutePath());
+                        } else {
+                          message = String.format("Failed to create keytab file for %s at %s", resolvedPrincipal.getPrincipal(), destinationKeytabFile.getAbsolutePath());
+                          actionLog.writeStdErr(message);
+                          LOG.error(message);
+                          commandReport = createCommandReport(1, HostRoleStatus.FAILED, "{}", actionLog.getStdOut(), actionLog.getStdErr());
+                        }
+                      } catch (KerberosOperationException e) {
+                        message = String.format("Failed to create keytab file for %s - %s", resolvedPrincipal.getPrincipal(), e.getMessage());
                         actionLog.writeStdErr(message);
-                        LOG.error(message);
+                        LOG.error(message, e);
                         commandReport = createCommandReport(1, HostRoleStatus.FAILED, "{}", actionLog.getStdOut(), actionLog.getStdErr());
                       }
-                    } catch (KerberosOperationException e) {
-                      message = String.format("Failed to create keytab file for %s - %s", resolvedPrincipal.getPrincipal(), e.getMessage());
-                      actionLog.writeStdErr(message);
-                      LOG.error(message, e);
+                    } else {
                       commandReport = createCommandReport(1, HostRoleStatus.FAILED, "{}", actionLog.getStdOut(), actionLog.getStdErr());
                     }
-                  } else {
-                    commandReport = createCommandReport(1, HostRoleStatus.FAILED, "{}", actionLog.getStdOut(), actionLog.getStdErr());
-                  }
 
-                  if (visitedPrincipalKeys == null) {
-                    visitedPrincipalKeys = new HashSet<>();
-                    visitedIdentities.put(resolvedPrincipal.getPrincipal(), visitedPrincipalKeys);
-                  }
+                    if (visitedPrincipalKeys == null) {
+                      visitedPrincipalKeys = ConcurrentHashMap.newKeySet();
+                      visitedIdentities.put(resolvedPrincipal.getPrincipal(), visitedPrincipalKeys);
+                    }
 
-                  visitedPrincipalKeys.add(visitationKey);
+                    visitedPrincipalKeys.add(visitationKey);
+                  }
+                } else {
+                  message = String.format("Failed to create keytab file for %s, the container directory does not exist: %s",
+                      resolvedPrincipal.getPrincipal(), hostDirectory.getAbsolutePath());
+                  actionLog.writeStdErr(message);
+                  LOG.error(message);
+                  commandReport = createCommandReport(1, HostRoleStatus.FAILED, "{}", actionLog.getStdOut(), actionLog.getStdErr());
                 }
               } else {
-                message = String.format("Failed to create keytab file for %s, the container directory does not exist: %s",
-                    resolvedPrincipal.getPrincipal(), hostDirectory.getAbsolutePath());
-                actionLog.writeStdErr(message);
-                LOG.error(message);
-                commandReport = createCommandReport(1, HostRoleStatus.FAILED, "{}", actionLog.getStdOut(), actionLog.getStdErr());
+                LOG.debug("Skipping previously processed keytab for {} on host {}", resolvedPrincipal.getPrincipal(), hostName);
               }
-            } else {
-              LOG.debug("Skipping previously processed keytab for {} on host {}", resolvedPrincipal.getPrincipal(), hostName);
+            } finally {
+              hostLock.unlock();
+              principalLock.unlock();
             }
           }
         }
@@ -19,9 +19,9 @@
 package org.apache.ambari.server.serveraction.kerberos;
 
 import java.io.File;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import org.apache.ambari.server.AmbariException;
@@ -71,7 +71,7 @@ public class CreatePrincipalsServerAction extends KerberosServerAction {
    * A set of visited principal names used to prevent unnecessary processing on already processed
    * principal names
    */
-  private Set<String> seenPrincipals = new HashSet<>();
+  private Set<String> seenPrincipals = ConcurrentHashMap.newKeySet();
 
   /**
    * Called to execute this action. Upon invocation, calls
@@ -93,6 +93,16 @@ public class CreatePrincipalsServerAction extends KerberosServerAction {
   }
 
 
+  /**
+   * Principals are independent of each other, so they may be created concurrently.
+   *
+   * @return true
+   */
+  @Override
+  protected boolean supportsParallelProcessing() {
+    return true;
+  }
+
   /**
    * For each identity, generate a unique password, and create a new or update an existing principal in
    * an assumed to be configured KDC.
@@ -127,9 +137,7 @@ public class CreatePrincipalsServerAction extends KerberosServerAction {
 
     //  Only process this principal name if we haven't already processed it
     // TODO optimize - split invalidation and principal creation to separate stages
-    if (!seenPrincipals.contains(resolvedPrincipal.getPrincipal())) {
-      seenPrincipals.add(resolvedPrincipal.getPrincipal());
-
+    if (seenPrincipals.add(resolvedPrincipal.getPrincipal())) {
       boolean processPrincipal;
 
       KerberosPrincipalEntity kerberosPrincipalEntity = kerberosPrincipalDAO.find(resolvedPrincipal.getPrincipal());
@@ -21,15 +21,25 @@ package org.apache.ambari.server.serveraction.kerberos;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.ambari.server.AmbariException;
 import org.apache.ambari.server.actionmanager.HostRoleStatus;
 import org.apache.ambari.server.agent.CommandReport;
 import org.apache.ambari.server.agent.ExecutionCommand;
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.KerberosHelper;
 import org.apache.ambari.server.controller.UpdateConfigurationPolicy;
 import org.apache.ambari.server.orm.dao.HostDAO;
@@ -50,6 +60,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 
 /**
@@ -189,6 +200,9 @@ public abstract class KerberosServerAction extends AbstractServerAction {
   @Inject
   private KerberosKeytabController kerberosKeytabController;
 
+  @Inject
+  private Configuration configuration;
+
   /**
    * Given a (command parameter) Map and a property name, attempts to safely retrieve the requested
    * data.
@@ -300,8 +314,12 @@ public abstract class KerberosServerAction extends AbstractServerAction {
       Object map = requestSharedDataContext.get(PRINCIPAL_PASSWORD_MAP);
 
       if (map == null) {
-        map = new HashMap<String, String>();
-        requestSharedDataContext.put(PRINCIPAL_PASSWORD_MAP, map);
+        // identities may be processed concurrently, see #supportsParallelProcessing
+        map = new ConcurrentHashMap<String, String>();
+        Object existing = requestSharedDataContext.putIfAbsent(PRINCIPAL_PASSWORD_MAP, map);
+        if (existing != null) {
+          map = existing;
+        }
       }
 
       return (Map<String, String>) map;
@@ -326,8 +344,12 @@ public abstract class KerberosServerAction extends AbstractServerAction {
       Object map = requestSharedDataContext.get(PRINCIPAL_KEY_NUMBER_MAP);
 
       if (map == null) {
-        map = new HashMap<String, String>();
-        requestSharedDataContext.put(PRINCIPAL_KEY_NUMBER_MAP, map);
+        // identities may be processed concurrently, see #supportsParallelProcessing
+        map = new ConcurrentHashMap<String, String>();
+        Object existing = requestSharedDataContext.putIfAbsent(PRINCIPAL_KEY_NUMBER_MAP, map);
+        if (existing != null) {
+          map = existing;
+        }
       }
 
       return (Map<String, Integer>) map;
@@ -415,6 +437,10 @@ public abstract class KerberosServerAction extends AbstractServerAction {
    * Using {@link #getHostFilter()}, {@link #getIdentityFilter()} and {@link #getServiceComponentFilter()} it retrieve
    * list of filtered keytabs and their principals and process each principal using
    * {@link #processIdentity(ResolvedKerberosPrincipal, KerberosOperationHandler, Map, boolean, Map)}.
+   * <p/>
+   * If the implementation {@link #supportsParallelProcessing() supports it} and more than one
+   * thread is configured, principals are processed by a bounded pool of threads, each using its own
+   * {@link KerberosOperationHandler}.
    *
    * @param requestSharedDataContext a Map to be used a shared data among all ServerActions related
    *                                 to a given request
@@ -454,8 +480,20 @@ public abstract class KerberosServerAction extends AbstractServerAction {
           kerberosKeytabController.adjustServiceComponentFilter(clusters.getCluster(getClusterName()), true, serviceComponentFilter);
         }
         final Collection<KerberosIdentityDescriptor> serviceIdentities = serviceComponentFilter == null ? null : kerberosKeytabController.getServiceIdentities(getClusterName(), serviceComponentFilter.keySet());
+        List<ResolvedKerberosPrincipal> principals = new ArrayList<>();
         for (ResolvedKerberosKeytab rkk : kerberosKeytabController.getFilteredKeytabs(serviceIdentities, getHostFilter(),getIdentityFilter())) {
-          for (ResolvedKerberosPrincipal principal : rkk.getPrincipals()) {
+          principals.addAll(rkk.getPrincipals());
+        }
+
+        int threadCount = supportsParallelProcessing()
+            ? Math.min(configuration.getKerberosOperationThreads(), principals.size())
+            : 1;
+
+        if (threadCount > 1) {
+          commandReport = processIdentitiesInParallel(principals, serviceIdentities, threadCount, handler,
+              kdcType, administratorCredential, defaultRealm, kerberosConfiguration, requestSharedDataContext);
+        } else {
+          for (ResolvedKerberosPrincipal principal : principals) {
             commandReport = processIdentity(principal, handler, kerberosConfiguration, isRelevantIdentity(serviceIdentities, principal), requestSharedDataContext);
             // If the principal processor returns a CommandReport, than it is time to stop
             // since an error condition has probably occurred, else all is assumed to be well.
@@ -490,6 +528,119 @@ public abstract class KerberosServerAction extends AbstractServerAction {
     return true;
   }
 
+  /**
+   * Indicates whether {@link #processIdentity(ResolvedKerberosPrincipal, KerberosOperationHandler, Map, boolean, Map)}
+   * may be invoked concurrently for different principals.
+   * <p/>
+   * Implementations returning <code>true</code> must be thread-safe, including any data stored in
+   * the shared request context. Each invocation is given a {@link KerberosOperationHandler}
+   * that is not used by other threads at the same time.
+   *
+   * @return true if identities may be processed in parallel; false otherwise
+   */
+  protected boolean supportsParallelProcessing() {
+    return false;
+  }
+
+  /**
+   * Processes the principals using the configured number of threads.
+   * <p/>
+   * The first thread uses the already opened operation handler, while the others open their own
+   * handler, so that KDC sessions (credential caches, LDAP connections) are reused across
+   * principals but never shared between threads. Processing stops once any principal yields a
+   * CommandReport.
+   *
+   * @return the CommandReport of the first failed principal, or null if all principals were processed
+   * @throws AmbariException if a principal could not be processed or a handler could not be opened
+   */
+  private CommandReport processIdentitiesInParallel(List<ResolvedKerberosPrincipal> principals,
+                                                    Collection<KerberosIdentityDescriptor> serviceIdentities,
+                                                    int threadCount,
+                                                    KerberosOperationHandler handler,
+                                                    KDCType kdcType,
+                                                    PrincipalKeyCredential administratorCredential,
+                                                    String defaultRealm,
+                                                    Map<String, String> kerberosConfiguration,
+                                                    Map<String, Object> requestSharedDataContext)
+      throws AmbariException {
+
+    LOG.info("Processing {} identities using {} threads", principals.size(), threadCount);
+
+    Queue<ResolvedKerberosPrincipal> pending = new ConcurrentLinkedQueue<>(principals);
+    AtomicReference<CommandReport> failure = new AtomicReference<>();
+
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+        new ThreadFactoryBuilder().setNameFormat("kerberos-identity-processor-%d").setDaemon(true).build());
+
+    try {
+      List<Future<?>> futures = new ArrayList<>(threadCount);
+      for (int i = 0; i < threadCount; i++) {
+        final boolean ownHandler = i > 0;
+
+        futures.add(executor.submit(() -> {
+          KerberosOperationHandler threadHandler = ownHandler
+              ? kerberosOperationHandlerFactory.getKerberosOperationHandler(kdcType)
+              : handler;
+
+          try {
+            if (ownHandler) {
+              threadHandler.open(administratorCredential, defaultRealm, kerberosConfiguration);
+            }
+
+            ResolvedKerberosPrincipal principal;
+            while ((failure.get() == null) && ((principal = pending.poll()) != null)) {
+              CommandReport report = processIdentity(principal, threadHandler, kerberosConfiguration,
+                  isRelevantIdentity(serviceIdentities, principal), requestSharedDataContext);
+              if (report != null) {
+                failure.compareAndSet(null, report);
+              }
+            }
+          } catch (Exception e) {
+            // stop the other threads, there is no point to continue
+            pending.clear();
+            throw e;
+          } finally {
+            if (ownHandler) {
+              try {
+                threadHandler.close();
+              } catch (KerberosOperationException e) {
+                // Ignore this...
+              }
+            }
+          }
+          return null;
+        }));
+      }
+
+      AmbariException exception = null;
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (exception == null) {
+            Throwable cause = e.getCause();
+            String message = String.format("Failed to process the identities: %s", cause.getMessage());
+            actionLog.writeStdErr(message);
+            LOG.error(message, cause);
+            exception = (cause instanceof AmbariException) ? (AmbariException) cause : new AmbariException(message, cause);
+          }
+        }
+      }
+
+      if (exception != null) {
+        throw exception;
+      }
+    } catch (InterruptedException e) {
+      pending.clear();
+      Thread.currentThread().interrupt();
+      throw new AmbariException("Interrupted while processing the identities", e);
+    } finally {
+      executor.shutdown();
+    }
+
+    return failure.get();
+  }
+
   private boolean isRelevantIdentity(Collection<KerberosIdentityDescriptor> serviceIdentities, ResolvedKerberosPrincipal principal) {
     if (serviceIdentities != null) {
       boolean hasValidIdentity = false;
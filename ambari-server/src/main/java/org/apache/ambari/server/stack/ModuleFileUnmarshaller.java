@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBContext;
@@ -53,6 +54,8 @@ import org.xml.sax.SAXException;
 /**
  * Provides functionality to unmarshal stack definition files to their
  * corresponding object representations.
+ * <p/>
+ * Instances are thread-safe, since stack definitions are parsed concurrently.
  */
 public class ModuleFileUnmarshaller {
 
@@ -62,7 +65,13 @@ public class ModuleFileUnmarshaller {
    * Map of class to JAXB context
    */
   private static final Map<Class<?>, JAXBContext> jaxbContexts = new HashMap<>();
-  private static final Map<String, Schema> jaxbSchemas = new HashMap<>();
+  private static final Map<String, Schema> jaxbSchemas = new ConcurrentHashMap<>();
+
+  /**
+   * XML input factories are expensive to look up for every file and are not guaranteed to be
+   * thread-safe.
+   */
+  private static final ThreadLocal<XMLInputFactory> xmlInputFactory = ThreadLocal.withInitial(XMLInputFactory::newInstance);
 
 
   /**
@@ -97,13 +106,16 @@ public class ModuleFileUnmarshaller {
   public <T> T unmarshal(Class<T> clz, File file, boolean logXsd) throws JAXBException, IOException, XMLStreamException, SAXException {
     Unmarshaller u = jaxbContexts.get(clz).createUnmarshaller();
 
-    XMLInputFactory xmlFactory = XMLInputFactory.newInstance();
-
-    FileReader reader = new FileReader(file);
-    XMLStreamReader xmlReader = xmlFactory.createXMLStreamReader(reader);
-
-    xmlReader.nextTag();
-    String xsdName = xmlReader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "noNamespaceSchemaLocation");
+    String xsdName;
+    try (FileReader reader = new FileReader(file)) {
+      XMLStreamReader xmlReader = xmlInputFactory.get().createXMLStreamReader(reader);
+      try {
+        xmlReader.nextTag();
+        xsdName = xmlReader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "noNamespaceSchemaLocation");
+      } finally {
+        xmlReader.close();
+      }
+    }
 
     InputStream xsdStream = null;
 
@@ -111,8 +123,9 @@ public class ModuleFileUnmarshaller {
       if (logXsd) {
         LOG.info("Processing " + file.getAbsolutePath() + " with " + xsdName);
       }
-      if (jaxbSchemas.containsKey(xsdName)) {
-        u.setSchema(jaxbSchemas.get(xsdName));
+      Schema cachedSchema = jaxbSchemas.get(xsdName);
+      if (cachedSchema != null) {
+        u.setSchema(cachedSchema);
       } else {
 
         xsdStream = clz.getClassLoader().getResourceAsStream(xsdName);
@@ -123,7 +136,8 @@ public class ModuleFileUnmarshaller {
 
           u.setSchema(schema);
 
-          jaxbSchemas.put(xsdName, schema);
+          // schemas are thread-safe; a schema compiled concurrently by another thread is equivalent
+          jaxbSchemas.putIfAbsent(xsdName, schema);
         } else if (logXsd) {
           LOG.info("Schema '" + xsdName + "' for " + file.getAbsolutePath() + " was not found, ignoring");
         }
@@ -28,6 +28,11 @@ import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.annotation.Nullable;
 import javax.xml.XMLConstants;
@@ -57,6 +62,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
 
@@ -97,6 +103,11 @@ public class StackManager {
    */
   private final static Logger LOG = LoggerFactory.getLogger(StackManager.class);
 
+  /**
+   * Maximum number of threads used to parse stack, common service and extension definitions.
+   */
+  private static final int PARSER_THREADS = Runtime.getRuntime().availableProcessors();
+
   /**
    * Map of stack id to stack info
    */
@@ -564,32 +575,51 @@ public class StackManager {
     Map<String, ServiceModule> commonServiceModules = new HashMap<>();
 
     if(commonServicesRoot != null) {
+      List<File> serviceFolders = new ArrayList<>();
       File[] commonServiceFiles = commonServicesRoot.listFiles(StackDirectory.FILENAME_FILTER);
       for (File commonService : commonServiceFiles) {
         if (commonService.isFile()) {
           continue;
         }
         for (File serviceFolder : commonService.listFiles(StackDirectory.FILENAME_FILTER)) {
-          ServiceDirectory serviceDirectory = new CommonServiceDirectory(serviceFolder.getPath());
-          ServiceMetainfoXml metaInfoXml = serviceDirectory.getMetaInfoFile();
-          if (metaInfoXml != null) {
-            if (metaInfoXml.isValid()) {
-              for (ServiceInfo serviceInfo : metaInfoXml.getServices()) {
-                ServiceModule serviceModule = new ServiceModule(stackContext, serviceInfo, serviceDirectory, true);
-
-                String commonServiceKey = serviceInfo.getName() + StackManager.PATH_DELIMITER + serviceInfo.getVersion();
-                commonServiceModules.put(commonServiceKey, serviceModule);
-              }
-            } else {
-              ServiceModule serviceModule = new ServiceModule(stackContext, new ServiceInfo(), serviceDirectory, true);
-              serviceModule.setValid(false);
-              serviceModule.addErrors(metaInfoXml.getErrors());
-              commonServiceModules.put(metaInfoXml.getSchemaVersion(), serviceModule);
-              metaInfoXml.setSchemaVersion(null);
-            }
-          }
+          serviceFolders.add(serviceFolder);
         }
       }
+
+      for (Map<String, ServiceModule> serviceModules : parseFolders(serviceFolders, this::parseCommonServiceFolder)) {
+        commonServiceModules.putAll(serviceModules);
+      }
+    }
+    return commonServiceModules;
+  }
+
+  /**
+   * Parse the specified common service directory
+   *
+   * @param serviceFolder  the common service version directory to parse
+   * @return map of common service id which contains name and version to common service module.
+   * @throws AmbariException if unable to parse the common service
+   */
+  private Map<String, ServiceModule> parseCommonServiceFolder(File serviceFolder) throws AmbariException {
+    Map<String, ServiceModule> commonServiceModules = new HashMap<>();
+
+    ServiceDirectory serviceDirectory = new CommonServiceDirectory(serviceFolder.getPath());
+    ServiceMetainfoXml metaInfoXml = serviceDirectory.getMetaInfoFile();
+    if (metaInfoXml != null) {
+      if (metaInfoXml.isValid()) {
+        for (ServiceInfo serviceInfo : metaInfoXml.getServices()) {
+          ServiceModule serviceModule = new ServiceModule(stackContext, serviceInfo, serviceDirectory, true);
+
+          String commonServiceKey = serviceInfo.getName() + StackManager.PATH_DELIMITER + serviceInfo.getVersion();
+          commonServiceModules.put(commonServiceKey, serviceModule);
+        }
+      } else {
+        ServiceModule serviceModule = new ServiceModule(stackContext, new ServiceInfo(), serviceDirectory, true);
+        serviceModule.setValid(false);
+        serviceModule.addErrors(metaInfoXml.getErrors());
+        commonServiceModules.put(metaInfoXml.getSchemaVersion(), serviceModule);
+        metaInfoXml.setSchemaVersion(null);
+      }
     }
     return commonServiceModules;
   }
@@ -603,6 +633,7 @@ public class StackManager {
    */
   private Map<String, StackModule> parseStackDirectory(File stackRoot) throws AmbariException {
     Map<String, StackModule> stackModules = new HashMap<>();
+    List<File> stackFolders = new ArrayList<>();
 
     File[] stackFiles = stackRoot.listFiles(StackDirectory.FILENAME_FILTER);
     for (File stack : stackFiles) {
@@ -613,16 +644,24 @@ public class StackManager {
         if (stackFolder.isFile()) {
           continue;
         }
-        String stackName = stackFolder.getParentFile().getName();
-        String stackVersion = stackFolder.getName();
-
-        StackModule stackModule = new StackModule(new StackDirectory(stackFolder.getPath()), stackContext);
-        String stackKey = stackName + StackManager.PATH_DELIMITER + stackVersion;
-        stackModules.put(stackKey, stackModule);
-        stackMap.put(stackKey, stackModule.getModuleInfo());
+        stackFolders.add(stackFolder);
       }
     }
 
+    List<StackModule> parsedModules = parseFolders(stackFolders,
+        stackFolder -> new StackModule(new StackDirectory(stackFolder.getPath()), stackContext));
+
+    for (int i = 0; i < stackFolders.size(); i++) {
+      File stackFolder = stackFolders.get(i);
+      String stackName = stackFolder.getParentFile().getName();
+      String stackVersion = stackFolder.getName();
+
+      StackModule stackModule = parsedModules.get(i);
+      String stackKey = stackName + StackManager.PATH_DELIMITER + stackVersion;
+      stackModules.put(stackKey, stackModule);
+      stackMap.put(stackKey, stackModule.getModuleInfo());
+    }
+
     if (stackMap.isEmpty()) {
       throw new AmbariException("Unable to find stack definitions under " +
           "stackRoot = " + stackRoot.getAbsolutePath());
@@ -651,6 +690,7 @@ public class StackManager {
       return extensionModules;
     }
 
+    List<File> extensionFolders = new ArrayList<>();
     File[] extensionFiles = extensionRoot.listFiles(StackDirectory.FILENAME_FILTER);
     for (File extensionNameFolder : extensionFiles) {
       if (extensionNameFolder.isFile()) {
@@ -660,16 +700,24 @@ public class StackManager {
         if (extensionVersionFolder.isFile()) {
           continue;
         }
-        String extensionName = extensionNameFolder.getName();
-        String extensionVersion = extensionVersionFolder.getName();
-
-        ExtensionModule extensionModule = new ExtensionModule(new ExtensionDirectory(extensionVersionFolder.getPath()), stackContext);
-        String extensionKey = extensionName + StackManager.PATH_DELIMITER + extensionVersion;
-        extensionModules.put(extensionKey, extensionModule);
-        extensionMap.put(extensionKey, extensionModule.getModuleInfo());
+        extensionFolders.add(extensionVersionFolder);
       }
     }
 
+    List<ExtensionModule> parsedModules = parseFolders(extensionFolders,
+        extensionVersionFolder -> new ExtensionModule(new ExtensionDirectory(extensionVersionFolder.getPath()), stackContext));
+
+    for (int i = 0; i < extensionFolders.size(); i++) {
+      File extensionVersionFolder = extensionFolders.get(i);
+      String extensionName = extensionVersionFolder.getParentFile().getName();
+      String extensionVersion = extensionVersionFolder.getName();
+
+      ExtensionModule extensionModule = parsedModules.get(i);
+      String extensionKey = extensionName + StackManager.PATH_DELIMITER + extensionVersion;
+      extensionModules.put(extensionKey, extensionModule);
+      extensionMap.put(extensionKey, extensionModule.getModuleInfo());
+    }
+
     if (stackMap.isEmpty()) {
       throw new AmbariException("Unable to find extension definitions under " +
           "extensionRoot = " + extensionRoot.getAbsolutePath());
@@ -677,6 +725,66 @@ public class StackManager {
     return extensionModules;
   }
 
+  /**
+   * Parses the specified definition folders using a bounded pool of threads. The folders are
+   * independent of each other; their modules are linked and resolved afterwards on the calling
+   * thread.
+   *
+   * @param folders  the folders to parse
+   * @param parser   parses a single folder
+   * @return the parsed results, in the order of the specified folders
+   * @throws AmbariException if any of the folders could not be parsed
+   */
+  private static <T> List<T> parseFolders(List<File> folders, FolderParser<T> parser) throws AmbariException {
+    List<T> results = new ArrayList<>(folders.size());
+
+    if (folders.size() <= 1) {
+      for (File folder : folders) {
+        results.add(parser.parse(folder));
+      }
+      return results;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(folders.size(), PARSER_THREADS),
+        new ThreadFactoryBuilder().setNameFormat("stack-parser-%d").setDaemon(true).build());
+    try {
+      List<Callable<T>> tasks = new ArrayList<>(folders.size());
+      for (File folder : folders) {
+        tasks.add(() -> parser.parse(folder));
+      }
+
+      for (Future<T> future : executor.invokeAll(tasks)) {
+        try {
+          results.add(future.get());
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof AmbariException) {
+            throw (AmbariException) cause;
+          } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          } else if (cause instanceof Error) {
+            throw (Error) cause;
+          }
+          throw new AmbariException("Unable to parse stack definitions: " + cause.getMessage(), cause);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AmbariException("Interrupted while parsing stack definitions", e);
+    } finally {
+      executor.shutdownNow();
+    }
+    return results;
+  }
+
+  /**
+   * Parses a single stack, common service or extension definition folder.
+   */
+  @FunctionalInterface
+  private interface FolderParser<T> {
+    T parse(File folder) throws AmbariException;
+  }
+
   public void removeStack(StackEntity stackEntity) {
     String stackKey = stackEntity.getStackName() + StackManager.PATH_DELIMITER +  stackEntity.getStackVersion();
     stackMap.remove(stackKey);
@@ -31,6 +31,12 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.ambari.server.AmbariException;
@@ -67,6 +73,7 @@ import com.google.common.base.Objects;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -95,7 +102,18 @@ public class ConfigHelper {
   /**
    * clusterId -> hostId -> serviceName -> serviceComponentName -> state map to reduce redundant updates sending.
    */
-  private final Map<Long, Map<Long, Map<String, Map<String, Boolean>>>> stateCache = new HashMap<>();
+  private final Map<Long, Map<Long, Map<String, Map<String, Boolean>>>> stateCache = new ConcurrentHashMap<>();
+
+  /**
+   * Maximal number of stale config checks waiting for a thread of {@link #staleConfigsPool}. Further checks, and
+   * checks submitted after the pool was shut down, are evaluated by the thread which changed the configs.
+   */
+  private static final int STALE_CONFIGS_QUEUE_SIZE = 1000;
+
+  /**
+   * Pool used to evaluate stale config flags of host components in parallel after configs change.
+   */
+  private final ThreadPoolExecutor staleConfigsPool;
 
   private final Cache<Integer, String> refreshConfigCommandCache;
 
@@ -158,6 +176,20 @@ public class ConfigHelper {
 
     refreshConfigCommandCache = CacheBuilder.newBuilder().
             expireAfterWrite(STALE_CONFIGS_CACHE_EXPIRATION_TIME, TimeUnit.SECONDS).build();
+
+    int staleConfigsPoolSize = Math.max(1, configuration.getStaleConfigThreadPoolSize());
+    staleConfigsPool = new ThreadPoolExecutor(staleConfigsPoolSize, staleConfigsPoolSize, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(STALE_CONFIGS_QUEUE_SIZE),
+        new ThreadFactoryBuilder().setNameFormat("stale-configs-%d").setDaemon(true).build(),
+        (task, executor) -> task.run());
+    staleConfigsPool.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Stops the threads evaluating stale config flags.
+   */
+  public void shutdown() {
+    staleConfigsPool.shutdownNow();
   }
 
   /**
@@ -1521,6 +1553,9 @@ public class ConfigHelper {
       clustersInUse.add(cluster);
     }
 
+    // config type snapshots are built once and shared between all hosts with the same effective tags
+    ConfigSnapshots snapshots = new ConfigSnapshots();
+
     // get all current and previous host configs
     Map<Long, AgentConfigsUpdateEvent> currentConfigEvents = new HashMap<>();
     Map<Long, AgentConfigsUpdateEvent> previousConfigEvents = new HashMap<>();
@@ -1528,7 +1563,7 @@ public class ConfigHelper {
       for (Host host : cluster.getHosts()) {
         Long hostId = host.getHostId();
         if (!currentConfigEvents.containsKey(hostId)) {
-          currentConfigEvents.put(host.getHostId(), m_agentConfigsHolder.get().getCurrentData(hostId));
+          currentConfigEvents.put(host.getHostId(), getHostActualConfigs(hostId, snapshots));
         }
         if (!previousConfigEvents.containsKey(host.getHostId())) {
           previousConfigEvents.put(host.getHostId(),
@@ -1537,6 +1572,9 @@ public class ConfigHelper {
       }
     }
 
+    // config type maps are shared between hosts (see ConfigSnapshots), so changed keys are calculated
+    // only once for each distinct pair of previous and current config type maps
+    Map<ConfigsDiffKey, Collection<String>> changedKeysCache = new HashMap<>();
     for (Cluster cluster : clustersInUse) {
       Map<Long, Map<String, Collection<String>>> changedConfigs = new HashMap<>();
       for (Host host : cluster.getHosts()) {
@@ -1549,34 +1587,22 @@ public class ConfigHelper {
             previousConfigsData.getClustersConfigs().get(Long.toString(cluster.getClusterId())).getConfigurations();
 
         Map<String, Collection<String>> changedConfigsHost = new HashMap<>();
-        for (String currentConfigType : currentConfigs.keySet()) {
-          if (previousConfigs.containsKey(currentConfigType)) {
-            Set<String> changedKeys = new HashSet<>();
-            Map<String, String> currentTypedConfigs = currentConfigs.get(currentConfigType);
-            Map<String, String> previousTypedConfigs = previousConfigs.get(currentConfigType);
-
-            for (String currentKey : currentTypedConfigs.keySet()) {
-              if (!previousTypedConfigs.containsKey(currentKey)
-                  || !currentTypedConfigs.get(currentKey).equals(previousTypedConfigs.get(currentKey))) {
-                changedKeys.add(currentKey);
-              }
-            }
-            for (String previousKey : previousTypedConfigs.keySet()) {
-              if (!currentTypedConfigs.containsKey(previousKey)) {
-                changedKeys.add(previousKey);
-              }
-            }
-
+        for (Entry<String, SortedMap<String, String>> currentConfigType : currentConfigs.entrySet()) {
+          SortedMap<String, String> previousTypedConfigs = previousConfigs.get(currentConfigType.getKey());
+          if (previousTypedConfigs != null) {
+            Collection<String> changedKeys = changedKeysCache.computeIfAbsent(
+                new ConfigsDiffKey(previousTypedConfigs, currentConfigType.getValue()),
+                key -> getChangedKeys(key.previous, key.current));
             if (!changedKeys.isEmpty()) {
-              changedConfigsHost.put(currentConfigType, changedKeys);
+              changedConfigsHost.put(currentConfigType.getKey(), changedKeys);
             }
           } else {
-            changedConfigsHost.put(currentConfigType, currentConfigs.get(currentConfigType).keySet());
+            changedConfigsHost.put(currentConfigType.getKey(), currentConfigType.getValue().keySet());
           }
         }
-        for (String previousConfigType : previousConfigs.keySet()) {
-          if (!currentConfigs.containsKey(previousConfigType)) {
-            changedConfigsHost.put(previousConfigType, previousConfigs.get(previousConfigType).keySet());
+        for (Entry<String, SortedMap<String, String>> previousConfigType : previousConfigs.entrySet()) {
+          if (!currentConfigs.containsKey(previousConfigType.getKey())) {
+            changedConfigsHost.put(previousConfigType.getKey(), previousConfigType.getValue().keySet());
           }
         }
         changedConfigs.put(host.getHostId(), changedConfigsHost);
@@ -1590,6 +1616,59 @@ public class ConfigHelper {
     }
   }
 
+  /**
+   * Calculates names of properties which were added, removed or changed.
+   * @param previousTypedConfigs previous properties of config type
+   * @param currentTypedConfigs current properties of config type
+   * @return names of changed properties
+   */
+  private Collection<String> getChangedKeys(Map<String, String> previousTypedConfigs,
+                                            Map<String, String> currentTypedConfigs) {
+    if (previousTypedConfigs == currentTypedConfigs) {
+      return Collections.emptySet();
+    }
+    Set<String> changedKeys = new HashSet<>();
+    for (Entry<String, String> current : currentTypedConfigs.entrySet()) {
+      if (!previousTypedConfigs.containsKey(current.getKey())
+          || !Objects.equal(current.getValue(), previousTypedConfigs.get(current.getKey()))) {
+        changedKeys.add(current.getKey());
+      }
+    }
+    for (String previousKey : previousTypedConfigs.keySet()) {
+      if (!currentTypedConfigs.containsKey(previousKey)) {
+        changedKeys.add(previousKey);
+      }
+    }
+    return changedKeys;
+  }
+
+  /**
+   * Identity based key of previous and current properties of a config type.
+   */
+  private static final class ConfigsDiffKey {
+    private final Map<String, String> previous;
+    private final Map<String, String> current;
+
+    private ConfigsDiffKey(Map<String, String> previous, Map<String, String> current) {
+      this.previous = previous;
+      this.current = current;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      ConfigsDiffKey that = (ConfigsDiffKey) o;
+      return previous == that.previous && current == that.current;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(previous) + System.identityHashCode(current);
+    }
+  }
+
   /**
    * Checks configs are stale after specified config changes for service's components.
    * @param clusterId cluster with changed config
@@ -1606,25 +1685,81 @@ public class ConfigHelper {
     if (!clusters.getCluster(clusterId).getServices().keySet().contains(serviceName)) {
       return;
     }
-    Service service = clusters.getCluster(clusterId).getService(serviceName);
+    Cluster cluster = clusters.getCluster(clusterId);
+    Service service = cluster.getService(serviceName);
+    Integer desiredConfigsHash = STALE_CONFIGS_CACHE_ENABLED ? cluster.getDesiredConfigs().hashCode() : null;
+
+    // entities are loaded on the calling thread, so only in-memory stack metadata lookups are done in parallel
+    List<StaleConfigsCheck> checks = new ArrayList<>();
     for (ServiceComponent serviceComponent : service.getServiceComponents().values()) {
-      String serviceComponentHostName = serviceComponent.getName();
+      StackId stackId = null;
       for (ServiceComponentHost serviceComponentHost : serviceComponent.getServiceComponentHosts().values()) {
-        if (changedConfigs.keySet().contains(serviceComponentHost.getHost().getHostId())) {
-          boolean staleConfigs = checkStaleConfigsStatusForHostComponent(serviceComponentHost,
-              changedConfigs.get(serviceComponentHost.getHost().getHostId()));
-
-          if (wasStaleConfigsStatusUpdated(clusterId, serviceComponentHost.getHost().getHostId(),
-              serviceName, serviceComponentHostName, staleConfigs)) {
-            serviceComponentHost.setRestartRequiredWithoutEventPublishing(staleConfigs);
-            STOMPUpdatePublisher.publish(new HostComponentsUpdateEvent(Collections.singletonList(
-                HostComponentUpdate.createHostComponentStaleConfigsStatusUpdate(clusterId,
-                    serviceName, serviceComponentHost.getHostName(),
-                    serviceComponentHostName, staleConfigs))));
+        Map<String, Collection<String>> changedHostConfigs = changedConfigs.get(serviceComponentHost.getHost().getHostId());
+        if (changedHostConfigs != null) {
+          if (stackId == null) {
+            stackId = serviceComponent.getDesiredStackId();
           }
+          boolean restartRequired = serviceComponentHost.isRestartRequired(serviceComponentHost.getDesiredStateEntity());
+          checks.add(new StaleConfigsCheck(serviceComponentHost, stackId, restartRequired, changedHostConfigs));
         }
       }
     }
+    if (checks.isEmpty()) {
+      return;
+    }
+
+    List<Callable<Boolean>> tasks = new ArrayList<>(checks.size());
+    for (StaleConfigsCheck check : checks) {
+      tasks.add(() -> check.restartRequired || checkStaleConfigsStatusForHostComponent(check.serviceComponentHost,
+          check.stackId, check.changedConfigs, desiredConfigsHash));
+    }
+    try {
+      List<Future<Boolean>> results = staleConfigsPool.invokeAll(tasks);
+      for (int i = 0; i < checks.size(); i++) {
+        checks.get(i).stale = results.get(i).get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AmbariException("Interrupted during stale configs recalculation for service " + serviceName, e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof AmbariException) {
+        throw (AmbariException) cause;
+      }
+      throw new AmbariException("Error during stale configs recalculation for service " + serviceName, cause);
+    }
+
+    for (StaleConfigsCheck check : checks) {
+      ServiceComponentHost serviceComponentHost = check.serviceComponentHost;
+      String serviceComponentHostName = serviceComponentHost.getServiceComponentName();
+      if (wasStaleConfigsStatusUpdated(clusterId, serviceComponentHost.getHost().getHostId(),
+          serviceName, serviceComponentHostName, check.stale)) {
+        serviceComponentHost.setRestartRequiredWithoutEventPublishing(check.stale);
+        STOMPUpdatePublisher.publish(new HostComponentsUpdateEvent(Collections.singletonList(
+            HostComponentUpdate.createHostComponentStaleConfigsStatusUpdate(clusterId,
+                serviceName, serviceComponentHost.getHostName(),
+                serviceComponentHostName, check.stale))));
+      }
+    }
+  }
+
+  /**
+   * Stale configs evaluation of a single host component during configs update.
+   */
+  private static final class StaleConfigsCheck {
+    private final ServiceComponentHost serviceComponentHost;
+    private final StackId stackId;
+    private final boolean restartRequired;
+    private final Map<String, Collection<String>> changedConfigs;
+    private boolean stale;
+
+    private StaleConfigsCheck(ServiceComponentHost serviceComponentHost, StackId stackId, boolean restartRequired,
+                              Map<String, Collection<String>> changedConfigs) {
+      this.serviceComponentHost = serviceComponentHost;
+      this.stackId = stackId;
+      this.restartRequired = restartRequired;
+      this.changedConfigs = changedConfigs;
+    }
   }
 
   /**
@@ -1637,24 +1772,12 @@ public class ConfigHelper {
    * @return true if value from cache is different from {@param staleConfigs}.
    */
   public boolean wasStaleConfigsStatusUpdated(Long clusterId, Long hostId, String serviceName, String hostComponentName, Boolean staleConfigs) {
-    if (!stateCache.containsKey(clusterId)) {
-      stateCache.put(clusterId, new HashMap<>());
-    }
-    Map<Long, Map<String, Map<String, Boolean>>> hosts = stateCache.get(clusterId);
-    if (!hosts.containsKey(hostId)) {
-      hosts.put(hostId, new HashMap<>());
-    }
-    Map<String, Map<String, Boolean>> services = hosts.get(hostId);
-    if (!services.containsKey(serviceName)) {
-      services.put(serviceName, new HashMap<>());
-    }
-    Map<String, Boolean> hostComponents = services.get(serviceName);
-    if (staleConfigs.equals(hostComponents.get(hostComponentName))) {
-      return false;
-    } else {
-      hostComponents.put(hostComponentName, staleConfigs);
-      return true;
-    }
+    Map<String, Boolean> hostComponents = stateCache
+        .computeIfAbsent(clusterId, id -> new ConcurrentHashMap<>())
+        .computeIfAbsent(hostId, id -> new ConcurrentHashMap<>())
+        .computeIfAbsent(serviceName, name -> new ConcurrentHashMap<>());
+    Boolean previous = hostComponents.put(hostComponentName, staleConfigs);
+    return !staleConfigs.equals(previous);
   }
 
   /**
@@ -1670,11 +1793,30 @@ public class ConfigHelper {
     if (sch.isRestartRequired(hostComponentDesiredStateEntity)) {
       return true;
     }
-    boolean stale = false;
 
-    Cluster cluster = clusters.getClusterById(sch.getClusterId());
+    Integer desiredConfigsHash = null;
+    if (STALE_CONFIGS_CACHE_ENABLED) {
+      desiredConfigsHash = clusters.getClusterById(sch.getClusterId()).getDesiredConfigs().hashCode();
+    }
+    return checkStaleConfigsStatusForHostComponent(sch, sch.getServiceComponent().getDesiredStackId(),
+        changedConfigs, desiredConfigsHash);
+  }
 
-    StackId stackId = sch.getServiceComponent().getDesiredStackId();
+  /**
+   * Checks changed configs make host component stale using stack metadata only, so it is safe to call it
+   * concurrently for many host components.
+   * @param sch host component to check.
+   * @param stackId desired stack of the component.
+   * @param changedConfigs map of config types to collections of changed properties' names.
+   * @param desiredConfigsHash hash of cluster desired configs to cache refresh command with, {@code null}
+   *                           if stale configs cache is disabled.
+   * @return true if configs are stale.
+   * @throws AmbariException
+   */
+  private boolean checkStaleConfigsStatusForHostComponent(ServiceComponentHost sch, StackId stackId,
+                                                          Map<String, Collection<String>> changedConfigs,
+                                                          Integer desiredConfigsHash) throws AmbariException {
+    boolean stale = false;
 
     StackInfo stackInfo = ambariMetaInfo.getStack(stackId);
 
@@ -1696,7 +1838,7 @@ public class ConfigHelper {
 
     if (STALE_CONFIGS_CACHE_ENABLED) {
       if (refreshCommand != null) {
-        int staleHash = Objects.hashCode(cluster.getDesiredConfigs().hashCode(),
+        int staleHash = Objects.hashCode(desiredConfigsHash,
             sch.getHostName(),
             sch.getServiceComponentName(),
             sch.getServiceName());
@@ -2033,10 +2175,27 @@ public class ConfigHelper {
    * @throws AmbariException
    */
   public AgentConfigsUpdateEvent getHostActualConfigs(Long hostId) throws AmbariException {
-    return getHostActualConfigsExcludeCluster(hostId, null);
+    return getHostActualConfigs(hostId, new ConfigSnapshots());
+  }
+
+  /**
+   * Collects actual configurations and configuration attributes for specified host reusing config type
+   * snapshots already built for other hosts.
+   * @param hostId host id to collect configurations and configuration attributes
+   * @param snapshots config type snapshots shared between hosts during current configs update
+   * @return event ready to send to agent
+   * @throws AmbariException
+   */
+  public AgentConfigsUpdateEvent getHostActualConfigs(Long hostId, ConfigSnapshots snapshots) throws AmbariException {
+    return getHostActualConfigsExcludeCluster(hostId, null, snapshots);
   }
 
   public AgentConfigsUpdateEvent getHostActualConfigsExcludeCluster(Long hostId, Long clusterId) throws AmbariException {
+    return getHostActualConfigsExcludeCluster(hostId, clusterId, new ConfigSnapshots());
+  }
+
+  public AgentConfigsUpdateEvent getHostActualConfigsExcludeCluster(Long hostId, Long clusterId,
+                                                                    ConfigSnapshots snapshots) throws AmbariException {
     TreeMap<String, ClusterConfigs> clustersConfigs = new TreeMap<>();
 
     Host host = clusters.getHostById(hostId);
@@ -2044,8 +2203,6 @@ public class ConfigHelper {
       if (clusterId != null && cl.getClusterId() == clusterId) {
         continue;
       }
-      Map<String, Map<String, String>> configurations = new HashMap<>();
-      Map<String, Map<String, Map<String, String>>> configurationAttributes = new HashMap<>();
       if (LOG.isInfoEnabled()) {
         LOG.info("For configs update on host {} will be used cluster entity {}", hostId, cl.getClusterEntity().toString());
       }
@@ -2057,14 +2214,17 @@ public class ConfigHelper {
           getEffectiveDesiredTags(cl, host.getHostName(), clusterDesiredConfigs);
       LOG.info("For configs update on host {} will be used following effective desired tags {}", hostId, configTags.toString());
 
-      getAndMergeHostConfigs(configurations, configTags, cl);
-      configurations = unescapeConfigNames(configurations);
-      getAndMergeHostConfigAttributes(configurationAttributes, configTags, cl);
-      configurationAttributes = unescapeConfigAttributeNames(configurationAttributes);
-
-      SortedMap<String, SortedMap<String, String>> configurationsTreeMap = sortConfigutations(configurations);
-      SortedMap<String, SortedMap<String, SortedMap<String, String>>> configurationAttributesTreeMap =
-          sortConfigurationAttributes(configurationAttributes);
+      SortedMap<String, SortedMap<String, String>> configurationsTreeMap = new TreeMap<>();
+      SortedMap<String, SortedMap<String, SortedMap<String, String>>> configurationAttributesTreeMap = new TreeMap<>();
+      for (Entry<String, Map<String, String>> typeTags : configTags.entrySet()) {
+        String type = typeTags.getKey();
+        ConfigSnapshots.ConfigTypeSnapshot snapshot = snapshots.getSnapshot(cl.getClusterId(), type, typeTags.getValue(),
+            () -> buildConfigTypeSnapshot(cl, type, typeTags.getValue()));
+        configurationsTreeMap.put(type, snapshot.getProperties());
+        if (snapshot.getAttributes() != null) {
+          configurationAttributesTreeMap.put(type, snapshot.getAttributes());
+        }
+      }
       clustersConfigs.put(Long.toString(cl.getClusterId()),
           new ClusterConfigs(configurationsTreeMap, configurationAttributesTreeMap));
     }
@@ -2073,28 +2233,33 @@ public class ConfigHelper {
     return agentConfigsUpdateEvent;
   }
 
-  private Map<String, Map<String, String>> unescapeConfigNames(Map<String, Map<String, String>> configurations) {
-    Map<String, Map<String, String>> unescapedConfigs = new HashMap<>();
-    for (Entry<String, Map<String, String>> configTypeEntry : configurations.entrySet()) {
-      Map<String, String> unescapedTypeConfigs = new HashMap<>();
-      for (Entry<String, String> config : configTypeEntry.getValue().entrySet()) {
-        unescapedTypeConfigs.put(StringEscapeUtils.unescapeJava(config.getKey()), config.getValue());
+  /**
+   * Builds immutable effective properties and attributes of config type with unescaped names.
+   */
+  private ConfigSnapshots.ConfigTypeSnapshot buildConfigTypeSnapshot(Cluster cluster, String type,
+                                                                     Map<String, String> tags) {
+    Map<String, Map<String, String>> typeTags = Collections.singletonMap(type, tags);
+
+    SortedMap<String, String> properties = new TreeMap<>();
+    Map<String, String> effectiveProperties = getEffectiveConfigProperties(cluster, typeTags).get(type);
+    if (effectiveProperties != null) {
+      for (Entry<String, String> property : effectiveProperties.entrySet()) {
+        properties.put(StringEscapeUtils.unescapeJava(property.getKey()), property.getValue());
       }
-      unescapedConfigs.put(configTypeEntry.getKey(), unescapedTypeConfigs);
     }
 
-    return unescapedConfigs;
-  }
-
-  private Map<String, Map<String, Map<String, String>>> unescapeConfigAttributeNames(
-      Map<String, Map<String, Map<String, String>>> configurationAttributes) {
-    Map<String, Map<String, Map<String, String>>> unescapedConfigAttributes = new HashMap<>();
-
-    for (Entry<String, Map<String, Map<String, String>>> configAttrTypeEntry : configurationAttributes.entrySet()) {
-      unescapedConfigAttributes.put(configAttrTypeEntry.getKey(), unescapeConfigNames(configAttrTypeEntry.getValue()));
+    SortedMap<String, SortedMap<String, String>> attributes = null;
+    Map<String, Map<String, String>> effectiveAttributes = getEffectiveConfigAttributes(cluster, typeTags).get(type);
+    if (effectiveAttributes != null) {
+      attributes = new TreeMap<>();
+      for (Entry<String, Map<String, String>> attribute : effectiveAttributes.entrySet()) {
+        attributes.put(StringEscapeUtils.unescapeJava(attribute.getKey()),
+            Collections.unmodifiableSortedMap(new TreeMap<>(attribute.getValue())));
+      }
+      attributes = Collections.unmodifiableSortedMap(attributes);
     }
 
-    return unescapedConfigAttributes;
+    return new ConfigSnapshots.ConfigTypeSnapshot(Collections.unmodifiableSortedMap(properties), attributes);
   }
 
   public SortedMap<String, SortedMap<String, String>> sortConfigutations(Map<String, Map<String, String>> configurations) {
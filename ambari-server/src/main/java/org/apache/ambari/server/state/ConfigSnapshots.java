@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.state;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicated effective configurations of a single config type, shared between hosts while agent configs
+ * are being (re)built. Snapshots are keyed by cluster, config type and the ordered set of tags (cluster tag
+ * followed by config group override tags) and are never modified after creation, so the same instances can be
+ * referenced from the configs held for many hosts.
+ * <p/>
+ * Config properties may be updated in place without a tag change, so an instance should only live for a single
+ * pass over hosts after a cluster change; a new instance has to be created for the next one.
+ */
+public class ConfigSnapshots {
+
+  private final Map<SnapshotKey, ConfigTypeSnapshot> snapshots = new ConcurrentHashMap<>();
+
+  /**
+   * Returns snapshot for config type with specified tags, building it with {@code builder} if this is the first
+   * request for such type and tags.
+   * @param clusterId cluster of config type
+   * @param type config type
+   * @param tags ordered tags of config type, as returned by {@link ConfigHelper#getEffectiveDesiredTags}
+   * @param builder builds snapshot if it was not created yet
+   * @return shared snapshot
+   */
+  public ConfigTypeSnapshot getSnapshot(long clusterId, String type, Map<String, String> tags,
+                                        Supplier<ConfigTypeSnapshot> builder) {
+    return snapshots.computeIfAbsent(new SnapshotKey(clusterId, type, tags), key -> builder.get());
+  }
+
+  /**
+   * @return count of distinct snapshots built so far
+   */
+  public int size() {
+    return snapshots.size();
+  }
+
+  /**
+   * Immutable, sorted and unescaped properties and attributes of a config type.
+   */
+  public static class ConfigTypeSnapshot {
+    private final SortedMap<String, String> properties;
+    private final SortedMap<String, SortedMap<String, String>> attributes;
+
+    public ConfigTypeSnapshot(SortedMap<String, String> properties,
+                              SortedMap<String, SortedMap<String, String>> attributes) {
+      this.properties = properties;
+      this.attributes = attributes;
+    }
+
+    public SortedMap<String, String> getProperties() {
+      return properties;
+    }
+
+    /**
+     * @return config type attributes or {@code null} if type has no attributes
+     */
+    public SortedMap<String, SortedMap<String, String>> getAttributes() {
+      return attributes;
+    }
+  }
+
+  private static final class SnapshotKey {
+    private final long clusterId;
+    private final String type;
+
+    /**
+     * Tag names and values in iteration order, since order of overrides affects the merge result.
+     */
+    private final List<String> tags;
+    private final int hashCode;
+
+    private SnapshotKey(long clusterId, String type, Map<String, String> tags) {
+      this.clusterId = clusterId;
+      this.type = type;
+      this.tags = new ArrayList<>(tags.size() * 2);
+      for (Map.Entry<String, String> tag : tags.entrySet()) {
+        this.tags.add(tag.getKey());
+        this.tags.add(tag.getValue());
+      }
+      hashCode = Objects.hash(clusterId, type, this.tags);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      SnapshotKey that = (SnapshotKey) o;
+      return clusterId == that.clusterId && type.equals(that.type) && tags.equals(that.tags);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
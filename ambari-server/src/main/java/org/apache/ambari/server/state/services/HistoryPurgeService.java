@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.state.services;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ambari.server.AmbariService;
+import org.apache.ambari.server.configuration.Configuration;
+import org.apache.ambari.server.orm.dao.AlertsDAO;
+import org.apache.ambari.server.orm.dao.RequestDAO;
+import org.apache.ambari.server.state.Cluster;
+import org.apache.ambari.server.state.Clusters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.AbstractScheduledService;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+
+/**
+ * The {@link HistoryPurgeService} periodically removes completed requests
+ * (including their stages, tasks and execution commands) and alert history
+ * which are older than {@link Configuration#getHistoryPurgeRetentionDays()}
+ * while the server is running.
+ * <p/>
+ * Unlike the offline {@code db-purge-history} operation, history is removed in
+ * small batches of ascending ids, each in its own transaction, pausing between
+ * batches so that the purge does not compete with regular database access.
+ * Alert history which is still the current state of an alert is kept, and so
+ * are requests of topology requests, such as blueprint deployments, which are
+ * not finished yet. The numbers of removed rows are published by
+ * {@link org.apache.ambari.server.metrics.system.impl.HistoryPurgeMetricsSource}.
+ */
+@AmbariService
+public class HistoryPurgeService extends AbstractScheduledService {
+
+  /**
+   * Logger.
+   */
+  private final static Logger LOG = LoggerFactory.getLogger(HistoryPurgeService.class);
+
+  /**
+   * Configuration.
+   */
+  @Inject
+  private Configuration m_configuration;
+
+  @Inject
+  private Provider<Clusters> m_clusters;
+
+  @Inject
+  private RequestDAO m_requestDAO;
+
+  @Inject
+  private AlertsDAO m_alertsDAO;
+
+  /**
+   * Total number of rows removed for requests since the server was started.
+   */
+  private final AtomicLong m_purgedRequestRows = new AtomicLong();
+
+  /**
+   * Total number of rows removed for alert history since the server was
+   * started.
+   */
+  private final AtomicLong m_purgedAlertRows = new AtomicLong();
+
+  /**
+   * The cutoff date of the last purge if it was stopped before all eligible
+   * history was removed, or {@code null} otherwise.
+   */
+  private volatile Long m_unfinishedBeforeDate;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Scheduler scheduler() {
+    int intervalInMinutes = m_configuration.getHistoryPurgeInterval();
+    return Scheduler.newFixedDelaySchedule(intervalInMinutes, intervalInMinutes, TimeUnit.MINUTES);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p/>
+   * Invokes {@link #stopAsync()} if no retention is configured.
+   */
+  @Override
+  protected void startUp() throws Exception {
+    if (m_configuration.getHistoryPurgeRetentionDays() < 1) {
+      LOG.info("Will not start service {} since the property {} is not set to a positive number of days",
+          getClass().getSimpleName(), Configuration.HISTORY_PURGE_RETENTION_DAYS.getKey());
+      stopAsync();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p/>
+   * Removes the history of every cluster which is older than the retention
+   * period.
+   */
+  @Override
+  protected void runOneIteration() throws Exception {
+    long beforeDate = System.currentTimeMillis()
+        - TimeUnit.DAYS.toMillis(m_configuration.getHistoryPurgeRetentionDays());
+
+    m_unfinishedBeforeDate = null;
+    for (Cluster cluster : m_clusters.get().getClusters().values()) {
+      try {
+        purge(cluster, beforeDate);
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception exception) {
+        LOG.error("Unable to purge the history of cluster {}", cluster.getClusterName(), exception);
+      }
+    }
+  }
+
+  /**
+   * @return the total number of request, stage, task and related rows removed
+   *         since the server was started.
+   */
+  public long getPurgedRequestRows() {
+    return m_purgedRequestRows.get();
+  }
+
+  /**
+   * @return the total number of alert history and notice rows removed since the
+   *         server was started.
+   */
+  public long getPurgedAlertRows() {
+    return m_purgedAlertRows.get();
+  }
+
+  /**
+   * @return how long ago, in milliseconds, the cutoff date of the last purge
+   *         was if it was stopped before all eligible history was removed, or
+   *         {@code 0} if the last purge completed.
+   */
+  public long getRetentionLag() {
+    Long unfinishedBeforeDate = m_unfinishedBeforeDate;
+    if (null == unfinishedBeforeDate) {
+      return 0;
+    }
+
+    long beforeDate = System.currentTimeMillis()
+        - TimeUnit.DAYS.toMillis(m_configuration.getHistoryPurgeRetentionDays());
+    return Math.max(0, beforeDate - unfinishedBeforeDate);
+  }
+
+  /**
+   * Removes the requests and alert history of a cluster which were created
+   * before the specified date. Each table is walked in ascending id order, the
+   * last processed id serving as the checkpoint for the next batch.
+   */
+  private void purge(Cluster cluster, long beforeDate) throws InterruptedException {
+    int batchSize = m_configuration.getHistoryPurgeBatchSize();
+    long clusterId = cluster.getClusterId();
+    long requestRows = 0;
+    long alertRows = 0;
+
+    LOG.info("Purging the history of cluster {} created before {}", cluster.getClusterName(), new Date(beforeDate));
+
+    long lastRequestId = -1;
+    List<Long> requestIds;
+    while (isRunning() && !(requestIds = m_requestDAO.findCompletedRequestIdsBeforeDate(
+        clusterId, beforeDate, lastRequestId, batchSize)).isEmpty()) {
+      lastRequestId = requestIds.get(requestIds.size() - 1);
+
+      // hosts of unfinished topology requests may still be provisioned with
+      // tasks of these requests
+      requestIds = new ArrayList<>(requestIds);
+      requestIds.removeAll(m_requestDAO.findRequestIdsOfUnfinishedTopologyRequests(requestIds));
+      if (!requestIds.isEmpty()) {
+        requestRows += m_requestDAO.removeRequests(requestIds, beforeDate);
+      }
+      pause();
+    }
+
+    long lastHistoryId = -1;
+    List<Long> historyIds;
+    while (isRunning() && !(historyIds = m_alertsDAO.findPurgeableAlertHistoryIds(
+        clusterId, beforeDate, lastHistoryId, batchSize)).isEmpty()) {
+      alertRows += m_alertsDAO.removeAlertHistories(historyIds);
+      lastHistoryId = historyIds.get(historyIds.size() - 1);
+      pause();
+    }
+
+    m_purgedRequestRows.addAndGet(requestRows);
+    m_purgedAlertRows.addAndGet(alertRows);
+
+    if (!isRunning()) {
+      m_unfinishedBeforeDate = beforeDate;
+    }
+
+    LOG.info("Purged {} request rows and {} alert rows of cluster {}{}", requestRows, alertRows,
+        cluster.getClusterName(), isRunning() ? "" : ", eligible history remains");
+  }
+
+  /**
+   * Pauses between batches to limit the load on the database.
+   */
+  private void pause() throws InterruptedException {
+    long pause = m_configuration.getHistoryPurgeBatchPause();
+    if (pause > 0) {
+      Thread.sleep(pause);
+    }
+  }
+}
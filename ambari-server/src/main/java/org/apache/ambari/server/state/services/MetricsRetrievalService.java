@@ -33,16 +33,16 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
+
 import org.apache.ambari.server.AmbariService;
 import org.apache.ambari.server.configuration.Configuration;
+import org.apache.ambari.server.controller.jmx.JMXBeanFilter;
 import org.apache.ambari.server.controller.jmx.JMXMetricHolder;
+import org.apache.ambari.server.controller.jmx.JMXMetricReader;
 import org.apache.ambari.server.controller.utilities.ScalingThreadPoolExecutor;
 import org.apache.ambari.server.controller.utilities.StreamProvider;
 import org.apache.commons.io.IOUtils;
-import org.codehaus.jackson.JsonParser;
-import org.codehaus.jackson.map.DeserializationConfig;
-import org.codehaus.jackson.map.ObjectMapper;
-import org.codehaus.jackson.map.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -132,7 +132,7 @@ public class MetricsRetrievalService extends AbstractService {
   private Gson m_gson;
 
   /**
-   * A cache of URL to parsed JMX beans
+   * A cache of URL (and bean filter, if any) to parsed JMX beans
    */
   private Cache<String, JMXMetricHolder> m_jmxCache;
 
@@ -148,12 +148,12 @@ public class MetricsRetrievalService extends AbstractService {
   private ThreadPoolExecutor m_threadPoolExecutor;
 
   /**
-   * Used to parse remote JMX JSON into a {@link Map}.
+   * Used to parse remote JMX JSON into a {@link JMXMetricHolder}.
    */
-  private final ObjectReader m_jmxObjectReader;
+  private final JMXMetricReader m_jmxMetricReader = new JMXMetricReader();
 
   /**
-   * A thread-safe collection of all of the URL endpoints queued for processing.
+   * A thread-safe collection of all of the URL endpoints (and bean filters, if any) queued for processing.
    * This helps prevent the same endpoint from being queued multiple times.
    */
   private final Set<String> m_queuedUrls = Sets.newConcurrentHashSet();
@@ -176,17 +176,6 @@ public class MetricsRetrievalService extends AbstractService {
    */
   private int m_queueMaximumSize;
 
-  /**
-   * Constructor.
-   *
-   */
-  public MetricsRetrievalService() {
-    ObjectMapper jmxObjectMapper = new ObjectMapper();
-    jmxObjectMapper.configure(DeserializationConfig.Feature.USE_ANNOTATIONS, false);
-    jmxObjectMapper.configure(JsonParser.Feature.ALLOW_NON_NUMERIC_NUMBERS, true);
-    m_jmxObjectReader = jmxObjectMapper.reader(JMXMetricHolder.class);
-  }
-
   /**
    * {@inheritDoc}
    */
@@ -291,13 +280,41 @@ public class MetricsRetrievalService extends AbstractService {
    * @see #getCachedJMXMetric(String)
    */
   public void submitRequest(MetricSourceType type, StreamProvider streamProvider, String url) {
+    submitRequest(type, streamProvider, url, null);
+  }
+
+  /**
+   * Submit a request to retrieve only the specified beans and attributes from
+   * a JMX endpoint. The result is cached separately from the results of
+   * requests for the same URL with other filters, and can be retrieved via
+   * {@link #getCachedJMXMetric(String, JMXBeanFilter)}.
+   *
+   * @param streamProvider
+   *          the {@link StreamProvider} to use to read from the remote
+   *          endpoint.
+   * @param url
+   *          the URL to read from
+   * @param beanFilter
+   *          the beans and attributes to keep, or {@code null} for all of them
+   *
+   * @see #submitRequest(MetricSourceType, StreamProvider, String)
+   */
+  public void submitJMXRequest(StreamProvider streamProvider, String url,
+      @Nullable JMXBeanFilter beanFilter) {
+    submitRequest(MetricSourceType.JMX, streamProvider, url, beanFilter);
+  }
+
+  private void submitRequest(MetricSourceType type, StreamProvider streamProvider, String url,
+      @Nullable JMXBeanFilter beanFilter) {
+    String cacheKey = getCacheKey(url, beanFilter);
+
     // check to ensure that the request isn't already queued
-    if (m_queuedUrls.contains(url)) {
+    if (m_queuedUrls.contains(cacheKey)) {
       return;
     }
 
     // check to ensure that the request wasn't made too recently
-    if (null != m_ttlUrlCache && null != m_ttlUrlCache.getIfPresent(url)) {
+    if (null != m_ttlUrlCache && null != m_ttlUrlCache.getIfPresent(cacheKey)) {
       return;
     }
 
@@ -310,13 +327,13 @@ public class MetricsRetrievalService extends AbstractService {
     }
 
     // enqueue this URL
-    m_queuedUrls.add(url);
+    m_queuedUrls.add(cacheKey);
 
     Runnable runnable = null;
     switch (type) {
       case JMX:
-        runnable = new JMXRunnable(m_jmxCache, m_queuedUrls, m_ttlUrlCache, m_jmxObjectReader,
-            streamProvider, url);
+        runnable = new JMXRunnable(m_jmxCache, m_queuedUrls, m_ttlUrlCache, m_jmxMetricReader,
+            streamProvider, url, beanFilter, cacheKey);
         break;
       case REST:
         runnable = new RESTRunnable(m_restCache, m_queuedUrls, m_ttlUrlCache, m_gson,
@@ -349,6 +366,30 @@ public class MetricsRetrievalService extends AbstractService {
     return m_jmxCache.getIfPresent(jmxUrl);
   }
 
+  /**
+   * Gets a cached JMX metric retrieved with the specified bean filter. If there
+   * is no metric data cached for the given URL and filter, then {@code null} is
+   * returned.
+   *
+   * @param jmxUrl
+   *          the URL to retrieve cached data for (not {@code null}).
+   * @param beanFilter
+   *          the filter the data was requested with via
+   *          {@link #submitJMXRequest(StreamProvider, String, JMXBeanFilter)}
+   * @return the metric, or {@code null} if none.
+   */
+  public JMXMetricHolder getCachedJMXMetric(String jmxUrl, @Nullable JMXBeanFilter beanFilter) {
+    return m_jmxCache.getIfPresent(getCacheKey(jmxUrl, beanFilter));
+  }
+
+  /**
+   * Builds the key identifying a request for caches, such as
+   * <code>http://www.server.com/jmx#5c4f...</code> if a bean filter is used.
+   */
+  private static String getCacheKey(String url, @Nullable JMXBeanFilter beanFilter) {
+    return beanFilter == null ? url : url + "#" + beanFilter.getId();
+  }
+
   /**
    * Gets a cached REST metric in the form of a {@link Map}. If there is no
    * metric data cached for the given URL, then {@code null} is returned.
@@ -381,6 +422,12 @@ public class MetricsRetrievalService extends AbstractService {
      */
     protected final String m_url;
 
+    /**
+     * The key of the request result in caches, the same as {@link #m_url}
+     * unless only a part of the response is retrieved.
+     */
+    protected final String m_cacheKey;
+
     /**
      * The URLs which have been requested but not yet read.
      */
@@ -399,6 +446,8 @@ public class MetricsRetrievalService extends AbstractService {
      *          the stream provider to read the URL with
      * @param url
      *          the URL endpoint to read data from (JMX or REST)
+     * @param cacheKey
+     *          the key of the result in caches
      * @param queuedUrls
      *          the URLs which are currently waiting to be processed. This
      *          method will remove the specified URL from this {@link Set} when
@@ -408,10 +457,11 @@ public class MetricsRetrievalService extends AbstractService {
      *          metric is too soon after the last request, or {@code null} if
      *          requests can be made sequentially without any separation.
      */
-    private MetricRunnable(StreamProvider streamProvider, String url, Set<String> queuedUrls,
-        Cache<String, String> ttlUrlCache) {
+    private MetricRunnable(StreamProvider streamProvider, String url, String cacheKey,
+        Set<String> queuedUrls, Cache<String, String> ttlUrlCache) {
       m_streamProvider = streamProvider;
       m_url = url;
+      m_cacheKey = cacheKey;
       m_queuedUrls = queuedUrls;
       m_ttlUrlCache = ttlUrlCache;
     }
@@ -444,7 +494,7 @@ public class MetricsRetrievalService extends AbstractService {
 
         // cache the URL, but only after successful parsing of the response
         if (null != m_ttlUrlCache) {
-          m_ttlUrlCache.put(m_url, m_url);
+          m_ttlUrlCache.put(m_cacheKey, m_url);
         }
       } catch (IOException exception)
       {
@@ -459,7 +509,7 @@ public class MetricsRetrievalService extends AbstractService {
 
         // remove this URL from the list of queued URLs to ensure it will be
         // requested again
-        m_queuedUrls.remove(m_url);
+        m_queuedUrls.remove(m_cacheKey);
       }
     }
 
@@ -526,7 +576,8 @@ public class MetricsRetrievalService extends AbstractService {
    */
   private static final class JMXRunnable extends MetricRunnable {
 
-    private final ObjectReader m_jmxObjectReader;
+    private final JMXMetricReader m_jmxMetricReader;
+    private final JMXBeanFilter m_beanFilter;
     private final Cache<String, JMXMetricHolder> m_cache;
 
     /**
@@ -535,16 +586,20 @@ public class MetricsRetrievalService extends AbstractService {
      * @param cache
      * @param queuedUrls
      * @param ttlUrlCache
-     * @param jmxObjectReader
+     * @param jmxMetricReader
      * @param streamProvider
      * @param jmxUrl
+     * @param beanFilter
+     * @param cacheKey
      */
     private JMXRunnable(Cache<String, JMXMetricHolder> cache, Set<String> queuedUrls,
-        Cache<String, String> ttlUrlCache, ObjectReader jmxObjectReader,
-        StreamProvider streamProvider, String jmxUrl) {
-      super(streamProvider, jmxUrl, queuedUrls, ttlUrlCache);
+        Cache<String, String> ttlUrlCache, JMXMetricReader jmxMetricReader,
+        StreamProvider streamProvider, String jmxUrl, @Nullable JMXBeanFilter beanFilter,
+        String cacheKey) {
+      super(streamProvider, jmxUrl, cacheKey, queuedUrls, ttlUrlCache);
       m_cache = cache;
-      m_jmxObjectReader = jmxObjectReader;
+      m_jmxMetricReader = jmxMetricReader;
+      m_beanFilter = beanFilter;
     }
 
     /**
@@ -552,7 +607,7 @@ public class MetricsRetrievalService extends AbstractService {
      */
     @Override
     protected void removeCachedMetricsForCurrentURL() {
-      m_cache.invalidate(m_url);
+      m_cache.invalidate(m_cacheKey);
     }
 
     /**
@@ -560,8 +615,8 @@ public class MetricsRetrievalService extends AbstractService {
      */
     @Override
     protected void processInputStreamAndCacheResult(InputStream inputStream) throws Exception {
-      JMXMetricHolder jmxMetricHolder = m_jmxObjectReader.readValue(inputStream);
-      m_cache.put(m_url, jmxMetricHolder);
+      JMXMetricHolder jmxMetricHolder = m_jmxMetricReader.read(inputStream, m_beanFilter);
+      m_cache.put(m_cacheKey, jmxMetricHolder);
     }
   }
 
@@ -589,7 +644,7 @@ public class MetricsRetrievalService extends AbstractService {
     private RESTRunnable(Cache<String, Map<String, String>> cache, Set<String> queuedUrls,
         Cache<String, String> ttlUrlCache, Gson gson, StreamProvider streamProvider,
         String restUrl) {
-      super(streamProvider, restUrl, queuedUrls, ttlUrlCache);
+      super(streamProvider, restUrl, restUrl, queuedUrls, ttlUrlCache);
       m_cache = cache;
       m_gson = gson;
     }
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Static helper methods for compressing large values, such as execution
+ * commands and task output, before they are stored in the database.
+ * <p/>
+ * Values produced by {@link #compress(byte[])} which start with
+ * {@link #MARKER} are followed by a format byte and the value in that format.
+ * Any other value is stored as is, so values which were stored before
+ * compression was introduced can still be read. Values which happen to start
+ * with the marker are always stored behind the marker, so every value is
+ * restored as it was.
+ */
+public class CompressionUtils {
+
+  /**
+   * Values smaller than this are not worth compressing.
+   */
+  static final int MIN_COMPRESSION_SIZE = 1024;
+
+  /**
+   * Starts values stored behind a format byte.
+   */
+  static final byte[] MARKER = {0, 'A', 'M', 'B'};
+
+  /**
+   * Format of a value stored uncompressed behind the marker.
+   */
+  static final byte FORMAT_NONE = 0;
+
+  /**
+   * Format of a GZIP compressed value.
+   */
+  static final byte FORMAT_GZIP = 1;
+
+  private static final int HEADER_LENGTH = MARKER.length + 1;
+
+  /**
+   * Compresses the value if it is large enough and compression makes it
+   * smaller.
+   *
+   * @param value the value to compress, or {@code null}
+   * @return the value to store
+   */
+  public static byte[] compress(byte[] value) {
+    if (value == null) {
+      return null;
+    }
+
+    if (value.length >= MIN_COMPRESSION_SIZE) {
+      ByteArrayOutputStream output = new ByteArrayOutputStream(value.length / 4);
+      output.write(MARKER, 0, MARKER.length);
+      output.write(FORMAT_GZIP);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+        gzip.write(value);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      if (output.size() < value.length) {
+        return output.toByteArray();
+      }
+    }
+
+    if (!hasMarker(value)) {
+      return value;
+    }
+
+    byte[] stored = Arrays.copyOf(MARKER, HEADER_LENGTH + value.length);
+    stored[MARKER.length] = FORMAT_NONE;
+    System.arraycopy(value, 0, stored, HEADER_LENGTH, value.length);
+    return stored;
+  }
+
+  /**
+   * Restores a value produced by {@link #compress(byte[])}.
+   *
+   * @param value the stored value, or {@code null}
+   * @return the original value
+   */
+  public static byte[] decompress(byte[] value) {
+    if (!hasMarker(value)) {
+      return value;
+    }
+
+    switch (value[MARKER.length]) {
+      case FORMAT_NONE:
+        return Arrays.copyOfRange(value, HEADER_LENGTH, value.length);
+      case FORMAT_GZIP:
+        try (InputStream input = new GZIPInputStream(
+            new ByteArrayInputStream(value, HEADER_LENGTH, value.length - HEADER_LENGTH))) {
+          return IOUtils.toByteArray(input);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      default:
+        throw new IllegalArgumentException("Unknown format " + value[MARKER.length] + " of stored value");
+    }
+  }
+
+  /**
+   * @return {@code true} if the value starts with the marker and a format byte
+   */
+  private static boolean hasMarker(byte[] value) {
+    if (value == null || value.length < HEADER_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < MARKER.length; i++) {
+      if (value[i] != MARKER[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Keeps the original value of a stored value, so it is only restored once.
+   * Entities keep one in a transient field per compressed column; the stored
+   * value is compared by identity, so a value reloaded from the database is
+   * restored again.
+   */
+  public static final class RestoredValue {
+    private byte[] stored;
+    private byte[] value;
+
+    /**
+     * @param stored the stored value, or {@code null}
+     * @return the original value of the stored value
+     */
+    public synchronized byte[] get(byte[] stored) {
+      if (stored != this.stored) {
+        value = decompress(stored);
+        this.stored = stored;
+      }
+      return value;
+    }
+
+    /**
+     * Remembers the original value of a value about to be stored.
+     *
+     * @param stored the value to store
+     * @param value  the original value
+     */
+    public synchronized void set(byte[] stored, byte[] value) {
+      this.stored = stored;
+      this.value = value;
+    }
+  }
+}
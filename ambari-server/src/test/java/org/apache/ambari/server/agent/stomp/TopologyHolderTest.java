@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.agent.stomp;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.apache.ambari.server.agent.stomp.dto.TopologyCluster;
+import org.apache.ambari.server.agent.stomp.dto.TopologyHost;
+import org.apache.ambari.server.api.services.stackadvisor.StackAdvisorHelper;
+import org.apache.ambari.server.controller.AmbariManagementControllerImpl;
+import org.apache.ambari.server.events.TopologyUpdateEvent;
+import org.apache.ambari.server.events.UpdateEventType;
+import org.apache.ambari.server.events.publishers.AmbariEventPublisher;
+import org.apache.ambari.server.events.publishers.STOMPUpdatePublisher;
+import org.apache.ambari.server.state.Clusters;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+
+public class TopologyHolderTest {
+
+  private TopologyHolder topologyHolder;
+
+  @Before
+  public void setUp() {
+    Injector injector = Guice.createInjector(binder -> {
+      binder.bind(AmbariEventPublisher.class).toInstance(createNiceMock(AmbariEventPublisher.class));
+      binder.bind(STOMPUpdatePublisher.class).toInstance(createNiceMock(STOMPUpdatePublisher.class));
+      binder.bind(AmbariManagementControllerImpl.class).toInstance(createNiceMock(AmbariManagementControllerImpl.class));
+      binder.bind(Clusters.class).toInstance(createNiceMock(Clusters.class));
+      binder.bind(StackAdvisorHelper.class).toInstance(createNiceMock(StackAdvisorHelper.class));
+    });
+    topologyHolder = injector.getInstance(TestTopologyHolder.class);
+  }
+
+  @Test
+  public void testGetUpdateIfChangedReturnsChangesSinceAgentHash() throws Exception {
+    String agentHash = topologyHolder.getUpdateIfChanged(null).getHash();
+
+    topologyHolder.updateData(hostUpdate(2L));
+    topologyHolder.updateData(hostUpdate(3L));
+
+    TopologyUpdateEvent update = topologyHolder.getUpdateIfChanged(agentHash);
+    assertEquals(UpdateEventType.UPDATE, update.getEventType());
+    assertEquals(topologyHolder.getData().getHash(), update.getHash());
+    assertEquals(new HashSet<>(Arrays.asList(2L, 3L)), getHostIds(update));
+  }
+
+  @Test
+  public void testGetUpdateIfChangedReturnsSnapshotForUnknownHash() throws Exception {
+    topologyHolder.updateData(hostUpdate(2L));
+
+    TopologyUpdateEvent update = topologyHolder.getUpdateIfChanged("unknown");
+    assertEquals(UpdateEventType.CREATE, update.getEventType());
+    assertEquals(topologyHolder.getData().getHash(), update.getHash());
+    assertEquals(new HashSet<>(Arrays.asList(1L, 2L)), getHostIds(update));
+  }
+
+  @Test
+  public void testGetUpdateIfChangedDoesNotCombineRemovals() throws Exception {
+    String agentHash = topologyHolder.getUpdateIfChanged(null).getHash();
+
+    topologyHolder.updateData(hostUpdate(2L));
+    topologyHolder.updateData(new TopologyUpdateEvent(clusterWithHost(1L), UpdateEventType.DELETE));
+
+    TopologyUpdateEvent update = topologyHolder.getUpdateIfChanged(agentHash);
+    assertEquals(UpdateEventType.CREATE, update.getEventType());
+    assertEquals(Collections.singleton(2L), getHostIds(update));
+  }
+
+  private static TopologyUpdateEvent hostUpdate(Long hostId) {
+    return new TopologyUpdateEvent(clusterWithHost(hostId), UpdateEventType.UPDATE);
+  }
+
+  private static TreeMap<String, TopologyCluster> clusterWithHost(Long hostId) {
+    TopologyCluster cluster = new TopologyCluster();
+    cluster.addTopologyHost(new TopologyHost(hostId, "host" + hostId));
+    TreeMap<String, TopologyCluster> clusters = new TreeMap<>();
+    clusters.put("1", cluster);
+    return clusters;
+  }
+
+  private static Set<Long> getHostIds(TopologyUpdateEvent update) {
+    return update.getClusters().get("1").getTopologyHosts().stream()
+        .map(TopologyHost::getHostId)
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Starts from a single cluster with a single host instead of reading the
+   * topology of the clusters.
+   */
+  static class TestTopologyHolder extends TopologyHolder {
+    @Inject
+    public TestTopologyHolder(AmbariEventPublisher ambariEventPublisher) {
+      super(ambariEventPublisher);
+    }
+
+    @Override
+    public TopologyUpdateEvent getCurrentData() {
+      return new TopologyUpdateEvent(clusterWithHost(1L), UpdateEventType.CREATE);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ambari.server.api.predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.ambari.server.controller.predicate.AndPredicate;
+import org.apache.ambari.server.controller.predicate.EqualsPredicate;
+import org.apache.ambari.server.controller.spi.Predicate;
+import org.junit.Test;
+
+/**
+ * PredicateCompiler unit tests.
+ */
+public class PredicateCompilerTest {
+
+  @Test
+  public void testCompile_cached() throws Exception {
+    Predicate p1 = new PredicateCompiler().compile(
+        "Hosts/host_status=HEALTHY&Hosts/maintenance_state=OFF&fields=Hosts/host_name&_=1");
+    Predicate p2 = new PredicateCompiler().compile(
+        "Hosts/host_status=HEALTHY&Hosts/maintenance_state=OFF&fields=Hosts/host_state&_=2");
+
+    assertEquals(new AndPredicate(new EqualsPredicate<>("Hosts/host_status", "HEALTHY"),
+        new EqualsPredicate<>("Hosts/maintenance_state", "OFF")), p1);
+    // ignored properties don't affect the cached predicate
+    assertSame(p1, p2);
+
+    Predicate p3 = new PredicateCompiler().compile("Hosts/host_status=UNHEALTHY&Hosts/maintenance_state=OFF");
+    assertNotSame(p1, p3);
+    assertEquals(new AndPredicate(new EqualsPredicate<>("Hosts/host_status", "UNHEALTHY"),
+        new EqualsPredicate<>("Hosts/maintenance_state", "OFF")), p3);
+  }
+
+  @Test
+  public void testCompile_noPredicate() throws Exception {
+    assertNull(new PredicateCompiler().compile("fields=Hosts/host_name&_=1"));
+  }
+
+  @Test(expected = InvalidQueryException.class)
+  public void testCompile_invalid() throws Exception {
+    new PredicateCompiler().compile("(Hosts/host_status=HEALTHY");
+  }
+}
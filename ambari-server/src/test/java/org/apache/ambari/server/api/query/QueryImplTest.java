@@ -34,10 +34,13 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -57,6 +60,7 @@ import org.apache.ambari.server.api.util.TreeNodeImpl;
 import org.apache.ambari.server.controller.internal.ClusterControllerImpl;
 import org.apache.ambari.server.controller.internal.ClusterControllerImplTest;
 import org.apache.ambari.server.controller.internal.PageRequestImpl;
+import org.apache.ambari.server.controller.internal.ResourceImpl;
 import org.apache.ambari.server.controller.spi.ClusterController;
 import org.apache.ambari.server.controller.spi.NoSuchParentResourceException;
 import org.apache.ambari.server.controller.spi.NoSuchResourceException;
@@ -65,7 +69,9 @@ import org.apache.ambari.server.controller.spi.PageResponse;
 import org.apache.ambari.server.controller.spi.Predicate;
 import org.apache.ambari.server.controller.spi.QueryResponse;
 import org.apache.ambari.server.controller.spi.Request;
+import org.apache.ambari.server.controller.spi.RequestStatus;
 import org.apache.ambari.server.controller.spi.Resource;
+import org.apache.ambari.server.controller.spi.ResourceProvider;
 import org.apache.ambari.server.controller.spi.Schema;
 import org.apache.ambari.server.controller.spi.SchemaFactory;
 import org.apache.ambari.server.controller.spi.SortRequest;
@@ -718,6 +724,170 @@ public class QueryImplTest {
 
   }
 
+  @Test
+  public void testExecute__Host_collection_batchedSubResources() throws Exception {
+    final List<Predicate> hostComponentPredicates = new ArrayList<>();
+    final Map<Resource.Type, String> hostComponentKeyPropertyIds = new HashMap<>();
+    hostComponentKeyPropertyIds.put(Resource.Type.Cluster, "HostRoles/cluster_name");
+    hostComponentKeyPropertyIds.put(Resource.Type.Host, "HostRoles/host_name");
+    hostComponentKeyPropertyIds.put(Resource.Type.HostComponent, "HostRoles/component_name");
+
+    final ResourceProvider hostComponentProvider = new ResourceProvider() {
+      @Override
+      public Set<Resource> getResources(Request request, Predicate predicate) {
+        hostComponentPredicates.add(predicate);
+
+        Set<Resource> resources = new HashSet<>();
+        for (int cnt = 0; cnt < 4; ++cnt) {
+          for (String componentName : Arrays.asList("DATANODE", "NODEMANAGER")) {
+            Resource resource = new ResourceImpl(Resource.Type.HostComponent);
+            resource.setProperty("HostRoles/cluster_name", "cluster");
+            resource.setProperty("HostRoles/host_name", "host:" + cnt);
+            resource.setProperty("HostRoles/component_name", componentName);
+            if (predicate.evaluate(resource)) {
+              resources.add(resource);
+            }
+          }
+        }
+        return resources;
+      }
+
+      @Override
+      public boolean isBatchQuerySupported() {
+        return true;
+      }
+
+      @Override
+      public Map<Resource.Type, String> getKeyPropertyIds() {
+        return hostComponentKeyPropertyIds;
+      }
+
+      @Override
+      public Set<String> checkPropertyIds(Set<String> propertyIds) {
+        return Collections.emptySet();
+      }
+
+      @Override
+      public RequestStatus createResources(Request request) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public RequestStatus updateResources(Request request, Predicate predicate) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public RequestStatus deleteResources(Request request, Predicate predicate) {
+        throw new UnsupportedOperationException();
+      }
+    };
+
+    ClusterControllerImpl clusterControllerImpl = new ClusterControllerImpl(new ClusterControllerImplTest.TestProviderModule() {
+      @Override
+      public ResourceProvider getResourceProvider(Resource.Type type) {
+        return type == Resource.Type.HostComponent ? hostComponentProvider : super.getResourceProvider(type);
+      }
+    });
+
+    QueryImpl instance = new TestQuery(new HashMap<>(), new HostResourceDefinition(), clusterControllerImpl);
+    instance.addProperty("host_components/HostRoles/component_name", null);
+
+    TreeNode<Resource> tree = instance.execute().getResultTree();
+
+    // one provider call for all hosts
+    Assert.assertEquals(1, hostComponentPredicates.size());
+    Assert.assertEquals(4, tree.getChildren().size());
+
+    for (TreeNode<Resource> hostNode : tree.getChildren()) {
+      Object hostName = hostNode.getObject().getPropertyValue("Hosts/host_name");
+      TreeNode<Resource> hostComponentsNode = hostNode.getChild("host_components");
+      Assert.assertEquals(2, hostComponentsNode.getChildren().size());
+      for (TreeNode<Resource> hostComponentNode : hostComponentsNode.getChildren()) {
+        Assert.assertEquals(hostName, hostComponentNode.getObject().getPropertyValue("HostRoles/host_name"));
+      }
+    }
+  }
+
+  /**
+   * Tests that the sub-resources of many parents sharing the same cluster are
+   * assigned to their own parent, and that the provider filters them without
+   * evaluating the key predicate of every parent for every resource.
+   */
+  @Test
+  public void testExecute__Host_collection_batchedSubResources_manyParents() throws Exception {
+    final int hostCount = 100;
+    final AtomicInteger propertyReads = new AtomicInteger();
+
+    Map<Resource.Type, String> hostKeyPropertyIds = new HashMap<>();
+    hostKeyPropertyIds.put(Resource.Type.Cluster, "Hosts/cluster_name");
+    hostKeyPropertyIds.put(Resource.Type.Host, "Hosts/host_name");
+
+    Map<Resource.Type, String> hostComponentKeyPropertyIds = new HashMap<>();
+    hostComponentKeyPropertyIds.put(Resource.Type.Cluster, "HostRoles/cluster_name");
+    hostComponentKeyPropertyIds.put(Resource.Type.Host, "HostRoles/host_name");
+    hostComponentKeyPropertyIds.put(Resource.Type.HostComponent, "HostRoles/component_name");
+
+    Set<Resource> hosts = new HashSet<>();
+    Set<Resource> hostComponents = new HashSet<>();
+    for (int cnt = 0; cnt < hostCount; ++cnt) {
+      Resource host = new ResourceImpl(Resource.Type.Host);
+      host.setProperty("Hosts/cluster_name", "cluster");
+      host.setProperty("Hosts/host_name", "host:" + cnt);
+      hosts.add(host);
+
+      for (String componentName : Arrays.asList("DATANODE", "NODEMANAGER")) {
+        Resource resource = new ResourceImpl(Resource.Type.HostComponent) {
+          @Override
+          public Object getPropertyValue(String id) {
+            propertyReads.incrementAndGet();
+            return super.getPropertyValue(id);
+          }
+        };
+        resource.setProperty("HostRoles/cluster_name", "cluster");
+        resource.setProperty("HostRoles/host_name", "host:" + cnt);
+        resource.setProperty("HostRoles/component_name", componentName);
+        hostComponents.add(resource);
+      }
+    }
+
+    final ResourceProvider hostProvider = new TestBatchProvider(hostKeyPropertyIds, hosts, null);
+    final ResourceProvider hostComponentProvider = new TestBatchProvider(hostComponentKeyPropertyIds, hostComponents,
+        propertyReads);
+
+    ClusterControllerImpl clusterControllerImpl = new ClusterControllerImpl(new ClusterControllerImplTest.TestProviderModule() {
+      @Override
+      public ResourceProvider getResourceProvider(Resource.Type type) {
+        switch (type) {
+          case Host:
+            return hostProvider;
+          case HostComponent:
+            return hostComponentProvider;
+          default:
+            return super.getResourceProvider(type);
+        }
+      }
+    });
+
+    QueryImpl instance = new TestQuery(new HashMap<>(), new HostResourceDefinition(), clusterControllerImpl);
+    instance.addProperty("host_components/HostRoles/component_name", null);
+
+    TreeNode<Resource> tree = instance.execute().getResultTree();
+
+    Assert.assertEquals(hostCount, tree.getChildren().size());
+    for (TreeNode<Resource> hostNode : tree.getChildren()) {
+      Object hostName = hostNode.getObject().getPropertyValue("Hosts/host_name");
+      TreeNode<Resource> hostComponentsNode = hostNode.getChild("host_components");
+      Assert.assertEquals(2, hostComponentsNode.getChildren().size());
+      for (TreeNode<Resource> hostComponentNode : hostComponentsNode.getChildren()) {
+        Assert.assertEquals(hostName, hostComponentNode.getObject().getPropertyValue("HostRoles/host_name"));
+      }
+    }
+
+    // a few reads per resource, rather than a few per resource and parent
+    assertTrue(propertyReads.get() < 20 * hostComponents.size());
+  }
+
   @Test
   public void testExecute__collection_nullInternalPredicate_nullUserPredicate() throws Exception {
     ResourceDefinition resourceDefinition = createNiceMock(ResourceDefinition.class);
@@ -1092,5 +1262,69 @@ public class QueryImplTest {
       setRenderer(new DefaultRenderer());
     }
   }
-}
 
+  /**
+   * A provider, supporting batch queries, of the given resources.
+   */
+  private static class TestBatchProvider implements ResourceProvider {
+    private final Map<Resource.Type, String> keyPropertyIds;
+    private final Set<Resource> resources;
+    private final AtomicInteger propertyReads;
+
+    /**
+     * @param propertyReads  reset before the resources are filtered, so only the reads
+     *                       of the last filtering are counted; may be null
+     */
+    private TestBatchProvider(Map<Resource.Type, String> keyPropertyIds, Set<Resource> resources,
+                              AtomicInteger propertyReads) {
+      this.keyPropertyIds = keyPropertyIds;
+      this.resources = resources;
+      this.propertyReads = propertyReads;
+    }
+
+    @Override
+    public Set<Resource> getResources(Request request, Predicate predicate) {
+      if (propertyReads != null) {
+        propertyReads.set(0);
+      }
+
+      Set<Resource> matchingResources = new HashSet<>();
+      for (Resource resource : resources) {
+        if (predicate == null || predicate.evaluate(resource)) {
+          matchingResources.add(resource);
+        }
+      }
+      return matchingResources;
+    }
+
+    @Override
+    public boolean isBatchQuerySupported() {
+      return true;
+    }
+
+    @Override
+    public Map<Resource.Type, String> getKeyPropertyIds() {
+      return keyPropertyIds;
+    }
+
+    @Override
+    public Set<String> checkPropertyIds(Set<String> propertyIds) {
+      return Collections.emptySet();
+    }
+
+    @Override
+    public RequestStatus createResources(Request request) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public RequestStatus updateResources(Request request, Predicate predicate) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public RequestStatus deleteResources(Request request, Predicate predicate) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -43,6 +43,9 @@ import org.apache.ambari.server.controller.StackConfigurationRequest;
 import org.apache.ambari.server.controller.StackLevelConfigurationRequest;
 import org.apache.ambari.server.controller.UserRequest;
 import org.apache.ambari.server.controller.predicate.AlwaysPredicate;
+import org.apache.ambari.server.controller.predicate.AndPredicate;
+import org.apache.ambari.server.controller.predicate.EqualsPredicate;
+import org.apache.ambari.server.controller.predicate.NotPredicate;
 import org.apache.ambari.server.controller.spi.NoSuchParentResourceException;
 import org.apache.ambari.server.controller.spi.NoSuchResourceException;
 import org.apache.ambari.server.controller.spi.Predicate;
@@ -225,6 +228,33 @@ public class AbstractResourceProviderTest {
     }
   }
 
+  @Test
+  public void testGetSupportedPredicate() throws Exception {
+    AbstractResourceProvider provider = new TestResourceProvider();
+
+    // key equalities alone are already applied through the requests
+    Predicate keyPredicate = new PredicateBuilder().property("ClusterName").equals("c1").and().
+        begin().
+          property("ResourceName").equals("r1").or().property("ResourceName").equals("r2").
+        end().toPredicate();
+    Assert.assertNull(provider.getSupportedPredicate(keyPredicate));
+
+    // only the non key part of a batched query is evaluated
+    Predicate valuePredicate = new PredicateBuilder().property("SomeProperty").equals("SomeValue1").toPredicate();
+    Predicate predicate = new AndPredicate(valuePredicate, keyPredicate);
+    Assert.assertEquals(valuePredicate, provider.getSupportedPredicate(predicate));
+
+    // key properties compared other than by equality are kept
+    Predicate notKeyPredicate = new NotPredicate(new EqualsPredicate<>("ResourceName", "r1"));
+    predicate = new AndPredicate(new EqualsPredicate<>("ClusterName", "c1"), notKeyPredicate);
+    Assert.assertEquals(notKeyPredicate, provider.getSupportedPredicate(predicate));
+
+    // unsupported properties can't be evaluated by the provider
+    predicate = new PredicateBuilder().property("SomeProperty").equals("SomeValue1").and().
+        property("Unknown").equals("u1").toPredicate();
+    Assert.assertNull(provider.getSupportedPredicate(predicate));
+  }
+
   @Test
   public void testGetQueryParameterValue() {
 
@@ -33,6 +33,9 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -77,6 +80,7 @@ import org.apache.ambari.server.state.StackId;
 import org.apache.ambari.server.state.UserGroupInfo;
 import org.apache.ambari.server.state.ValueAttributesInfo;
 import org.apache.ambari.server.utils.StageUtils;
+import org.apache.commons.io.FileUtils;
 import org.easymock.EasyMock;
 import org.junit.After;
 import org.junit.Assert;
@@ -270,6 +274,66 @@ public class ClientConfigResourceProviderTest {
     verify(managementController);
   }
 
+  @Test
+  public void testConfigArchiveCache() throws Exception {
+    Path tmpDir = Files.createTempDirectory("client-configs");
+    try {
+      ClientConfigResourceProvider.ConfigArchiveCache cache =
+          new ClientConfigResourceProvider.ConfigArchiveCache(tmpDir.toString(), 1, "2.7.0.0");
+
+      Path packageDir = Files.createDirectories(tmpDir.resolve("package"));
+      Path script = Files.write(packageDir.resolve("script.py"), "script".getBytes(StandardCharsets.UTF_8));
+      String key1 = cache.getKey(packageDir.toString(), script.toString(), "{\"a\":\"1\"}");
+      String key2 = cache.getKey(packageDir.toString(), script.toString(), "{\"a\":\"2\"}");
+      Assert.assertNotEquals(key1, key2);
+      Assert.assertEquals(key1, cache.getKey(packageDir.toString(), script.toString(), "{\"a\":\"1\"}"));
+
+      // a changed script, or a different server, generates different archives
+      Files.write(script, "changed script".getBytes(StandardCharsets.UTF_8));
+      Assert.assertNotEquals(key1, cache.getKey(packageDir.toString(), script.toString(), "{\"a\":\"1\"}"));
+      Assert.assertNotEquals(key1, new ClientConfigResourceProvider.ConfigArchiveCache(tmpDir.toString(), 1, "2.7.1.0")
+          .getKey(packageDir.toString(), script.toString(), "{\"a\":\"1\"}"));
+
+      // archives are generated and restored in a directory private to the request
+      Path requestDir = cache.createRequestDirectory();
+      Assert.assertEquals(tmpDir, requestDir.getParent());
+      Assert.assertNotEquals(requestDir, cache.createRequestDirectory());
+
+      Path archive = requestDir.resolve("HDFS_CLIENT-configs" + Configuration.DEF_ARCHIVE_EXTENSION);
+      assertFalse(cache.restore(key1, archive));
+
+      Files.write(archive, "archive1".getBytes(StandardCharsets.UTF_8));
+      cache.store(key1, archive);
+      Files.delete(archive);
+
+      Assert.assertTrue(cache.restore(key1, archive));
+      Assert.assertEquals("archive1", new String(Files.readAllBytes(archive), StandardCharsets.UTF_8));
+
+      // storing a second archive evicts the first one
+      Files.write(archive, "archive2".getBytes(StandardCharsets.UTF_8));
+      cache.store(key2, archive);
+      assertFalse(cache.restore(key1, archive));
+      Assert.assertTrue(cache.restore(key2, archive));
+
+      // the archives are moved to where they are downloaded from
+      cache.publish(requestDir, tmpDir);
+      assertFalse(Files.exists(archive));
+      Assert.assertEquals("archive2", new String(Files.readAllBytes(
+          tmpDir.resolve("HDFS_CLIENT-configs" + Configuration.DEF_ARCHIVE_EXTENSION)), StandardCharsets.UTF_8));
+
+      cache.removeRequestDirectory(requestDir);
+      assertFalse(Files.exists(requestDir));
+
+      // a disabled cache neither stores nor restores
+      ClientConfigResourceProvider.ConfigArchiveCache disabled =
+          new ClientConfigResourceProvider.ConfigArchiveCache(tmpDir.toString(), 0, "2.7.0.0");
+      Assert.assertNull(disabled.getKey(packageDir.toString(), script.toString(), "{\"a\":\"2\"}"));
+      Assert.assertNull(disabled.createRequestDirectory());
+    } finally {
+      FileUtils.deleteDirectory(tmpDir.toFile());
+    }
+  }
+
   private void testGetResources(Authentication authentication) throws Exception {
     Resource.Type type = Resource.Type.ClientConfig;
 
@@ -353,6 +417,8 @@ public class ClientConfigResourceProviderTest {
     expect(configHelper.getEffectiveConfigProperties(cluster, configTags)).andReturn(properties);
     expect(configHelper.getEffectiveConfigAttributes(cluster, configTags)).andReturn(attributes);
     expect(configuration.getConfigsMap()).andReturn(returnConfigMap);
+    expect(configuration.getClientConfigsCacheSize()).andReturn(0);
+    expect(configuration.getConfigsMap()).andReturn(returnConfigMap);
     expect(configuration.getResourceDirPath()).andReturn(stackRoot);
     expect(configuration.getExternalScriptThreadPoolSize()).andReturn(Configuration.THREAD_POOL_SIZE_FOR_EXTERNAL_SCRIPT.getDefaultValue());
     expect(configuration.getExternalScriptTimeout()).andReturn(Configuration.EXTERNAL_SCRIPT_TIMEOUT.getDefaultValue());
@@ -578,6 +644,8 @@ public class ClientConfigResourceProviderTest {
     expect(configHelper.getEffectiveConfigProperties(cluster, configTags)).andReturn(properties);
     expect(configHelper.getEffectiveConfigAttributes(cluster, configTags)).andReturn(attributes);
     expect(configuration.getConfigsMap()).andReturn(returnConfigMap);
+    expect(configuration.getClientConfigsCacheSize()).andReturn(0);
+    expect(configuration.getConfigsMap()).andReturn(returnConfigMap);
     expect(configuration.getResourceDirPath()).andReturn("/var/lib/ambari-server/src/main/resources");
     expect(configuration.getExternalScriptThreadPoolSize()).andReturn(Configuration.THREAD_POOL_SIZE_FOR_EXTERNAL_SCRIPT.getDefaultValue());
     expect(configuration.getExternalScriptTimeout()).andReturn(Configuration.EXTERNAL_SCRIPT_TIMEOUT.getDefaultValue());
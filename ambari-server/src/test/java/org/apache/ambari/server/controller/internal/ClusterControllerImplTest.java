@@ -563,6 +563,38 @@ public class ClusterControllerImplTest {
     }
   }
 
+  @Test
+  public void testGetResourcesSortedWithPredicatePageToEnd() throws Exception{
+
+    ClusterControllerImpl controller =
+      new ClusterControllerImpl(new TestProviderModule());
+
+    Request request = PropertyHelper.getReadRequest(new HashSet<>());
+
+    Predicate predicate =
+      new PredicateBuilder().property("c1/p2").equals(1).toPredicate();
+    SortRequest sortRequest = new SortRequestImpl(Collections.singletonList(
+      new SortRequestProperty("Hosts/host_name", SortRequest.Order.DESC)));
+
+    // get the last one
+    PageRequest pageRequest =
+      new PageRequestImpl(PageRequest.StartingPoint.End, 1, 0, null, null);
+    PageResponse pageResponse =
+      controller.getResources(Resource.Type.Host, request, predicate, pageRequest, sortRequest);
+
+    List<Resource> list = new LinkedList<>();
+    for (Resource resource : pageResponse.getIterable()) {
+      list.add(resource);
+    }
+    Assert.assertEquals(1, list.size());
+    Assert.assertEquals("host:1", list.get(0).getPropertyValue(PropertyHelper.getPropertyId("Hosts", "host_name")));
+    Assert.assertEquals("host:3", pageResponse.getPreviousResource().getPropertyValue(
+      PropertyHelper.getPropertyId("Hosts", "host_name")));
+    Assert.assertNull(pageResponse.getNextResource());
+    //total hosts after applying the filter, not only on this page
+    Assert.assertEquals(2, pageResponse.getTotalResourceCount().intValue());
+  }
+
   @Test
   public void testGetResourcesSortedWithPredicateWithItemsTotal() throws Exception{
 
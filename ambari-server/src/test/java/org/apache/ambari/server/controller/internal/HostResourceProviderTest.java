@@ -329,6 +329,73 @@ public class HostResourceProviderTest extends EasyMockSupport {
     verifyAll();
   }
 
+  @Test
+  public void testGetResources_ProviderPredicate() throws Exception {
+    AuthorizationHelperInitializer.viewInstanceDAOReturningNull();
+    Injector injector = createInjector();
+    AmbariManagementController managementController = injector.getInstance(AmbariManagementController.class);
+    Clusters clusters = injector.getInstance(Clusters.class);
+    Cluster cluster = createMock(Cluster.class);
+    Host host100 = createMockHost("Host100", "Cluster100", null, "HEALTHY", "RECOVERABLE", null);
+    Host host101 = createMockHost("Host101", "Cluster100", null, "UNHEALTHY", "RECOVERABLE", null);
+    Host host102 = createMockHost("Host102", "Cluster100", null, "HEALTHY", "RECOVERABLE", null);
+    ResourceProviderFactory resourceProviderFactory = createNiceMock(ResourceProviderFactory.class);
+    ResourceProvider hostResourceProvider = getHostProvider(injector);
+
+    AbstractControllerResourceProvider.init(resourceProviderFactory);
+
+    List<Host> hosts = Arrays.asList(host100, host101, host102);
+    Set<Cluster> clusterSet = Collections.singleton(cluster);
+
+    // set expectations
+    expect(host100.getMaintenanceState(2)).andReturn(MaintenanceState.OFF).anyTimes();
+    expect(host101.getMaintenanceState(2)).andReturn(MaintenanceState.OFF).anyTimes();
+    expect(host102.getMaintenanceState(2)).andReturn(MaintenanceState.OFF).anyTimes();
+
+    expect(managementController.getClusters()).andReturn(clusters).anyTimes();
+    expect(managementController.getHostComponents(EasyMock.anyObject()))
+        .andReturn(Collections.emptySet()).anyTimes();
+    expect(resourceProviderFactory.getHostResourceProvider(
+            eq(managementController))).
+        andReturn(hostResourceProvider).anyTimes();
+
+    expect(clusters.getHosts()).andReturn(hosts).anyTimes();
+    expect(clusters.getCluster("Cluster100")).andReturn(cluster).anyTimes();
+    expect(clusters.getClustersForHost("Host100")).andReturn(clusterSet).anyTimes();
+    expect(clusters.getClustersForHost("Host101")).andReturn(clusterSet).anyTimes();
+    expect(clusters.getClustersForHost("Host102")).andReturn(clusterSet).anyTimes();
+
+    // desired configs are not requested, so cluster.getDesiredConfigs() is not expected
+    expect(cluster.getClusterId()).andReturn(2L).anyTimes();
+
+    Set<String> propertyIds = new HashSet<>();
+    propertyIds.add(HostResourceProvider.HOST_HOST_NAME_PROPERTY_ID);
+
+    Predicate predicate = new PredicateBuilder()
+        .property(HostResourceProvider.HOST_CLUSTER_NAME_PROPERTY_ID).equals("Cluster100")
+        .and().property(HostResourceProvider.HOST_HOST_STATUS_PROPERTY_ID).equals("UNHEALTHY").toPredicate();
+    Request request = PropertyHelper.getReadRequest(propertyIds);
+
+    // replay
+    replayAll();
+
+    SecurityContextHolder.getContext().setAuthentication(TestAuthenticationFactory.createAdministrator());
+
+    ResourceProvider provider = AbstractControllerResourceProvider.getResourceProvider(
+        Resource.Type.Host,
+        managementController);
+
+    // only the hosts matching the predicate are returned by the provider
+    Set<Resource> resources = provider.getResources(request, predicate);
+
+    Assert.assertEquals(1, resources.size());
+    Assert.assertEquals("Host101",
+        resources.iterator().next().getPropertyValue(HostResourceProvider.HOST_HOST_NAME_PROPERTY_ID));
+
+    // verify
+    verifyAll();
+  }
+
   @Test
   public void testGetResources_Status_NoCluster() throws Exception {
     Resource.Type type = Resource.Type.Host;
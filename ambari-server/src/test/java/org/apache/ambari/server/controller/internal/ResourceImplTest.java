@@ -70,6 +70,25 @@ public class ResourceImplTest {
     Assert.assertEquals(65L, resource.getPropertyValue(propertyId));
   }
 
+  @Test
+  public void testSetNullProperty() {
+    Resource resource = new ResourceImpl(Resource.Type.Cluster);
+
+    String propertyId = PropertyHelper.getPropertyId("c1", "p1");
+    resource.setProperty(propertyId, null);
+
+    Assert.assertNull(resource.getPropertyValue(propertyId));
+    Assert.assertTrue(resource.getPropertiesMap().get("c1").containsKey("p1"));
+    Assert.assertNull(resource.getPropertiesMap().get("c1").entrySet().iterator().next().getValue());
+
+    Resource copy = new ResourceImpl(resource);
+    Assert.assertEquals(resource, copy);
+    Assert.assertEquals(resource.hashCode(), copy.hashCode());
+
+    copy.setProperty(propertyId, "foo");
+    Assert.assertFalse(resource.equals(copy));
+  }
+
   @Test
   public void testAddCategory() {
     Resource resource = new ResourceImpl(Resource.Type.Cluster);
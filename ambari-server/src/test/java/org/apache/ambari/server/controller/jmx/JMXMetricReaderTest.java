@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.jmx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+public class JMXMetricReaderTest {
+
+  private static final String RESPONSE = "{\"beans\" : [" +
+      "{\"name\" : \"Hadoop:service=NameNode,name=FSNamesystem\", \"CapacityTotal\" : 100, \"CapacityUsed\" : 10, " +
+      "\"Nested\" : {\"a\" : [1, 2]}}," +
+      "{\"CallQueueLength\" : 0, \"name\" : \"Hadoop:service=NameNode,name=RpcActivityForPort8020\", \"tag.port\" : \"8020\"}," +
+      "{\"name\" : \"Hadoop:service=NameNode,name=JvmMetrics\", \"MemHeapUsedM\" : 1.5, \"GcCount\" : 3}," +
+      "{\"name\" : \"java.lang:type=Runtime\", \"StartTime\" : 1, \"SystemProperties\" : [{\"key\" : \"k\"}]}" +
+      "]}";
+
+  private final JMXMetricReader reader = new JMXMetricReader();
+
+  @Test
+  public void testReadWithoutFilter() throws Exception {
+    List<Map<String, Object>> beans = reader.read(stream(RESPONSE), null).getBeans();
+
+    assertEquals(4, beans.size());
+    assertEquals(100, beans.get(0).get("CapacityTotal"));
+    assertEquals(Collections.singletonMap("a", Arrays.asList(1, 2)), beans.get(0).get("Nested"));
+    assertEquals(1.5, beans.get(2).get("MemHeapUsedM"));
+  }
+
+  @Test
+  public void testReadWithFilter() throws Exception {
+    Map<String, Set<String>> requested = ImmutableMap.of(
+        "Hadoop:service=NameNode,name=FSNamesystem", ImmutableSet.of("CapacityTotal"));
+    Map<String, Set<String>> patterns = ImmutableMap.of(
+        "java.lang:type=(\\w+)", ImmutableSet.of("StartTime"));
+
+    List<Map<String, Object>> beans = reader.read(stream(RESPONSE), new JMXBeanFilter(requested, patterns)).getBeans();
+
+    assertEquals(3, beans.size());
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("name", "Hadoop:service=NameNode,name=FSNamesystem");
+    expected.put("CapacityTotal", 100);
+    assertEquals(expected, beans.get(0));
+
+    // per port beans are kept whole, including attributes read before the name
+    assertEquals(0, beans.get(1).get("CallQueueLength"));
+    assertEquals("8020", beans.get(1).get("tag.port"));
+
+    expected = new HashMap<>();
+    expected.put("name", "java.lang:type=Runtime");
+    expected.put("StartTime", 1);
+    assertEquals(expected, beans.get(2));
+  }
+
+  @Test
+  public void testFilterQuery() throws Exception {
+    JMXBeanFilter filter = new JMXBeanFilter(ImmutableMap.of(
+        "Hadoop:service=NameNode,name=FSNamesystem", ImmutableSet.of("CapacityTotal"),
+        "Hadoop:service=NameNode,name=JvmMetrics", ImmutableSet.of("GcCount")), Collections.emptyMap());
+    assertEquals("Hadoop:service=NameNode,*", filter.getQuery());
+
+    filter = new JMXBeanFilter(ImmutableMap.of(
+        "Hadoop:service=NameNode,name=FSNamesystem", ImmutableSet.of("CapacityTotal"),
+        "java.lang:type=Runtime", ImmutableSet.of("StartTime")), Collections.emptyMap());
+    assertNull(filter.getQuery());
+  }
+
+  @Test
+  public void testFilterId() throws Exception {
+    JMXBeanFilter filter1 = new JMXBeanFilter(ImmutableMap.of(
+        "bean", ImmutableSet.of("b", "a")), Collections.emptyMap());
+    JMXBeanFilter filter2 = new JMXBeanFilter(ImmutableMap.of(
+        "bean", ImmutableSet.of("a", "b")), Collections.emptyMap());
+    assertEquals(filter1.getId(), filter2.getId());
+  }
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
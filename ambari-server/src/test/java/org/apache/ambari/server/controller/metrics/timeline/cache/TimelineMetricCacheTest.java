@@ -187,15 +187,16 @@ public class TimelineMetricCacheTest {
     TimelineMetric metric = metricsList.iterator().next();
     Assert.assertEquals("cpu_user", metric.getMetricName());
     Assert.assertEquals("app1", metric.getAppId());
-    Assert.assertSame(metricValues, metric.getMetricValues());
+    Assert.assertEquals(metricValues, metric.getMetricValues());
 
     // call to update with new key
     metrics = cache.getAppTimelineMetricsFromCache(testKey);
     metricsList = metrics.getMetrics();
     Assert.assertEquals(1, metricsList.size());
+    metric = metricsList.iterator().next();
     Assert.assertEquals("cpu_user", metric.getMetricName());
     Assert.assertEquals("app1", metric.getAppId());
-    Assert.assertSame(metricValues, metric.getMetricValues());
+    Assert.assertEquals(metricValues, metric.getMetricValues());
 
     verify(configuration, cacheEntryFactory);
   }
@@ -513,6 +514,7 @@ public class TimelineMetricCacheTest {
     metrics = cache.getAppTimelineMetricsFromCache(newKey);
     metricsList = metrics.getMetrics();
     Assert.assertEquals(1, metricsList.size());
+    metric = metricsList.iterator().next();
     Assert.assertEquals("cpu_user", metric.getMetricName());
     Assert.assertEquals("app1", metric.getAppId());
     Assert.assertEquals(newMetricValues, metric.getMetricValues());
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.controller.metrics.timeline.cache;
+
+import java.util.TreeMap;
+
+import org.apache.hadoop.metrics2.sink.timeline.TimelineMetric;
+import org.apache.hadoop.metrics2.sink.timeline.TimelineMetrics;
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+public class TimelineMetricSeriesTest {
+
+  @Test
+  public void testAppendTrimAndMerge() {
+    TimelineMetricSeries series = new TimelineMetricSeries(createMetric(values(100, 1.0, 200, 2.0, 300, 3.0)));
+    Assert.assertEquals(3, series.size());
+    Assert.assertTrue(series.getMetric().getMetricValues().isEmpty());
+
+    // regular update: trim old values and append newer ones
+    series.trim(200, 500);
+    series.merge(values(400, 4.0, 500, 5.0));
+    Assert.assertEquals(values(200, 2.0, 300, 3.0, 400, 4.0, 500, 5.0),
+      series.toTimelineMetric().getMetricValues());
+
+    // overlapping update: new values replace cached ones
+    series.merge(values(150, 1.5, 300, 30.0, 600, 6.0));
+    Assert.assertEquals(values(150, 1.5, 200, 2.0, 300, 30.0, 400, 4.0, 500, 5.0, 600, 6.0),
+      series.toTimelineMetric().getMetricValues());
+    Assert.assertEquals(150, series.getFirstTimestamp());
+    Assert.assertEquals(600, series.getLastTimestamp());
+
+    series.trim(700, 800);
+    Assert.assertEquals(0, series.size());
+    series.merge(values(700, 7.0));
+    Assert.assertEquals(values(700, 7.0), series.toTimelineMetric().getMetricValues());
+  }
+
+  @Test
+  public void testAppendBeyondCapacity() {
+    TimelineMetricSeries series = new TimelineMetricSeries(createMetric(new TreeMap<>()));
+    TreeMap<Long, Double> expected = new TreeMap<>();
+    for (long i = 0; i < 100; i++) {
+      series.trim(i - 10, i);
+      series.merge(values(i, (double) i));
+      expected.put(i, (double) i);
+      expected.headMap(i - 10).clear();
+    }
+    Assert.assertEquals(expected, series.toTimelineMetric().getMetricValues());
+    Assert.assertEquals(16, series.getCapacity());
+  }
+
+  @Test
+  public void testMissingValues() {
+    TreeMap<Long, Double> metricValues = values(100, 1.0, 300, Double.NaN);
+    metricValues.put(200L, null);
+    TimelineMetricSeries series = new TimelineMetricSeries(createMetric(metricValues));
+    Assert.assertEquals(metricValues, series.toTimelineMetric().getMetricValues());
+
+    // missing and NaN values are kept apart when values are replaced, trimmed and appended
+    TreeMap<Long, Double> newValues = values(200, 2.0, 400, Double.NaN);
+    newValues.put(500L, null);
+    series.merge(newValues);
+    series.trim(300, 600);
+    series.merge(values(600, 6.0));
+    TreeMap<Long, Double> expected = values(300, Double.NaN, 400, Double.NaN, 600, 6.0);
+    expected.put(500L, null);
+    Assert.assertEquals(expected, series.toTimelineMetric().getMetricValues());
+  }
+
+  @Test
+  public void testMetricIsNotModified() {
+    TimelineMetric metric = createMetric(values(100, 1.0, 200, 2.0));
+    TimelineMetricSeries series = new TimelineMetricSeries(metric);
+    series.merge(values(300, 3.0));
+    Assert.assertEquals(values(100, 1.0, 200, 2.0), metric.getMetricValues());
+    Assert.assertNotSame(metric, series.getMetric());
+  }
+
+  @Test
+  public void testCachedMetricsAreCopied() {
+    TimelineMetrics metrics = new TimelineMetrics();
+    metrics.getMetrics().add(createMetric(values(100, 1.0)));
+    TimelineMetricsCacheValue value = new TimelineMetricsCacheValue(100L, 200L, metrics, null);
+
+    // callers may modify returned metrics without affecting the cache
+    TimelineMetrics cachedMetrics = value.getTimelineMetrics();
+    Assert.assertNotSame(cachedMetrics, value.getTimelineMetrics());
+    cachedMetrics.getMetrics().get(0).getMetricValues().put(150L, 5.0);
+    Assert.assertEquals(values(100, 1.0), value.getTimelineMetrics().getMetrics().get(0).getMetricValues());
+    cachedMetrics.getMetrics().get(0).getMetricValues().remove(150L);
+
+    // updates build new metrics and leave the ones already returned unchanged
+    TimelineMetrics newMetrics = new TimelineMetrics();
+    newMetrics.getMetrics().add(createMetric(values(200, 2.0)));
+    value.mergeTimelineMetrics(newMetrics);
+    Assert.assertEquals(values(100, 1.0), cachedMetrics.getMetrics().get(0).getMetricValues());
+    Assert.assertEquals(values(100, 1.0, 200, 2.0), value.getTimelineMetrics().getMetrics().get(0).getMetricValues());
+  }
+
+  private TimelineMetric createMetric(TreeMap<Long, Double> metricValues) {
+    TimelineMetric metric = new TimelineMetric();
+    metric.setMetricName("cpu_user");
+    metric.setAppId("app1");
+    metric.setMetricValues(metricValues);
+    return metric;
+  }
+
+  private TreeMap<Long, Double> values(Object... timestampsAndValues) {
+    TreeMap<Long, Double> values = new TreeMap<>();
+    for (int i = 0; i < timestampsAndValues.length; i += 2) {
+      values.put(((Number) timestampsAndValues[i]).longValue(), (Double) timestampsAndValues[i + 1]);
+    }
+    return values;
+  }
+}
@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.events.publishers;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.ambari.server.configuration.Configuration;
+import org.apache.ambari.server.events.STOMPEvent;
+import org.junit.Test;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * BufferedUpdateEventPublisher tests.
+ */
+public class BufferedUpdateEventPublisherTest {
+
+  @Test
+  public void testFirstEventIsPostedImmediatelyAndFollowingAreCoalesced() throws Exception {
+    TestPublisher publisher = createPublisher(100);
+    EventBus eventBus = new EventBus();
+    Listener listener = new Listener();
+    eventBus.register(listener);
+
+    publisher.publish(new TestEvent("a", 1), eventBus);
+    waitForEvents(listener, 1);
+
+    publisher.publish(new TestEvent("b", 1), eventBus);
+    publisher.publish(new TestEvent("b", 2), eventBus);
+    publisher.publish(new TestEvent("c", 1), eventBus);
+
+    assertEquals(1, listener.events.size());
+    assertEquals(2, publisher.getBufferedCount());
+    assertEquals(1, publisher.getCoalescedCount());
+    assertEquals(0, publisher.getOverflowCount());
+  }
+
+  @Test
+  public void testFullBufferIsFlushedWithoutWaitingForInterval() throws Exception {
+    TestPublisher publisher = createPublisher(2);
+    EventBus eventBus = new EventBus();
+    Listener listener = new Listener();
+    eventBus.register(listener);
+
+    publisher.publish(new TestEvent("a", 1), eventBus);
+    waitForEvents(listener, 1);
+
+    publisher.publish(new TestEvent("b", 1), eventBus);
+    publisher.publish(new TestEvent("b", 2), eventBus);
+    publisher.publish(new TestEvent("c", 1), eventBus);
+
+    // the full buffer is handed over at once, but its events are not posted by the publishing thread
+    assertEquals(0, publisher.getBufferedCount());
+    waitForEvents(listener, 3);
+    assertFalse(listener.threads.contains(Thread.currentThread()));
+    assertEquals("b", listener.events.get(1).key);
+    assertEquals(2, listener.events.get(1).value);
+    assertEquals("c", listener.events.get(2).key);
+    assertEquals(1, publisher.getOverflowCount());
+  }
+
+  /**
+   * Events are published while holding the host role command status lock for writing, which posting request
+   * events needs for reading, so a publisher waiting for a full buffer to be posted would stall on its own lock.
+   */
+  @Test
+  public void testPublishingIntoFullBufferDoesNotWaitForPosting() throws Exception {
+    ReadWriteLock hrcStatusLock = new ReentrantReadWriteLock(true);
+    TestPublisher publisher = createPublisher(2);
+    publisher.postLock = hrcStatusLock;
+    EventBus eventBus = new EventBus();
+    Listener listener = new Listener();
+    eventBus.register(listener);
+
+    hrcStatusLock.writeLock().lock();
+    try {
+      long start = System.nanoTime();
+      for (int i = 0; i < 10; i++) {
+        publisher.publish(new TestEvent("e" + i, i), eventBus);
+      }
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+      assertTrue(publisher.getOverflowCount() > 0);
+      assertEquals(0, listener.events.size());
+    } finally {
+      hrcStatusLock.writeLock().unlock();
+    }
+
+    waitForEvents(listener, 10);
+    for (int i = 0; i < 10; i++) {
+      assertEquals("e" + i, listener.events.get(i).key);
+    }
+  }
+
+  private TestPublisher createPublisher(int bufferSize) {
+    Properties properties = new Properties();
+    properties.setProperty(Configuration.STOMP_UPDATE_PUBLISHER_BUFFER_SIZE.getKey(), String.valueOf(bufferSize));
+    properties.setProperty(Configuration.STOMP_UPDATE_PUBLISHER_FLUSH_INTERVAL.getKey(), "600000");
+    return new TestPublisher(createNiceMock(STOMPUpdatePublisher.class), new Configuration(properties));
+  }
+
+  private void waitForEvents(Listener listener, int count) throws InterruptedException {
+    for (int i = 0; i < 100 && listener.events.size() < count; i++) {
+      Thread.sleep(50);
+    }
+    assertEquals(count, listener.events.size());
+  }
+
+  private static class TestEvent {
+    private final String key;
+    private final int value;
+
+    private TestEvent(String key, int value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private static class TestPublisher extends BufferedUpdateEventPublisher<TestEvent> {
+    private ReadWriteLock postLock = new ReentrantReadWriteLock();
+
+    private TestPublisher(STOMPUpdatePublisher stompUpdatePublisher, Configuration configuration) {
+      super(stompUpdatePublisher, configuration);
+    }
+
+    @Override
+    public STOMPEvent.Type getType() {
+      return STOMPEvent.Type.REQUEST;
+    }
+
+    @Override
+    protected Object getCoalescingKey(TestEvent event) {
+      return event.key;
+    }
+
+    @Override
+    public void mergeBufferAndPost(List<TestEvent> events, EventBus m_eventBus) {
+      postLock.readLock().lock();
+      try {
+        events.forEach(m_eventBus::post);
+      } finally {
+        postLock.readLock().unlock();
+      }
+    }
+  }
+
+  public static class Listener {
+    private final List<TestEvent> events = new CopyOnWriteArrayList<>();
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+    @Subscribe
+    public void onEvent(TestEvent event) {
+      events.add(event);
+      threads.add(Thread.currentThread());
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.events.publishers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * PartitionedEventBus tests.
+ */
+public class PartitionedEventBusTest {
+
+  @Test
+  public void testEventsOfPartitionAreDispatchedInOrder() throws Exception {
+    PartitionedEventBus eventBus = new PartitionedEventBus("test-bus", 4, e -> ((TestEvent) e).key);
+    Listener listener = new Listener(400);
+    eventBus.register(listener);
+
+    for (int i = 0; i < 100; i++) {
+      for (int key = 0; key < 4; key++) {
+        eventBus.post(new TestEvent(key, i));
+      }
+    }
+
+    assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+    assertEquals(4, listener.values.size());
+    for (List<Integer> values : listener.values.values()) {
+      assertEquals(100, values.size());
+      for (int i = 0; i < values.size(); i++) {
+        assertEquals(i, (int) values.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testEventsWithoutKeyAreOrderedWithAllPartitions() throws Exception {
+    PartitionedEventBus eventBus = new PartitionedEventBus("test-bus", 4,
+        e -> ((TestEvent) e).key < 0 ? null : ((TestEvent) e).key);
+    List<TestEvent> dispatched = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch latch = new CountDownLatch(4 * 50 + 50);
+    eventBus.register(new Object() {
+      @Subscribe
+      @AllowConcurrentEvents
+      public void onEvent(TestEvent event) {
+        dispatched.add(event);
+        latch.countDown();
+      }
+    });
+
+    for (int i = 0; i < 50; i++) {
+      for (int key = 0; key < 4; key++) {
+        eventBus.post(new TestEvent(key, i));
+      }
+      eventBus.post(new TestEvent(-1, i));
+    }
+
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      // every barrier is dispatched after all events posted before it and before all events posted after it
+      for (int index = 0; index < dispatched.size(); index++) {
+        TestEvent event = dispatched.get(index);
+        if (event.key < 0) {
+          assertEquals(event.value * 5 + 4, index);
+        }
+      }
+    } finally {
+      eventBus.shutdown();
+    }
+  }
+
+  private static class TestEvent {
+    private final int key;
+    private final int value;
+
+    private TestEvent(int key, int value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  public static class Listener {
+    private final Map<Integer, List<Integer>> values = new ConcurrentHashMap<>();
+    private final CountDownLatch latch;
+
+    private Listener(int count) {
+      latch = new CountDownLatch(count);
+    }
+
+    @Subscribe
+    @AllowConcurrentEvents
+    public void onEvent(TestEvent event) {
+      values.computeIfAbsent(event.key, k -> new ArrayList<>()).add(event.value);
+      latch.countDown();
+    }
+  }
+}
@@ -190,6 +190,80 @@ public class AlertsDAOCachedTest {
     EasyMock.verify(definition, history, entityManager, daoUtils);
   }
 
+  /**
+   * Tests that removing the alerts of a host keeps cached alerts of other
+   * hosts.
+   *
+   * @throws Exception
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRemoveByHostKeepsOtherCachedAlerts() throws Exception {
+    EntityManager entityManager = m_injector.getInstance(EntityManager.class);
+    DaoUtils daoUtils = m_injector.getInstance(DaoUtils.class);
+    String removedHost = "c6402.ambari.apache.org";
+
+    AlertDefinitionEntity definition = EasyMock.createNiceMock(AlertDefinitionEntity.class);
+    EasyMock.expect(definition.getDefinitionName()).andReturn("definitionName").anyTimes();
+    AlertHistoryEntity removedHistory = createHistory(definition, removedHost);
+    AlertHistoryEntity history = createHistory(definition, HOST);
+    EasyMock.replay(definition, removedHistory, history);
+
+    AlertCurrentEntity removedCurrent = new AlertCurrentEntity();
+    removedCurrent.setAlertHistory(removedHistory);
+    removedCurrent.setLatestTimestamp(3L);
+
+    AlertCurrentEntity jpaCurrent = new AlertCurrentEntity();
+    jpaCurrent.setAlertHistory(history);
+    jpaCurrent.setLatestTimestamp(2L);
+
+    AlertCurrentEntity memoryCurrent = new AlertCurrentEntity();
+    memoryCurrent.setAlertHistory(history);
+    memoryCurrent.setLatestTimestamp(3L);
+
+    // mock the removal of the alerts of the host
+    TypedQuery<AlertCurrentEntity> hostQuery = EasyMock.createNiceMock(TypedQuery.class);
+    EasyMock.expect(entityManager.createNamedQuery("AlertCurrentEntity.findByHost",
+        AlertCurrentEntity.class)).andReturn(hostQuery).once();
+    EasyMock.expect(daoUtils.selectList(hostQuery)).andReturn(Lists.newArrayList(removedCurrent)).once();
+    EasyMock.expect(entityManager.merge(removedCurrent)).andReturn(removedCurrent).once();
+    entityManager.remove(removedCurrent);
+    EasyMock.expectLastCall().once();
+
+    // mock the call to find alerts from JPA
+    TypedQuery<AlertCurrentEntity> typedQuery = EasyMock.createNiceMock(TypedQuery.class);
+    EasyMock.expect(entityManager.createNamedQuery(CachedAlertTestArea.FIND_ALL.getNamedQuery(),
+        AlertCurrentEntity.class)).andReturn(typedQuery).once();
+    EasyMock.expect(daoUtils.selectList(typedQuery)).andReturn(Lists.newArrayList(jpaCurrent)).once();
+
+    EasyMock.replay(entityManager, daoUtils, hostQuery, typedQuery);
+
+    AlertsDAO alertsDAO = m_injector.getInstance(AlertsDAO.class);
+    alertsDAO.merge(removedCurrent, true);
+    alertsDAO.merge(memoryCurrent, true);
+
+    Assert.assertEquals(1, alertsDAO.removeCurrentByHost(removedHost));
+
+    // the cached alert of the other host was not invalidated
+    List<AlertCurrentEntity> testCurrentAlerts = alertsDAO.findCurrent();
+    Assert.assertEquals(1, testCurrentAlerts.size());
+    Assert.assertEquals(Long.valueOf(3), testCurrentAlerts.get(0).getLatestTimestamp());
+
+    EasyMock.verify(entityManager, daoUtils);
+  }
+
+  /**
+   * Creates a mocked history of the definition for the host, which is not
+   * replayed yet.
+   */
+  private AlertHistoryEntity createHistory(AlertDefinitionEntity definition, String hostName) {
+    AlertHistoryEntity history = EasyMock.createNiceMock(AlertHistoryEntity.class);
+    EasyMock.expect(history.getClusterId()).andReturn(1L).anyTimes();
+    EasyMock.expect(history.getHostName()).andReturn(hostName).anyTimes();
+    EasyMock.expect(history.getAlertDefinition()).andReturn(definition).anyTimes();
+    return history;
+  }
+
   @SuppressWarnings("unchecked")
   private void testFindUsesCache(CachedAlertTestArea testArea) throws Exception {
     EntityManager entityManager = m_injector.getInstance(EntityManager.class);
@@ -20,6 +20,7 @@ package org.apache.ambari.server.orm.dao;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.persistence.EntityManager;
@@ -167,6 +168,47 @@ public class HostRoleCommandDAOTest {
     }
   }
 
+  /**
+   * Tests that updating a task refreshes the cached summary of its stage and
+   * keeps the summaries of the other stages.
+   */
+  @Test
+  public void testFindAggregateCountsAfterTaskUpdate() {
+    OrmTestHelper helper = m_injector.getInstance(OrmTestHelper.class);
+    helper.createDefaultData();
+
+    Long requestId = Long.valueOf(100L);
+    ClusterEntity clusterEntity = m_clusterDAO.findByName("test_cluster1");
+
+    RequestEntity requestEntity = new RequestEntity();
+    requestEntity.setRequestId(requestId);
+    requestEntity.setClusterId(clusterEntity.getClusterId());
+    requestEntity.setStages(new ArrayList<>());
+    m_requestDAO.create(requestEntity);
+
+    HostEntity host = m_hostDAO.findByName("test_host1");
+    host.setHostRoleCommandEntities(new ArrayList<>());
+
+    createStage(1L, 2, host, requestEntity, HostRoleStatus.COMPLETED);
+    createStage(2L, 3, host, requestEntity, HostRoleStatus.PENDING);
+
+    Map<Long, HostRoleCommandStatusSummaryDTO> summary = m_hostRoleCommandDAO.findAggregateCounts(requestId);
+    Assert.assertEquals(2, summary.size());
+    HostRoleCommandStatusSummaryDTO firstStage = summary.get(1L);
+    Assert.assertEquals(3, summary.get(2L).getCounts().get(HostRoleStatus.PENDING).intValue());
+
+    HostRoleCommandEntity task = m_hostRoleCommandDAO.findByRequest(requestId).stream()
+        .filter(t -> t.getStageId() == 2L).findFirst().get();
+    task.setStatus(HostRoleStatus.IN_PROGRESS);
+    m_hostRoleCommandDAO.merge(task);
+
+    summary = m_hostRoleCommandDAO.findAggregateCounts(requestId);
+    Assert.assertEquals(2, summary.size());
+    Assert.assertSame(firstStage, summary.get(1L));
+    Assert.assertEquals(2, summary.get(2L).getCounts().get(HostRoleStatus.PENDING).intValue());
+    Assert.assertEquals(1, summary.get(2L).getCounts().get(HostRoleStatus.IN_PROGRESS).intValue());
+  }
+
   /**
    * Creates a single stage with the specified number of commands.
    *
@@ -29,6 +29,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -40,6 +42,7 @@ import org.apache.ambari.server.actionmanager.HostRoleStatus;
 import org.apache.ambari.server.agent.CommandReport;
 import org.apache.ambari.server.agent.ExecutionCommand;
 import org.apache.ambari.server.audit.AuditLogger;
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.KerberosHelper;
 import org.apache.ambari.server.security.credential.PrincipalKeyCredential;
 import org.apache.ambari.server.serveraction.kerberos.stageutils.KerberosKeytabController;
@@ -72,6 +75,9 @@ public class KerberosServerActionTest extends EasyMockSupport {
   private KerberosServerAction action;
   private Cluster cluster;
   private KerberosKeytabController kerberosKeytabController;
+  private Set<ResolvedKerberosPrincipal> principals;
+  private boolean parallel;
+  private Set<KerberosOperationHandler> usedHandlers = ConcurrentHashMap.newKeySet();
 
   @Before
   public void setUp() throws Exception {
@@ -89,6 +95,7 @@ public class KerberosServerActionTest extends EasyMockSupport {
     HostRoleCommand mockHostRoleCommand = createMock(HostRoleCommand.class);
     kerberosKeytabController = createMock(KerberosKeytabController.class);
     expect(kerberosKeytabController.adjustServiceComponentFilter(anyObject(), eq(true), anyObject())).andReturn(null).anyTimes();
+    principals = Sets.newHashSet(new ResolvedKerberosPrincipal(1l, "host", "principal", true, "/tmp", "SERVICE", "COMPONENT", "/tmp"));
     expect(kerberosKeytabController.getFilteredKeytabs((Collection<KerberosIdentityDescriptor>)null, null, null))
       .andReturn(
         Sets.newHashSet(new ResolvedKerberosKeytab(
@@ -97,7 +104,7 @@ public class KerberosServerActionTest extends EasyMockSupport {
           null,
           null,
           null,
-          Sets.newHashSet(new ResolvedKerberosPrincipal(1l, "host", "principal", true, "/tmp", "SERVICE", "COMPONENT", "/tmp")),
+          principals,
           true,
           true))
       ).anyTimes();
@@ -112,6 +119,7 @@ public class KerberosServerActionTest extends EasyMockSupport {
                                               Map<String, Object> requestSharedDataContext)
           throws AmbariException {
         Assert.assertNotNull(requestSharedDataContext);
+        usedHandlers.add(operationHandler);
 
         if (requestSharedDataContext.get("FAIL") != null) {
           return createCommandReport(1, HostRoleStatus.FAILED, "{}", "ERROR", "ERROR");
@@ -126,10 +134,19 @@ public class KerberosServerActionTest extends EasyMockSupport {
           throws AmbariException, InterruptedException {
         return processIdentities(requestSharedDataContext);
       }
+
+      @Override
+      protected boolean supportsParallelProcessing() {
+        return parallel;
+      }
     };
     action.setExecutionCommand(mockExecutionCommand);
     action.setHostRoleCommand(mockHostRoleCommand);
 
+    Properties properties = new Properties();
+    properties.setProperty(Configuration.KERBEROS_OPERATION_THREADS.getKey(), "3");
+    Configuration configuration = new Configuration(properties);
+
     injector = Guice.createInjector(new AbstractModule() {
 
       @Override
@@ -143,6 +160,7 @@ public class KerberosServerActionTest extends EasyMockSupport {
         bind(AuditLogger.class).toInstance(createNiceMock(AuditLogger.class));
         bind(KerberosOperationHandlerFactory.class).toInstance(createMock(KerberosOperationHandlerFactory.class));
         bind(KerberosKeytabController.class).toInstance(kerberosKeytabController);
+        bind(Configuration.class).toInstance(configuration);
       }
     });
 
@@ -290,6 +308,47 @@ public class KerberosServerActionTest extends EasyMockSupport {
     verifyAll();
   }
 
+  @Test
+  public void testProcessIdentitiesParallel() throws Exception {
+    parallel = true;
+    for (int i = 0; i < 20; i++) {
+      principals.add(new ResolvedKerberosPrincipal(1l, "host", "principal" + i, true, "/tmp", "SERVICE", "COMPONENT", "/tmp"));
+    }
+
+    KerberosHelper kerberosHelper = injector.getInstance(KerberosHelper.class);
+    expect(kerberosHelper.getKDCAdministratorCredentials(anyObject(String.class)))
+        .andReturn(new PrincipalKeyCredential("principal", "password"))
+        .anyTimes();
+
+    // one handler is opened by the action itself and one for each additional thread
+    KerberosOperationHandlerFactory factory = injector.getInstance(KerberosOperationHandlerFactory.class);
+    for (int i = 0; i < 3; i++) {
+      KerberosOperationHandler kerberosOperationHandler = createMock(KerberosOperationHandler.class);
+      kerberosOperationHandler.open(anyObject(PrincipalKeyCredential.class), anyString(), anyObject(Map.class));
+      expectLastCall().once();
+      kerberosOperationHandler.close();
+      expectLastCall().once();
+
+      expect(factory.getKerberosOperationHandler(KDCType.MIT_KDC)).andReturn(kerberosOperationHandler).once();
+    }
+
+    replayAll();
+
+    ConcurrentMap<String, Object> sharedMap = new ConcurrentHashMap<>();
+    CommandReport report = action.processIdentities(sharedMap);
+    Assert.assertNotNull(report);
+    Assert.assertEquals(HostRoleStatus.COMPLETED.toString(), report.getStatus());
+
+    Assert.assertEquals(21, sharedMap.size());
+    for (ResolvedKerberosPrincipal principal : principals) {
+      Assert.assertEquals(principal.getPrincipal(), sharedMap.get(principal.getPrincipal()));
+    }
+    Assert.assertFalse(usedHandlers.isEmpty());
+    Assert.assertTrue(usedHandlers.size() <= 3);
+
+    verifyAll();
+  }
+
   @Test
   public void testGetConfigurationProperties() throws AmbariException {
     Config emptyConfig = createMock(Config.class);
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.state;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests config type snapshots sharing.
+ */
+public class ConfigSnapshotsTest {
+
+  @Test
+  public void testSnapshotIsSharedForSameTags() throws Exception {
+    ConfigSnapshots snapshots = new ConfigSnapshots();
+    AtomicInteger builds = new AtomicInteger();
+
+    ConfigSnapshots.ConfigTypeSnapshot s1 = snapshots.getSnapshot(1L, "core-site", tags("version1"),
+        () -> build(builds));
+    ConfigSnapshots.ConfigTypeSnapshot s2 = snapshots.getSnapshot(1L, "core-site", tags("version1"),
+        () -> build(builds));
+
+    Assert.assertSame(s1, s2);
+    Assert.assertEquals(1, builds.get());
+    Assert.assertEquals(1, snapshots.size());
+  }
+
+  @Test
+  public void testSnapshotIsNotSharedForDifferentTags() throws Exception {
+    ConfigSnapshots snapshots = new ConfigSnapshots();
+    AtomicInteger builds = new AtomicInteger();
+
+    ConfigSnapshots.ConfigTypeSnapshot base = snapshots.getSnapshot(1L, "core-site", tags("version1"),
+        () -> build(builds));
+    ConfigSnapshots.ConfigTypeSnapshot otherCluster = snapshots.getSnapshot(2L, "core-site", tags("version1"),
+        () -> build(builds));
+    ConfigSnapshots.ConfigTypeSnapshot otherType = snapshots.getSnapshot(1L, "hdfs-site", tags("version1"),
+        () -> build(builds));
+    ConfigSnapshots.ConfigTypeSnapshot overrides = snapshots.getSnapshot(1L, "core-site",
+        tags("version1", "2", "version2", "3", "version3"), () -> build(builds));
+    ConfigSnapshots.ConfigTypeSnapshot reorderedOverrides = snapshots.getSnapshot(1L, "core-site",
+        tags("version1", "3", "version3", "2", "version2"), () -> build(builds));
+
+    Assert.assertNotSame(base, otherCluster);
+    Assert.assertNotSame(base, otherType);
+    Assert.assertNotSame(base, overrides);
+    Assert.assertNotSame(overrides, reorderedOverrides);
+    Assert.assertEquals(5, builds.get());
+  }
+
+  private static Map<String, String> tags(String clusterTag, String... overrides) {
+    Map<String, String> tags = new LinkedHashMap<>();
+    tags.put(ConfigHelper.CLUSTER_DEFAULT_TAG, clusterTag);
+    for (int i = 0; i < overrides.length; i += 2) {
+      tags.put(overrides[i], overrides[i + 1]);
+    }
+    return tags;
+  }
+
+  private static ConfigSnapshots.ConfigTypeSnapshot build(AtomicInteger builds) {
+    builds.incrementAndGet();
+    return new ConfigSnapshots.ConfigTypeSnapshot(Collections.unmodifiableSortedMap(new TreeMap<>()), null);
+  }
+}
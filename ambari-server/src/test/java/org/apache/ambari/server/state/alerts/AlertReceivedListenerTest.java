@@ -30,6 +30,7 @@ import javax.persistence.EntityManager;
 
 import org.apache.ambari.server.AmbariException;
 import org.apache.ambari.server.H2DatabaseCleaner;
+import org.apache.ambari.server.configuration.Configuration;
 import org.apache.ambari.server.controller.RootComponent;
 import org.apache.ambari.server.controller.RootService;
 import org.apache.ambari.server.events.AlertReceivedEvent;
@@ -950,4 +951,66 @@ public class AlertReceivedListenerTest {
 
     assertEquals(1, m_dao.findCurrent().size());
   }
+
+  /**
+   * Tests that alerts received within the batching window are saved together
+   * and that an alert reported twice in a batch transitions through both
+   * states.
+   */
+  @Test
+  public void testAlertsBatchedAcrossEvents() throws AmbariException {
+    // a window long enough for the batch to only be processed explicitly
+    m_injector.getInstance(Configuration.class).setProperty(Configuration.ALERTS_BATCH_WINDOW.getKey(), "3600000");
+
+    String definitionName = ALERT_DEFINITION + "1";
+    String componentName = "DATANODE";
+
+    Alert alert1 = new Alert(definitionName, null, "HDFS", componentName, HOST1, AlertState.OK);
+    alert1.setClusterId(m_cluster.getClusterId());
+    alert1.setLabel(ALERT_LABEL);
+    alert1.setText("HDFS " + componentName + " is OK");
+    alert1.setTimestamp(1L);
+
+    Alert alert2 = new Alert(definitionName, null, "HDFS", componentName, HOST1, AlertState.CRITICAL);
+    alert2.setClusterId(m_cluster.getClusterId());
+    alert2.setLabel(ALERT_LABEL);
+    alert2.setText("HDFS " + componentName + " is CRITICAL");
+    alert2.setTimestamp(2L);
+
+    AlertReceivedListener listener = m_injector.getInstance(AlertReceivedListener.class);
+    listener.onAlertEvent(new AlertReceivedEvent(m_cluster.getClusterId(), alert1));
+    listener.onAlertEvent(new AlertReceivedEvent(m_cluster.getClusterId(), alert2));
+
+    // nothing is saved until the batch is processed
+    assertEquals(0, m_dao.findCurrent().size());
+
+    listener.processPendingEvents();
+
+    List<AlertCurrentEntity> allCurrent = m_dao.findCurrent();
+    assertEquals(1, allCurrent.size());
+    assertEquals(AlertState.CRITICAL, allCurrent.get(0).getAlertHistory().getAlertState());
+    assertEquals(2, m_dao.findAll(m_cluster.getClusterId()).size());
+  }
+
+  /**
+   * Tests that the alerts still queued for the next batch are saved when the
+   * listener is shut down.
+   */
+  @Test
+  public void testPendingAlertsSavedOnShutdown() throws AmbariException {
+    m_injector.getInstance(Configuration.class).setProperty(Configuration.ALERTS_BATCH_WINDOW.getKey(), "3600000");
+
+    Alert alert = new Alert(ALERT_DEFINITION + "1", null, "HDFS", "DATANODE", HOST1, AlertState.OK);
+    alert.setClusterId(m_cluster.getClusterId());
+    alert.setLabel(ALERT_LABEL);
+    alert.setText("HDFS DATANODE is OK");
+    alert.setTimestamp(1L);
+
+    AlertReceivedListener listener = m_injector.getInstance(AlertReceivedListener.class);
+    listener.onAlertEvent(new AlertReceivedEvent(m_cluster.getClusterId(), alert));
+    assertEquals(0, m_dao.findCurrent().size());
+
+    listener.shutdown();
+    assertEquals(1, m_dao.findCurrent().size());
+  }
 }
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.state.services;
+
+import static org.easymock.EasyMock.anyLong;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.ambari.server.configuration.Configuration;
+import org.apache.ambari.server.orm.dao.AlertsDAO;
+import org.apache.ambari.server.orm.dao.RequestDAO;
+import org.apache.ambari.server.state.Cluster;
+import org.apache.ambari.server.state.Clusters;
+import org.easymock.EasyMockSupport;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.Binder;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+
+/**
+ * Tests the {@link HistoryPurgeService}.
+ */
+public class HistoryPurgeServiceTest extends EasyMockSupport {
+
+  private Injector m_injector;
+  private Configuration m_configuration;
+  private Clusters m_clusters;
+  private RequestDAO m_requestDAO;
+  private AlertsDAO m_alertsDAO;
+
+  @Before
+  public void before() {
+    m_configuration = createNiceMock(Configuration.class);
+    m_clusters = createNiceMock(Clusters.class);
+    m_requestDAO = createStrictMock(RequestDAO.class);
+    m_alertsDAO = createStrictMock(AlertsDAO.class);
+
+    m_injector = Guice.createInjector(new MockModule());
+  }
+
+  /**
+   * Tests that the purge service does not run if no retention is configured.
+   */
+  @Test
+  public void testServiceIsDisabled() throws Exception {
+    expect(m_configuration.getHistoryPurgeRetentionDays()).andReturn(0).atLeastOnce();
+    expect(m_configuration.getHistoryPurgeInterval()).andReturn(60).anyTimes();
+
+    replayAll();
+
+    HistoryPurgeService service = m_injector.getInstance(HistoryPurgeService.class);
+    service.startAsync().awaitTerminated();
+
+    assertFalse(service.isRunning());
+    verifyAll();
+  }
+
+  /**
+   * Tests that history is removed in batches, continuing after the last id of
+   * the previous batch.
+   */
+  @Test
+  public void testPurgeInBatches() throws Exception {
+    expect(m_configuration.getHistoryPurgeRetentionDays()).andReturn(30).anyTimes();
+    expect(m_configuration.getHistoryPurgeInterval()).andReturn(60).anyTimes();
+    expect(m_configuration.getHistoryPurgeBatchSize()).andReturn(2).anyTimes();
+    expect(m_configuration.getHistoryPurgeBatchPause()).andReturn(0L).anyTimes();
+
+    Cluster cluster = createNiceMock(Cluster.class);
+    expect(cluster.getClusterId()).andReturn(1L).anyTimes();
+    expect(m_clusters.getClusters()).andReturn(Collections.singletonMap("c1", cluster)).anyTimes();
+
+    expect(m_requestDAO.findCompletedRequestIdsBeforeDate(eq(1L), anyLong(), eq(-1L), eq(2))).andReturn(
+        Arrays.asList(3L, 5L));
+    expect(m_requestDAO.findRequestIdsOfUnfinishedTopologyRequests(Arrays.asList(3L, 5L))).andReturn(
+        Collections.emptyList());
+    expect(m_requestDAO.removeRequests(eq(Arrays.asList(3L, 5L)), anyLong())).andReturn(10L);
+    expect(m_requestDAO.findCompletedRequestIdsBeforeDate(eq(1L), anyLong(), eq(5L), eq(2))).andReturn(
+        Collections.singletonList(8L));
+    expect(m_requestDAO.findRequestIdsOfUnfinishedTopologyRequests(Collections.singletonList(8L))).andReturn(
+        Collections.emptyList());
+    expect(m_requestDAO.removeRequests(eq(Collections.singletonList(8L)), anyLong())).andReturn(4L);
+    expect(m_requestDAO.findCompletedRequestIdsBeforeDate(eq(1L), anyLong(), eq(8L), eq(2))).andReturn(
+        Collections.emptyList());
+
+    expect(m_alertsDAO.findPurgeableAlertHistoryIds(eq(1L), anyLong(), eq(-1L), eq(2))).andReturn(
+        Arrays.asList(1L, 2L));
+    expect(m_alertsDAO.removeAlertHistories(Arrays.asList(1L, 2L))).andReturn(3);
+    expect(m_alertsDAO.findPurgeableAlertHistoryIds(eq(1L), anyLong(), eq(2L), eq(2))).andReturn(
+        Collections.emptyList());
+
+    replayAll();
+
+    HistoryPurgeService service = m_injector.getInstance(HistoryPurgeService.class);
+    service.startAsync().awaitRunning();
+    assertTrue(service.isRunning());
+
+    try {
+      service.runOneIteration();
+    } finally {
+      service.stopAsync().awaitTerminated();
+    }
+
+    assertEquals(14L, service.getPurgedRequestRows());
+    assertEquals(3L, service.getPurgedAlertRows());
+    assertEquals(0L, service.getRetentionLag());
+    verifyAll();
+  }
+
+  /**
+   * Tests that requests of unfinished topology requests are kept, and that the
+   * purge continues after them.
+   */
+  @Test
+  public void testUnfinishedTopologyRequestsAreKept() throws Exception {
+    expect(m_configuration.getHistoryPurgeRetentionDays()).andReturn(30).anyTimes();
+    expect(m_configuration.getHistoryPurgeInterval()).andReturn(60).anyTimes();
+    expect(m_configuration.getHistoryPurgeBatchSize()).andReturn(2).anyTimes();
+    expect(m_configuration.getHistoryPurgeBatchPause()).andReturn(0L).anyTimes();
+
+    Cluster cluster = createNiceMock(Cluster.class);
+    expect(cluster.getClusterId()).andReturn(1L).anyTimes();
+    expect(m_clusters.getClusters()).andReturn(Collections.singletonMap("c1", cluster)).anyTimes();
+
+    expect(m_requestDAO.findCompletedRequestIdsBeforeDate(eq(1L), anyLong(), eq(-1L), eq(2))).andReturn(
+        Arrays.asList(3L, 5L));
+    expect(m_requestDAO.findRequestIdsOfUnfinishedTopologyRequests(Arrays.asList(3L, 5L))).andReturn(
+        Collections.singletonList(3L));
+    expect(m_requestDAO.removeRequests(eq(Collections.singletonList(5L)), anyLong())).andReturn(6L);
+    expect(m_requestDAO.findCompletedRequestIdsBeforeDate(eq(1L), anyLong(), eq(5L), eq(2))).andReturn(
+        Collections.singletonList(8L));
+    expect(m_requestDAO.findRequestIdsOfUnfinishedTopologyRequests(Collections.singletonList(8L))).andReturn(
+        Collections.singletonList(8L));
+    expect(m_requestDAO.findCompletedRequestIdsBeforeDate(eq(1L), anyLong(), eq(8L), eq(2))).andReturn(
+        Collections.emptyList());
+
+    expect(m_alertsDAO.findPurgeableAlertHistoryIds(eq(1L), anyLong(), eq(-1L), eq(2))).andReturn(
+        Collections.emptyList());
+
+    replayAll();
+
+    HistoryPurgeService service = m_injector.getInstance(HistoryPurgeService.class);
+    service.startAsync().awaitRunning();
+
+    try {
+      service.runOneIteration();
+    } finally {
+      service.stopAsync().awaitTerminated();
+    }
+
+    assertEquals(6L, service.getPurgedRequestRows());
+    verifyAll();
+  }
+
+  /**
+   *
+   */
+  private class MockModule implements Module {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void configure(Binder binder) {
+      binder.bind(Configuration.class).toInstance(m_configuration);
+      binder.bind(Clusters.class).toInstance(m_clusters);
+      binder.bind(RequestDAO.class).toInstance(m_requestDAO);
+      binder.bind(AlertsDAO.class).toInstance(m_alertsDAO);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ambari.server.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+public class CompressionUtilsTest {
+
+  @Test
+  public void testCompressLargeValue() {
+    byte[] value = ("{\"commandParams\":" + StringUtils.repeat("{\"key\":\"value\"},", 500) + "}")
+        .getBytes(StandardCharsets.UTF_8);
+
+    byte[] compressed = CompressionUtils.compress(value);
+    assertTrue(compressed.length < value.length);
+    assertArrayEquals(value, CompressionUtils.decompress(compressed));
+
+    // a value that already looks compressed is restored as it was
+    assertArrayEquals(compressed, CompressionUtils.decompress(CompressionUtils.compress(compressed)));
+  }
+
+  @Test
+  public void testSmallValueStartingWithMarker() {
+    byte[] value = Arrays.copyOf(CompressionUtils.MARKER, CompressionUtils.MARKER.length + 2);
+    value[CompressionUtils.MARKER.length] = CompressionUtils.FORMAT_GZIP;
+
+    byte[] stored = CompressionUtils.compress(value);
+    assertNotSame(value, stored);
+    assertArrayEquals(value, CompressionUtils.decompress(stored));
+  }
+
+  @Test
+  public void testRestoredValue() {
+    byte[] value = StringUtils.repeat("stdout line\n", 200).getBytes(StandardCharsets.UTF_8);
+    byte[] stored = CompressionUtils.compress(value);
+
+    CompressionUtils.RestoredValue restoredValue = new CompressionUtils.RestoredValue();
+    byte[] restored = restoredValue.get(stored);
+    assertArrayEquals(value, restored);
+    assertSame(restored, restoredValue.get(stored));
+
+    // a reloaded value is restored again
+    byte[] reloaded = stored.clone();
+    assertNotSame(restored, restoredValue.get(reloaded));
+    assertArrayEquals(value, restoredValue.get(reloaded));
+
+    restoredValue.set(stored, value);
+    assertSame(value, restoredValue.get(stored));
+  }
+
+  @Test
+  public void testSmallValueIsNotCompressed() {
+    byte[] value = "{}".getBytes(StandardCharsets.UTF_8);
+    assertSame(value, CompressionUtils.compress(value));
+    assertSame(value, CompressionUtils.decompress(value));
+  }
+
+  @Test
+  public void testUncompressedValueIsReadAsIs() {
+    // values stored before compression was introduced
+    byte[] value = StringUtils.repeat("stdout line\n", 200).getBytes(StandardCharsets.UTF_8);
+    assertSame(value, CompressionUtils.decompress(value));
+  }
+
+  @Test
+  public void testNull() {
+    assertNull(CompressionUtils.compress(null));
+    assertNull(CompressionUtils.decompress(null));
+  }
+}